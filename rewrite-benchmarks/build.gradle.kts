@@ -0,0 +1,23 @@
+plugins {
+    id("me.champeau.gradle.jmh") version "0.5.3"
+}
+
+dependencies {
+    jmh(project(":rewrite-core"))
+    jmh(project(":rewrite-java-11"))
+    jmh("org.eclipse.jgit:org.eclipse.jgit:latest.release")
+
+    jmh("org.openjdk.jmh:jmh-core:latest.release")
+    jmh("org.openjdk.jmh:jmh-generator-annprocess:latest.release")
+
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:latest.release")
+}
+
+jmh {
+    duplicateClassesStrategy = DuplicatesStrategy.EXCLUDE
+}
+
+// benchmarks are run locally and never published
+tasks.withType<AbstractPublishToMaven> {
+    enabled = false
+}
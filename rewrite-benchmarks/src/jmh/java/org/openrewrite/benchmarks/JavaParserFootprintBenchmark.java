@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.java.Java11Parser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaTypeTable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap retained by the compilation units parsed from a fixed corpus, including their types, which are
+ * interned in a type table of their own so that types retained by earlier iterations aren't shared. The retained
+ * bytes are reported as the secondary {@code retainedBytes} result, summed over the measurement iterations.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JavaParserFootprintBenchmark {
+    private static final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Param({"200"})
+    int sourceFileCount;
+
+    List<Parser.Input> inputs;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            retainedBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        inputs = JavaSourceCorpus.generate(sourceFileCount);
+    }
+
+    @Benchmark
+    public List<J.CompilationUnit> parse(Footprint footprint) {
+        long before = usedHeapAfterGc();
+        try (JavaTypeTable typeTable = new JavaTypeTable()) {
+            List<J.CompilationUnit> cus = Java11Parser.builder()
+                    .typeTable(typeTable)
+                    .build()
+                    .parseInputs(inputs, null, new InMemoryExecutionContext());
+
+            // the parser and its compiler state are unreachable by now, leaving the compilation units and their types
+            footprint.retainedBytes = usedHeapAfterGc() - before;
+            return cus;
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.internal.StringUtils;
+import org.openrewrite.java.Java11Parser;
+import org.openrewrite.java.tree.J;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a few sources of increasing size, from about 30 lines to about 20,000 lines each. Mapping to Rewrite's AST
+ * scans the source around each tree element for whitespace, comments and delimiters, so its cost per line should
+ * stay flat as the sources grow. The mean time of the "(3) Map to Rewrite AST" step of the {@code rewrite.parse}
+ * timers per thousand lines is printed at the end of each trial.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JavaParserLargeSourceBenchmark {
+    @Param({"1", "100", "1000"})
+    int methodPairs;
+
+    @Param({"10"})
+    int sourceFileCount;
+
+    List<Parser.Input> inputs;
+    long lines;
+    Java11Parser parser;
+    SimpleMeterRegistry meterRegistry;
+
+    @Setup
+    public void setup() {
+        inputs = JavaSourceCorpus.generate(sourceFileCount, methodPairs);
+        lines = inputs.stream()
+                .mapToLong(input -> StringUtils.readFully(input.getSource()).split("\n").length)
+                .sum();
+
+        parser = Java11Parser.builder().build();
+        meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        parser.reset();
+    }
+
+    @TearDown
+    public void reportMappingTimePerLine() {
+        long count = 0;
+        double totalMillis = 0;
+        for (Timer timer : meterRegistry.find("rewrite.parse").tag("step", "(3) Map to Rewrite AST").timers()) {
+            count += timer.count();
+            totalMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+
+        double linesMapped = (double) lines * count / sourceFileCount;
+        System.out.printf("%nMapped %.0f lines at %.3f ms per thousand lines%n",
+                linesMapped, totalMillis / (linesMapped / 1000));
+
+        Metrics.removeRegistry(meterRegistry);
+        meterRegistry.close();
+    }
+
+    @Benchmark
+    public List<J.CompilationUnit> parse() {
+        return parser.parseInputs(inputs, null, new InMemoryExecutionContext());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.java.Java11Parser;
+import org.openrewrite.java.tree.J;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the same sources with the mapping to Rewrite's AST done on an increasing number of threads. Parsing
+ * and type attribution remain on the calling thread, so the total time only shrinks by as much as the mapping
+ * does. The mapping throughput on its own, as recorded by the "(3) Map to Rewrite AST" step of the
+ * {@code rewrite.parse} timers, is printed at the end of each trial.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JavaParserMappingBenchmark {
+    @Param({"1", "2", "4", "8"})
+    int mappingParallelism;
+
+    @Param({"200"})
+    int sourceFileCount;
+
+    List<Parser.Input> inputs;
+    Java11Parser parser;
+    SimpleMeterRegistry meterRegistry;
+
+    @Setup
+    public void setup() {
+        inputs = JavaSourceCorpus.generate(sourceFileCount);
+
+        parser = Java11Parser.builder()
+                .mappingParallelism(mappingParallelism)
+                .build();
+
+        meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        parser.reset();
+    }
+
+    @TearDown
+    public void reportMappingThroughput() {
+        long count = 0;
+        double totalMillis = 0;
+        for (Timer timer : meterRegistry.find("rewrite.parse").tag("step", "(3) Map to Rewrite AST").timers()) {
+            count += timer.count();
+            totalMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+        }
+
+        // the timers on each thread overlap, so divide by the threads mapping at once to get elapsed time
+        double elapsedMillis = totalMillis / mappingParallelism;
+        System.out.printf("%nMapped %d compilation units at %.1f per second with a mapping parallelism of %d%n",
+                count, count / (elapsedMillis / 1000), mappingParallelism);
+
+        Metrics.removeRegistry(meterRegistry);
+        meterRegistry.close();
+    }
+
+    @Benchmark
+    public List<J.CompilationUnit> parse() {
+        return parser.parseInputs(inputs, null, new InMemoryExecutionContext());
+    }
+}
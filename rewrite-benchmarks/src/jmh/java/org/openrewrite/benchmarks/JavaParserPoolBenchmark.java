@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.java.Java11Parser;
+import org.openrewrite.java.Java11ParserPool;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the same sources with a single {@link Java11Parser} (a parallelism of 0) and with a
+ * {@link Java11ParserPool} of an increasing number of parsers. Every parser in a pool parses and enters all of the
+ * sources in a compiler context of its own, so the time saved comes at the cost of heap. Two secondary results
+ * report it, summed over the measurement iterations:
+ * <ul>
+ *     <li>{@code peakHeapBytes}, the high-water mark of the heap while parsing, above what was used before the
+ *     parser was built.</li>
+ *     <li>{@code parserRetainedBytes}, the heap still held by the parser, or all of the parsers in the pool, once
+ *     the parsed compilation units are unreachable. Parsers hold their compiler state until they are reset.</li>
+ * </ul>
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JavaParserPoolBenchmark {
+    private static final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Param({"0", "1", "2", "4", "8"})
+    int parallelism;
+
+    @Param({"200"})
+    int sourceFileCount;
+
+    List<Parser.Input> inputs;
+    JavaParser parser;
+    long heapBefore;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public long peakHeapBytes;
+        public long parserRetainedBytes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            peakHeapBytes = 0;
+            parserRetainedBytes = 0;
+        }
+
+        /**
+         * Torn down before the benchmark state it depends on, so while its parser is still reachable.
+         */
+        @TearDown(Level.Invocation)
+        public void measure(JavaParserPoolBenchmark benchmark) {
+            peakHeapBytes += peakHeapUsed() - benchmark.heapBefore;
+            parserRetainedBytes += usedHeapAfterGc() - benchmark.heapBefore;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        inputs = JavaSourceCorpus.generate(sourceFileCount);
+    }
+
+    @Setup(Level.Invocation)
+    public void buildParser() {
+        parser = null;
+        heapBefore = usedHeapAfterGc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+
+        parser = parallelism == 0 ?
+                Java11Parser.builder().build() :
+                Java11ParserPool.builder().parallelism(parallelism).build();
+    }
+
+    @Benchmark
+    public List<J.CompilationUnit> parse() {
+        return parser.parseInputs(inputs, null, new InMemoryExecutionContext());
+    }
+
+    /**
+     * The sum of the peaks of each heap pool, which may have been reached at different times, so an upper bound.
+     */
+    private static long peakHeapUsed() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.openrewrite.Parser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed set of generated Java sources spread over ten packages, each of which refers to the next and calls
+ * methods of common JDK types, so that parsing them maps a realistic mix of class and method types.
+ */
+public class JavaSourceCorpus {
+    private JavaSourceCorpus() {
+    }
+
+    public static List<Parser.Input> generate(int count) {
+        return generate(count, 1);
+    }
+
+    /**
+     * @param count       The number of sources.
+     * @param methodPairs The number of times each source repeats its pair of methods, to generate larger sources.
+     *                    Every pair after the first is numbered and preceded by comments.
+     */
+    public static List<Parser.Input> generate(int count, int methodPairs) {
+        List<Parser.Input> inputs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String source = source(i, count, methodPairs);
+            inputs.add(new Parser.Input(Paths.get("org/openrewrite/p" + (i % 10) + "/A" + i + ".java"),
+                    () -> new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8))));
+        }
+        return inputs;
+    }
+
+    private static String source(int i, int count, int methodPairs) {
+        int next = (i + 1) % count;
+        StringBuilder source = new StringBuilder("package org.openrewrite.p" + (i % 10) + ";\n" +
+                "\n" +
+                "import java.util.*;\n" +
+                "import org.openrewrite.p" + (next % 10) + ".A" + next + ";\n" +
+                "\n" +
+                "public class A" + i + " {\n" +
+                "    private final List<String> names = new ArrayList<>();\n" +
+                "    private final Map<String, Integer> counts = new HashMap<>();\n" +
+                "    private A" + next + " next;\n");
+        for (int m = 0; m < methodPairs; m++) {
+            String n = m == 0 ? "" : Integer.toString(m);
+            source.append("\n");
+            if (m > 0) {
+                source.append("    /**\n" +
+                        "     * Counts the name, variant " + m + ".\n" +
+                        "     */\n");
+            }
+            source.append("    public int count" + n + "(String name) {\n" +
+                    "        names.add(name.trim());\n" +
+                    "        return counts.merge(name, 1, Integer::sum);\n" +
+                    "    }\n" +
+                    "\n");
+            if (m > 0) {
+                source.append("    // describes the names counted more than once, variant " + m + "\n");
+            }
+            source.append("    public String describe" + n + "() {\n" +
+                    "        StringBuilder sb = new StringBuilder();\n" +
+                    "        for (String name : names) {\n" +
+                    "            if (counts.getOrDefault(name, 0) > 1 && !name.isEmpty()) {\n" +
+                    "                sb.append(name.toUpperCase()).append(',');\n" +
+                    "            }\n" +
+                    "        }\n" +
+                    "        Collections.sort(names);\n" +
+                    "        return next == null ? sb.toString() : sb + next.describe" + n + "();\n" +
+                    "    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+}
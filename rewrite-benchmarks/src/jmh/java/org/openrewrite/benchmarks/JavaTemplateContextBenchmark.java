@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.Java11Parser;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.tree.J;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts a statement into a method in the middle of sources of increasing size, from about 30 lines to about 6,000
+ * lines, with the template compiled in a stub of the context it is inserted into or in the fuller context of every
+ * member signature, comment and preceding statement. Each insertion substitutes a different parameter, so that
+ * every insertion is compiled rather than taken from the template cache.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JavaTemplateContextBenchmark {
+    @Param({"1", "100", "300"})
+    int methodPairs;
+
+    @Param({"true", "false"})
+    boolean stubContext;
+
+    J.CompilationUnit cu;
+    JavaIsoVisitor<ExecutionContext> insertPrint;
+
+    @Setup
+    public void setup() {
+        Java11Parser parser = Java11Parser.builder().build();
+        cu = parser.parseInputs(JavaSourceCorpus.generate(2, methodPairs).subList(0, 1), null,
+                new InMemoryExecutionContext()).get(0);
+
+        String describe = "describe" + (methodPairs / 2 == 0 ? "" : Integer.toString(methodPairs / 2));
+        insertPrint = new JavaIsoVisitor<ExecutionContext>() {
+            final JavaTemplate template = template("System.out.println(names.size() + #{});")
+                    .javaParser(parser)
+                    .stubContext(stubContext)
+                    .build();
+
+            int insertions;
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                J.MethodDeclaration enclosing = getCursor().firstEnclosing(J.MethodDeclaration.class);
+                if (method.getSimpleName().equals("sort") && enclosing != null &&
+                        enclosing.getSimpleName().equals(describe)) {
+                    return method.withTemplate(template, method.getCoordinates().replace(), insertions++);
+                }
+                return method;
+            }
+        };
+    }
+
+    @Benchmark
+    public J insert() {
+        return insertPrint.visit(cu, new InMemoryExecutionContext());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.java.tree.Flag;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+
+/**
+ * Builds class and method types from several threads at once, as parsers mapping in parallel do, where most of
+ * the types built have already been interned. Compares this against the same types built while holding a single
+ * global lock, the way all types were interned before. How often a thread had to wait on another while interning
+ * is printed at the end of each trial.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+@State(Scope.Benchmark)
+public class JavaTypeInternBenchmark {
+    private static final Object GLOBAL_LOCK = new Object();
+
+    @Param({"1000"})
+    int distinctClasses;
+
+    String[] names;
+    List<List<JavaType.Variable>> members;
+
+    /**
+     * Keeps the interned types reachable, since the flyweight table only references them weakly.
+     */
+    List<JavaType> interned;
+
+    SimpleMeterRegistry meterRegistry;
+
+    @Setup
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+
+        names = new String[distinctClasses];
+        members = new ArrayList<>(distinctClasses);
+        interned = new ArrayList<>();
+        for (int i = 0; i < distinctClasses; i++) {
+            names[i] = "org.openrewrite.p" + (i % 10) + ".A" + i;
+            members.add(Arrays.asList(
+                    new JavaType.Variable("count", JavaType.Primitive.Int, singleton(Flag.Private)),
+                    new JavaType.Variable("name", JavaType.Class.build("java.lang.String"), singleton(Flag.Private))
+            ));
+            interned.add(buildClass(i));
+            interned.add(buildMethod(i));
+        }
+    }
+
+    @TearDown
+    public void reportContention() {
+        for (Counter counter : meterRegistry.find("rewrite.java.type.intern.contended").counters()) {
+            System.out.printf("%nInterning a %s type waited on another thread %.0f times%n",
+                    counter.getId().getTag("type"), counter.count());
+        }
+        Metrics.removeRegistry(meterRegistry);
+        meterRegistry.close();
+    }
+
+    @Benchmark
+    public JavaType.Class buildClass() {
+        return buildClass(ThreadLocalRandom.current().nextInt(distinctClasses));
+    }
+
+    @Benchmark
+    public JavaType.Method buildMethod() {
+        return buildMethod(ThreadLocalRandom.current().nextInt(distinctClasses));
+    }
+
+    @Benchmark
+    public JavaType.Class buildClassGloballySynchronized() {
+        int i = ThreadLocalRandom.current().nextInt(distinctClasses);
+        synchronized (GLOBAL_LOCK) {
+            return buildClass(i);
+        }
+    }
+
+    @Benchmark
+    public JavaType.Method buildMethodGloballySynchronized() {
+        int i = ThreadLocalRandom.current().nextInt(distinctClasses);
+        synchronized (GLOBAL_LOCK) {
+            return buildMethod(i);
+        }
+    }
+
+    private JavaType.Class buildClass(int i) {
+        return JavaType.Class.build(names[i], members.get(i), emptyList(), emptyList(), null, JavaType.Class.OBJECT);
+    }
+
+    private JavaType.Method buildMethod(int i) {
+        JavaType.Method.Signature signature = new JavaType.Method.Signature(JavaType.Primitive.Void,
+                singletonList(JavaType.Class.build("java.lang.String")));
+        return JavaType.Method.build(JavaType.Class.build(names[i]), "setName", signature, signature,
+                singletonList("name"), singleton(Flag.Public));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.internal.ListUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * Compares {@link ListUtils#map(List, ForkJoinPool, BiFunction)} against the previous strategy of submitting
+ * each element to the pool and joining it before moving on to the next.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ListUtilsBenchmark {
+    @Param({"1000", "10000"})
+    int sourceFileCount;
+
+    /**
+     * Simulated cost of visiting a single source file.
+     */
+    @Param({"2000"})
+    int visitTokens;
+
+    List<SyntheticSourceFile> sourceFiles;
+
+    @Setup
+    public void setup() {
+        sourceFiles = SyntheticSourceFile.generate(sourceFileCount);
+    }
+
+    @Benchmark
+    public List<SyntheticSourceFile> forkJoinMap() {
+        return ListUtils.map(sourceFiles, ForkJoinPool.commonPool(), this::visit);
+    }
+
+    @Benchmark
+    public List<SyntheticSourceFile> invokeEachElement() {
+        return invokeEachElement(sourceFiles, ForkJoinPool.commonPool(), this::visit);
+    }
+
+    @Benchmark
+    public List<SyntheticSourceFile> sequentialMap() {
+        return ListUtils.map(sourceFiles, this::visit);
+    }
+
+    private SyntheticSourceFile visit(int i, SyntheticSourceFile sourceFile) {
+        Blackhole.consumeCPU(visitTokens);
+        return i % 10 == 0 ? sourceFile.withText(sourceFile.getText() + " changed") : sourceFile;
+    }
+
+    /**
+     * The mapping strategy that {@link ListUtils#map(List, ForkJoinPool, BiFunction)} used before elements
+     * were split into work-stealing subtasks.
+     */
+    private static <T> List<T> invokeEachElement(List<T> ls, ForkJoinPool pool, BiFunction<Integer, T, T> map) {
+        AtomicReference<List<T>> newLs = new AtomicReference<>(ls);
+        for (int i = 0; i < ls.size(); i++) {
+            int index = i;
+
+            ForkJoinTask<?> task = ForkJoinTask.adapt(() -> {
+                T tree = ls.get(index);
+                T newTree = map.apply(index, tree);
+                if (newTree != tree) {
+                    newLs.updateAndGet(l -> l == ls ? new ArrayList<>(ls) : l)
+                            .set(index, newTree);
+                }
+            });
+
+            pool.invoke(task);
+            task.join();
+        }
+        return newLs.get();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.Java11Parser;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Matches every method invocation in a set of sources against a handful of method patterns, with the compiled
+ * matchers of {@link MethodMatcher} and with the regular expressions they are compiled from, matched against the
+ * strings built from each invocation's type as {@link MethodMatcher} used to.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MethodMatcherBenchmark {
+    List<J.MethodInvocation> invocations;
+    List<MethodMatcher> matchers;
+
+    @Setup
+    public void setup() {
+        List<J.CompilationUnit> cus = Java11Parser.builder().build()
+                .parseInputs(JavaSourceCorpus.generate(10), null, new InMemoryExecutionContext());
+
+        invocations = new ArrayList<>();
+        for (J.CompilationUnit cu : cus) {
+            new JavaIsoVisitor<List<J.MethodInvocation>>() {
+                @Override
+                public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, List<J.MethodInvocation> p) {
+                    p.add(method);
+                    return super.visitMethodInvocation(method, p);
+                }
+            }.visit(cu, invocations);
+        }
+
+        matchers = new ArrayList<>();
+        for (String signature : new String[]{
+                "java.util.List add(java.lang.Object)",
+                "java.util.Map merge(..)",
+                "java.util.Map getOrDefault(Object, Object)",
+                "java.lang.String trim()",
+                "java.lang.StringBuilder append(char)",
+                "java.util.Collections sort(java.util.List)",
+                "java.util.* *(..)",
+                "java.lang.String to*Case()"}) {
+            matchers.add(new MethodMatcher(signature));
+        }
+    }
+
+    @Benchmark
+    public void compiled(Blackhole blackhole) {
+        for (J.MethodInvocation invocation : invocations) {
+            for (MethodMatcher matcher : matchers) {
+                blackhole.consume(matcher.matches(invocation));
+            }
+        }
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        for (J.MethodInvocation invocation : invocations) {
+            for (MethodMatcher matcher : matchers) {
+                blackhole.consume(regexMatches(matcher, invocation));
+            }
+        }
+    }
+
+    private static boolean regexMatches(MethodMatcher matcher, J.MethodInvocation method) {
+        if (method.getType() == null || method.getType().getDeclaringType() == null ||
+                method.getType().getResolvedSignature() == null) {
+            return false;
+        }
+
+        String resolvedSignaturePattern = method.getType().getResolvedSignature().getParamTypes().stream()
+                .map(MethodMatcherBenchmark::typePattern)
+                .filter(Objects::nonNull)
+                .collect(joining(","));
+
+        return regexMatchesTargetType(matcher, method.getType().getDeclaringType()) &&
+                matcher.getMethodNamePattern().matcher(method.getSimpleName()).matches() &&
+                matcher.getArgumentPattern().matcher(resolvedSignaturePattern).matches();
+    }
+
+    private static boolean regexMatchesTargetType(MethodMatcher matcher, JavaType.FullyQualified type) {
+        JavaType.Class asClass = TypeUtils.asClass(type);
+        return matcher.getTargetTypePattern().matcher(type.getFullyQualifiedName()).matches() ||
+                type != JavaType.Class.OBJECT &&
+                        (asClass == null || regexMatchesTargetType(matcher, asClass.getSupertype() == null ?
+                                JavaType.Class.OBJECT : asClass.getSupertype()));
+    }
+
+    @Nullable
+    private static String typePattern(JavaType type) {
+        if (type instanceof JavaType.Primitive) {
+            return ((JavaType.Primitive) type).getKeyword();
+        } else if (type instanceof JavaType.Class) {
+            return ((JavaType.Class) type).getFullyQualifiedName();
+        } else if (type instanceof JavaType.Array) {
+            JavaType elemType = ((JavaType.Array) type).getElemType();
+            if (elemType != null) {
+                return typePattern(elemType) + "[]";
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.Java11Parser;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.MethodMatcherSet;
+import org.openrewrite.java.tree.J;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the method patterns that match every method invocation in a set of sources, out of an increasing number of
+ * patterns, by looking each invocation up in a {@link MethodMatcherSet} and by testing each pattern's
+ * {@link MethodMatcher} in turn. Most of the patterns are for types that the sources don't refer to, as in a large
+ * migration.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MethodMatcherSetBenchmark {
+    @Param({"10", "100", "1000"})
+    int patternCount;
+
+    List<J.MethodInvocation> invocations;
+    List<MethodMatcher> matchers;
+    MethodMatcherSet<MethodMatcher> matcherSet;
+
+    @Setup
+    public void setup() {
+        List<J.CompilationUnit> cus = Java11Parser.builder().build()
+                .parseInputs(JavaSourceCorpus.generate(10), null, new InMemoryExecutionContext());
+
+        invocations = new ArrayList<>();
+        for (J.CompilationUnit cu : cus) {
+            new JavaIsoVisitor<List<J.MethodInvocation>>() {
+                @Override
+                public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, List<J.MethodInvocation> p) {
+                    p.add(method);
+                    return super.visitMethodInvocation(method, p);
+                }
+            }.visit(cu, invocations);
+        }
+
+        List<String> signatures = new ArrayList<>();
+        signatures.add("java.util.List add(java.lang.Object)");
+        signatures.add("java.util.Map merge(..)");
+        signatures.add("java.lang.String trim()");
+        signatures.add("java.util.Collections sort(java.util.List)");
+        signatures.add("java.lang.String to*Case()");
+        for (int i = signatures.size(); i < patternCount; i++) {
+            signatures.add(i % 10 == 0 ?
+                    "org.example.legacy" + i + ".* *(..)" :
+                    "org.example.legacy.Type" + i + " method" + i + "(java.lang.String, ..)");
+        }
+
+        matchers = new ArrayList<>();
+        matcherSet = new MethodMatcherSet<>();
+        for (String signature : signatures) {
+            MethodMatcher matcher = new MethodMatcher(signature);
+            matchers.add(matcher);
+            matcherSet.add(matcher, matcher);
+        }
+    }
+
+    @Benchmark
+    public void matcherSet(Blackhole blackhole) {
+        for (J.MethodInvocation invocation : invocations) {
+            blackhole.consume(matcherSet.matches(invocation));
+        }
+    }
+
+    @Benchmark
+    public void eachMatcher(Blackhole blackhole) {
+        for (J.MethodInvocation invocation : invocations) {
+            List<MethodMatcher> matches = new ArrayList<>();
+            for (MethodMatcher matcher : matchers) {
+                if (matcher.matches(invocation)) {
+                    matches.add(matcher);
+                }
+            }
+            blackhole.consume(matches);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.openjdk.jmh.annotations.*;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.TreePrinter;
+import org.openrewrite.marker.Markers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.singleton;
+import static org.openrewrite.Tree.randomId;
+
+/**
+ * Compares {@link Result#diff()} against the previous strategy of inserting both the before and after text into
+ * a JGit in-memory repository and formatting the patch with JGit's {@link DiffFormatter}.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ResultDiffBenchmark {
+    @Param({"100", "1000"})
+    int lines;
+
+    /**
+     * Every nth line is changed.
+     */
+    @Param({"50"})
+    int changeEvery;
+
+    Result result;
+
+    @Setup
+    public void setup() {
+        StringBuilder before = new StringBuilder();
+        StringBuilder after = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            String line = "        System.out.println(\"line " + i + "\");\n";
+            before.append(line);
+            after.append(i % changeEvery == 0 ? line.replace("System.out", "logger") : line);
+        }
+
+        SyntheticSourceFile sourceFile = new SyntheticSourceFile(randomId(), Markers.EMPTY,
+                Paths.get("src/main/java/A.java"), before.toString());
+        result = new Result(sourceFile, sourceFile.withText(after.toString()), singleton(new Recipe()));
+    }
+
+    @Benchmark
+    public String myersDiff() {
+        return result.diff();
+    }
+
+    @Benchmark
+    public byte[] myersDiffToOutputStream() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        result.diff(out, null, TreePrinter.identity());
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public String jgitDiff() {
+        //noinspection ConstantConditions
+        return jgitDiff(result.getBefore().print(), result.getAfter().print(), result.getRecipesThatMadeChanges());
+    }
+
+    /**
+     * The way {@link Result#diff()} produced patches before it had its own diff implementation.
+     */
+    private static String jgitDiff(String oldSource, String newSource, Set<Recipe> recipesThatMadeChanges) {
+        try {
+            InMemoryRepository repo = new InMemoryRepository.Builder()
+                    .setRepositoryDescription(new DfsRepositoryDescription())
+                    .build();
+
+            ObjectInserter inserter = repo.getObjectDatabase().newInserter();
+            DiffEntry entry = new DiffEntry() {
+                {
+                    changeType = ChangeType.MODIFY;
+                    oldPath = "src/main/java/A.java";
+                    newPath = "src/main/java/A.java";
+                    oldId = inserter.insert(Constants.OBJ_BLOB, oldSource.getBytes()).abbreviate(40);
+                    newId = inserter.insert(Constants.OBJ_BLOB, newSource.getBytes()).abbreviate(40);
+                    oldMode = FileMode.REGULAR_FILE;
+                    newMode = FileMode.REGULAR_FILE;
+                }
+            };
+            inserter.flush();
+            repo.close();
+
+            ByteArrayOutputStream patch = new ByteArrayOutputStream();
+            DiffFormatter formatter = new DiffFormatter(patch);
+            formatter.setRepository(repo);
+            formatter.format(entry);
+
+            AtomicBoolean addedComment = new AtomicBoolean(false);
+            return Arrays.stream(patch.toString().split("\n"))
+                    .map(l -> {
+                        if (!addedComment.get() && l.startsWith("@@") && l.endsWith("@@")) {
+                            addedComment.set(true);
+                            return l + recipesThatMadeChanges.stream()
+                                    .map(Recipe::getName)
+                                    .sorted()
+                                    .collect(Collectors.joining(", ", " ", ""));
+                        }
+                        return l;
+                    })
+                    .collect(Collectors.joining("\n")) + "\n";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.openrewrite.SourceFile;
+import org.openrewrite.TreePrinter;
+import org.openrewrite.marker.Markers;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.openrewrite.Tree.randomId;
+
+/**
+ * A minimal source file whose content is a single string, used to exercise recipe
+ * infrastructure without the cost of any particular language parser.
+ */
+public class SyntheticSourceFile implements SourceFile {
+    private final UUID id;
+    private final Markers markers;
+    private final Path sourcePath;
+    private final String text;
+
+    public SyntheticSourceFile(UUID id, Markers markers, Path sourcePath, String text) {
+        this.id = id;
+        this.markers = markers;
+        this.sourcePath = sourcePath;
+        this.text = text;
+    }
+
+    public static List<SyntheticSourceFile> generate(int count) {
+        List<SyntheticSourceFile> sourceFiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sourceFiles.add(new SyntheticSourceFile(randomId(), Markers.EMPTY,
+                    Paths.get("src/main/resources/file" + i + ".txt"), "file " + i));
+        }
+        return sourceFiles;
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public Markers getMarkers() {
+        return markers;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public SyntheticSourceFile withMarkers(Markers markers) {
+        return this.markers == markers ? this : new SyntheticSourceFile(id, markers, sourcePath, text);
+    }
+
+    @Override
+    public Path getSourcePath() {
+        return sourcePath;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public SyntheticSourceFile withText(String text) {
+        return this.text.equals(text) ? this : new SyntheticSourceFile(id, markers, sourcePath, text);
+    }
+
+    @Override
+    public <P> String print(TreePrinter<P> printer, P p) {
+        return text;
+    }
+}
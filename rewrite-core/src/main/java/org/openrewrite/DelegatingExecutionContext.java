@@ -41,6 +41,26 @@ public class DelegatingExecutionContext implements ExecutionContext {
         return delegate.pollMessage(key);
     }
 
+    @Override
+    public <T> void putMessage(Key<T> key, T value) {
+        delegate.putMessage(key, value);
+    }
+
+    @Override
+    public <T> @Nullable T getMessage(Key<T> key) {
+        return delegate.getMessage(key);
+    }
+
+    @Override
+    public <T> @Nullable T pollMessage(Key<T> key) {
+        return delegate.pollMessage(key);
+    }
+
+    @Override
+    public void requireAnotherCycle() {
+        delegate.requireAnotherCycle();
+    }
+
     @Override
     public Consumer<Throwable> getOnError() {
         return delegate.getOnError();
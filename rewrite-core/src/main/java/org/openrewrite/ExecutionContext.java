@@ -17,6 +17,7 @@ package org.openrewrite;
 
 import org.openrewrite.internal.lang.Nullable;
 
+import java.util.Objects;
 import java.util.function.Consumer;
 
 /**
@@ -42,5 +43,118 @@ public interface ExecutionContext {
         return t == null ? defaultValue : t;
     }
 
+    /**
+     * Unlike {@link #putMessage(String, Object)}, putting a typed message during a recipe run only causes the recipe
+     * to run another cycle when the message has been read by another visit, i.e. by a visit of another source file
+     * or by another recipe, and only the source files whose visits read the message are visited again. Messages
+     * scoped to a source file never cause another cycle, though they are kept for the rest of the run, so recipes
+     * visiting that source file in any later cycle see them.
+     *
+     * @param key   The typed key of the message.
+     * @param value The message.
+     * @param <T>   The type of the message.
+     */
+    @Incubating(since = "7.0.0")
+    default <T> void putMessage(Key<T> key, T value) {
+        putMessage(key.getName(), value);
+    }
+
+    @Incubating(since = "7.0.0")
+    @Nullable
+    default <T> T getMessage(Key<T> key) {
+        return getMessage(key.getName());
+    }
+
+    @Incubating(since = "7.0.0")
+    default <T> T getMessage(Key<T> key, T defaultValue) {
+        T t = getMessage(key);
+        return t == null ? defaultValue : t;
+    }
+
+    @Incubating(since = "7.0.0")
+    @Nullable
+    default <T> T pollMessage(Key<T> key) {
+        return pollMessage(key.getName());
+    }
+
+    /**
+     * Signal that a recipe run should run at least one more cycle, e.g. because a visitor has changed state outside
+     * of the execution context that visitors of other source files need to see. Every source file is visited again
+     * in that cycle. Outside of a recipe run this does nothing.
+     */
+    @Incubating(since = "7.0.0")
+    default void requireAnotherCycle() {
+    }
+
     Consumer<Throwable> getOnError();
+
+    /**
+     * A typed message key.
+     *
+     * @param <T> The type of the messages stored under this key.
+     */
+    @Incubating(since = "7.0.0")
+    final class Key<T> {
+        private final String name;
+        private final Scope scope;
+
+        private Key(String name, Scope scope) {
+            this.name = name;
+            this.scope = scope;
+        }
+
+        /**
+         * @param name The name of the key.
+         * @param <T>  The type of the messages stored under this key.
+         * @return A key whose messages are visible to every visitor in a recipe run.
+         */
+        public static <T> Key<T> of(String name) {
+            return new Key<>(name, Scope.RUN);
+        }
+
+        /**
+         * During a recipe run, messages stored under a source file scoped key are kept in a message store private to
+         * the source file being visited, so they are shared between the recipes in a doNext chain and across cycles
+         * for that source file without contending with visitors of other source files. Putting one doesn't cause
+         * another cycle. Outside of a recipe run, they behave like {@link #of(String) run scoped} keys.
+         *
+         * @param name The name of the key.
+         * @param <T>  The type of the messages stored under this key.
+         * @return A key whose messages are scoped to a single source file.
+         */
+        public static <T> Key<T> sourceFile(String name) {
+            return new Key<>(name, Scope.SOURCE_FILE);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Scope getScope() {
+            return scope;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key<?> key = (Key<?>) o;
+            return name.equals(key.name) && scope == key.scope;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, scope);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+
+        public enum Scope {
+            RUN,
+            SOURCE_FILE
+        }
+    }
 }
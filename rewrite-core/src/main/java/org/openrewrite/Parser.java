@@ -22,10 +22,15 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -38,14 +43,7 @@ public interface Parser<S extends SourceFile> {
     default List<S> parse(Iterable<Path> sourceFiles, @Nullable Path relativeTo, ExecutionContext ctx) {
         return parseInputs(StreamSupport
                         .stream(sourceFiles.spliterator(), false)
-                        .map(sourceFile -> new Input(sourceFile, () -> {
-                                    try {
-                                        return Files.newInputStream(sourceFile);
-                                    } catch (IOException e) {
-                                        throw new UncheckedIOException(e);
-                                    }
-                                })
-                        )
+                        .map(sourceFile -> Input.fromFile(sourceFile, false))
                         .collect(toList()),
                 relativeTo,
                 ctx
@@ -54,13 +52,7 @@ public interface Parser<S extends SourceFile> {
 
     default List<S> parse(ExecutionContext ctx, String... sources) {
         return parseInputs(
-                Arrays.stream(sources).map(source ->
-                        new Input(
-                                Paths.get(Long.toString(System.nanoTime())),
-                                () -> new ByteArrayInputStream(source.getBytes()),
-                                true
-                        )
-                ).collect(toList()),
+                Arrays.stream(sources).map(Input::fromString).collect(toList()),
                 null,
                 ctx
         );
@@ -108,29 +100,71 @@ public interface Parser<S extends SourceFile> {
      * Nevertheless, this class is a generalization that applies well enough to
      * paths that are resolvable on disk, where the file has been pre-read into
      * memory.
+     * <p>
+     * Parsers read the source as text with {@link #getSourceText(Charset)}, which reads and decodes it
+     * once and shares the text between every parser (and every phase of a parser) that reads it after that,
+     * until a parser that is done with it calls {@link #releaseSourceText()}.
      */
     class Input {
         private final boolean synthetic;
         private final Path path;
         private final Supplier<InputStream> source;
 
+        @Nullable
+        private final Path file;
+
+        private final boolean memoryMapped;
+
+        @Nullable
+        private Charset sourceCharset;
+
+        @Nullable
+        private String sourceText;
+
         public Input(Path path, Supplier<InputStream> source) {
             this(path, source, false);
         }
 
         public Input(Path path, Supplier<InputStream> source, boolean synthetic) {
+            this(path, source, synthetic, null, false);
+        }
+
+        private Input(Path path, Supplier<InputStream> source, boolean synthetic, @Nullable Path file,
+                      boolean memoryMapped) {
             this.path = path;
             this.source = source;
             this.synthetic = synthetic;
+            this.file = file;
+            this.memoryMapped = memoryMapped;
         }
 
         @Incubating(since = "7.0.0")
         public static Input fromString(String source) {
-            return new Input(
+            Input input = new Input(
                     Paths.get(Long.toString(System.nanoTime())),
                     () -> new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)),
                     true
             );
+            input.sourceCharset = StandardCharsets.UTF_8;
+            input.sourceText = source;
+            return input;
+        }
+
+        /**
+         * @param file         A file on disk.
+         * @param memoryMapped Whether to decode the file's text straight from a memory mapping of the file rather than
+         *                     first reading its bytes onto the heap. Mapping a file has a fixed cost that only pays off
+         *                     for larger files.
+         */
+        @Incubating(since = "7.0.0")
+        public static Input fromFile(Path file, boolean memoryMapped) {
+            return new Input(file, () -> {
+                try {
+                    return Files.newInputStream(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, false, file, memoryMapped);
         }
 
         @Incubating(since = "7.0.0")
@@ -165,6 +199,48 @@ public interface Parser<S extends SourceFile> {
             return source.get();
         }
 
+        /**
+         * The text is retained by this input once read, so that it is only decoded again when asked for in another
+         * charset or after it has been {@link #releaseSourceText() released}.
+         *
+         * @param charset The charset to decode the source with.
+         * @return The text of the source.
+         */
+        @Incubating(since = "7.0.0")
+        public synchronized String getSourceText(Charset charset) {
+            if (sourceText == null || !charset.equals(sourceCharset)) {
+                sourceText = file != null && memoryMapped ?
+                        decodeMapped(file, charset) :
+                        StringUtils.readFully(getSource(), charset);
+                sourceCharset = charset;
+            }
+            return sourceText;
+        }
+
+        /**
+         * Drop the text retained by {@link #getSourceText(Charset)}, so that an input that outlives its parse (e.g.
+         * as a dependency of a parser) doesn't hold onto it. Parsers call this once they are done with the text.
+         * Reading the text again after this decodes it again.
+         */
+        @Incubating(since = "7.0.0")
+        public synchronized void releaseSourceText() {
+            sourceText = null;
+            sourceCharset = null;
+        }
+
+        private static String decodeMapped(Path file, Charset charset) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                return charset.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                        .decode(bytes)
+                        .toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
         public boolean isSynthetic() {
             return synthetic;
         }
@@ -203,6 +279,16 @@ public interface Parser<S extends SourceFile> {
         default void onParseFailed(Path sourcePath) {
         }
 
+        /**
+         * Called at the end of a parse that only parsed again the sources that changed since an earlier parse and
+         * those that depend on them, reusing what was parsed before for the rest.
+         *
+         * @param reparsed The number of sources parsed again.
+         * @param reused   The number of sources whose earlier parse was reused.
+         */
+        default void onIncrementalParse(int reparsed, int reused) {
+        }
+
         default void onError(String message) {
         }
 
@@ -16,8 +16,12 @@
 package org.openrewrite;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
 import lombok.EqualsAndHashCode;
 import org.openrewrite.internal.ListUtils;
+import org.openrewrite.internal.StructuralEquality;
 import org.openrewrite.internal.lang.NullUtils;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.marker.Marker;
@@ -26,12 +30,21 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.*;
 
 /**
@@ -56,7 +69,8 @@ public class Recipe {
     }
 
     /**
-     * This tree printer is used when comparing before/after source files and reifies any markers as a list of
+     * This tree printer is used when comparing before/after source files that are not
+     * {@link SourceFile#isStructurallyComparable() structurally comparable} and reifies any markers as a list of
      * hash codes.
      */
     private static final TreePrinter<ExecutionContext> MARKER_ID_PRINTER = new TreePrinter<ExecutionContext>() {
@@ -98,10 +112,22 @@ public class Recipe {
         return this;
     }
 
+    /**
+     * @return The recipe linked to this one via {@link #doNext(Recipe)}, if any.
+     */
+    @Incubating(since = "7.0.0")
+    @Nullable
+    public Recipe getNext() {
+        return next;
+    }
+
     /**
      * A recipe can optionally encasulate a visitor that performs operations on a set of source files. Subclasses
      * of the recipe may override this method to provide an instance of a visitor that will be used when the recipe
      * is executed.
+     * <p>
+     * Visitors are stateful, so a recipe that visits source files in parallel, see {@link #isVisitorThreadSafe()},
+     * should return a new visitor instance on every call.
      *
      * @return A tree visitor that will perform operations associated with the recipe.
      */
@@ -109,17 +135,72 @@ public class Recipe {
         return NOOP;
     }
 
-    @SuppressWarnings("SuspiciousMethodCalls")
+    /**
+     * Source files are only visited in parallel, on the fork join pool the recipe is run with, by recipes that
+     * declare it safe. That is the case when {@link #getVisitor()} returns a new visitor on every call, or one that can
+     * visit several source files at once, and when the recipe's visitors share no mutable state. Other recipes visit
+     * one source file at a time.
+     *
+     * @return Whether this recipe's visitors may visit several source files at once.
+     */
+    @Incubating(since = "7.0.0")
+    protected boolean isVisitorThreadSafe() {
+        return false;
+    }
+
+    /**
+     * A recipe can optionally include an applicability test that is run against each source file before the recipe's
+     * visitor. If the test doesn't change the source file (conventionally, by marking it with a
+     * {@link org.openrewrite.marker.SearchResult}), the recipe's visitor is not run on that source file at all.
+     * <p>
+     * Applicability tests should be considerably cheaper than the recipe's visitor, e.g. by only looking at imports
+     * or at the type of the source file.
+     *
+     * @return A tree visitor that performs an applicability test, or {@code null} if the recipe's visitor should be
+     * run on every source file.
+     */
+    @Incubating(since = "7.0.0")
+    @Nullable
+    protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
+        return null;
+    }
+
     private <S extends SourceFile> List<SourceFile> visitInternal(List<S> before,
-                                                                  ExecutionContext ctx,
+                                                                  WatchForNewMessageExecutionContext ctx,
                                                                   ForkJoinPool forkJoinPool,
-                                                                  Map<UUID, Recipe> recipeThatDeletedSourceFile) {
+                                                                  Map<UUID, Recipe> recipeThatDeletedSourceFile,
+                                                                  CycleState cycleState) {
         List<S> after = before;
         // if this recipe isn't valid we just skip it and proceed to next
         if (validate(ctx).isValid()) {
-            after = ListUtils.map(after, forkJoinPool, s -> {
+            AtomicInteger applicable = new AtomicInteger();
+            AtomicInteger notApplicable = new AtomicInteger();
+            Map<UUID, SourceFileVisit> visits = cycleState.visits(this);
+            UnaryOperator<S> visitSourceFile = s -> {
+                SourceFileVisit previous = cycleState.reusableVisit(visits, s);
+                if (previous != null) {
+                    cycleState.reused.incrementAndGet();
+                    if (previous.after == null) {
+                        recipeThatDeletedSourceFile.put(s.getId(), this);
+                    }
+                    //noinspection unchecked
+                    return (S) previous.after;
+                }
+
+                cycleState.visited.incrementAndGet();
+                SourceFileExecutionContext visitCtx = new SourceFileExecutionContext(ctx, cycleState, new VisitKey(this, s.getId()));
                 try {
-                    @SuppressWarnings("unchecked") S afterFile = (S) getVisitor().visit(s, ctx);
+                    TreeVisitor<?, ExecutionContext> applicableTest = getSingleSourceApplicableTest();
+                    if (applicableTest != null) {
+                        if (applicableTest.visit(s, visitCtx) == s) {
+                            notApplicable.incrementAndGet();
+                            visits.put(s.getId(), new SourceFileVisit(s, s, visitCtx.messagesRead, visitCtx.sourceFileMessagesRead));
+                            return s;
+                        }
+                        applicable.incrementAndGet();
+                    }
+
+                    @SuppressWarnings("unchecked") S afterFile = (S) getVisitor().visit(s, visitCtx);
                     if (afterFile != null && afterFile != s) {
                         afterFile = afterFile.withMarkers(afterFile.getMarkers().compute(
                                 new RecipeThatMadeChanges(this),
@@ -131,12 +212,23 @@ public class Recipe {
                     if (afterFile == null) {
                         recipeThatDeletedSourceFile.put(s.getId(), this);
                     }
+                    visits.put(s.getId(), new SourceFileVisit(s, afterFile, visitCtx.messagesRead, visitCtx.sourceFileMessagesRead));
                     return afterFile;
                 } catch (Throwable t) {
+                    // a visit that failed is not remembered, so it is attempted again in the next cycle
+                    visits.remove(s.getId());
                     ctx.getOnError().accept(t);
                     return s;
                 }
-            });
+            };
+            after = isVisitorThreadSafe() ?
+                    ListUtils.map(after, forkJoinPool, visitSourceFile) :
+                    ListUtils.map(after, visitSourceFile);
+
+            if (applicable.get() > 0 || notApplicable.get() > 0) {
+                applicabilityCounter("applicable").increment(applicable.get());
+                applicabilityCounter("not applicable").increment(notApplicable.get());
+            }
         }
 
         // The type of the list is widened at this point, since a source file type may be generated that isn't
@@ -146,26 +238,67 @@ public class Recipe {
         //noinspection unchecked
         List<SourceFile> afterWidened = visit((List<SourceFile>) after, ctx);
 
-        for (SourceFile maybeGenerated : afterWidened) {
-            if (!after.contains(maybeGenerated)) {
-                // a new source file generated
-                recipeThatDeletedSourceFile.put(maybeGenerated.getId(), this);
+        if (afterWidened != after) {
+            Set<UUID> afterIds = ids(after);
+            for (SourceFile maybeGenerated : afterWidened) {
+                if (!afterIds.contains(maybeGenerated.getId())) {
+                    // a new source file generated
+                    recipeThatDeletedSourceFile.put(maybeGenerated.getId(), this);
+                }
             }
-        }
 
-        for (SourceFile maybeDeleted : after) {
-            if (!afterWidened.contains(maybeDeleted)) {
-                // a source file deleted
-                recipeThatDeletedSourceFile.put(maybeDeleted.getId(), this);
+            Set<UUID> afterWidenedIds = ids(afterWidened);
+            for (SourceFile maybeDeleted : after) {
+                if (!afterWidenedIds.contains(maybeDeleted.getId())) {
+                    // a source file deleted
+                    recipeThatDeletedSourceFile.put(maybeDeleted.getId(), this);
+                }
             }
         }
 
         if (next != null) {
-            afterWidened = next.visitInternal(afterWidened, ctx, forkJoinPool, recipeThatDeletedSourceFile);
+            afterWidened = next.visitInternal(afterWidened, ctx, forkJoinPool, recipeThatDeletedSourceFile, cycleState);
         }
         return afterWidened;
     }
 
+    private Counter applicabilityCounter(String outcome) {
+        return Counter.builder("rewrite.recipe.applicability")
+                .description("The number of source files tested by a recipe's single source applicability test")
+                .tag("recipe", getName())
+                .tag("outcome", outcome)
+                .register(Metrics.globalRegistry);
+    }
+
+    private Counter cycleVisitCounter(int cycle, String outcome) {
+        return Counter.builder("rewrite.recipe.cycle.visits")
+                .description("The number of source files visited or reused from the previous cycle by the recipes in a doNext chain")
+                .tag("recipe", getName())
+                .tag("cycle", Integer.toString(cycle))
+                .tag("outcome", outcome)
+                .register(Metrics.globalRegistry);
+    }
+
+    private static boolean sameSourceFiles(List<? extends SourceFile> l1, List<? extends SourceFile> l2) {
+        if (l1.size() != l2.size()) {
+            return false;
+        }
+        for (int i = 0; i < l1.size(); i++) {
+            if (l1.get(i) != l2.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<UUID> ids(List<? extends SourceFile> sourceFiles) {
+        Set<UUID> ids = new HashSet<>(sourceFiles.size() * 2);
+        for (SourceFile sourceFile : sourceFiles) {
+            ids.add(sourceFile.getId());
+        }
+        return ids;
+    }
+
     /**
      * Override this to generate new source files or delete source files.
      *
@@ -194,20 +327,41 @@ public class Recipe {
                                   ExecutionContext ctx,
                                   ForkJoinPool forkJoinPool,
                                   int maxCycles) {
-        Map<UUID, Recipe> recipeThatDeletedSourceFile = new HashMap<>();
+        RunMetrics metrics = new RunMetrics(maxCycles);
+        List<Result> results = run(before, ctx, forkJoinPool, maxCycles, metrics);
+        metrics.record();
+        return results;
+    }
+
+    private List<Result> run(List<? extends SourceFile> before,
+                             ExecutionContext ctx,
+                             ForkJoinPool forkJoinPool,
+                             int maxCycles,
+                             RunMetrics metrics) {
+        // source files are visited concurrently, and visitors record deletions as they go
+        Map<UUID, Recipe> recipeThatDeletedSourceFile = new ConcurrentHashMap<>();
         List<? extends SourceFile> acc = before;
         List<? extends SourceFile> after = acc;
 
-        WatchForNewMessageExecutionContext ctxWithWatch = new WatchForNewMessageExecutionContext(ctx);
-        for (int i = 0; i < maxCycles; i++) {
-            after = visitInternal(before, ctxWithWatch, forkJoinPool, recipeThatDeletedSourceFile);
-            if (after == acc && !ctxWithWatch.needAnotherCycle) {
+        CycleState cycleState = new CycleState();
+        WatchForNewMessageExecutionContext ctxWithWatch = new WatchForNewMessageExecutionContext(ctx, cycleState);
+        int cycle = 0;
+        while (cycle < maxCycles) {
+            cycle++;
+            after = visitInternal(before, ctxWithWatch, forkJoinPool, recipeThatDeletedSourceFile, cycleState);
+
+            metrics.cycle(cycle, cycleState.visited.getAndSet(0), cycleState.reused.getAndSet(0));
+
+            if ((after == acc || sameSourceFiles(after, acc)) && !ctxWithWatch.needAnotherCycle) {
                 break;
             }
             acc = after;
             ctxWithWatch.needAnotherCycle = false;
+            cycleState.nextCycle();
         }
 
+        metrics.settled(cycle);
+
         if (after == before) {
             return emptyList();
         }
@@ -224,9 +378,7 @@ public class Recipe {
                 if (original == null) {
                     results.add(new Result(null, s, singleton(recipeThatDeletedSourceFile.get(s.getId()))));
                 } else {
-                    //printing both the before and after (and including markers in the output) and then comparing the
-                    //output to dermine if a change has been made.
-                    if (!original.print(MARKER_ID_PRINTER, ctx).equals(s.print(MARKER_ID_PRINTER, ctx))) {
+                    if (hasChanged(original, s, ctx)) {
                         results.add(new Result(original, s, s.getMarkers()
                                 .findFirst(RecipeThatMadeChanges.class)
                                 .orElseThrow(() -> new IllegalStateException("SourceFile changed but no recipe reported making a change?"))
@@ -236,9 +388,7 @@ public class Recipe {
             }
         }
 
-        Set<UUID> afterIds = after.stream()
-                .map(SourceFile::getId)
-                .collect(toSet());
+        Set<UUID> afterIds = ids(after);
 
         // removed files
         for (SourceFile s : before) {
@@ -250,6 +400,110 @@ public class Recipe {
         return results;
     }
 
+    /**
+     * Run this recipe on a stream of source files as it is consumed, closing the stream when the run is done.
+     *
+     * @see #run(Iterator, ExecutionContext, ForkJoinPool, int, int, Consumer)
+     */
+    @Incubating(since = "7.0.0")
+    public final void run(Stream<? extends SourceFile> before, ExecutionContext ctx, Consumer<Result> onResult) {
+        ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+        try (Stream<? extends SourceFile> sourceFiles = before) {
+            run(sourceFiles.iterator(), ctx, forkJoinPool, 3, forkJoinPool.getParallelism(), onResult);
+        }
+    }
+
+    /**
+     * Run this recipe on source files as they are supplied (e.g. as they are lazily parsed), handing each
+     * {@link Result} to {@code onResult} as soon as the source file it belongs to is done. At most {@code window}
+     * source files are in flight at once, so the whole set of source files never needs to be held in memory.
+     * <p>
+     * Each source file is taken through its cycles on its own, so messages put while visiting one source file
+     * may not be seen by visitors of other source files. Several source files are only in flight at once when every
+     * recipe in the doNext chain {@link #isVisitorThreadSafe() declares its visitors thread-safe}. If any recipe in the doNext chain overrides
+     * {@link #visit(List, ExecutionContext)} to generate or delete source files, it needs to see every source file
+     * at once, so the source files are collected and run as a list instead. Either way, cycle metrics are recorded
+     * once for the whole run.
+     *
+     * @param before       The source files to run this recipe on, which are consumed as the run progresses.
+     * @param ctx          The execution context shared by every source file's run.
+     * @param forkJoinPool The pool that source files are visited on.
+     * @param maxCycles    The maximum number of cycles to take each source file through.
+     * @param window       The maximum number of source files in flight at once.
+     * @param onResult     Receives results in the order of the source files they belong to.
+     */
+    @Incubating(since = "7.0.0")
+    public final void run(Iterator<? extends SourceFile> before,
+                          ExecutionContext ctx,
+                          ForkJoinPool forkJoinPool,
+                          int maxCycles,
+                          int window,
+                          Consumer<Result> onResult) {
+        if (visitsSourceFileList()) {
+            List<SourceFile> sourceFiles = new ArrayList<>();
+            before.forEachRemaining(sourceFiles::add);
+            run(sourceFiles, ctx, forkJoinPool, maxCycles).forEach(onResult);
+            return;
+        }
+
+        RunMetrics metrics = new RunMetrics(maxCycles);
+        int inFlightLimit = visitorsThreadSafe() ? window : 1;
+        Deque<ForkJoinTask<List<Result>>> inFlight = new ArrayDeque<>();
+        try {
+            while (before.hasNext()) {
+                List<SourceFile> sourceFile = singletonList(before.next());
+                inFlight.add(forkJoinPool.submit(() -> run(sourceFile, ctx, forkJoinPool, maxCycles, metrics)));
+                if (inFlight.size() >= inFlightLimit) {
+                    inFlight.remove().join().forEach(onResult);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                inFlight.remove().join().forEach(onResult);
+            }
+        } finally {
+            for (ForkJoinTask<List<Result>> task : inFlight) {
+                task.cancel(false);
+            }
+            metrics.record();
+        }
+    }
+
+    private boolean visitorsThreadSafe() {
+        for (Recipe recipe = this; recipe != null; recipe = recipe.next) {
+            if (!recipe.isVisitorThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean visitsSourceFileList() {
+        for (Recipe recipe = this; recipe != null; recipe = recipe.next) {
+            for (Class<?> c = recipe.getClass(); c != Recipe.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("visit", List.class, ExecutionContext.class);
+                    return true;
+                } catch (NoSuchMethodException ignored) {
+                    // keep looking in superclasses
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasChanged(SourceFile before, SourceFile after, ExecutionContext ctx) {
+        if (before.isStructurallyComparable() && after.isStructurallyComparable()) {
+            return !new StructuralEquality(
+                    marker -> !(marker instanceof RecipeThatMadeChanges),
+                    after::isIgnoredInStructuralComparison
+            ).isEqual(before, after);
+        }
+
+        //printing both the before and after (and including markers in the output) and then comparing the
+        //output to dermine if a change has been made.
+        return !before.print(MARKER_ID_PRINTER, ctx).equals(after.print(MARKER_ID_PRINTER, ctx));
+    }
+
     @SuppressWarnings("unused")
     @Incubating(since = "7.0.0")
     public Validated validate(ExecutionContext ctx) {
@@ -320,33 +574,308 @@ public class Recipe {
         return Objects.hash(getName());
     }
 
-    private static class WatchForNewMessageExecutionContext implements ExecutionContext {
-        private boolean needAnotherCycle = true;
-        private final ExecutionContext delegate;
+    /**
+     * Accumulates the cycle metrics of a run, so that they are recorded once per run even when each source file is
+     * taken through its cycles on its own.
+     */
+    private class RunMetrics {
+        private final AtomicIntegerArray visited;
+        private final AtomicIntegerArray reused;
+        private final AtomicInteger cycles = new AtomicInteger();
+
+        private RunMetrics(int maxCycles) {
+            this.visited = new AtomicIntegerArray(maxCycles);
+            this.reused = new AtomicIntegerArray(maxCycles);
+        }
+
+        private void cycle(int cycle, int visited, int reused) {
+            this.visited.addAndGet(cycle - 1, visited);
+            this.reused.addAndGet(cycle - 1, reused);
+        }
+
+        private void settled(int cycle) {
+            cycles.accumulateAndGet(cycle, Math::max);
+        }
+
+        private void record() {
+            for (int cycle = 1; cycle <= cycles.get(); cycle++) {
+                cycleVisitCounter(cycle, "visited").increment(visited.get(cycle - 1));
+                cycleVisitCounter(cycle, "reused").increment(reused.get(cycle - 1));
+            }
 
-        private WatchForNewMessageExecutionContext(ExecutionContext delegate) {
+            DistributionSummary.builder("rewrite.recipe.cycles")
+                    .description("The number of cycles it took for a recipe run to settle")
+                    .tag("recipe", getName())
+                    .register(Metrics.globalRegistry)
+                    .record(cycles.get());
+        }
+    }
+
+    /**
+     * Remembers what each recipe in a doNext chain did to each source file in the previous cycle, so that a
+     * later cycle only runs a recipe's visitor again on a source file when its input changed or when a message
+     * that was read while visiting it has since been written. Also holds the message stores of
+     * {@link ExecutionContext.Key#sourceFile(String) source file scoped} messages.
+     */
+    private static class CycleState {
+        private final Map<Recipe, Map<UUID, SourceFileVisit>> visitsByRecipe = new IdentityHashMap<>();
+        private final Map<UUID, Map<String, Object>> sourceFileMessages = new ConcurrentHashMap<>();
+        private final Map<String, Set<VisitKey>> messageReaders = new ConcurrentHashMap<>();
+        private final AtomicInteger visited = new AtomicInteger();
+        private final AtomicInteger reused = new AtomicInteger();
+        private Set<String> messagesWritten = ConcurrentHashMap.newKeySet();
+        private Set<String> messagesWrittenInLastCycle = emptySet();
+        private Map<UUID, Set<String>> sourceFileMessagesWritten = new ConcurrentHashMap<>();
+        private Map<UUID, Set<String>> sourceFileMessagesWrittenInLastCycle = emptyMap();
+        private volatile boolean revisitRequested;
+        private boolean revisitAll;
+
+        private Map<UUID, SourceFileVisit> visits(Recipe recipe) {
+            return visitsByRecipe.computeIfAbsent(recipe, r -> new ConcurrentHashMap<>());
+        }
+
+        /**
+         * A source file is only ever visited by one thread at a time, so its message store needn't be concurrent.
+         */
+        private Map<String, Object> sourceFileMessages(UUID sourceFileId) {
+            return sourceFileMessages.computeIfAbsent(sourceFileId, id -> new HashMap<>());
+        }
+
+        private void sourceFileMessageWritten(UUID sourceFileId, String key) {
+            sourceFileMessagesWritten.computeIfAbsent(sourceFileId, id -> new HashSet<>()).add(key);
+        }
+
+        private void messageRead(String key, VisitKey reader) {
+            messageReaders.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(reader);
+        }
+
+        /**
+         * @param writer The visit that wrote the message, or {@code null} if it wasn't written by a visit.
+         * @return Whether any visit other than the writer has read the message at any point in the run.
+         */
+        private boolean readByAnotherVisit(String key, @Nullable VisitKey writer) {
+            Set<VisitKey> readers = messageReaders.get(key);
+            if (readers == null) {
+                return false;
+            }
+            for (VisitKey reader : readers) {
+                if (!reader.equals(writer)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void nextCycle() {
+            messagesWrittenInLastCycle = messagesWritten;
+            messagesWritten = ConcurrentHashMap.newKeySet();
+            sourceFileMessagesWrittenInLastCycle = sourceFileMessagesWritten;
+            sourceFileMessagesWritten = new ConcurrentHashMap<>();
+            revisitAll = revisitRequested;
+            revisitRequested = false;
+        }
+
+        /**
+         * A visit is only reused when its input is unchanged and none of the messages it read have been written
+         * since, either in the last cycle or earlier in this one, e.g. by a recipe earlier in the doNext chain.
+         * Source file scoped messages only count as written for the source file they were written for.
+         * Nothing is reused in a cycle that was {@link ExecutionContext#requireAnotherCycle() required}, since the
+         * state that caused it is invisible to this bookkeeping.
+         */
+        @Nullable
+        private SourceFileVisit reusableVisit(Map<UUID, SourceFileVisit> visits, SourceFile s) {
+            if (revisitAll) {
+                return null;
+            }
+            SourceFileVisit visit = visits.get(s.getId());
+            if (visit == null || visit.before != s) {
+                return null;
+            }
+            for (String key : visit.messagesRead) {
+                if (messagesWrittenInLastCycle.contains(key) || messagesWritten.contains(key)) {
+                    return null;
+                }
+            }
+            if (!visit.sourceFileMessagesRead.isEmpty()) {
+                Set<String> writtenInLastCycle = sourceFileMessagesWrittenInLastCycle.getOrDefault(s.getId(), emptySet());
+                Set<String> written = sourceFileMessagesWritten.getOrDefault(s.getId(), emptySet());
+                for (String key : visit.sourceFileMessagesRead) {
+                    if (writtenInLastCycle.contains(key) || written.contains(key)) {
+                        return null;
+                    }
+                }
+            }
+            return visit;
+        }
+    }
+
+    private static class SourceFileVisit {
+        private final SourceFile before;
+
+        @Nullable
+        private final SourceFile after;
+
+        private final Set<String> messagesRead;
+        private final Set<String> sourceFileMessagesRead;
+
+        private SourceFileVisit(SourceFile before, @Nullable SourceFile after, Set<String> messagesRead,
+                                Set<String> sourceFileMessagesRead) {
+            this.before = before;
+            this.after = after;
+            this.messagesRead = messagesRead;
+            this.sourceFileMessagesRead = sourceFileMessagesRead;
+        }
+    }
+
+    /**
+     * Identifies one recipe's visits of one source file across cycles.
+     */
+    private static class VisitKey {
+        private final Recipe recipe;
+        private final UUID sourceFileId;
+
+        private VisitKey(Recipe recipe, UUID sourceFileId) {
+            this.recipe = recipe;
+            this.sourceFileId = sourceFileId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            VisitKey visitKey = (VisitKey) o;
+            // recipes compare equal by name, but two instances in a doNext chain are different visits
+            return recipe == visitKey.recipe && sourceFileId.equals(visitKey.sourceFileId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(recipe) + sourceFileId.hashCode();
+        }
+    }
+
+    /**
+     * The execution context of a single recipe's visit of a single source file, which records the messages read
+     * during the visit and keeps source file scoped messages out of the shared message store.
+     */
+    private static class SourceFileExecutionContext extends DelegatingExecutionContext {
+        private final Set<String> messagesRead = new HashSet<>();
+        private final Set<String> sourceFileMessagesRead = new HashSet<>();
+        private final WatchForNewMessageExecutionContext delegate;
+        private final CycleState cycleState;
+        private final VisitKey visit;
+
+        private SourceFileExecutionContext(WatchForNewMessageExecutionContext delegate, CycleState cycleState, VisitKey visit) {
+            super(delegate);
             this.delegate = delegate;
+            this.cycleState = cycleState;
+            this.visit = visit;
+        }
+
+        private void messageRead(String key) {
+            if (messagesRead.add(key)) {
+                cycleState.messageRead(key, visit);
+            }
+        }
+
+        @Override
+        public <T> @Nullable T getMessage(String key) {
+            messageRead(key);
+            return super.getMessage(key);
+        }
+
+        @Override
+        public <T> @Nullable T pollMessage(String key) {
+            messageRead(key);
+            return super.pollMessage(key);
+        }
+
+        @Override
+        public <T> void putMessage(Key<T> key, T value) {
+            if (key.getScope() == Key.Scope.SOURCE_FILE) {
+                cycleState.sourceFileMessageWritten(visit.sourceFileId, key.getName());
+                cycleState.sourceFileMessages(visit.sourceFileId).put(key.getName(), value);
+            } else {
+                delegate.putMessage(key, value, visit);
+            }
+        }
+
+        @Override
+        public <T> @Nullable T getMessage(Key<T> key) {
+            if (key.getScope() == Key.Scope.SOURCE_FILE) {
+                sourceFileMessagesRead.add(key.getName());
+                //noinspection unchecked
+                return (T) cycleState.sourceFileMessages(visit.sourceFileId).get(key.getName());
+            }
+            messageRead(key.getName());
+            return super.getMessage(key);
+        }
+
+        @Override
+        public <T> @Nullable T pollMessage(Key<T> key) {
+            if (key.getScope() == Key.Scope.SOURCE_FILE) {
+                sourceFileMessagesRead.add(key.getName());
+                cycleState.sourceFileMessageWritten(visit.sourceFileId, key.getName());
+                //noinspection unchecked
+                return (T) cycleState.sourceFileMessages(visit.sourceFileId).remove(key.getName());
+            }
+            messageRead(key.getName());
+            return super.pollMessage(key);
+        }
+    }
+
+    /**
+     * A visit earlier in the cycle may have read the value that a message replaces, so putting an untyped message
+     * causes another cycle. Putting a typed message only does when a visit other than the one putting it has read
+     * the message, since no other visit depends on it otherwise. Either way, that cycle only revisits the source
+     * files whose visits read a message that was written.
+     */
+    private static class WatchForNewMessageExecutionContext extends DelegatingExecutionContext {
+        private volatile boolean needAnotherCycle = true;
+        private final CycleState cycleState;
+
+        private WatchForNewMessageExecutionContext(ExecutionContext delegate, CycleState cycleState) {
+            super(delegate);
+            this.cycleState = cycleState;
         }
 
         @Override
         public void putMessage(String key, Object value) {
             needAnotherCycle = true;
-            delegate.putMessage(key, value);
+            cycleState.messagesWritten.add(key);
+            super.putMessage(key, value);
         }
 
         @Override
-        public <T> @Nullable T getMessage(String key) {
-            return delegate.getMessage(key);
+        public <T> @Nullable T pollMessage(String key) {
+            cycleState.messagesWritten.add(key);
+            return super.pollMessage(key);
         }
 
         @Override
-        public <T> @Nullable T pollMessage(String key) {
-            return delegate.pollMessage(key);
+        public <T> void putMessage(Key<T> key, T value) {
+            putMessage(key, value, null);
+        }
+
+        private <T> void putMessage(Key<T> key, T value, @Nullable VisitKey writer) {
+            cycleState.messagesWritten.add(key.getName());
+            // a visit registers as a reader before reading, so any reader missed here reads the new value
+            super.putMessage(key, value);
+            if (cycleState.readByAnotherVisit(key.getName(), writer)) {
+                needAnotherCycle = true;
+            }
         }
 
         @Override
-        public Consumer<Throwable> getOnError() {
-            return delegate.getOnError();
+        public <T> @Nullable T pollMessage(Key<T> key) {
+            cycleState.messagesWritten.add(key.getName());
+            return super.pollMessage(key);
+        }
+
+        @Override
+        public void requireAnotherCycle() {
+            needAnotherCycle = true;
+            cycleState.revisitRequested = true;
         }
     }
 }
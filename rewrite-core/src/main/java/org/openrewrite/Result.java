@@ -16,25 +16,21 @@
 package org.openrewrite;
 
 import lombok.Getter;
-import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.diff.DiffFormatter;
-import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
-import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
-import org.eclipse.jgit.lib.Constants;
-import org.eclipse.jgit.lib.FileMode;
-import org.eclipse.jgit.lib.ObjectInserter;
+import org.openrewrite.internal.MyersDiff;
 import org.openrewrite.internal.lang.Nullable;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.io.*;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Arrays;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 public class Result {
     /**
      * Possible {@code null} if a new file is being created.
@@ -78,6 +74,21 @@ public class Result {
      * @return Git-style patch diff representing the changes to this compilation unit
      */
     public String diff(@Nullable Path relativeTo, TreePrinter<?> treePrinter) {
+        return diffEntry(relativeTo, treePrinter).getDiff();
+    }
+
+    /**
+     * Write a Git-style patch diff representing the changes to this compilation unit, encoded as UTF-8.
+     *
+     * @param out        The stream to write the patch to, which is flushed but not closed.
+     * @param relativeTo Optional relative path that is used to relativize file paths of reported differences.
+     */
+    @Incubating(since = "7.0.0")
+    public void diff(OutputStream out, @Nullable Path relativeTo, TreePrinter<?> treePrinter) {
+        diffEntry(relativeTo, treePrinter).writeTo(out);
+    }
+
+    private InMemoryDiffEntry diffEntry(@Nullable Path relativeTo, TreePrinter<?> treePrinter) {
         Path sourcePath;
         if (after != null) {
             sourcePath = after.getSourcePath();
@@ -91,7 +102,7 @@ public class Result {
         return new InMemoryDiffEntry(sourcePath, relativeTo,
                 before == null ? "" : before.print(),
                 after == null ? "" : after.print(treePrinter, null),
-                recipesThatMadeChanges).getDiff();
+                recipesThatMadeChanges);
     }
 
     @Override
@@ -99,66 +110,242 @@ public class Result {
         return diff();
     }
 
-    static class InMemoryDiffEntry extends DiffEntry {
-        private final InMemoryRepository repo;
+    /**
+     * Produces the same unified diff that {@code git diff} (or JGit's {@code DiffFormatter}) would for a modification
+     * of a regular file, with three lines of context, directly from the before and after text. The names of the
+     * recipes that made changes are added to the first hunk header.
+     */
+    static class InMemoryDiffEntry {
+        private static final int CONTEXT = 3;
+
+        private final String path;
+        private final String oldSource;
+        private final String newSource;
         private final Set<Recipe> recipesThatMadeChanges;
 
         InMemoryDiffEntry(Path filePath, @Nullable Path relativeTo, String oldSource, String newSource, Set<Recipe> recipesThatMadeChanges) {
-            this.changeType = ChangeType.MODIFY;
+            Path relativePath = relativeTo == null ? filePath : relativeTo.relativize(filePath);
+            this.path = relativePath.toString();
+            this.oldSource = oldSource;
+            this.newSource = newSource;
             this.recipesThatMadeChanges = recipesThatMadeChanges;
+        }
 
-            Path relativePath = relativeTo == null ? filePath : relativeTo.relativize(filePath);
-            this.oldPath = relativePath.toString();
-            this.newPath = relativePath.toString();
+        String getDiff() {
+            StringWriter patch = new StringWriter();
+            try {
+                write(patch);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return patch.toString();
+        }
 
+        void writeTo(OutputStream out) {
             try {
-                this.repo = new InMemoryRepository.Builder()
-                        .setRepositoryDescription(new DfsRepositoryDescription())
-                        .build();
-
-                ObjectInserter inserter = repo.getObjectDatabase().newInserter();
-                oldId = inserter.insert(Constants.OBJ_BLOB, oldSource.getBytes()).abbreviate(40);
-                newId = inserter.insert(Constants.OBJ_BLOB, newSource.getBytes()).abbreviate(40);
-                inserter.flush();
-
-                oldMode = FileMode.REGULAR_FILE;
-                newMode = FileMode.REGULAR_FILE;
-                repo.close();
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+                write(writer);
+                writer.flush();
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
         }
 
-        String getDiff() {
-            if (oldId.equals(newId)) {
-                return "";
+        private void write(Writer out) throws IOException {
+            if (oldSource.equals(newSource)) {
+                return;
             }
 
-            ByteArrayOutputStream patch = new ByteArrayOutputStream();
-            DiffFormatter formatter = new DiffFormatter(patch);
-            formatter.setRepository(repo);
+            byte[] oldBytes = oldSource.getBytes(UTF_8);
+            byte[] newBytes = newSource.getBytes(UTF_8);
+
+            out.write("diff --git " + quotePath("a/" + path) + " " + quotePath("b/" + path) + "\n");
+            out.write("index " + abbreviatedObjectId(oldBytes) + ".." + abbreviatedObjectId(newBytes) + " 100644\n");
+            out.write("--- " + quotePath("a/" + path) + "\n");
+            out.write("+++ " + quotePath("b/" + path) + "\n");
+
+            if (isBinary(oldBytes) || isBinary(newBytes)) {
+                out.write("Binary files differ\n");
+                return;
+            }
+
+            List<String> a = lines(oldSource);
+            List<String> b = lines(newSource);
+            List<MyersDiff.Edit> edits = MyersDiff.diff(a, b);
+
+            boolean firstHunk = true;
+            for (int curIdx = 0; curIdx < edits.size(); ) {
+                MyersDiff.Edit curEdit = edits.get(curIdx);
+                int endIdx = combinedEnd(edits, curIdx);
+                MyersDiff.Edit endEdit = edits.get(endIdx);
+
+                int aCur = Math.max(0, curEdit.getBeginA() - CONTEXT);
+                int bCur = Math.max(0, curEdit.getBeginB() - CONTEXT);
+                int aEnd = Math.min(a.size(), endEdit.getEndA() + CONTEXT);
+                int bEnd = Math.min(b.size(), endEdit.getEndB() + CONTEXT);
+
+                out.write("@@ -" + range(aCur + 1, aEnd - aCur) + " +" + range(bCur + 1, bEnd - bCur) + " @@");
+                if (firstHunk) {
+                    out.write(recipesThatMadeChanges.stream()
+                            .map(Recipe::getName)
+                            .sorted()
+                            .collect(Collectors.joining(", ", " ", "")));
+                    firstHunk = false;
+                }
+                out.write('\n');
+
+                while (aCur < aEnd || bCur < bEnd) {
+                    if (aCur < curEdit.getBeginA() || endIdx + 1 < curIdx) {
+                        writeLine(out, ' ', a, aCur);
+                        aCur++;
+                        bCur++;
+                    } else if (aCur < curEdit.getEndA()) {
+                        writeLine(out, '-', a, aCur);
+                        aCur++;
+                    } else if (bCur < curEdit.getEndB()) {
+                        writeLine(out, '+', b, bCur);
+                        bCur++;
+                    }
+
+                    if (curEdit.getEndA() <= aCur && curEdit.getEndB() <= bCur && ++curIdx < edits.size()) {
+                        curEdit = edits.get(curIdx);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Edits that are close enough that their context lines would touch or overlap are written as one hunk.
+         */
+        private static int combinedEnd(List<MyersDiff.Edit> edits, int i) {
+            int end = i + 1;
+            while (end < edits.size() &&
+                    (edits.get(end).getBeginA() - edits.get(end - 1).getEndA() <= 2 * CONTEXT ||
+                            edits.get(end).getBeginB() - edits.get(end - 1).getEndB() <= 2 * CONTEXT)) {
+                end++;
+            }
+            return end - 1;
+        }
+
+        private static String range(int begin, int count) {
+            switch (count) {
+                case 0:
+                    // an empty range begins at the line just before it
+                    return (begin - 1) + ",0";
+                case 1:
+                    return Integer.toString(begin);
+                default:
+                    return begin + "," + count;
+            }
+        }
+
+        private static void writeLine(Writer out, char prefix, List<String> lines, int i) throws IOException {
+            String line = lines.get(i);
+            out.write(prefix);
+            if (line.endsWith("\n")) {
+                out.write(line);
+            } else {
+                out.write(line);
+                out.write("\n\\ No newline at end of file\n");
+            }
+        }
+
+        /**
+         * @return The lines of the text, each including its line terminator, so that a last line that is missing
+         * a newline is different from the same line with one.
+         */
+        private static List<String> lines(String text) {
+            List<String> lines = new ArrayList<>();
+            int start = 0;
+            for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', start)) {
+                lines.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+            if (start < text.length()) {
+                lines.add(text.substring(start));
+            }
+            return lines;
+        }
+
+        /**
+         * The same heuristic git uses, looking for a NUL byte in the first 8000 bytes.
+         */
+        private static boolean isBinary(byte[] content) {
+            for (int i = 0; i < Math.min(content.length, 8000); i++) {
+                if (content[i] == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return The first seven hex digits of the git blob object id of the content.
+         */
+        private static String abbreviatedObjectId(byte[] content) {
             try {
-                formatter.format(this);
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
+                MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+                sha1.update(("blob " + content.length + "\0").getBytes(UTF_8));
+                byte[] id = sha1.digest(content);
+                StringBuilder hex = new StringBuilder(7);
+                for (int i = 0; i < 4; i++) {
+                    hex.append(Character.forDigit((id[i] >> 4) & 0xf, 16))
+                            .append(Character.forDigit(id[i] & 0xf, 16));
+                }
+                return hex.substring(0, 7);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
             }
+        }
 
-            String diff = patch.toString();
-
-            AtomicBoolean addedComment = new AtomicBoolean(false);
-            // NOTE: String.lines() would remove empty lines which we don't want
-            return Arrays.stream(diff.split("\n"))
-                    .map(l -> {
-                        if (!addedComment.get() && l.startsWith("@@") && l.endsWith("@@")) {
-                            addedComment.set(true);
-                            return l + recipesThatMadeChanges.stream()
-                                    .map(Recipe::getName)
-                                    .sorted()
-                                    .collect(Collectors.joining(", ", " ", ""));
-                        }
-                        return l;
-                    })
-                    .collect(Collectors.joining("\n")) + "\n";
+        /**
+         * Quotes a path the way git does when it contains special characters or bytes outside of printable ASCII.
+         */
+        private static String quotePath(String path) {
+            StringBuilder quoted = new StringBuilder(path.length() + 2).append('"');
+            boolean needsQuoting = false;
+            for (byte b : path.getBytes(UTF_8)) {
+                int c = b & 0xff;
+                String escape;
+                switch (c) {
+                    case 0x07:
+                        escape = "\\a";
+                        break;
+                    case '\b':
+                        escape = "\\b";
+                        break;
+                    case '\f':
+                        escape = "\\f";
+                        break;
+                    case '\n':
+                        escape = "\\n";
+                        break;
+                    case '\r':
+                        escape = "\\r";
+                        break;
+                    case '\t':
+                        escape = "\\t";
+                        break;
+                    case 0x0b:
+                        escape = "\\v";
+                        break;
+                    case '\\':
+                        escape = "\\\\";
+                        break;
+                    case '"':
+                        escape = "\\\"";
+                        break;
+                    default:
+                        escape = c < 0x20 || c >= 0x7f ? String.format("\\%03o", c) : null;
+                }
+                if (escape == null) {
+                    quoted.append((char) c);
+                } else {
+                    needsQuoting = true;
+                    quoted.append(escape);
+                }
+            }
+            return needsQuoting ? quoted.append('"').toString() : path;
         }
     }
 }
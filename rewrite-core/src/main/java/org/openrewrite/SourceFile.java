@@ -25,6 +25,26 @@ public interface SourceFile extends Tree {
      */
     Path getSourcePath();
 
+    /**
+     * Recipes determine whether they have changed a source file by walking the before and after trees in lockstep.
+     * Source files whose printed form isn't fully determined by the fields of their elements should return
+     * {@code false}, in which case changes are detected by printing and comparing both versions instead.
+     *
+     * @return {@code true} if changes to this source file can be detected without printing it.
+     */
+    default boolean isStructurallyComparable() {
+        return true;
+    }
+
+    /**
+     * @param type The type of a value held by some element of this source file.
+     * @return {@code true} if values of this type don't contribute to the printed form of this source file (e.g.
+     * type attribution), and so should not be considered when determining whether a recipe has changed it.
+     */
+    default boolean isIgnoredInStructuralComparison(Class<?> type) {
+        return false;
+    }
+
     @JsonProperty("@c")
     default String getJacksonPolymorphicTypeTag() {
         return getClass().getName();
@@ -22,6 +22,8 @@ import org.openrewrite.marker.Markable;
 import org.openrewrite.style.NamedStyles;
 import org.openrewrite.style.Style;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.UUID;
 
 @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "@c")
@@ -60,6 +62,19 @@ public interface Tree extends Markable {
 
     <P> String print(TreePrinter<P> printer, P p);
 
+    /**
+     * Print this tree to an {@link Appendable} (e.g. a {@link java.io.Writer}). Language implementations write
+     * output as the tree is visited rather than building the whole printed form in memory first.
+     */
+    @Incubating(since = "7.0.0")
+    default <P> void print(TreePrinter<P> printer, P p, Appendable out) {
+        try {
+            out.append(print(printer, p));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     default <P> String print(P p) {
         return print(TreePrinter.identity(), p);
     }
@@ -19,6 +19,10 @@ public interface TreePrinter<P> {
 
     static <P> TreePrinter<P> identity() {
         return new TreePrinter<P>() {
+            @Override
+            public boolean isFlushableMidTree() {
+                return true;
+            }
         };
     }
 
@@ -27,7 +31,8 @@ public interface TreePrinter<P> {
      *
      * @param tree AST element that is about to be printed
      * @param printerAcc Printer accumulator, can be appended to, contains everything written for the overall visit
-     *                   operation so far
+     *                   operation so far, or when printing to an {@link Appendable}, everything written since output
+     *                   was last flushed to it (see {@link #isFlushableMidTree()})
      * @param p visit context
      */
     default void doBefore(Tree tree, StringBuilder printerAcc, P p) {}
@@ -37,10 +42,23 @@ public interface TreePrinter<P> {
      *
      * @param tree AST element that has just been printed
      * @param printerAcc Printer accumulator, can be appended to, contains everything written for the overall visit
-     *      *                   operation so far
+     *                   operation so far, or when printing to an {@link Appendable}, everything written since output
+     *                   was last flushed to it (see {@link #isFlushableMidTree()})
      * @param p visit context
      */
     default void doAfter(Tree tree, StringBuilder printerAcc, P p) {}
 
+    /**
+     * When printing to an {@link Appendable}, output is only flushed to it between top-level trees unless this
+     * returns true, so that positions in the printer accumulator recorded in
+     * {@link #doBefore(Tree, StringBuilder, Object) doBefore} are still valid in
+     * {@link #doAfter(Tree, StringBuilder, Object) doAfter}.
+     *
+     * @return Whether this printer only ever appends to the printer accumulator, so output can be flushed at any time.
+     */
+    default boolean isFlushableMidTree() {
+        return false;
+    }
+
 
 }
@@ -17,24 +17,43 @@ package org.openrewrite;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.cfg.ConstructorDetector;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
 import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.marker.Marker;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.UncheckedIOException;
-import java.util.List;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
 
 public class TreeSerializer<S extends SourceFile> {
+    /**
+     * Begins and ends every set of records written by a {@link RecordWriter}.
+     */
+    private static final int RECORDS_MAGIC = 0x52574C53;
+
+    private static final int RECORDS_VERSION = 1;
+
     private final TypeReference<S> sourceType = new TypeReference<S>() {
     };
 
@@ -46,6 +65,10 @@ public class TreeSerializer<S extends SourceFile> {
     public TreeSerializer() {
         SimpleModule markerModule = new SimpleModule();
 
+        SimpleModule sharedValueModule = new SimpleModule();
+        sharedValueModule.setSerializerModifier(new SharedValueSerializerModifier());
+        sharedValueModule.setDeserializerModifier(new SharedValueDeserializerModifier());
+
         SmileFactory f = new SmileFactory();
         f.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
 
@@ -55,6 +78,7 @@ public class TreeSerializer<S extends SourceFile> {
                 .constructorDetector(ConstructorDetector.USE_PROPERTIES_BASED)
                 .build()
                 .registerModule(markerModule)
+                .registerModule(sharedValueModule)
                 .registerModule(new ParameterNamesModule())
                 .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
                 .setSerializationInclusion(JsonInclude.Include.NON_NULL);
@@ -129,4 +153,545 @@ public class TreeSerializer<S extends SourceFile> {
             throw new UncheckedIOException(e);
         }
     }
+
+    /**
+     * Write source files one at a time, each to its own record, so that they can be read back individually.
+     * Values that are shared between source files rather than being part of any one tree (types, whitespace,
+     * markers, and other values Jackson would otherwise only share by identity within a single write) are
+     * written once to a dictionary that all the records refer to.
+     *
+     * @param out The stream to write the records to. Closed when the returned writer is closed.
+     * @return A writer that completes the records when it is closed.
+     */
+    @Incubating(since = "7.0.0")
+    public RecordWriter recordWriter(OutputStream out) {
+        return new RecordWriter(out);
+    }
+
+    /**
+     * @param path A file written by a {@link RecordWriter}. Only the parts of it needed by the source files that are
+     *             read are read.
+     * @return A reader that holds the file open until it is closed.
+     */
+    @Incubating(since = "7.0.0")
+    public RecordReader recordReader(Path path) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                return new RecordReader(new RecordSource() {
+                    @Override
+                    public long size() throws IOException {
+                        return channel.size();
+                    }
+
+                    @Override
+                    public void read(long position, byte[] bytes) throws IOException {
+                        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                        while (buffer.hasRemaining()) {
+                            if (channel.read(buffer, position + buffer.position()) < 0) {
+                                throw new EOFException();
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        channel.close();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // the reader owns the channel only once it has been constructed
+                try {
+                    channel.close();
+                } catch (IOException closeFailure) {
+                    e.addSuppressed(closeFailure);
+                }
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param bytes Everything written by a {@link RecordWriter}.
+     * @return A reader of the source files in it.
+     */
+    @Incubating(since = "7.0.0")
+    public RecordReader recordReader(byte[] bytes) {
+        return new RecordReader(new RecordSource() {
+            @Override
+            public long size() {
+                return bytes.length;
+            }
+
+            @Override
+            public void read(long position, byte[] into) throws IOException {
+                if (position + into.length > bytes.length) {
+                    throw new EOFException();
+                }
+                System.arraycopy(bytes, (int) position, into, 0, into.length);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+    }
+
+    @Incubating(since = "7.0.0")
+    public class RecordWriter implements Closeable {
+        private final DataOutputStream out;
+        private final WriteDictionary dictionary = new WriteDictionary();
+        private final ObjectWriter writer = mapper.writer().withAttribute(WriteDictionary.class, dictionary);
+        private final RecordIndex sourceFiles = new RecordIndex();
+        private final RecordIndex dictionaryBlocks = new RecordIndex();
+        private long position;
+
+        private RecordWriter(OutputStream out) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            dictionary.writer = writer;
+            try {
+                this.out.writeInt(RECORDS_MAGIC);
+                this.out.writeInt(RECORDS_VERSION);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 8;
+        }
+
+        public void write(S source) {
+            try {
+                sourceFiles.add(position, writeRecord(writer.writeValueAsBytes(source)), 1);
+                if (!dictionary.unwritten.isEmpty()) {
+                    writeDictionaryBlock();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Shared values are written right behind the first source file that refers to them, all together, so that
+         * the property names and type ids they have in common are only written once.
+         */
+        private void writeDictionaryBlock() throws IOException {
+            ByteArrayOutputStream block = new ByteArrayOutputStream();
+            int count = 0;
+            try (JsonGenerator gen = mapper.getFactory().createGenerator(block)) {
+                gen.writeStartArray();
+                Object value;
+                while ((value = dictionary.unwritten.poll()) != null) {
+                    Class<?> type = value.getClass();
+                    while (type.isAnonymousClass()) {
+                        type = type.getSuperclass();
+                    }
+                    gen.writeStartArray();
+                    gen.writeString(type.getName());
+                    dictionary.entry = value;
+                    writer.writeValue(gen, value);
+                    gen.writeEndArray();
+                    count++;
+                }
+                gen.writeEndArray();
+            }
+            dictionaryBlocks.add(position, writeRecord(block.toByteArray()), count);
+        }
+
+        private int writeRecord(byte[] bytes) throws IOException {
+            out.write(bytes);
+            position += bytes.length;
+            return bytes.length;
+        }
+
+        @Override
+        public void close() {
+            try {
+                long indexPosition = position;
+                sourceFiles.write(out);
+                dictionaryBlocks.write(out);
+                out.writeLong(indexPosition);
+                out.writeInt(RECORDS_MAGIC);
+                out.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Reads individual source files written by a {@link RecordWriter} without reading any of the others. Shared
+     * values are read once, when a source file that refers to them is first read, and are then shared by every
+     * source file read afterwards.
+     */
+    @Incubating(since = "7.0.0")
+    public class RecordReader implements Closeable {
+        private final RecordSource source;
+        private final RecordIndex sourceFiles;
+        private final ReadDictionary dictionary;
+        private final ObjectReader reader;
+
+        private RecordReader(RecordSource source) {
+            this.source = source;
+            try {
+                long size = source.size();
+                byte[] header = new byte[8];
+                byte[] trailer = new byte[12];
+                if (size < header.length + trailer.length) {
+                    throw new IllegalArgumentException("Not a set of source file records");
+                }
+                source.read(0, header);
+                source.read(size - trailer.length, trailer);
+
+                DataInputStream headerIn = new DataInputStream(new ByteArrayInputStream(header));
+                DataInputStream trailerIn = new DataInputStream(new ByteArrayInputStream(trailer));
+                long indexPosition = trailerIn.readLong();
+                if (headerIn.readInt() != RECORDS_MAGIC || trailerIn.readInt() != RECORDS_MAGIC) {
+                    throw new IllegalArgumentException("Not a set of source file records");
+                }
+                int version = headerIn.readInt();
+                if (version != RECORDS_VERSION) {
+                    throw new IllegalArgumentException("Unsupported source file record version " + version);
+                }
+
+                byte[] index = new byte[(int) (size - trailer.length - indexPosition)];
+                source.read(indexPosition, index);
+                DataInputStream indexIn = new DataInputStream(new ByteArrayInputStream(index));
+                this.sourceFiles = RecordIndex.read(indexIn);
+                this.dictionary = new ReadDictionary(mapper, source, RecordIndex.read(indexIn));
+                this.reader = mapper.readerFor(sourceType).withAttribute(ReadDictionary.class, dictionary);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public int size() {
+            return sourceFiles.size;
+        }
+
+        public synchronized S read(int index) {
+            try {
+                return reader.readValue(sourceFiles.read(source, index));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public List<S> readAll() {
+            List<S> sources = new ArrayList<>(size());
+            for (int i = 0; i < size(); i++) {
+                sources.add(read(i));
+            }
+            return sources;
+        }
+
+        @Override
+        public void close() {
+            try {
+                source.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private interface RecordSource extends Closeable {
+        long size() throws IOException;
+
+        void read(long position, byte[] bytes) throws IOException;
+    }
+
+    /**
+     * Where each record is, and how many values it holds.
+     */
+    private static class RecordIndex {
+        private long[] positions = new long[16];
+        private int[] lengths = new int[16];
+        private int[] counts = new int[16];
+        private int size;
+
+        void add(long position, int length, int count) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            positions[size] = position;
+            lengths[size] = length;
+            counts[size] = count;
+            size++;
+        }
+
+        byte[] read(RecordSource source, int i) throws IOException {
+            if (i < 0 || i >= size) {
+                throw new IndexOutOfBoundsException("Record " + i + " of " + size);
+            }
+            byte[] bytes = new byte[lengths[i]];
+            source.read(positions[i], bytes);
+            return bytes;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(positions[i]);
+                out.writeInt(lengths[i]);
+                out.writeInt(counts[i]);
+            }
+        }
+
+        static RecordIndex read(DataInputStream in) throws IOException {
+            RecordIndex index = new RecordIndex();
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                index.add(in.readLong(), in.readInt(), in.readInt());
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Shared values are identified by their order of first appearance, which is also the order they are written in.
+     * Values that serialize the same are written once, so for example all whitespace that is the same shares an entry,
+     * no matter how many instances of it there are.
+     */
+    private static class WriteDictionary {
+        private final Map<ByteBuffer, Integer> idsByContent = new HashMap<>();
+
+        /**
+         * Shared values are looked up by value equality, so that an instance equal to one already seen (e.g. the same
+         * whitespace built again) isn't serialized just to find its entry. Only the first instance seen of any value
+         * is kept, so that this holds onto no more than the dictionary does. This relies on the equality of shared
+         * values covering everything they serialize, e.g. the text of the comments in whitespace.
+         */
+        private final Map<Object, Integer> ids = new HashMap<>();
+
+        /**
+         * Markers are often equal by id or by only part of what they serialize, so they are looked up by identity.
+         */
+        private final Map<Object, Integer> markerIds = new IdentityHashMap<>();
+
+        private final Set<Object> writing = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Queue<Object> unwritten = new ArrayDeque<>();
+
+        @Nullable
+        private ObjectWriter writer;
+
+        @Nullable
+        private Object entry;
+
+        int id(Object value) throws IOException {
+            Map<Object, Integer> ids = value instanceof Marker ? markerIds : this.ids;
+            Integer id = ids.get(value);
+            if (id == null) {
+                assert writer != null;
+                if (!writing.add(value)) {
+                    throw new IllegalStateException("Shared value " + value + " refers to itself");
+                }
+                ByteBuffer content;
+                try {
+                    entry = value;
+                    content = ByteBuffer.wrap(writer.writeValueAsBytes(value));
+                } finally {
+                    writing.remove(value);
+                }
+
+                id = idsByContent.get(content);
+                if (id == null) {
+                    id = idsByContent.size();
+                    idsByContent.put(content, id);
+                    ids.put(value, id);
+                    unwritten.add(value);
+                }
+            }
+            return id;
+        }
+
+        /**
+         * @return Whether the value is the dictionary entry being written, rather than a reference to a shared value.
+         */
+        boolean isEntry(Object value) {
+            if (value == entry) {
+                entry = null;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class ReadDictionary {
+        private final ObjectMapper mapper;
+        private final RecordSource source;
+        private final RecordIndex blocks;
+        private final int[] blockFirstIds;
+        private final Object[] values;
+
+        ReadDictionary(ObjectMapper mapper, RecordSource source, RecordIndex blocks) {
+            this.mapper = mapper;
+            this.source = source;
+            this.blocks = blocks;
+            this.blockFirstIds = new int[blocks.size];
+            int ids = 0;
+            for (int i = 0; i < blocks.size; i++) {
+                blockFirstIds[i] = ids;
+                ids += blocks.counts[i];
+            }
+            this.values = new Object[ids];
+        }
+
+        Object get(int id) throws IOException {
+            if (values[id] == null) {
+                int block = Arrays.binarySearch(blockFirstIds, id);
+                readBlock(block >= 0 ? block : -block - 2);
+                if (values[id] == null) {
+                    throw new IllegalStateException("Shared value " + id + " refers to a value written after it");
+                }
+            }
+            return values[id];
+        }
+
+        /**
+         * Every value in a block is read at once. A shared value only ever refers to values written before it.
+         */
+        private void readBlock(int block) throws IOException {
+            ObjectReader reader = mapper.reader().withAttribute(ReadDictionary.class, this);
+            try (JsonParser p = mapper.getFactory().createParser(blocks.read(source, block))) {
+                p.nextToken();
+                for (int id = blockFirstIds[block]; p.nextToken() == JsonToken.START_ARRAY; id++) {
+                    p.nextToken();
+                    Class<?> type;
+                    try {
+                        type = mapper.getTypeFactory().findClass(p.getText());
+                    } catch (ClassNotFoundException e) {
+                        throw new IllegalStateException("Unable to find the type of shared value " + id, e);
+                    }
+                    p.nextToken();
+                    values[id] = reader.forType(type).readValue(p);
+                    p.nextToken();
+                }
+            }
+        }
+    }
+
+    /**
+     * Types Jackson shares by identity, except for trees themselves and enums (which are small and written by name),
+     * are the ones that are shared between trees.
+     */
+    private static boolean isSharedValue(BeanDescription beanDesc) {
+        return beanDesc.getObjectIdInfo() != null &&
+                !Tree.class.isAssignableFrom(beanDesc.getBeanClass()) &&
+                !Enum.class.isAssignableFrom(beanDesc.getBeanClass());
+    }
+
+    private static class SharedValueSerializerModifier extends BeanSerializerModifier {
+        @Override
+        public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc, JsonSerializer<?> serializer) {
+            //noinspection unchecked
+            return isSharedValue(beanDesc) ? new SharedValueSerializer((JsonSerializer<Object>) serializer) : serializer;
+        }
+    }
+
+    private static class SharedValueDeserializerModifier extends BeanDeserializerModifier {
+        @Override
+        public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config, BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+            return isSharedValue(beanDesc) ? new SharedValueDeserializer(deserializer) : deserializer;
+        }
+    }
+
+    /**
+     * Writes a shared value as its dictionary id when writing records, and as usual otherwise.
+     */
+    private static class SharedValueSerializer extends JsonSerializer<Object> implements ContextualSerializer, ResolvableSerializer {
+        private final JsonSerializer<Object> delegate;
+
+        SharedValueSerializer(JsonSerializer<Object> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            WriteDictionary dictionary = (WriteDictionary) provider.getAttribute(WriteDictionary.class);
+            if (dictionary == null || dictionary.isEntry(value)) {
+                delegate.serialize(value, gen, provider);
+            } else {
+                gen.writeNumber(dictionary.id(value));
+            }
+        }
+
+        @Override
+        public void serializeWithType(Object value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+            WriteDictionary dictionary = (WriteDictionary) provider.getAttribute(WriteDictionary.class);
+            if (dictionary == null || dictionary.isEntry(value)) {
+                delegate.serializeWithType(value, gen, provider, typeSer);
+            } else {
+                gen.writeNumber(dictionary.id(value));
+            }
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider prov, BeanProperty property) throws JsonMappingException {
+            if (delegate instanceof ContextualSerializer) {
+                //noinspection unchecked
+                JsonSerializer<Object> contextual = (JsonSerializer<Object>) ((ContextualSerializer) delegate).createContextual(prov, property);
+                if (contextual != delegate) {
+                    return new SharedValueSerializer(contextual);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer) {
+                ((ResolvableSerializer) delegate).resolve(provider);
+            }
+        }
+
+        @Override
+        public Class<Object> handledType() {
+            return delegate.handledType();
+        }
+
+        @Override
+        public boolean isEmpty(SerializerProvider provider, Object value) {
+            return delegate.isEmpty(provider, value);
+        }
+
+        @Override
+        public boolean usesObjectId() {
+            return delegate.usesObjectId();
+        }
+    }
+
+    /**
+     * Reads a shared value from the dictionary by its id when reading records, and as usual otherwise.
+     */
+    private static class SharedValueDeserializer extends DelegatingDeserializer {
+        SharedValueDeserializer(JsonDeserializer<?> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+            return new SharedValueDeserializer(newDelegatee);
+        }
+
+        @Override
+        public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            ReadDictionary dictionary = (ReadDictionary) ctxt.getAttribute(ReadDictionary.class);
+            if (dictionary != null && p.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                return dictionary.get(p.getIntValue());
+            }
+            return super.deserialize(p, ctxt);
+        }
+
+        @Override
+        public Object deserializeWithType(JsonParser p, DeserializationContext ctxt, TypeDeserializer typeDeserializer) throws IOException {
+            ReadDictionary dictionary = (ReadDictionary) ctxt.getAttribute(ReadDictionary.class);
+            if (dictionary != null && p.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                return dictionary.get(p.getIntValue());
+            }
+            return super.deserializeWithType(p, ctxt, typeDeserializer);
+        }
+    }
 }
@@ -77,6 +77,14 @@ public class DeclarativeRecipe extends Recipe {
         return validation;
     }
 
+    /**
+     * Only the recipes it runs next visit source files.
+     */
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     @Override
     public String getName() {
         return name;
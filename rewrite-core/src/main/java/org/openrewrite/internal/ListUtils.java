@@ -22,8 +22,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.BiFunction;
 import java.util.function.UnaryOperator;
 
@@ -141,35 +140,63 @@ public final class ListUtils {
     /**
      * Apply function to each element of the list. If any element has been modified then
      * a new list will be returned where the modifed elements have been replaced with their new version.
+     * <p>
+     * Elements are mapped in parallel on the supplied pool by recursively splitting the list into work-stealing
+     * subtasks. Each subtask records its result in its own slot of a shared array, so no synchronization is
+     * required between elements.
      */
     public static <T> List<T> map(List<T> ls, ForkJoinPool pool, BiFunction<Integer, T, T> map) {
         if (ls.isEmpty()) {
             return ls;
         }
 
-        AtomicReference<List<T>> newLs = new AtomicReference<>(ls);
-        for (int i = 0; i < ls.size(); i++) {
-            int index = i;
-
-            ForkJoinTask<?> task = ForkJoinTask.adapt(() -> {
-                T tree = ls.get(index);
-                T newTree = map.apply(index, tree);
-                if (newTree != tree) {
-                    newLs.updateAndGet(l -> l == ls ? new ArrayList<>(ls) : l)
-                            .set(index, newTree);
-                }
-            });
+        Object[] mapped = new Object[ls.size()];
+        pool.invoke(new MapAction<>(ls, map, mapped, 0, ls.size()));
 
-            pool.invoke(task);
-            task.join();
+        List<T> newLs = ls;
+        for (int i = 0; i < mapped.length; i++) {
+            @SuppressWarnings("unchecked") T newTree = (T) mapped[i];
+            if (newTree != ls.get(i)) {
+                if (newLs == ls) {
+                    newLs = new ArrayList<>(ls);
+                }
+                newLs.set(i, newTree);
+            }
         }
 
-        if (newLs.get() != ls) {
+        if (newLs != ls) {
             //noinspection StatementWithEmptyBody
-            while (newLs.get().remove(null)) ;
+            while (newLs.remove(null)) ;
         }
 
-        return newLs.get();
+        return newLs;
+    }
+
+    private static class MapAction<T> extends RecursiveAction {
+        private final List<T> ls;
+        private final BiFunction<Integer, T, T> map;
+        private final Object[] mapped;
+        private final int from;
+        private final int to;
+
+        private MapAction(List<T> ls, BiFunction<Integer, T, T> map, Object[] mapped, int from, int to) {
+            this.ls = ls;
+            this.map = map;
+            this.mapped = mapped;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                mapped[from] = map.apply(from, ls.get(from));
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MapAction<>(ls, map, mapped, from, mid),
+                        new MapAction<>(ls, map, mapped, mid, to));
+            }
+        }
     }
 
     public static <T> List<T> concat(@Nullable List<T> ls, T t) {
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import java.util.*;
+
+/**
+ * A line-based implementation of Myers' O(ND) difference algorithm in linear space, using the divide and conquer
+ * "middle snake" refinement from the same paper.
+ */
+public final class MyersDiff {
+    private final int[] a;
+    private final int[] b;
+    private final List<Edit> edits = new ArrayList<>();
+
+    private MyersDiff(int[] a, int[] b) {
+        this.a = a;
+        this.b = b;
+    }
+
+    /**
+     * @param a The lines before.
+     * @param b The lines after.
+     * @return The regions of lines that differ, in order, where each region replaces a (possibly empty) range of lines
+     * in {@code a} with a (possibly empty) range of lines in {@code b}.
+     */
+    public static List<Edit> diff(List<String> a, List<String> b) {
+        // compare lines by an integer id so that each line's content is only hashed once
+        Map<String, Integer> lineIds = new HashMap<>();
+        MyersDiff diff = new MyersDiff(lineIds(a, lineIds), lineIds(b, lineIds));
+        diff.diff(0, a.size(), 0, b.size());
+        diff.shiftInsertionsAndDeletionsDown();
+        return diff.edits;
+    }
+
+    private static int[] lineIds(List<String> lines, Map<String, Integer> lineIds) {
+        int[] ids = new int[lines.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Integer id = lineIds.get(lines.get(i));
+            if (id == null) {
+                id = lineIds.size();
+                lineIds.put(lines.get(i), id);
+            }
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    private void diff(int aStart, int aEnd, int bStart, int bEnd) {
+        while (aStart < aEnd && bStart < bEnd && a[aStart] == b[bStart]) {
+            aStart++;
+            bStart++;
+        }
+        while (aStart < aEnd && bStart < bEnd && a[aEnd - 1] == b[bEnd - 1]) {
+            aEnd--;
+            bEnd--;
+        }
+
+        if (aStart == aEnd || bStart == bEnd) {
+            if (aStart < aEnd || bStart < bEnd) {
+                addEdit(aStart, aEnd, bStart, bEnd);
+            }
+            return;
+        }
+
+        int n = aEnd - aStart;
+        int m = bEnd - bStart;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD;
+        int[] forward = new int[2 * maxD + 2];
+        int[] backward = new int[2 * maxD + 2];
+        Arrays.fill(forward, -1);
+        Arrays.fill(backward, -1);
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+
+        int delta = n - m;
+
+        // if the total number of lines is odd, the forward path is the one that will overlap the reverse path
+        boolean front = delta % 2 != 0;
+
+        // the diagonals at the start and end of each pass that have run off the edit graph don't need to be explored
+        int k1Start = 0, k1End = 0, k2Start = 0, k2End = 0;
+
+        for (int d = 0; d < maxD; d++) {
+            for (int k1 = -d + k1Start; k1 <= d - k1End; k1 += 2) {
+                int k1Offset = offset + k1;
+                int x1 = k1 == -d || (k1 != d && forward[k1Offset - 1] < forward[k1Offset + 1]) ?
+                        forward[k1Offset + 1] :
+                        forward[k1Offset - 1] + 1;
+                int y1 = x1 - k1;
+                while (x1 < n && y1 < m && a[aStart + x1] == b[bStart + y1]) {
+                    x1++;
+                    y1++;
+                }
+                forward[k1Offset] = x1;
+                if (x1 > n) {
+                    k1End += 2;
+                } else if (y1 > m) {
+                    k1Start += 2;
+                } else if (front) {
+                    int k2Offset = offset + delta - k1;
+                    if (k2Offset >= 0 && k2Offset < backward.length && backward[k2Offset] != -1 &&
+                            x1 >= n - backward[k2Offset]) {
+                        split(aStart, aEnd, bStart, bEnd, x1, y1);
+                        return;
+                    }
+                }
+            }
+
+            for (int k2 = -d + k2Start; k2 <= d - k2End; k2 += 2) {
+                int k2Offset = offset + k2;
+                int x2 = k2 == -d || (k2 != d && backward[k2Offset - 1] < backward[k2Offset + 1]) ?
+                        backward[k2Offset + 1] :
+                        backward[k2Offset - 1] + 1;
+                int y2 = x2 - k2;
+                while (x2 < n && y2 < m && a[aEnd - x2 - 1] == b[bEnd - y2 - 1]) {
+                    x2++;
+                    y2++;
+                }
+                backward[k2Offset] = x2;
+                if (x2 > n) {
+                    k2End += 2;
+                } else if (y2 > m) {
+                    k2Start += 2;
+                } else if (!front) {
+                    int k1Offset = offset + delta - k2;
+                    if (k1Offset >= 0 && k1Offset < forward.length && forward[k1Offset] != -1) {
+                        int x1 = forward[k1Offset];
+                        int y1 = offset + x1 - k1Offset;
+                        if (x1 >= n - x2) {
+                            split(aStart, aEnd, bStart, bEnd, x1, y1);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+
+        // no lines in common
+        addEdit(aStart, aEnd, bStart, bEnd);
+    }
+
+    /**
+     * An insertion or deletion of lines between lines that repeat it (e.g. a blank line inserted among blank lines)
+     * can be placed in more than one position. Move each one to its latest possible position, as git does, and merge
+     * it with the edit that follows when it is moved up against it.
+     */
+    private void shiftInsertionsAndDeletionsDown() {
+        for (int i = edits.size() - 1; i >= 0; i--) {
+            Edit e = edits.get(i);
+            int shift = 0;
+            if (e.beginA == e.endA) {
+                while (e.endB + shift < b.length &&
+                        (i + 1 >= edits.size() || e.endA + shift < edits.get(i + 1).beginA) &&
+                        b[e.beginB + shift] == b[e.endB + shift]) {
+                    shift++;
+                }
+            } else if (e.beginB == e.endB) {
+                while (e.endA + shift < a.length &&
+                        (i + 1 >= edits.size() || e.endB + shift < edits.get(i + 1).beginB) &&
+                        a[e.beginA + shift] == a[e.endA + shift]) {
+                    shift++;
+                }
+            }
+            if (shift > 0) {
+                e = new Edit(e.beginA + shift, e.endA + shift, e.beginB + shift, e.endB + shift);
+                if (i + 1 < edits.size() && e.endA == edits.get(i + 1).beginA) {
+                    Edit next = edits.remove(i + 1);
+                    e = new Edit(e.beginA, next.endA, e.beginB, next.endB);
+                }
+                edits.set(i, e);
+            }
+        }
+    }
+
+    private void split(int aStart, int aEnd, int bStart, int bEnd, int x, int y) {
+        diff(aStart, aStart + x, bStart, bStart + y);
+        diff(aStart + x, aEnd, bStart + y, bEnd);
+    }
+
+    private void addEdit(int aStart, int aEnd, int bStart, int bEnd) {
+        if (!edits.isEmpty()) {
+            Edit last = edits.get(edits.size() - 1);
+            if (last.endA == aStart && last.endB == bStart) {
+                edits.set(edits.size() - 1, new Edit(last.beginA, aEnd, last.beginB, bEnd));
+                return;
+            }
+        }
+        edits.add(new Edit(aStart, aEnd, bStart, bEnd));
+    }
+
+    /**
+     * Replaces lines [beginA, endA) before with lines [beginB, endB) after.
+     */
+    public static final class Edit {
+        private final int beginA;
+        private final int endA;
+        private final int beginB;
+        private final int endB;
+
+        public Edit(int beginA, int endA, int beginB, int endB) {
+            this.beginA = beginA;
+            this.endA = endA;
+            this.beginB = beginB;
+            this.endB = endB;
+        }
+
+        public int getBeginA() {
+            return beginA;
+        }
+
+        public int getEndA() {
+            return endA;
+        }
+
+        public int getBeginB() {
+            return beginB;
+        }
+
+        public int getEndB() {
+            return endB;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Edit edit = (Edit) o;
+            return beginA == edit.beginA && endA == edit.endA && beginB == edit.beginB && endB == edit.endB;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(beginA, endA, beginB, endB);
+        }
+
+        @Override
+        public String toString() {
+            return "Edit[" + beginA + "-" + endA + "," + beginB + "-" + endB + "]";
+        }
+    }
+}
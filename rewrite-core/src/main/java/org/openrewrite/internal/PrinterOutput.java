@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import org.openrewrite.Tree;
+import org.openrewrite.TreePrinter;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The output of a language printer, accumulated in a {@link StringBuilder} that is handed to its {@link TreePrinter}.
+ * <p>
+ * When printing to an {@link Appendable}, the accumulated output is flushed to it once it grows past a threshold, but
+ * only between top-level trees, since a tree printer may insert output at a position in the accumulator that it
+ * recorded in {@link TreePrinter#doBefore(Tree, StringBuilder, Object) doBefore}. Tree printers that only ever append
+ * can opt in to being flushed mid-tree with {@link TreePrinter#isFlushableMidTree()}.
+ *
+ * @param <P> The visit context of the printer.
+ */
+public class PrinterOutput<P> {
+    /**
+     * When printing to an {@link Appendable}, output is written to it whenever this much has been accumulated.
+     */
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private final TreePrinter<P> treePrinter;
+
+    private StringBuilder acc = new StringBuilder();
+
+    @Nullable
+    private Appendable out;
+
+    /**
+     * The number of trees whose {@link TreePrinter#doBefore(Tree, StringBuilder, Object) doBefore} has been called
+     * but not yet their {@link TreePrinter#doAfter(Tree, StringBuilder, Object) doAfter}.
+     */
+    private int open;
+
+    public PrinterOutput(TreePrinter<P> treePrinter) {
+        this.treePrinter = treePrinter;
+    }
+
+    public StringBuilder getAcc() {
+        return acc;
+    }
+
+    public String print(Runnable visit) {
+        start(null);
+        visit.run();
+        return acc.toString();
+    }
+
+    public void print(Runnable visit, Appendable out) {
+        start(out);
+        try {
+            visit.run();
+            flush(out);
+        } finally {
+            this.out = null;
+        }
+    }
+
+    public void doBefore(Tree tree, P p) {
+        treePrinter.doBefore(tree, acc, p);
+        open++;
+    }
+
+    public void doAfter(@Nullable Tree tree, P p) {
+        open--;
+        if (tree != null) {
+            treePrinter.doAfter(tree, acc, p);
+        }
+        if (out != null && acc.length() >= FLUSH_THRESHOLD && (open == 0 || treePrinter.isFlushableMidTree())) {
+            flush(out);
+        }
+    }
+
+    private void start(@Nullable Appendable out) {
+        this.acc = new StringBuilder();
+        this.out = out;
+        this.open = 0;
+    }
+
+    private void flush(Appendable out) {
+        try {
+            out.append(acc);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        acc.setLength(0);
+    }
+}
@@ -21,6 +21,7 @@ import org.openrewrite.internal.lang.Nullable;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -163,6 +164,10 @@ public class StringUtils {
     }
 
     public static String readFully(InputStream inputStream) {
+        return readFully(inputStream, StandardCharsets.UTF_8);
+    }
+
+    public static String readFully(InputStream inputStream, Charset charset) {
         try (InputStream is = inputStream) {
             ByteArrayOutputStream bos = new ByteArrayOutputStream();
             byte[] buffer = new byte[4096];
@@ -172,7 +177,7 @@ public class StringUtils {
             }
 
             byte[] bytes = bos.toByteArray();
-            return new String(bytes, 0, bytes.length, StandardCharsets.UTF_8);
+            return new String(bytes, 0, bytes.length, charset);
         } catch (IOException e) {
             throw new UnsupportedOperationException(e);
         }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.marker.Marker;
+import org.openrewrite.marker.Markers;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Determines whether two versions of a tree are equivalent by walking them in lockstep. Subtrees that are
+ * reference-equal are not descended into, so the cost of a comparison is proportional to the part of the tree
+ * that a visitor actually rebuilt rather than to the size of the whole tree.
+ * <p>
+ * Where references differ, objects are compared field by field. Static and transient fields, as well as element
+ * IDs, do not contribute to the comparison. Markers are compared by the hash codes of the markers that pass the
+ * marker filter, which mirrors how markers are reified when trees are printed for comparison.
+ */
+public final class StructuralEquality {
+    private static final Map<Class<?>, Field[]> fieldsByClass = new ConcurrentHashMap<>();
+
+    private final Predicate<Marker> markerFilter;
+    private final Predicate<Class<?>> ignoredType;
+
+    /**
+     * @param markerFilter Markers that should be considered in the comparison.
+     * @param ignoredType  Types whose values don't contribute to the comparison, like type attribution that doesn't
+     *                     affect the printed form of a tree.
+     */
+    public StructuralEquality(Predicate<Marker> markerFilter, Predicate<Class<?>> ignoredType) {
+        this.markerFilter = markerFilter;
+        this.ignoredType = ignoredType;
+    }
+
+    public boolean isEqual(@Nullable Object before, @Nullable Object after) {
+        if (before == after) {
+            return true;
+        }
+
+        if (before == null) {
+            return ignoredType.test(after.getClass());
+        } else if (after == null) {
+            return ignoredType.test(before.getClass());
+        }
+
+        Class<?> type = before.getClass();
+        if (ignoredType.test(type) && ignoredType.test(after.getClass())) {
+            return true;
+        }
+
+        // markers and collections are compared by content regardless of their implementation type
+        if (before instanceof Markers && after instanceof Markers) {
+            return isEqual((Markers) before, (Markers) after);
+        } else if (before instanceof UUID && after instanceof UUID) {
+            return true;
+        } else if (before instanceof List && after instanceof List) {
+            return isEqual((List<?>) before, (List<?>) after);
+        } else if (before instanceof Collection && after instanceof Collection) {
+            return isEqual((Collection<?>) before, (Collection<?>) after);
+        } else if (before instanceof Map && after instanceof Map) {
+            return isEqual((Map<?, ?>) before, (Map<?, ?>) after);
+        }
+
+        if (type != after.getClass()) {
+            return false;
+        }
+
+        if (type.isArray()) {
+            return Arrays.deepEquals(new Object[]{before}, new Object[]{after});
+        } else if (isValueType(type)) {
+            return before.equals(after);
+        }
+
+        for (Field field : fields(type)) {
+            try {
+                if (!isEqual(field.get(before), field.get(after))) {
+                    return false;
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to compare field [" + field.getName() + "] on [" +
+                        type.getName() + "]", e);
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isEqual(Markers before, Markers after) {
+        Iterator<? extends Marker> afterMarkers = after.entries().stream().filter(markerFilter).iterator();
+        for (Marker beforeMarker : before.entries()) {
+            if (!markerFilter.test(beforeMarker)) {
+                continue;
+            }
+            if (!afterMarkers.hasNext() || beforeMarker.hashCode() != afterMarkers.next().hashCode()) {
+                return false;
+            }
+        }
+        return !afterMarkers.hasNext();
+    }
+
+    private boolean isEqual(List<?> before, List<?> after) {
+        if (before.size() != after.size()) {
+            return false;
+        }
+        for (int i = 0; i < before.size(); i++) {
+            if (!isEqual(before.get(i), after.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isEqual(Collection<?> before, Collection<?> after) {
+        if (before.size() != after.size()) {
+            return false;
+        }
+        Iterator<?> afterIter = after.iterator();
+        for (Object b : before) {
+            if (!isEqual(b, afterIter.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isEqual(Map<?, ?> before, Map<?, ?> after) {
+        if (before.size() != after.size()) {
+            return false;
+        }
+        for (Map.Entry<?, ?> entry : before.entrySet()) {
+            if (!after.containsKey(entry.getKey()) || !isEqual(entry.getValue(), after.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isValueType(Class<?> type) {
+        String name = type.getName();
+        return Enum.class.isAssignableFrom(type) || name.startsWith("java.") || name.startsWith("javax.") ||
+                name.startsWith("sun.") || name.startsWith("jdk.");
+    }
+
+    private static Field[] fields(Class<?> type) {
+        return fieldsByClass.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+            return fields.toArray(new Field[0]);
+        });
+    }
+}
@@ -19,14 +19,16 @@ package org.openrewrite.marker;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
-import org.eclipse.jgit.lib.*;
 import org.openrewrite.Incubating;
 import org.openrewrite.internal.lang.Nullable;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 @Incubating(since = "7.0.0")
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
@@ -64,19 +66,84 @@ public class GitProvenance implements Marker {
         }
     }
 
+    /**
+     * Reads the origin, branch and HEAD commit of the git repository the project directory is in, from the files of
+     * its git directory. When HEAD is detached, its commit is reported as the branch.
+     *
+     * @param projectDir A directory inside the working tree of a git repository.
+     * @return The provenance of the project directory.
+     * @throws IllegalArgumentException if the project directory isn't in a git repository.
+     */
     public static GitProvenance fromProjectDirectory(Path projectDir) {
         try {
-            Repository repository = new RepositoryBuilder().findGitDir(projectDir.toFile()).build();
-            return new GitProvenance(getOrigin(repository), repository.getBranch(), getChangeset(repository));
+            Path gitDir = findGitDir(projectDir);
+            if (gitDir == null) {
+                throw new IllegalArgumentException("No git repository found at or above " + projectDir);
+            }
+
+            Path commonDir = gitDir;
+            Path commonDirFile = gitDir.resolve("commondir");
+            if (Files.isRegularFile(commonDirFile)) {
+                commonDir = gitDir.resolve(read(commonDirFile)).normalize();
+            }
+
+            String head = read(gitDir.resolve("HEAD"));
+            if (!head.startsWith("ref:")) {
+                return new GitProvenance(getOrigin(commonDir), head, head);
+            }
+
+            String ref = head.substring("ref:".length()).trim();
+            String branch = ref.startsWith("refs/heads/") ? ref.substring("refs/heads/".length()) : ref;
+            return new GitProvenance(getOrigin(commonDir), branch, getChangeset(gitDir, commonDir, ref));
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * @return The git directory of the nearest working tree at or above the directory, following the {@code .git}
+     * file of a linked work tree or submodule.
+     */
     @Nullable
-    private static String getOrigin(Repository repository) {
-        Config storedConfig = repository.getConfig();
-        String url = storedConfig.getString("remote", "origin", "url");
+    private static Path findGitDir(Path dir) throws IOException {
+        for (Path d = dir.toAbsolutePath().normalize(); d != null; d = d.getParent()) {
+            Path dotGit = d.resolve(".git");
+            if (Files.isDirectory(dotGit)) {
+                return dotGit;
+            } else if (Files.isRegularFile(dotGit)) {
+                String gitDir = read(dotGit);
+                if (gitDir.startsWith("gitdir:")) {
+                    return d.resolve(gitDir.substring("gitdir:".length()).trim()).normalize();
+                }
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static String getOrigin(Path commonDir) throws IOException {
+        Path config = commonDir.resolve("config");
+        if (!Files.isRegularFile(config)) {
+            return null;
+        }
+
+        String url = null;
+        boolean inOrigin = false;
+        for (String line : Files.readAllLines(config, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.startsWith("[")) {
+                inOrigin = line.replaceAll("\\s+", " ").equals("[remote \"origin\"]");
+            } else if (inOrigin && url == null) {
+                int eq = line.indexOf('=');
+                if (eq > 0 && line.substring(0, eq).trim().equalsIgnoreCase("url")) {
+                    url = line.substring(eq + 1).trim();
+                    if (url.length() > 1 && url.startsWith("\"") && url.endsWith("\"")) {
+                        url = url.substring(1, url.length() - 1);
+                    }
+                }
+            }
+        }
+
         if (url == null) {
             return null;
         }
@@ -86,13 +153,42 @@ public class GitProvenance implements Marker {
         return url;
     }
 
+    /**
+     * @return The commit the ref points to, following symbolic refs, or {@code null} when the ref doesn't exist yet,
+     * as on a branch without commits.
+     */
     @Nullable
-    private static String getChangeset(Repository repository) throws IOException {
-        ObjectId head = repository.resolve(Constants.HEAD);
-        if (head == null) {
-            return null;
+    private static String getChangeset(Path gitDir, Path commonDir, String ref) throws IOException {
+        for (int depth = 0; depth < 5; depth++) {
+            Path refFile = (ref.startsWith("refs/") ? commonDir : gitDir).resolve(ref);
+            String target = null;
+            if (Files.isRegularFile(refFile)) {
+                target = read(refFile);
+            } else {
+                Path packedRefs = commonDir.resolve("packed-refs");
+                if (Files.isRegularFile(packedRefs)) {
+                    List<String> lines = Files.readAllLines(packedRefs, StandardCharsets.UTF_8);
+                    for (String line : lines) {
+                        if (!line.startsWith("#") && !line.startsWith("^") && line.endsWith(" " + ref)) {
+                            target = line.substring(0, line.indexOf(' '));
+                            break;
+                        }
+                    }
+                }
+            }
+
+            if (target == null) {
+                return null;
+            } else if (!target.startsWith("ref:")) {
+                return target;
+            }
+            ref = target.substring("ref:".length()).trim();
         }
-        return head.getName();
+        return null;
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
     }
 
     private static String hideSensitiveInformation(String url) {
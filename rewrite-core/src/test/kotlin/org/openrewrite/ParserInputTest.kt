@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.io.ByteArrayInputStream
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+
+class ParserInputTest {
+    @Test
+    fun readAndDecodeOnce() {
+        var reads = 0
+        val input = Parser.Input(Paths.get("A.java")) {
+            reads++
+            ByteArrayInputStream("class Ä {}".toByteArray(StandardCharsets.UTF_8))
+        }
+
+        val text = input.getSourceText(StandardCharsets.UTF_8)
+        assertThat(text).isEqualTo("class Ä {}")
+        assertThat(input.getSourceText(StandardCharsets.UTF_8)).isSameAs(text)
+        assertThat(reads).isEqualTo(1)
+
+        assertThat(input.getSourceText(StandardCharsets.ISO_8859_1)).isEqualTo("class Ã\u0084 {}")
+        assertThat(reads).isEqualTo(2)
+    }
+
+    @Test
+    fun releaseSourceText() {
+        var reads = 0
+        val input = Parser.Input(Paths.get("A.java")) {
+            reads++
+            ByteArrayInputStream("class A {}".toByteArray(StandardCharsets.UTF_8))
+        }
+
+        val text = input.getSourceText(StandardCharsets.UTF_8)
+        input.releaseSourceText()
+
+        val reread = input.getSourceText(StandardCharsets.UTF_8)
+        assertThat(reread).isEqualTo(text).isNotSameAs(text)
+        assertThat(reads).isEqualTo(2)
+    }
+
+    @Test
+    fun decodeMemoryMappedFile(@TempDir tempDir: Path) {
+        val file = tempDir.resolve("a.yml")
+        Files.write(file, "key: välue\n".toByteArray(StandardCharsets.UTF_8))
+
+        assertThat(Parser.Input.fromFile(file, true).getSourceText(StandardCharsets.UTF_8)).isEqualTo("key: välue\n")
+        assertThat(Parser.Input.fromFile(file, false).getSourceText(StandardCharsets.UTF_8)).isEqualTo("key: välue\n")
+    }
+}
@@ -15,11 +15,19 @@
  */
 package org.openrewrite
 
+import io.micrometer.core.instrument.Metrics
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
 import org.openrewrite.Tree.randomId
 import org.openrewrite.marker.Markers
+import org.openrewrite.text.ChangeText
 import org.openrewrite.text.PlainText
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.stream.Stream
 
 class RecipeLifecycleTest {
     @Test
@@ -34,6 +42,19 @@ class RecipeLifecycleTest {
         assertThat(results.map { it.recipesThatMadeChanges.map { r -> r.name }.first() }).containsExactly("test.GeneratingRecipe")
     }
 
+    @Test
+    fun generateFileAlongsideExistingFiles() {
+        val existing = (1..3).map { PlainText(randomId(), Markers.EMPTY, "existing $it") }
+        val results = object : Recipe() {
+            override fun getName() = "test.GeneratingRecipe"
+
+            override fun visit(before: List<SourceFile>, ctx: ExecutionContext) =
+                before + PlainText(randomId(), Markers.EMPTY, "test")
+        }.run(existing)
+
+        assertThat(results.map { it.after!!.print() }).containsExactly("test")
+    }
+
     @Test
     fun deleteFile() {
         val results = object : Recipe() {
@@ -62,4 +83,334 @@ class RecipeLifecycleTest {
 
         assertThat(results.map { it.recipesThatMadeChanges.map { r -> r.name }.first() }).containsExactly("test.DeletingRecipe")
     }
+
+    @Test
+    fun noResultWhenVisitorProducesEquivalentSourceFile() {
+        val results = ChangeText("test").run(listOf(PlainText(randomId(), Markers.EMPTY, "test")))
+        assertThat(results).isEmpty()
+    }
+
+    @Test
+    fun resultWhenVisitorChangesSourceFile() {
+        val results = ChangeText("changed").run(listOf(PlainText(randomId(), Markers.EMPTY, "test")))
+        assertThat(results.map { it.after!!.print() }).containsExactly("changed")
+    }
+
+    @Test
+    fun visitorNotRunWhenSingleSourceApplicableTestDoesNotMatch() {
+        val recipe = object : ChangeText("changed") {
+            override fun getSingleSourceApplicableTest(): TreeVisitor<*, ExecutionContext> =
+                object : TreeVisitor<PlainText, ExecutionContext>() {
+                    override fun visit(tree: Tree?, p: ExecutionContext): PlainText =
+                        (tree as PlainText).run { if (print() == "applicable") withText("applicable") else this }
+                }
+        }
+
+        val results = recipe.run(listOf(
+            PlainText(randomId(), Markers.EMPTY, "applicable"),
+            PlainText(randomId(), Markers.EMPTY, "not applicable")
+        ))
+
+        assertThat(results.map { it.before!!.print() }).containsExactly("applicable")
+    }
+
+    @Test
+    fun visitOneSourceFileAtATimeUnlessVisitorsAreThreadSafe() {
+        fun maxConcurrentVisits(threadSafe: Boolean): Int {
+            val visiting = AtomicInteger()
+            val maxVisiting = AtomicInteger()
+            val recipe = object : Recipe() {
+                override fun getVisitor(): TreeVisitor<*, ExecutionContext> =
+                    object : TreeVisitor<PlainText, ExecutionContext>() {
+                        override fun visit(tree: Tree?, p: ExecutionContext): PlainText {
+                            maxVisiting.accumulateAndGet(visiting.incrementAndGet(), Math::max)
+                            Thread.sleep(10)
+                            visiting.decrementAndGet()
+                            return tree as PlainText
+                        }
+                    }
+
+                override fun isVisitorThreadSafe() = threadSafe
+            }
+
+            val pool = ForkJoinPool(4)
+            try {
+                recipe.run((1..8).map { PlainText(randomId(), Markers.EMPTY, "test $it") },
+                    InMemoryExecutionContext(), pool, 1)
+            } finally {
+                pool.shutdown()
+            }
+            return maxVisiting.get()
+        }
+
+        assertThat(maxConcurrentVisits(false)).isEqualTo(1)
+        assertThat(maxConcurrentVisits(true)).isGreaterThan(1)
+    }
+
+    @Test
+    fun laterCyclesOnlyRevisitSourceFilesThatReadChangedMessages() {
+        val visits = AtomicInteger()
+        val recipe = object : Recipe() {
+            override fun getVisitor(): TreeVisitor<*, ExecutionContext> =
+                object : TreeVisitor<PlainText, ExecutionContext>() {
+                    override fun visit(tree: Tree?, p: ExecutionContext): PlainText {
+                        visits.incrementAndGet()
+                        val text = tree as PlainText
+                        return when (text.print()) {
+                            "writer" -> text.also { p.putMessage("key", "value") }
+                            "reader" -> text.withText("reader ${p.getMessage<String>("key")}")
+                            else -> text
+                        }
+                    }
+                }
+        }
+
+        val results = recipe.run(listOf("writer", "reader", "other 1", "other 2")
+            .map { PlainText(randomId(), Markers.EMPTY, it) })
+
+        assertThat(results.map { it.after!!.print() }).containsExactly("reader value")
+
+        // every file in the first cycle, only the reader in the second, and nothing in the third
+        assertThat(visits.get()).isEqualTo(5)
+    }
+
+    @Test
+    fun requiredCycleRevisitsEverySourceFile() {
+        val visits = AtomicInteger()
+        val required = AtomicBoolean()
+        val recipe = object : Recipe() {
+            override fun getVisitor(): TreeVisitor<*, ExecutionContext> =
+                object : TreeVisitor<PlainText, ExecutionContext>() {
+                    override fun visit(tree: Tree?, p: ExecutionContext): PlainText {
+                        visits.incrementAndGet()
+                        if (required.compareAndSet(false, true)) {
+                            p.requireAnotherCycle()
+                        }
+                        return tree as PlainText
+                    }
+                }
+        }
+
+        recipe.run(listOf("a", "b").map { PlainText(randomId(), Markers.EMPTY, it) })
+
+        // every file in the first cycle and again in the required second cycle, which requires nothing more
+        assertThat(visits.get()).isEqualTo(4)
+    }
+
+    @Test
+    fun typedMessagesOnlyCauseAnotherCycleWhenReadByAnotherVisit() {
+        val key = ExecutionContext.Key.of<String>("key")
+
+        fun visitsUntilSettled(put: (ExecutionContext) -> Unit): Int {
+            val visits = AtomicInteger()
+            object : Recipe() {
+                override fun getVisitor(): TreeVisitor<*, ExecutionContext> =
+                    object : TreeVisitor<PlainText, ExecutionContext>() {
+                        override fun visit(tree: Tree?, p: ExecutionContext): PlainText {
+                            visits.incrementAndGet()
+                            p.getMessage(key)
+                            put(p)
+                            return tree as PlainText
+                        }
+                    }
+            }.run(listOf(PlainText(randomId(), Markers.EMPTY, "test")))
+            return visits.get()
+        }
+
+        // only the visit that puts the typed message has read it, so only the second cycle every run starts with
+        // revisits it
+        assertThat(visitsUntilSettled { it.putMessage(key, "value") }).isEqualTo(2)
+        assertThat(visitsUntilSettled { it.putMessage("key", "value") }).isEqualTo(3)
+        assertThat(visitsUntilSettled { }).isEqualTo(1)
+    }
+
+    @Test
+    fun typedMessageReadByAnotherSourceFileCausesAnotherCycle() {
+        val key = ExecutionContext.Key.of<String>("key")
+
+        fun writerVisitsUntilSettled(otherSourceFile: String): Int {
+            val writerVisits = AtomicInteger()
+            object : Recipe() {
+                override fun getVisitor(): TreeVisitor<*, ExecutionContext> =
+                    object : TreeVisitor<PlainText, ExecutionContext>() {
+                        override fun visit(tree: Tree?, p: ExecutionContext): PlainText {
+                            val text = tree as PlainText
+                            when (text.print()) {
+                                "writer" -> {
+                                    writerVisits.incrementAndGet()
+                                    p.getMessage(key)
+                                    p.putMessage(key, "value")
+                                }
+                                "reader" -> p.getMessage(key)
+                            }
+                            return text
+                        }
+                    }
+            }.run(listOf("writer", otherSourceFile).map { PlainText(randomId(), Markers.EMPTY, it) },
+                InMemoryExecutionContext(), 5)
+            return writerVisits.get()
+        }
+
+        // the writer reads its own message, so it is revisited in every cycle there is
+        assertThat(writerVisitsUntilSettled("reader")).isEqualTo(5)
+        assertThat(writerVisitsUntilSettled("other")).isEqualTo(2)
+    }
+
+    @Test
+    fun sourceFileScopedMessagesOnlyInvalidateVisitsOfTheirSourceFile() {
+        val key = ExecutionContext.Key.sourceFile<String>("key")
+        val ticked = AtomicBoolean()
+        val visits = ConcurrentHashMap<String, AtomicInteger>()
+        val recipe = object : Recipe() {
+            override fun getVisitor(): TreeVisitor<*, ExecutionContext> =
+                object : TreeVisitor<PlainText, ExecutionContext>() {
+                    override fun visit(tree: Tree?, p: ExecutionContext): PlainText {
+                        val text = tree as PlainText
+                        p.getMessage<Boolean>("tick")
+                        if (text.print() == "a") {
+                            p.putMessage(key, text.print())
+                        }
+                        return text
+                    }
+                }
+        }.doNext(object : Recipe() {
+            override fun getVisitor(): TreeVisitor<*, ExecutionContext> =
+                object : TreeVisitor<PlainText, ExecutionContext>() {
+                    override fun visit(tree: Tree?, p: ExecutionContext): PlainText {
+                        val text = tree as PlainText
+                        visits.computeIfAbsent(text.print()) { AtomicInteger() }.incrementAndGet()
+                        p.getMessage(key)
+                        if (text.print() == "a" && ticked.compareAndSet(false, true)) {
+                            p.putMessage("tick", true)
+                        }
+                        return text
+                    }
+                }
+        })
+
+        recipe.run(listOf("a", "b").map { PlainText(randomId(), Markers.EMPTY, it) })
+
+        // the second cycle rewrites the message for "a" only, so the visit of "b" that read its own message is reused
+        assertThat(visits["a"]!!.get()).isEqualTo(2)
+        assertThat(visits["b"]!!.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun reusedVisitsSeeMessagesWrittenEarlierInTheSameCycle() {
+        val key = ExecutionContext.Key.of<String>("key")
+        val tick = ExecutionContext.Key.of<Boolean>("tick")
+        val writerVisits = AtomicInteger()
+
+        val recipe = object : Recipe() {
+            override fun getVisitor(): TreeVisitor<*, ExecutionContext> =
+                object : TreeVisitor<PlainText, ExecutionContext>() {
+                    override fun visit(tree: Tree?, p: ExecutionContext): PlainText {
+                        p.getMessage(tick)
+                        if (writerVisits.incrementAndGet() == 2) {
+                            p.putMessage(key, "value")
+                        }
+                        return tree as PlainText
+                    }
+                }
+        }.doNext(object : Recipe() {
+            override fun getVisitor(): TreeVisitor<*, ExecutionContext> =
+                object : TreeVisitor<PlainText, ExecutionContext>() {
+                    override fun visit(tree: Tree?, p: ExecutionContext): PlainText {
+                        p.putMessage(tick, true)
+                        return (tree as PlainText).withText("f ${p.getMessage(key)}")
+                    }
+                }
+        })
+
+        val results = recipe.run(listOf(PlainText(randomId(), Markers.EMPTY, "f")), InMemoryExecutionContext(), 2)
+
+        // the first recipe only writes the message in the second and last cycle, after the second recipe last read it
+        assertThat(results.map { it.after!!.print() }).containsExactly("f value")
+    }
+
+    @Test
+    fun sourceFileScopedMessagesAreSharedByRecipesVisitingTheSameSourceFile() {
+        val original = ExecutionContext.Key.sourceFile<String>("original")
+        val recipe = object : Recipe() {
+            override fun getVisitor(): TreeVisitor<*, ExecutionContext> =
+                object : TreeVisitor<PlainText, ExecutionContext>() {
+                    override fun visit(tree: Tree?, p: ExecutionContext): PlainText {
+                        val text = tree as PlainText
+                        p.putMessage(original, text.print())
+                        return text.withText(text.print().toUpperCase())
+                    }
+                }
+        }.doNext(object : Recipe() {
+            override fun getVisitor(): TreeVisitor<*, ExecutionContext> =
+                object : TreeVisitor<PlainText, ExecutionContext>() {
+                    override fun visit(tree: Tree?, p: ExecutionContext): PlainText {
+                        val text = tree as PlainText
+                        return text.withText("${p.getMessage(original)} -> ${text.print()}")
+                    }
+                }
+        })
+
+        val ctx = InMemoryExecutionContext()
+        val results = recipe.run(listOf("a", "b").map { PlainText(randomId(), Markers.EMPTY, it) }, ctx)
+
+        assertThat(results.map { it.after!!.print() }).containsExactlyInAnyOrder("a -> A", "b -> B")
+        assertThat(ctx.getMessage(original)).isNull()
+    }
+
+    @Test
+    fun streamResultsInSourceFileOrder() {
+        val sourceFiles = (1..10).map { PlainText(randomId(), Markers.EMPTY, "test $it") }
+        val results = mutableListOf<Result>()
+
+        ChangeText("changed").run(sourceFiles.stream(), InMemoryExecutionContext()) { results.add(it) }
+
+        assertThat(results.map { it.before }).containsExactlyElementsOf(sourceFiles)
+        assertThat(results.map { it.after!!.print() }).allMatch { it == "changed" }
+    }
+
+    @Test
+    fun streamRecipeThatGeneratesFiles() {
+        val results = mutableListOf<Result>()
+
+        object : Recipe() {
+            override fun visit(before: List<SourceFile>, ctx: ExecutionContext) =
+                before + PlainText(randomId(), Markers.EMPTY, "test")
+        }.run(Stream.of(PlainText(randomId(), Markers.EMPTY, "existing")), InMemoryExecutionContext()) {
+            results.add(it)
+        }
+
+        assertThat(results.map { it.after!!.print() }).containsExactly("test")
+    }
+
+    @Test
+    fun streamIsClosedAfterRun() {
+        val closed = AtomicBoolean()
+
+        ChangeText("changed").run(
+            Stream.of(PlainText(randomId(), Markers.EMPTY, "test")).onClose { closed.set(true) },
+            InMemoryExecutionContext()
+        ) { }
+
+        assertThat(closed.get()).isTrue
+    }
+
+    @Test
+    fun streamRecordsCycleMetricsOncePerRun() {
+        val meterRegistry = SimpleMeterRegistry()
+        Metrics.globalRegistry.add(meterRegistry)
+        try {
+            val recipe = object : ChangeText("changed") {
+                override fun getName() = "test.StreamedRecipe"
+            }
+            recipe.run((1..5).map { PlainText(randomId(), Markers.EMPTY, "test $it") }.stream(),
+                InMemoryExecutionContext()) { }
+
+            assertThat(meterRegistry.get("rewrite.recipe.cycles").tag("recipe", recipe.name)
+                .summary().count()).isEqualTo(1)
+            assertThat(meterRegistry.get("rewrite.recipe.cycle.visits").tag("recipe", recipe.name)
+                .tag("cycle", "1").tag("outcome", "visited").counter().count()).isEqualTo(5.0)
+        } finally {
+            Metrics.globalRegistry.remove(meterRegistry)
+        }
+    }
 }
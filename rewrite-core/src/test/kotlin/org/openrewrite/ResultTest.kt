@@ -17,6 +17,10 @@ package org.openrewrite
 
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
+import org.openrewrite.Tree.randomId
+import org.openrewrite.marker.Markers
+import org.openrewrite.text.PlainText
+import java.io.ByteArrayOutputStream
 import java.nio.file.Paths
 
 class ResultTest {
@@ -144,4 +148,97 @@ class ResultTest {
         """.trimMargin()
         ).isEqualTo(diff)
     }
+
+    @Test
+    fun editShiftedDownAgainstTheNextEdit() {
+        val diff = Result.InMemoryDiffEntry(
+            filePath, null,
+            "b\n\n    x\n    x\n\n}\n    x\na\n    x\nc\n    x\nc\n",
+            "b\n\n    x\n\n}\n    x\n    x\n    x\nc\n    x\nc\n",
+            emptySet()
+        ).diff
+
+        // as written by git diff
+        assertThat(diff).isEqualTo(
+            """
+                |diff --git ${ab("a")} ${ab("b")}
+                |index 36fba2e..e8b67f2 100644
+                |--- ${ab("a")}
+                |+++ ${ab("b")}
+                |@@ -1,11 +1,10 @@ 
+                | b
+                | 
+                |     x
+                |-    x
+                | 
+                | }
+                |     x
+                |-a
+                |+    x
+                |     x
+                | c
+                |     x
+                |
+            """.trimMargin()
+        )
+    }
+
+    @Test
+    fun missingNewlineAtEndOfFile() {
+        val diff = Result.InMemoryDiffEntry(
+            filePath, null,
+            "public class A {}",
+            "public class B {}",
+            emptySet()
+        ).diff
+
+        assertThat(diff).isEqualTo(
+            """
+                |diff --git ${ab("a")} ${ab("b")}
+                |index efd7fa3..7d9e0aa 100644
+                |--- ${ab("a")}
+                |+++ ${ab("b")}
+                |@@ -1 +1 @@ 
+                |-public class A {}
+                |\ No newline at end of file
+                |+public class B {}
+                |\ No newline at end of file
+                |
+            """.trimMargin()
+        )
+    }
+
+    @Test
+    fun newFile() {
+        val diff = Result.InMemoryDiffEntry(
+            filePath, null,
+            "",
+            "public class A {}\n",
+            emptySet()
+        ).diff
+
+        assertThat(diff).isEqualTo(
+            """
+                |diff --git ${ab("a")} ${ab("b")}
+                |index e69de29..9f4b93d 100644
+                |--- ${ab("a")}
+                |+++ ${ab("b")}
+                |@@ -0,0 +1 @@ 
+                |+public class A {}
+                |
+            """.trimMargin()
+        )
+    }
+
+    @Test
+    fun writeDiffToOutputStream() {
+        val result = Result(
+            PlainText(randomId(), Markers.EMPTY, "public class A {}"),
+            PlainText(randomId(), Markers.EMPTY, "public class B {}"),
+            emptySet()
+        )
+        val out = ByteArrayOutputStream()
+        result.diff(out, null, TreePrinter.identity<Any>())
+        assertThat(out.toString(Charsets.UTF_8.name())).isNotEmpty().isEqualTo(result.diff())
+    }
 }
@@ -15,12 +15,22 @@
  */
 package org.openrewrite
 
+import com.fasterxml.jackson.core.JsonGenerator
+import com.fasterxml.jackson.databind.SerializerProvider
+import com.fasterxml.jackson.databind.annotation.JsonSerialize
+import com.fasterxml.jackson.databind.ser.std.StdSerializer
 import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
 import org.openrewrite.marker.Markers
 import org.openrewrite.style.NamedStyles
+import org.openrewrite.style.Style
 import org.openrewrite.text.PlainText
 import org.openrewrite.text.TextStyle
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.atomic.AtomicInteger
 
 class TreeSerializerTest {
     @Test
@@ -39,4 +49,73 @@ class TreeSerializerTest {
         val deserialized = serializer.readList(serialized)
         assertThat(deserialized[0].getStyle(TextStyle::class.java)!!.charset).isEqualTo("UTF-8")
     }
+
+    @Test
+    fun readRecordsIndividually(@TempDir tempDir: Path) {
+        val serializer = TreeSerializer<PlainText>()
+
+        val styles = NamedStyles("utf8", listOf(TextStyle().apply {
+            charset = "UTF-8"
+        }))
+
+        val records = tempDir.resolve("records")
+        serializer.recordWriter(Files.newOutputStream(records)).use { writer ->
+            for (i in 0 until 100) {
+                writer.write(PlainText(Tree.randomId(), Markers.EMPTY, "hi $i").withMarker(styles))
+            }
+        }
+
+        serializer.recordReader(records).use { reader ->
+            assertThat(reader.size()).isEqualTo(100)
+
+            val plainText42 = reader.read(42)
+            assertThat(plainText42.print()).isEqualTo("hi 42")
+
+            // shared values are only read once
+            assertThat(reader.read(7).getStyle(TextStyle::class.java))
+                .isSameAs(plainText42.getStyle(TextStyle::class.java))
+            assertThat(reader.readAll().map { it.print() }).containsExactlyElementsOf((0 until 100).map { "hi $it" })
+        }
+    }
+
+    @Test
+    fun rejectFilesThatAreNotRecords(@TempDir tempDir: Path) {
+        val notRecords = tempDir.resolve("not-records")
+        Files.write(notRecords, "not a set of source file records".toByteArray())
+
+        assertThatThrownBy { TreeSerializer<PlainText>().recordReader(notRecords) }
+            .isInstanceOf(IllegalArgumentException::class.java)
+
+        // the file isn't held open by a reader that was never returned
+        Files.delete(notRecords)
+    }
+
+    @Test
+    fun equalSharedValuesAreFoundWithoutSerializingThem(@TempDir tempDir: Path) {
+        val serializer = TreeSerializer<PlainText>()
+        CountingSerializer.count.set(0)
+
+        serializer.recordWriter(Files.newOutputStream(tempDir.resolve("records"))).use { writer ->
+            for (i in 0 until 100) {
+                val styles = NamedStyles("counting", listOf(CountingStyle("value")))
+                writer.write(PlainText(Tree.randomId(), Markers.EMPTY, "hi $i").withMarker(styles))
+            }
+        }
+
+        // once to find its dictionary entry, and once more to write it
+        assertThat(CountingSerializer.count.get()).isEqualTo(2)
+    }
+
+    data class CountingStyle(@field:JsonSerialize(using = CountingSerializer::class) val value: String) : Style
+
+    class CountingSerializer : StdSerializer<String>(String::class.java) {
+        companion object {
+            val count = AtomicInteger()
+        }
+
+        override fun serialize(value: String, gen: JsonGenerator, provider: SerializerProvider) {
+            count.incrementAndGet()
+            gen.writeString(value)
+        }
+    }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.util.concurrent.ForkJoinPool
+
+class ListUtilsTest {
+    private val pool = ForkJoinPool(4)
+
+    @Test
+    fun parallelMapReturnsSameListWhenNothingChanges() {
+        val ls = (0 until 1000).map { "s$it" }
+        assertThat(ListUtils.map(ls, pool) { _, s -> s }).isSameAs(ls)
+    }
+
+    @Test
+    fun parallelMapPreservesOrder() {
+        val ls = (0 until 1000).map { "s$it" }
+        assertThat(ListUtils.map(ls, pool) { i, s -> if (i % 2 == 0) "$s!" else s })
+            .isEqualTo(ls.mapIndexed { i, s -> if (i % 2 == 0) "$s!" else s })
+    }
+
+    @Test
+    fun parallelMapRemovesNulls() {
+        val ls = (0 until 1000).map { "s$it" }
+        assertThat(ListUtils.map(ls, pool) { i, s -> if (i < 500) null else s })
+            .isEqualTo(ls.subList(500, 1000))
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import kotlin.random.Random
+
+class MyersDiffTest {
+    @Test
+    fun replacement() {
+        assertThat(MyersDiff.diff(listOf("a", "b", "c"), listOf("a", "x", "c")))
+            .containsExactly(MyersDiff.Edit(1, 2, 1, 2))
+    }
+
+    @Test
+    fun insertionAmongRepeatedLinesIsShiftedDown() {
+        assertThat(MyersDiff.diff(listOf("a", "", "b"), listOf("a", "", "", "b")))
+            .containsExactly(MyersDiff.Edit(2, 2, 2, 3))
+    }
+
+    @Test
+    fun editShiftedDownAgainstTheNextEditIsMergedWithIt() {
+        val a = listOf("b", "", "    x", "    x", "", "}", "    x", "a", "    x", "c", "    x", "c")
+        val b = listOf("b", "", "    x", "", "}", "    x", "    x", "    x", "c", "    x", "c")
+        assertThat(MyersDiff.diff(a, b))
+            .containsExactly(MyersDiff.Edit(3, 4, 3, 3), MyersDiff.Edit(7, 8, 6, 7))
+    }
+
+    @Test
+    fun editsTransformBeforeIntoAfter() {
+        val random = Random(0)
+        repeat(500) {
+            val a = List(random.nextInt(20)) { "${random.nextInt(4)}" }
+            val b = a.toMutableList()
+            repeat(random.nextInt(5)) {
+                when {
+                    b.isEmpty() || random.nextBoolean() -> b.add(random.nextInt(b.size + 1), "${random.nextInt(4)}")
+                    else -> b.removeAt(random.nextInt(b.size))
+                }
+            }
+
+            val edits = MyersDiff.diff(a, b)
+
+            val patched = mutableListOf<String>()
+            var aCur = 0
+            for (edit in edits) {
+                patched.addAll(a.subList(aCur, edit.beginA))
+                patched.addAll(b.subList(edit.beginB, edit.endB))
+                aCur = edit.endA
+            }
+            patched.addAll(a.subList(aCur, a.size))
+
+            assertThat(patched).isEqualTo(b)
+        }
+    }
+}
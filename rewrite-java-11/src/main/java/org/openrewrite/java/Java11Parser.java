@@ -26,11 +26,13 @@ import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Timer;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.InMemoryExecutionContext;
-import org.openrewrite.internal.StringUtils;
+import org.openrewrite.Incubating;
 import org.openrewrite.internal.lang.NonNullApi;
 import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.cache.ClasspathTypeCache;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.JavaTypeTable;
 import org.openrewrite.java.tree.Space;
 import org.openrewrite.style.NamedStyles;
 
@@ -40,23 +42,38 @@ import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 
 /**
  * This parser is NOT thread-safe, as the OpenJDK parser maintains in-memory caches in static state.
+ * {@link Java11ParserPool} parses with several of them at once. Only the final mapping to Rewrite's AST, which no
+ * longer touches the compiler, may be done on several threads, see {@link Builder#mappingParallelism(int)}.
  */
 @NonNullApi
 public class Java11Parser implements JavaParser {
 
+    /**
+     * Mapping pools by parallelism, shared by every parser built with that mapping parallelism rather than created
+     * per parser. Their worker threads are daemons, and exit once they have been idle for a while.
+     */
+    private static final Map<Integer, ForkJoinPool> MAPPING_POOLS = new ConcurrentHashMap<>();
+
     @Nullable
     private final Collection<Path> classpath;
 
     @Nullable
     private final Collection<Input> dependsOn;
 
+    private final Charset charset;
+
     /**
      * When true, enables a parser to use class types from the in-memory type cache rather than performing
      * a deep equality check. Useful when deep class types have already been built from a separate parsing phase
@@ -72,8 +89,18 @@ public class Java11Parser implements JavaParser {
     private final Context context;
     private final JavaCompiler compiler;
     private final ResettableLog compilerLog;
+    private final TimedTodo todo;
     private final Collection<NamedStyles> styles;
     private final Listener onParse;
+    private final ClasspathTypeCache typeCache;
+    private final JavaTypeTable typeTable;
+
+    /**
+     * When not null, compilation units are mapped to Rewrite's AST in parallel in this pool once they have been
+     * type attributed. Shared with other parsers of the same mapping parallelism.
+     */
+    @Nullable
+    private final ForkJoinPool mappingPool;
 
     private Java11Parser(@Nullable Collection<Path> classpath,
                          @Nullable Collection<Input> dependsOn,
@@ -82,13 +109,26 @@ public class Java11Parser implements JavaParser {
                          boolean suppressMappingErrors,
                          boolean logCompilationWarningsAndErrors,
                          Collection<NamedStyles> styles,
-                         Listener onParse) {
+                         Listener onParse,
+                         ClasspathTypeCache typeCache,
+                         JavaTypeTable typeTable,
+                         int mappingParallelism) {
         this.classpath = classpath;
         this.dependsOn = dependsOn;
+        this.charset = charset;
         this.relaxedClassTypeMatching = relaxedClassTypeMatching;
         this.suppressMappingErrors = suppressMappingErrors;
         this.styles = styles;
         this.onParse = onParse;
+        this.typeCache = typeCache;
+        this.typeTable = typeTable;
+        this.mappingPool = mappingParallelism > 1 ?
+                MAPPING_POOLS.computeIfAbsent(mappingParallelism, parallelism -> new ForkJoinPool(parallelism, pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("rewrite-java-mapper-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false)) :
+                null;
 
         this.context = new Context();
         this.compilerLog = new ResettableLog(context);
@@ -110,7 +150,7 @@ public class Java11Parser implements JavaParser {
         //This is a little strange, but by constructing this ahead of the compiler, we are setting the "to do"
         //instance within the context to a version that is instrumented with micrometer. The compiler will
         //use this instance by pulling it out of the context.
-        new TimedTodo(context);
+        this.todo = new TimedTodo(context);
 
         // MUST be created (registered with the context) after pfm and compilerLog
         compiler = new JavaCompiler(context);
@@ -152,6 +192,141 @@ public class Java11Parser implements JavaParser {
 
     @Override
     public List<J.CompilationUnit> parseInputs(Iterable<Input> sourceFiles, @Nullable Path relativeTo, ExecutionContext ctx) {
+        List<Input> inputs = acceptedInputs(sourceFiles);
+        try {
+            return new ArrayList<>(parseInputs(inputs, relativeTo, new ConcurrentHashMap<>(), parsedCus -> input -> true)
+                    .values());
+        } finally {
+            releaseSourceText(inputs);
+        }
+    }
+
+    /**
+     * The source text of every input is read once while parsing and is no longer needed when parsing is done.
+     */
+    static void releaseSourceText(List<Input> inputs) {
+        for (Input input : inputs) {
+            input.releaseSourceText();
+        }
+    }
+
+    /**
+     * Parse again only the sources that have changed since they were parsed into {@code previous}, and the sources
+     * that refer to a type declared in a changed source, e.g. by calling one of its methods. The compilation units
+     * of all other sources are returned as they were, along with the types attributed to them.
+     * <p>
+     * Every source is still parsed and entered by the compiler, from the printed compilation unit for those that
+     * haven't changed, so that the changed sources are type attributed against them. Entering is cheap next to
+     * type attribution and mapping to Rewrite's AST, which are only done for the sources that are parsed again.
+     * The numbers of sources parsed again and reused are reported to {@link Listener#onIncrementalParse}.
+     * <p>
+     * A source that referred to a type that could not be resolved until a changed or added source declared it has no
+     * type attributed to the reference. It is parsed again when it names a type that a changed or added source
+     * declares and that the previous version of the changed sources didn't.
+     *
+     * @param previous The compilation units from an earlier parse of the same sources.
+     * @param changed  The sources that have changed, including sources that have been added.
+     * @return All of the compilation units, in the order of {@code previous} followed by any added sources.
+     */
+    @Incubating(since = "7.0.0")
+    public List<J.CompilationUnit> reparse(List<J.CompilationUnit> previous, Iterable<Input> changed,
+                                           @Nullable Path relativeTo, ExecutionContext ctx) {
+        reset();
+
+        Map<Path, Input> changedByPath = new LinkedHashMap<>();
+        for (Input input : acceptedInputs(changed)) {
+            changedByPath.put(input.getRelativePath(relativeTo), input);
+        }
+
+        Set<String> changedTypes = new HashSet<>();
+        for (J.CompilationUnit cu : previous) {
+            if (changedByPath.containsKey(cu.getSourcePath())) {
+                changedTypes.addAll(Java11ParserTypeReferences.declaredTypes(cu));
+            }
+        }
+
+        Set<Path> changedPaths = new HashSet<>(changedByPath.keySet());
+        Set<Path> reparsed = new HashSet<>(changedPaths);
+        List<J.CompilationUnit> unchanged = new ArrayList<>(previous.size());
+        List<Input> inputs = new ArrayList<>(previous.size() + changedByPath.size());
+        for (J.CompilationUnit cu : previous) {
+            Input input = changedByPath.remove(cu.getSourcePath());
+            if (input == null) {
+                Path path = relativeTo == null ? cu.getSourcePath() : relativeTo.resolve(cu.getSourcePath());
+                String source = cu.print();
+                input = new Input(path, () -> new ByteArrayInputStream(source.getBytes(charset)));
+                if (Java11ParserTypeReferences.refersToAny(cu, changedTypes)) {
+                    reparsed.add(cu.getSourcePath());
+                } else {
+                    unchanged.add(cu);
+                }
+            }
+            inputs.add(input);
+        }
+        inputs.addAll(changedByPath.values()); // added sources
+
+        Map<Path, J.CompilationUnit> reparsedByPath = new HashMap<>();
+        try {
+            for (J.CompilationUnit cu : parseInputs(inputs, relativeTo, new ConcurrentHashMap<>(), parsedCus -> {
+                // the types declared by the new versions of the changed sources are only known once they are parsed
+                Set<String> newlyDeclared = new HashSet<>();
+                for (Map.Entry<Input, JCTree.JCCompilationUnit> parsedCu : parsedCus.entrySet()) {
+                    if (changedPaths.contains(parsedCu.getKey().getRelativePath(relativeTo))) {
+                        newlyDeclared.addAll(Java11ParserTypeReferences.declaredTypeNames(parsedCu.getValue()));
+                    }
+                }
+                for (String changedType : changedTypes) {
+                    newlyDeclared.remove(changedType.substring(changedType.lastIndexOf('.') + 1));
+                }
+                for (J.CompilationUnit unchangedCu : unchanged) {
+                    if (Java11ParserTypeReferences.namesAny(unchangedCu, newlyDeclared)) {
+                        reparsed.add(unchangedCu.getSourcePath());
+                    }
+                }
+                return input -> reparsed.contains(input.getRelativePath(relativeTo));
+            }).values()) {
+                reparsedByPath.put(cu.getSourcePath(), cu);
+            }
+        } finally {
+            releaseSourceText(inputs);
+        }
+
+        List<J.CompilationUnit> cus = new ArrayList<>(inputs.size());
+        int reused = 0;
+        for (J.CompilationUnit cu : previous) {
+            if (reparsed.contains(cu.getSourcePath())) {
+                J.CompilationUnit reparsedCu = reparsedByPath.remove(cu.getSourcePath());
+                if (reparsedCu != null) {
+                    cus.add(reparsedCu);
+                }
+            } else {
+                cus.add(cu);
+                reused++;
+            }
+        }
+        for (Input added : inputs.subList(previous.size(), inputs.size())) {
+            J.CompilationUnit addedCu = reparsedByPath.remove(added.getRelativePath(relativeTo));
+            if (addedCu != null) {
+                cus.add(addedCu);
+            }
+        }
+
+        onParse.onIncrementalParse(reparsed.size(), reused);
+        return cus;
+    }
+
+    /**
+     * @param sharedClassTypes Class types already mapped, by fully qualified name. Must be thread-safe when it is
+     *                         shared with other parsers working at the same time.
+     * @param attributeAndMap  Which of the inputs to type attribute and map to Rewrite's AST, chosen once every input
+     *                         has been parsed by the compiler and before any is entered. The others are only parsed
+     *                         and entered, for the types they declare.
+     * @return The compilation units mapped, in the order of the inputs and by the input each was mapped from.
+     */
+    Map<Input, J.CompilationUnit> parseInputs(List<Input> inputs, @Nullable Path relativeTo,
+                                              Map<String, JavaType.Class> sharedClassTypes,
+                                              Function<Map<Input, JCTree.JCCompilationUnit>,
+                                                      Predicate<Input>> attributeAndMap) {
         if (classpath != null) { // override classpath
             if (context.get(JavaFileManager.class) != pfm) {
                 throw new IllegalStateException("JavaFileManager has been forked unexpectedly");
@@ -164,19 +339,20 @@ public class Java11Parser implements JavaParser {
             }
         }
 
-        LinkedHashMap<Input, JCTree.JCCompilationUnit> cus = acceptedInputs(sourceFiles).stream()
+        LinkedHashMap<Input, JCTree.JCCompilationUnit> cus = inputs.stream()
                 .collect(Collectors.toMap(
                         Function.identity(),
                         input -> Timer.builder("rewrite.parse")
                                 .description("The time spent by the JDK in parsing and tokenizing the source file")
                                 .tag("file.type", "Java")
                                 .tag("step", "(1) JDK parsing")
+                                .tag("thread", Thread.currentThread().getName())
                                 .tag("outcome", "success")
                                 .tag("exception", "none")
                                 .register(Metrics.globalRegistry)
                                 .record(() -> {
                                     try {
-                                        return compiler.parse(new Java11ParserInputFileObject(input));
+                                        return compiler.parse(new Java11ParserInputFileObject(input, charset));
                                     } catch (IllegalStateException e) {
                                         if (e.getMessage().equals("endPosTable already set")) {
                                             throw new IllegalStateException("Call reset() on JavaParser before parsing another" +
@@ -187,6 +363,14 @@ public class Java11Parser implements JavaParser {
                                 }),
                         (e2, e1) -> e1, LinkedHashMap::new));
 
+        Predicate<Input> toAttributeAndMap = attributeAndMap.apply(cus);
+        Map<Input, JCTree.JCCompilationUnit> toMap = new LinkedHashMap<>();
+        for (Map.Entry<Input, JCTree.JCCompilationUnit> cu : cus.entrySet()) {
+            if (toAttributeAndMap.test(cu.getKey())) {
+                toMap.put(cu.getKey(), cu.getValue());
+            }
+        }
+
         try {
             initModules(cus.values());
             enterAll(cus.values());
@@ -198,6 +382,9 @@ public class Java11Parser implements JavaParser {
                 annotate.unblockAnnotations(); // also flushes once unblocked
             }
 
+            if (toMap.size() < cus.size()) {
+                todo.retainAll(new HashSet<>(toMap.values()));
+            }
             compiler.attribute(compiler.todo);
         } catch (Throwable t) {
             // when symbol entering fails on problems like missing types, attribution can often times proceed
@@ -205,16 +392,37 @@ public class Java11Parser implements JavaParser {
             onParse.onWarn("Failed symbol entering or attribution", t);
         }
 
-        Map<String, JavaType.Class> sharedClassTypes = new HashMap<>();
-        return cus.entrySet().stream()
+        Map<Input, J.CompilationUnit> mapped;
+        if (mappingPool == null) {
+            mapped = map(toMap.entrySet().stream(), relativeTo, sharedClassTypes);
+        } else {
+            // copied to a list, which splits evenly, unlike the iterator of a LinkedHashMap
+            List<Map.Entry<Input, JCTree.JCCompilationUnit>> cusToMap = new ArrayList<>(toMap.entrySet());
+            mapped = mappingPool.submit(() -> map(cusToMap.parallelStream(), relativeTo, sharedClassTypes)).join();
+        }
+
+        typeCache.flush();
+        return mapped;
+    }
+
+    /**
+     * Map to Rewrite's AST. Reads the attributed OpenJDK AST without causing any further symbol completion, so
+     * compilation units may be mapped in parallel.
+     *
+     * @return The mapped compilation units, in the encounter order of the stream.
+     */
+    private Map<Input, J.CompilationUnit> map(Stream<Map.Entry<Input, JCTree.JCCompilationUnit>> cus,
+                                              @Nullable Path relativeTo,
+                                              Map<String, JavaType.Class> sharedClassTypes) {
+        return cus
                 .map(cuByPath -> {
                     Timer.Sample sample = Timer.start();
                     Input input = cuByPath.getKey();
                     try {
                         Java11ParserVisitor parser = new Java11ParserVisitor(
                                 input.getRelativePath(relativeTo),
-                                StringUtils.readFully(input.getSource()),
-                                relaxedClassTypeMatching, styles, sharedClassTypes, onParse);
+                                input.getSourceText(charset),
+                                relaxedClassTypeMatching, styles, sharedClassTypes, typeCache, typeTable, onParse);
                         J.CompilationUnit cu = (J.CompilationUnit) parser.scan(cuByPath.getValue(), Space.EMPTY);
                         sample.stop(Timer.builder("rewrite.parse")
                                 .description("The time spent mapping the OpenJDK AST to Rewrite's AST")
@@ -222,8 +430,9 @@ public class Java11Parser implements JavaParser {
                                 .tag("outcome", "success")
                                 .tag("exception", "none")
                                 .tag("step", "(3) Map to Rewrite AST")
+                                .tag("thread", Thread.currentThread().getName())
                                 .register(Metrics.globalRegistry));
-                        return cu;
+                        return new AbstractMap.SimpleImmutableEntry<>(input, cu);
                     } catch (Throwable t) {
                         sample.stop(Timer.builder("rewrite.parse")
                                 .description("The time spent mapping the OpenJDK AST to Rewrite's AST")
@@ -231,6 +440,7 @@ public class Java11Parser implements JavaParser {
                                 .tag("outcome", "error")
                                 .tag("exception", t.getClass().getSimpleName())
                                 .tag("step", "(3) Map to Rewrite AST")
+                                .tag("thread", Thread.currentThread().getName())
                                 .register(Metrics.globalRegistry));
 
                         if (!suppressMappingErrors) {
@@ -241,7 +451,8 @@ public class Java11Parser implements JavaParser {
                     }
                 })
                 .filter(Objects::nonNull)
-                .collect(toList());
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (cu1, cu2) -> cu1,
+                        LinkedHashMap::new));
     }
 
     @Override
@@ -306,6 +517,7 @@ public class Java11Parser implements JavaParser {
                         .description("The time spent by the JDK in type attributing the source file")
                         .tag("file.type", "Java")
                         .tag("step", "(2) Type attribution")
+                        .tag("thread", Thread.currentThread().getName())
                         .tag("outcome", "success")
                         .tag("exception", "none")
                         .register(Metrics.globalRegistry));
@@ -318,10 +530,28 @@ public class Java11Parser implements JavaParser {
             this.sample = Timer.start();
             return super.remove();
         }
+
+        /**
+         * Drop the classes of all but the given compilation units from the queue to be attributed, without timing
+         * their removal as attribution.
+         */
+        void retainAll(Set<JCTree.JCCompilationUnit> toplevels) {
+            List<Env<AttrContext>> retained = new ArrayList<>();
+            while (!super.isEmpty()) {
+                Env<AttrContext> env = super.remove();
+                if (toplevels.contains(env.toplevel)) {
+                    retained.add(env);
+                }
+            }
+            for (Env<AttrContext> env : retained) {
+                append(env);
+            }
+        }
     }
 
     public static class Builder extends JavaParser.Builder<Java11Parser, Builder> {
         private Listener onParse = Listener.NOOP;
+        private int mappingParallelism = 1;
 
         @Override
         public Java11Parser.Builder doOnParse(Listener onParse) {
@@ -329,10 +559,25 @@ public class Java11Parser implements JavaParser {
             return this;
         }
 
+        /**
+         * @param mappingParallelism The number of threads to map type attributed compilation units to Rewrite's AST
+         *                           with. When greater than one, the {@link Listener} this parser is built with is
+         *                           called from several threads. Parsers built with the same mapping parallelism
+         *                           share their threads.
+         */
+        @Incubating(since = "7.0.0")
+        public Java11Parser.Builder mappingParallelism(int mappingParallelism) {
+            if (mappingParallelism < 1) {
+                throw new IllegalArgumentException("Mapping parallelism must be at least 1");
+            }
+            this.mappingParallelism = mappingParallelism;
+            return this;
+        }
+
         @Override
         public Java11Parser build() {
             return new Java11Parser(classpath, dependsOn, charset, relaxedClassTypeMatching,
-                    suppressMappingErrors, logCompilationWarningsAndErrors, styles, onParse);
+                    suppressMappingErrors, logCompilationWarningsAndErrors, styles, onParse, typeCache, typeTable, mappingParallelism);
         }
     }
 }
@@ -16,13 +16,14 @@
 package org.openrewrite.java;
 
 import org.openrewrite.Parser;
-import org.openrewrite.internal.StringUtils;
 
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.NestingKind;
 import javax.tools.JavaFileObject;
 import java.io.*;
 import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.Objects;
 
@@ -33,9 +34,19 @@ import java.util.Objects;
 public class Java11ParserInputFileObject implements JavaFileObject {
     private final Path path;
     private final Parser.Input input;
+    private final Charset charset;
 
     public Java11ParserInputFileObject(Parser.Input input) {
+        this(input, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param charset The charset javac reads the source in, which should be the same charset it is later read in
+     *                when mapping, so that the source is only decoded once.
+     */
+    public Java11ParserInputFileObject(Parser.Input input, Charset charset) {
         this.input = input;
+        this.charset = charset;
         this.path = input.getPath();
     }
 
@@ -69,12 +80,12 @@ public class Java11ParserInputFileObject implements JavaFileObject {
 
     @Override
     public Reader openReader(boolean ignoreEncodingErrors) {
-        return new InputStreamReader(input.getSource());
+        return new StringReader(input.getSourceText(charset));
     }
 
     @Override
     public CharSequence getCharContent(boolean ignoreEncodingErrors) {
-        return StringUtils.readFully(input.getSource());
+        return input.getSourceText(charset);
     }
 
     @Override
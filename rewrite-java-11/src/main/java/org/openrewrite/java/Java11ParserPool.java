@@ -0,0 +1,216 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Incubating;
+import org.openrewrite.internal.lang.NonNullApi;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * Parses with several {@link Java11Parser} instances at once, each with its own compiler context and on its own
+ * thread. Every parser parses and enters all of the sources, so that the types they declare are known to each of
+ * them, but only type attributes and maps its share of them to Rewrite's AST, which is where most of the time goes.
+ * Sources are shared out between the parsers by package (the directory they are in), since sources most often refer
+ * to others in the same package, which saves the parsers from completing the same symbols.
+ * <p>
+ * Like {@link Java11Parser}, this is NOT thread-safe, parsing one set of sources at a time. The
+ * {@link org.openrewrite.Parser.Listener} it is built with is called from several threads.
+ */
+@Incubating(since = "7.0.0")
+@NonNullApi
+public class Java11ParserPool implements JavaParser {
+    private final List<Java11Parser> parsers;
+
+    private Java11ParserPool(List<Java11Parser> parsers) {
+        this.parsers = parsers;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public List<J.CompilationUnit> parseInputs(Iterable<Input> sourceFiles, @Nullable Path relativeTo, ExecutionContext ctx) {
+        List<Input> inputs = acceptedInputs(sourceFiles);
+        List<List<Input>> shards = shardByPackage(inputs);
+
+        // class types are shared between all parsers, so that each is mapped once
+        Map<String, JavaType.Class> sharedClassTypes = new ConcurrentHashMap<>();
+
+        if (shards.size() <= 1) {
+            try {
+                return new ArrayList<>(parsers.get(0).parseInputs(inputs, relativeTo, sharedClassTypes, parsedCus -> input -> true)
+                        .values());
+            } finally {
+                Java11Parser.releaseSourceText(inputs);
+            }
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(shards.size(), r -> {
+            Thread thread = new Thread(r, "rewrite-java-parser-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<Map<Input, J.CompilationUnit>>> parsed = new ArrayList<>(shards.size());
+            for (int i = 0; i < shards.size(); i++) {
+                Java11Parser parser = parsers.get(i);
+                Set<Input> shard = Collections.newSetFromMap(new IdentityHashMap<>());
+                shard.addAll(shards.get(i));
+                parsed.add(executor.submit(() ->
+                        parser.parseInputs(inputs, relativeTo, sharedClassTypes, parsedCus -> shard::contains)));
+            }
+
+            Map<Input, J.CompilationUnit> cusByInput = new IdentityHashMap<>(inputs.size());
+            for (Future<Map<Input, J.CompilationUnit>> shardCus : parsed) {
+                cusByInput.putAll(getUninterruptibly(shardCus));
+            }
+
+            // in the order of the inputs, without those that failed to map when mapping errors are suppressed
+            List<J.CompilationUnit> cus = new ArrayList<>(inputs.size());
+            for (Input input : inputs) {
+                J.CompilationUnit cu = cusByInput.remove(input);
+                if (cu != null) {
+                    cus.add(cu);
+                }
+            }
+            return cus;
+        } finally {
+            executor.shutdownNow();
+            Java11Parser.releaseSourceText(inputs);
+        }
+    }
+
+    /**
+     * Assign whole packages, largest first, to whichever parser has the fewest sources so far.
+     */
+    private List<List<Input>> shardByPackage(List<Input> inputs) {
+        Map<Optional<Path>, List<Input>> packages = new LinkedHashMap<>();
+        for (Input input : inputs) {
+            packages.computeIfAbsent(Optional.ofNullable(input.getPath().getParent()), pkg -> new ArrayList<>()).add(input);
+        }
+
+        List<List<Input>> packagesBySize = new ArrayList<>(packages.values());
+        packagesBySize.sort(comparing(List<Input>::size).reversed());
+
+        PriorityQueue<List<Input>> shards = new PriorityQueue<>(comparing(List::size));
+        for (int i = 0; i < Math.min(parsers.size(), packagesBySize.size()); i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (List<Input> pkg : packagesBySize) {
+            List<Input> smallest = shards.remove();
+            smallest.addAll(pkg);
+            shards.add(smallest);
+        }
+
+        return new ArrayList<>(shards);
+    }
+
+    private static <T> T getUninterruptibly(Future<T> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    } else if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw new IllegalStateException("Failed to parse", e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public Java11ParserPool reset() {
+        for (Java11Parser parser : parsers) {
+            parser.reset();
+        }
+        return this;
+    }
+
+    public static class Builder extends JavaParser.Builder<Java11ParserPool, Builder> {
+        private Listener onParse = Listener.NOOP;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        @Override
+        public Builder doOnParse(Listener onParse) {
+            this.onParse = onParse;
+            return this;
+        }
+
+        /**
+         * Each parser has a compiler context of its own, in which it parses and enters every source, so the heap
+         * taken by compiler state while parsing, and held by the pool until it is reset, is about this many times
+         * that of a single {@link Java11Parser}. {@code JavaParserPoolBenchmark} in rewrite-benchmarks measures both
+         * the time and the heap against a single parser.
+         *
+         * @param parallelism The number of parsers, and so the number of threads, to parse with.
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be at least 1");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        @Override
+        public Java11ParserPool build() {
+            List<Java11Parser> parsers = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                Java11Parser.Builder parser = Java11Parser.builder()
+                        .charset(charset)
+                        .relaxedClassTypeMatching(relaxedClassTypeMatching)
+                        .logCompilationWarningsAndErrors(logCompilationWarningsAndErrors)
+                        .suppressMappingErrors(suppressMappingErrors)
+                        .styles(styles)
+                        .typeCache(typeCache)
+                        .typeTable(typeTable)
+                        .doOnParse(onParse);
+                if (classpath != null) {
+                    parser.classpath(classpath);
+                }
+                if (dependsOn != null) {
+                    parser.dependsOn(dependsOn);
+                }
+                parsers.add(parser.build());
+            }
+            return new Java11ParserPool(parsers);
+        }
+    }
+}
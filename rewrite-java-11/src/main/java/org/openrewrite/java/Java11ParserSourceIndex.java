@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Character level lookups into the source of one compilation unit, so that {@link Java11ParserVisitor} can
+ * inspect the source around its cursor without copying regions of it. The offsets of the start of each line
+ * are only computed the first time a line number is asked for, since line numbers are only needed when
+ * reporting errors.
+ */
+final class Java11ParserSourceIndex {
+    private final String source;
+
+    @Nullable
+    private int[] lineStarts;
+
+    Java11ParserSourceIndex(String source) {
+        this.source = source;
+    }
+
+    /**
+     * @param position An offset into the source.
+     * @return The 1-based number of the line that the offset is on.
+     */
+    int lineNumber(int position) {
+        int[] starts = lineStarts();
+        int line = Arrays.binarySearch(starts, position);
+
+        // when the offset is not the start of a line, the insertion point is the line after the one it is on
+        return line >= 0 ? line + 1 : -(line + 1);
+    }
+
+    private int[] lineStarts() {
+        if (lineStarts == null) {
+            int[] starts = new int[64];
+            int count = 1;
+            for (int i = 0; i < source.length(); i++) {
+                if (source.charAt(i) == '\n') {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                    }
+                    starts[count++] = i + 1;
+                }
+            }
+            lineStarts = Arrays.copyOf(starts, count);
+        }
+        return lineStarts;
+    }
+
+    /**
+     * @return {@code true} when the two characters at the offset are {@code first} followed by {@code second}.
+     */
+    boolean isAt(int position, char first, char second) {
+        return position + 1 < source.length() &&
+                source.charAt(position) == first &&
+                source.charAt(position + 1) == second;
+    }
+
+    /**
+     * @return {@code true} when the character occurs at an offset in [start, end).
+     */
+    boolean contains(char c, int start, int end) {
+        int index = source.indexOf(c, start);
+        return index >= 0 && index < end;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java;
+
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeScanner;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.NameTree;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The types a compilation unit declares and the types it refers to, as recorded by type attribution, for finding the
+ * compilation units that have to be type attributed again when a type they refer to changes.
+ * <p>
+ * A type is referred to when it is the type of any tree element, the declaring type, return type or a parameter type
+ * of a method it calls or declares, or a supertype or type parameter of one of those. So a source that calls a method
+ * on the return value of another method refers to the type returned, even though it never names it.
+ */
+final class Java11ParserTypeReferences {
+    private Java11ParserTypeReferences() {
+    }
+
+    static Set<String> declaredTypes(J.CompilationUnit cu) {
+        Set<String> declared = new HashSet<>();
+        new JavaIsoVisitor<Set<String>>() {
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, Set<String> declared) {
+                if (classDecl.getType() != null) {
+                    declared.add(classDecl.getType().getFullyQualifiedName());
+                }
+                return super.visitClassDeclaration(classDecl, declared);
+            }
+        }.visit(cu, declared);
+        return declared;
+    }
+
+    /**
+     * @return The simple names of the classes declared by a compilation unit that has been parsed by the compiler, but
+     * not yet entered, so has no symbols.
+     */
+    static Set<String> declaredTypeNames(JCTree.JCCompilationUnit cu) {
+        Set<String> declared = new HashSet<>();
+        new TreeScanner() {
+            @Override
+            public void visitClassDef(JCTree.JCClassDecl classDecl) {
+                if (!classDecl.getSimpleName().isEmpty()) {
+                    declared.add(classDecl.getSimpleName().toString());
+                }
+                super.visitClassDef(classDecl);
+            }
+        }.scan(cu);
+        return declared;
+    }
+
+    /**
+     * Whether any identifier in a compilation unit has one of the simple names. A reference to a type that could not
+     * be resolved has no type attributed to it, so it can only be recognized by its name.
+     */
+    static boolean namesAny(J.CompilationUnit cu, Set<String> simpleNames) {
+        if (simpleNames.isEmpty()) {
+            return false;
+        }
+
+        AtomicBoolean named = new AtomicBoolean();
+        new JavaIsoVisitor<AtomicBoolean>() {
+            @Override
+            public J.Identifier visitIdentifier(J.Identifier identifier, AtomicBoolean named) {
+                if (simpleNames.contains(identifier.getSimpleName())) {
+                    named.set(true);
+                }
+                return identifier;
+            }
+        }.visit(cu, named);
+        return named.get();
+    }
+
+    static boolean refersToAny(J.CompilationUnit cu, Set<String> fullyQualifiedNames) {
+        if (fullyQualifiedNames.isEmpty()) {
+            return false;
+        }
+
+        Set<String> referenced = new HashSet<>();
+        Set<JavaType> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        new JavaIsoVisitor<Set<String>>() {
+            @Override
+            public J preVisit(J tree, Set<String> referenced) {
+                if (tree instanceof Expression) {
+                    collect(((Expression) tree).getType(), referenced, visited);
+                } else if (tree instanceof NameTree) {
+                    collect(((NameTree) tree).getType(), referenced, visited);
+                } else if (tree instanceof J.MethodDeclaration) {
+                    collect(((J.MethodDeclaration) tree).getType(), referenced, visited);
+                } else if (tree instanceof J.ClassDeclaration) {
+                    collect(((J.ClassDeclaration) tree).getType(), referenced, visited);
+                }
+                return tree;
+            }
+        }.visit(cu, referenced);
+
+        for (String fqn : fullyQualifiedNames) {
+            if (referenced.contains(fqn)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void collect(@Nullable JavaType type, Set<String> referenced, Set<JavaType> visited) {
+        if (type == null || !visited.add(type)) {
+            return;
+        }
+
+        if (type instanceof JavaType.Class) {
+            JavaType.Class clazz = (JavaType.Class) type;
+            referenced.add(clazz.getFullyQualifiedName());
+            collectAll(clazz.getTypeParameters(), referenced, visited);
+            collectAll(clazz.getInterfaces(), referenced, visited);
+            collect(clazz.getSupertype(), referenced, visited);
+        } else if (type instanceof JavaType.FullyQualified) {
+            referenced.add(((JavaType.FullyQualified) type).getFullyQualifiedName());
+            if (type instanceof JavaType.GenericTypeVariable) {
+                collect(((JavaType.GenericTypeVariable) type).getBound(), referenced, visited);
+            }
+        } else if (type instanceof JavaType.Method) {
+            JavaType.Method method = (JavaType.Method) type;
+            collect(method.getDeclaringType(), referenced, visited);
+            collect(method.getResolvedSignature(), referenced, visited);
+            collect(method.getGenericSignature(), referenced, visited);
+        } else if (type instanceof JavaType.Variable) {
+            collect(((JavaType.Variable) type).getType(), referenced, visited);
+        } else if (type instanceof JavaType.Array) {
+            collect(((JavaType.Array) type).getElemType(), referenced, visited);
+        } else if (type instanceof JavaType.MultiCatch) {
+            collectAll(((JavaType.MultiCatch) type).getThrowableTypes(), referenced, visited);
+        }
+    }
+
+    private static void collect(@Nullable JavaType.Method.Signature signature, Set<String> referenced,
+                                Set<JavaType> visited) {
+        if (signature != null) {
+            collect(signature.getReturnType(), referenced, visited);
+            collectAll(signature.getParamTypes(), referenced, visited);
+        }
+    }
+
+    private static void collectAll(List<? extends JavaType> types, Set<String> referenced, Set<JavaType> visited) {
+        for (JavaType type : types) {
+            collect(type, referenced, visited);
+        }
+    }
+}
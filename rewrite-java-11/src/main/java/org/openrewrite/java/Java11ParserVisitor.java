@@ -26,13 +26,16 @@ import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.*;
 import org.openrewrite.Parser;
 import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.cache.ClasspathTypeCache;
 import org.openrewrite.java.tree.*;
 import org.openrewrite.marker.Markers;
 import org.openrewrite.style.NamedStyles;
 
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
+import javax.tools.JavaFileObject;
 import java.lang.reflect.Field;
+import java.net.URI;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -62,9 +65,12 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
 
     private final Path sourcePath;
     private final String source;
+    private final Java11ParserSourceIndex sourceIndex;
     private final boolean relaxedClassTypeMatching;
     private final Collection<NamedStyles> styles;
     private final Map<String, JavaType.Class> sharedClassTypes;
+    private final ClasspathTypeCache typeCache;
+    private final JavaTypeTable typeTable;
     private final Parser.Listener onParse;
 
     @SuppressWarnings("NotNullFieldNotInitialized")
@@ -75,14 +81,21 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
     private static final Pattern whitespacePrefixPattern = Pattern.compile("^\\s*");
     private static final Pattern whitespaceSuffixPattern = Pattern.compile("\\s*[^\\s]+(\\s*)");
 
+    // matched at the cursor with lookingAt(), since find() would keep searching to the end of the source
+    private static final Pattern dimensionPattern = Pattern.compile("(\\s*)\\[(\\s*)]");
+    private static final Pattern varargPattern = Pattern.compile("(\\s*)\\.{3}");
+
     public Java11ParserVisitor(Path sourcePath, String source, boolean relaxedClassTypeMatching,
                                Collection<NamedStyles> styles, Map<String, JavaType.Class> sharedClassTypes,
-                               Parser.Listener onParse) {
+                               ClasspathTypeCache typeCache, JavaTypeTable typeTable, Parser.Listener onParse) {
         this.sourcePath = sourcePath;
         this.source = source;
+        this.sourceIndex = new Java11ParserSourceIndex(source);
         this.relaxedClassTypeMatching = relaxedClassTypeMatching;
         this.styles = styles;
         this.sharedClassTypes = sharedClassTypes;
+        this.typeCache = typeCache;
+        this.typeTable = typeTable;
         this.onParse = onParse;
     }
 
@@ -112,12 +125,10 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
 
             args = JContainer.build(argsPrefix, expressions, Markers.EMPTY);
         } else {
-            String remaining = source.substring(cursor, endPos(node));
-
             // TODO: technically, if there is code like this, we have a bug, but seems exceedingly unlikely:
             // @MyAnnotation /* Comment () that contains parentheses */ ()
 
-            if (remaining.contains("(") && remaining.contains(")")) {
+            if (sourceIndex.contains('(', cursor, endPos(node)) && sourceIndex.contains(')', cursor, endPos(node))) {
                 args = JContainer.build(
                         sourceBefore("("),
                         singletonList(padRight(new J.Empty(randomId(), sourceBefore(")"), Markers.EMPTY), EMPTY)),
@@ -461,7 +472,7 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
                 convertAll(node.getImports(), this::statementDelim, this::statementDelim),
                 convertAll(node.getTypeDecls().stream().filter(JCClassDecl.class::isInstance).collect(toList())),
                 format(source.substring(cursor))
-        ).withMarker(styles.toArray(NamedStyles[]::new));
+        ).withTypeTable(typeTable).withMarker(styles.toArray(NamedStyles[]::new));
     }
 
     @Override
@@ -876,8 +887,8 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
                     convert(dim, t -> sourceBefore("]"))));
         }
 
-        Matcher matcher = Pattern.compile("\\G(\\s*)\\[(\\s*)]").matcher(source);
-        while (matcher.find(cursor)) {
+        Matcher matcher = dimensionPattern.matcher(source);
+        while (matcher.region(cursor, source.length()).lookingAt()) {
             cursor(matcher.end());
             dimensions.add(new J.ArrayDimension(
                     randomId(),
@@ -1134,7 +1145,7 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
                         expr,
                         padLeft(namePrefix, J.Identifier.build(randomId(), identFmt, Markers.EMPTY, part.trim(), null)),
                         (Character.isUpperCase(part.charAt(0)) || i == parts.length - 1) ?
-                                JavaType.Class.build(fullName) :
+                                JavaType.Class.build(typeTable, fullName) :
                                 null
                 );
             }
@@ -1249,9 +1260,9 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
         }
 
         Supplier<List<JLeftPadded<Space>>> dimensions = () -> {
-            Matcher matcher = Pattern.compile("\\G(\\s*)\\[(\\s*)]").matcher(source);
+            Matcher matcher = dimensionPattern.matcher(source);
             List<JLeftPadded<Space>> dims = new ArrayList<>();
-            while (matcher.find(cursor)) {
+            while (matcher.region(cursor, source.length()).lookingAt()) {
                 cursor(matcher.end());
                 dims.add(padLeft(format(matcher.group(1)), format(matcher.group(2))));
             }
@@ -1261,11 +1272,11 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
         List<JLeftPadded<Space>> beforeDimensions = dimensions.get();
 
         String vartypeString = typeExpr == null ? "" : source.substring(vartype.getStartPosition(), endPos(vartype));
-        Matcher varargMatcher = Pattern.compile("(\\s*)\\.{3}").matcher(vartypeString);
+        Matcher varargMatcher = varargPattern.matcher(vartypeString);
         Space varargs = null;
         if (varargMatcher.find()) {
-            Matcher matcher = Pattern.compile("\\G(\\s*)\\.{3}").matcher(source);
-            if (matcher.find(cursor)) {
+            Matcher matcher = varargPattern.matcher(source).region(cursor, source.length());
+            if (matcher.lookingAt()) {
                 cursor(matcher.end());
             }
             varargs = format(varargMatcher.group(1));
@@ -1375,8 +1386,8 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
         onParse.onError("--- END PATH ---");
     }
 
-    private long lineNumber(Tree tree) {
-        return source.substring(0, ((JCTree) tree).getStartPosition()).chars().filter(c -> c == '\n').count() + 1;
+    private int lineNumber(Tree tree) {
+        return sourceIndex.lineNumber(((JCTree) tree).getStartPosition());
     }
 
     @Nullable
@@ -1505,14 +1516,15 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
     );
 
     private Set<Flag> filteredFlags(Symbol sym) {
-        Set<Flag> set = new HashSet<>();
+        // not flags(), which completes class symbols, since compilation units may be mapped on several threads
+        long javacFlags = sym.flags_field;
+        long bitMask = 0;
         for (Map.Entry<Long, Flag> mask : flagMasks.entrySet()) {
-            if ((sym.flags() & mask.getKey()) != 0L) {
-                Flag value = mask.getValue();
-                set.add(value);
+            if ((javacFlags & mask.getKey()) != 0L) {
+                bitMask |= mask.getValue().getBitMask();
             }
         }
-        return set;
+        return Flag.fromBitMask(bitMask);
     }
 
     @Nullable
@@ -1553,6 +1565,7 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
             }
 
             return JavaType.Method.build(
+                    typeTable,
                     TypeUtils.asClass(type(genericSymbol.owner)),
                     methodName,
                     genericSignature,
@@ -1605,6 +1618,18 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
                         return flyweight;
                     }
 
+                    // only classes compiled to a class file, and not those in the sources being parsed
+                    URI classfile = sym.classfile != null && sym.classfile.getKind() == JavaFileObject.Kind.CLASS ?
+                            sym.classfile.toUri() : null;
+                    if (classfile != null) {
+                        JavaType.Class cached = typeCache.get(classfile, sym.className());
+                        if (cached != null) {
+                            JavaType.Class interned = intern(cached);
+                            sharedClassTypes.put(sym.className(), interned);
+                            return interned;
+                        }
+                    }
+
                     List<Symbol> stackWithSym = new ArrayList<>(stack);
                     stackWithSym.add(sym);
 
@@ -1654,6 +1679,7 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
                     }
 
                     JavaType.Class clazz = JavaType.Class.build(
+                            typeTable,
                             sym.className(),
                             fields,
                             typeParameters,
@@ -1663,6 +1689,11 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
                             relaxedClassTypeMatching);
 
                     sharedClassTypes.put(sym.className(), clazz);
+                    // symbols that were never completed have no members, supertype or interfaces, and would be cached that way
+                    // for every later parse with the same jar
+                    if (classfile != null && sym.isCompleted()) {
+                        typeCache.put(classfile, sym.className(), clazz);
+                    }
 
                     return clazz;
                 }
@@ -1681,6 +1712,25 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
         }
     }
 
+    /**
+     * Types read from the classpath type cache are interned in this parser's type table like the types it maps.
+     */
+    private JavaType.Class intern(JavaType.Class cached) {
+        List<JavaType> interfaces = new ArrayList<>(cached.getInterfaces().size());
+        for (JavaType i : cached.getInterfaces()) {
+            interfaces.add(i instanceof JavaType.Class ? intern((JavaType.Class) i) : i);
+        }
+        return JavaType.Class.build(
+                typeTable,
+                cached.getFullyQualifiedName(),
+                cached.getMembers(),
+                cached.getTypeParameters(),
+                interfaces,
+                null,
+                cached.getSupertype() == null ? null : intern(cached.getSupertype()),
+                relaxedClassTypeMatching);
+    }
+
     @Nullable
     private JavaType type(Tree t) {
         return type(((JCTree) t).type);
@@ -1765,19 +1815,15 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
                 inSingleLineComment = false;
             } else {
                 if (source.length() - untilDelim.length() > delimIndex + 1) {
-                    switch (source.substring(delimIndex, delimIndex + 2)) {
-                        case "//":
-                            inSingleLineComment = true;
-                            delimIndex++;
-                            break;
-                        case "/*":
-                            inMultiLineComment = true;
-                            delimIndex++;
-                            break;
-                        case "*/":
-                            inMultiLineComment = false;
-                            delimIndex = delimIndex + 2;
-                            break;
+                    if (sourceIndex.isAt(delimIndex, '/', '/')) {
+                        inSingleLineComment = true;
+                        delimIndex++;
+                    } else if (sourceIndex.isAt(delimIndex, '/', '*')) {
+                        inMultiLineComment = true;
+                        delimIndex++;
+                    } else if (sourceIndex.isAt(delimIndex, '*', '/')) {
+                        inMultiLineComment = false;
+                        delimIndex = delimIndex + 2;
                     }
                 }
 
@@ -1808,25 +1854,22 @@ public class Java11ParserVisitor extends TreePathScanner<J, Space> {
             if (inSingleLineComment && (source.charAt(delimIndex) == '\n' || source.charAt(delimIndex) == '\r')) {
                 inSingleLineComment = false;
             } else {
-                if (source.length() > delimIndex + 1) {
-                    switch (source.substring(delimIndex, delimIndex + 2)) {
-                        case "//":
-                            inSingleLineComment = true;
-                            delimIndex++;
-                            continue;
-                        case "/*":
-                            inMultiLineComment = true;
-                            delimIndex++;
-                            continue;
-                        case "*/":
-                            inMultiLineComment = false;
-                            delimIndex++;
-                            continue;
-                    }
+                if (sourceIndex.isAt(delimIndex, '/', '/')) {
+                    inSingleLineComment = true;
+                    delimIndex++;
+                    continue;
+                } else if (sourceIndex.isAt(delimIndex, '/', '*')) {
+                    inMultiLineComment = true;
+                    delimIndex++;
+                    continue;
+                } else if (sourceIndex.isAt(delimIndex, '*', '/')) {
+                    inMultiLineComment = false;
+                    delimIndex++;
+                    continue;
                 }
 
                 if (!inMultiLineComment && !inSingleLineComment) {
-                    if (!Character.isWhitespace(source.substring(delimIndex, delimIndex + 1).charAt(0))) {
+                    if (!Character.isWhitespace(source.charAt(delimIndex))) {
                         break; // found it!
                     }
                 }
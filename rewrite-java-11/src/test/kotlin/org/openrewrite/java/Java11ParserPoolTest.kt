@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.InMemoryExecutionContext
+import org.openrewrite.Parser
+import org.openrewrite.java.tree.J
+import java.io.ByteArrayInputStream
+import java.nio.file.Paths
+
+class Java11ParserPoolTest {
+
+    @Test
+    fun parseInParallelPreservingOrder() {
+        val inputs = (0 until 20).flatMap { p ->
+            listOf(
+                input(
+                    "org/openrewrite/p$p/A.java", """
+                        package org.openrewrite.p$p;
+                        public class A {
+                            B b;
+                        }
+                    """
+                ),
+                input(
+                    "org/openrewrite/p$p/B.java", """
+                        package org.openrewrite.p$p;
+                        public class B {
+                        }
+                    """
+                )
+            )
+        }
+
+        val cus = Java11ParserPool.builder()
+            .parallelism(4)
+            .doOnParse(TestParserListener())
+            .build()
+            .parseInputs(inputs, null, InMemoryExecutionContext())
+
+        assertThat(cus.map { it.sourcePath }).containsExactlyElementsOf(inputs.map { it.path })
+
+        // types declared in the same package are attributed
+        cus.filter { it.sourcePath.endsWith("A.java") }.forEachIndexed { p, cu ->
+            val field = cu.classes[0].body.statements[0] as J.VariableDeclarations
+            assertThat(field.typeAsClass?.fullyQualifiedName)
+                .isEqualTo("org.openrewrite.p$p.B")
+        }
+    }
+
+    @Test
+    fun typesDeclaredInOtherPackagesAreAttributed() {
+        val inputs = (0 until 8).map { p ->
+            input(
+                "org/openrewrite/p$p/A.java", """
+                    package org.openrewrite.p$p;
+                    public class A {
+                        org.openrewrite.p${(p + 1) % 8}.A next;
+                    }
+                """
+            )
+        }
+
+        val cus = Java11ParserPool.builder()
+            .parallelism(4)
+            .doOnParse(TestParserListener())
+            .build()
+            .parseInputs(inputs, null, InMemoryExecutionContext())
+
+        assertThat(cus.map { it.sourcePath }).containsExactlyElementsOf(inputs.map { it.path })
+        cus.forEachIndexed { p, cu ->
+            val field = cu.classes[0].body.statements[0] as J.VariableDeclarations
+            assertThat(field.typeAsClass?.fullyQualifiedName)
+                .isEqualTo("org.openrewrite.p${(p + 1) % 8}.A")
+        }
+    }
+
+    private fun input(path: String, source: String) =
+        Parser.Input(Paths.get(path)) { ByteArrayInputStream(source.trimIndent().toByteArray()) }
+}
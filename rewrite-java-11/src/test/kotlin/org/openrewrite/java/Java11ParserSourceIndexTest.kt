@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+
+class Java11ParserSourceIndexTest {
+    private val source = "class A {\n\n    /* } */\n}"
+    private val index = Java11ParserSourceIndex(source)
+
+    @Test
+    fun lineNumber() {
+        assertThat(index.lineNumber(0)).isEqualTo(1)
+        assertThat(index.lineNumber(source.indexOf('\n'))).isEqualTo(1)
+        assertThat(index.lineNumber(source.indexOf('\n') + 1)).isEqualTo(2)
+        assertThat(index.lineNumber(source.indexOf("/*"))).isEqualTo(3)
+        assertThat(index.lineNumber(source.length - 1)).isEqualTo(4)
+    }
+
+    @Test
+    fun scanWithoutCopying() {
+        assertThat(index.isAt(source.indexOf("/*"), '/', '*')).isTrue()
+        assertThat(index.isAt(source.length - 1, '}', '}')).isFalse()
+        assertThat(index.contains('}', 0, source.indexOf("/*"))).isFalse()
+        assertThat(index.contains('}', 0, source.indexOf("*/"))).isTrue()
+    }
+}
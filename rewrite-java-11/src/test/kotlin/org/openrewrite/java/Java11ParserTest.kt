@@ -0,0 +1,260 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.InMemoryExecutionContext
+import org.openrewrite.Parser
+import org.openrewrite.java.tree.J
+import org.openrewrite.java.tree.JavaType
+import org.openrewrite.java.tree.JavaTypeTable
+import org.openrewrite.java.tree.TypeUtils
+import java.io.ByteArrayInputStream
+import java.nio.file.Paths
+
+class Java11ParserTest {
+
+    @Test
+    fun mapInParallelPreservingOrder() {
+        val inputs = listOf(
+            input(
+                "org/openrewrite/B.java", """
+                    package org.openrewrite;
+                    public class B {
+                    }
+                """
+            )
+        ) + (0 until 20).map { i ->
+            input(
+                "org/openrewrite/A$i.java", """
+                    package org.openrewrite;
+                    public class A$i {
+                        B b;
+                    }
+                """
+            )
+        }
+
+        val cus = Java11Parser.builder()
+            .mappingParallelism(4)
+            .doOnParse(TestParserListener())
+            .build()
+            .parseInputs(inputs, null, InMemoryExecutionContext())
+
+        assertThat(cus.map { it.sourcePath }).containsExactlyElementsOf(inputs.map { it.path })
+
+        val fieldTypes = cus.drop(1).map { cu ->
+            (cu.classes[0].body.statements[0] as J.VariableDeclarations).typeAsClass
+        }
+        assertThat(fieldTypes).allMatch { it?.fullyQualifiedName == "org.openrewrite.B" }
+    }
+
+    @Test
+    fun parsersWithTheSameMappingParallelismShareThreads() {
+        val inputs = (0 until 20).map { i ->
+            input(
+                "org/openrewrite/A$i.java", """
+                    package org.openrewrite;
+                    public class A$i {
+                    }
+                """
+            )
+        }
+
+        repeat(3) {
+            Java11Parser.builder()
+                .mappingParallelism(4)
+                .doOnParse(TestParserListener())
+                .build()
+                .parseInputs(inputs, null, InMemoryExecutionContext())
+        }
+
+        assertThat(Thread.getAllStackTraces().keys.filter { it.name.startsWith("rewrite-java-mapper-") })
+            .hasSizeLessThanOrEqualTo(4)
+    }
+
+    @Test
+    fun internTypesInScopedTypeTable() {
+        val source = """
+            import java.util.ArrayList;
+            class Test {
+                ArrayList<String> list;
+            }
+        """.trimIndent()
+
+        fun parseWith(typeTable: JavaTypeTable) = Java11Parser.builder()
+            .typeTable(typeTable)
+            .doOnParse(TestParserListener())
+            .build()
+            .parse(source)[0]
+
+        fun J.CompilationUnit.fieldType() =
+            (classes[0].body.statements[0] as J.VariableDeclarations).typeAsClass
+
+        JavaTypeTable().use { typeTable ->
+            val cu = parseWith(typeTable)
+            assertThat(cu.typeTable).isSameAs(typeTable)
+            assertThat(parseWith(typeTable).fieldType()).isSameAs(cu.fieldType())
+            assertThat(parseWith(JavaTypeTable()).fieldType()).isNotSameAs(cu.fieldType())
+            assertThat(parseWith(JavaTypeTable.GLOBAL).fieldType()).isNotSameAs(cu.fieldType())
+
+            typeTable.close()
+            assertThat(parseWith(typeTable).fieldType()).isNotSameAs(cu.fieldType())
+        }
+    }
+
+    @Test
+    fun methodReferenceWhoseOwnerIsNotAClass() {
+        val cus = Java11Parser.builder()
+            .logCompilationWarningsAndErrors(false)
+            .build()
+            .parse(
+                """
+                    import java.util.function.*;
+                    class Test {
+                        void test(Missing missing) {
+                            Supplier<Object> s1 = missing::foo;
+                            Function<Missing.Inner, Object> s2 = Missing.Inner::foo;
+                            Supplier<Object> s3 = Missing::new;
+                        }
+                    }
+                """.trimIndent()
+            )
+        assertThat(cus).hasSize(1)
+
+        JavaTypeTable().use { typeTable ->
+            val signature = JavaType.Method.Signature(JavaType.Primitive.Void, emptyList())
+            fun build() = JavaType.Method.build(typeTable, null, "foo", signature, signature, emptyList(), emptySet())
+
+            val method = build()
+            assertThat(method.declaringType).isNull()
+            assertThat(build()).isNotSameAs(method)
+            assertThat(build().deepEquals(method)).isTrue()
+        }
+    }
+
+    @Test
+    fun reparseChangedSourcesAndTheirDependents() {
+        var incremental: Pair<Int, Int>? = null
+        val parser = Java11Parser.builder()
+            .doOnParse(object : Parser.Listener {
+                override fun onIncrementalParse(reparsed: Int, reused: Int) {
+                    incremental = reparsed to reused
+                }
+            })
+            .build()
+
+        val a = """
+            package org.openrewrite;
+            public class A {
+                public int value() { return 0; }
+            }
+        """
+        val previous = parser.parseInputs(listOf(
+            input("org/openrewrite/A.java", a),
+            input(
+                "org/openrewrite/B.java", """
+                    package org.openrewrite;
+                    public class B {
+                        Object value = new A().value();
+                    }
+                """
+            ),
+            input(
+                "org/openrewrite/C.java", """
+                    package org.openrewrite;
+                    public class C {
+                    }
+                """
+            )
+        ), null, InMemoryExecutionContext())
+
+        val cus = parser.reparse(previous, listOf(
+            input("org/openrewrite/A.java", a.replace("int value() { return 0; }", "String value() { return \"\"; }")),
+            input(
+                "org/openrewrite/D.java", """
+                    package org.openrewrite;
+                    public class D {
+                    }
+                """
+            )
+        ), null, InMemoryExecutionContext())
+
+        assertThat(cus.map { it.sourcePath.fileName.toString() })
+            .containsExactly("A.java", "B.java", "C.java", "D.java")
+        assertThat(cus[2]).isSameAs(previous[2])
+        assertThat(incremental).isEqualTo(3 to 1)
+
+        val valueInitializer = (cus[1].classes[0].body.statements[0] as J.VariableDeclarations)
+            .variables[0].initializer as J.MethodInvocation
+        assertThat(TypeUtils.asClass(valueInitializer.type?.resolvedSignature?.returnType)?.fullyQualifiedName).isEqualTo("java.lang.String")
+    }
+
+    @Test
+    fun reparseSourcesReferringToANewlyDeclaredType() {
+        var incremental: Pair<Int, Int>? = null
+        val parser = Java11Parser.builder()
+            .doOnParse(object : Parser.Listener {
+                override fun onIncrementalParse(reparsed: Int, reused: Int) {
+                    incremental = reparsed to reused
+                }
+            })
+            .build()
+
+        val previous = parser.parseInputs(listOf(
+            input(
+                "org/openrewrite/A.java", """
+                    package org.openrewrite;
+                    public class A {
+                        Object b = new B();
+                    }
+                """
+            ),
+            input(
+                "org/openrewrite/C.java", """
+                    package org.openrewrite;
+                    public class C {
+                    }
+                """
+            )
+        ), null, InMemoryExecutionContext())
+
+        val b = (previous[0].classes[0].body.statements[0] as J.VariableDeclarations).variables[0].initializer
+        assertThat(b?.type).isNull()
+
+        val cus = parser.reparse(previous, listOf(
+            input(
+                "org/openrewrite/B.java", """
+                    package org.openrewrite;
+                    public class B {
+                    }
+                """
+            )
+        ), null, InMemoryExecutionContext())
+
+        assertThat(cus.map { it.sourcePath.fileName.toString() })
+            .containsExactly("A.java", "C.java", "B.java")
+        assertThat(cus[1]).isSameAs(previous[1])
+        assertThat(incremental).isEqualTo(2 to 1)
+
+        val newB = (cus[0].classes[0].body.statements[0] as J.VariableDeclarations).variables[0].initializer
+        assertThat(TypeUtils.asClass(newB?.type)?.fullyQualifiedName).isEqualTo("org.openrewrite.B")
+    }
+
+    private fun input(path: String, source: String) =
+        Parser.Input(Paths.get(path)) { ByteArrayInputStream(source.trimIndent().toByteArray()) }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.cache
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestInfo
+import org.junit.jupiter.api.io.TempDir
+import org.openrewrite.java.Java11Parser
+import org.openrewrite.java.TestParserListener
+import org.openrewrite.java.tree.J
+import org.openrewrite.java.tree.JavaType
+import org.openrewrite.java.tree.JavaTypeTable
+import java.net.URI
+import java.nio.file.Path
+import java.nio.file.Paths
+
+class LocalClasspathTypeCacheTest {
+
+    @Test
+    fun reuseTypesOfJarsAndRuntime(@TempDir tempDir: Path) {
+        val classpath = listOf(Paths.get(TestInfo::class.java.protectionDomain.codeSource.location.toURI()))
+
+        fun parseWith(typeCache: ClasspathTypeCache) = Java11Parser.builder()
+            .classpath(classpath)
+            .typeCache(typeCache)
+            .doOnParse(TestParserListener())
+            .build()
+            .parse(
+                """
+                    import org.junit.jupiter.api.TestInfo;
+                    import java.util.ArrayList;
+                    class Test {
+                        TestInfo info;
+                        ArrayList<String> list;
+                    }
+                """.trimIndent()
+            )[0]
+            .classes[0].body.statements
+            .map { (it as J.VariableDeclarations).typeAsClass?.fullyQualifiedName }
+
+        assertThat(parseWith(LocalClasspathTypeCache(tempDir)))
+            .containsExactly("org.junit.jupiter.api.TestInfo", "java.util.ArrayList")
+
+        // one for the junit jar and one for the Java runtime
+        assertThat(tempDir.toFile().list()).hasSize(2)
+
+        val hits = mutableListOf<String>()
+        val cache = LocalClasspathTypeCache(tempDir)
+        val countingCache = object : ClasspathTypeCache {
+            override fun get(classfile: URI, fullyQualifiedName: String): JavaType.Class? =
+                cache.get(classfile, fullyQualifiedName)?.also { hits.add(fullyQualifiedName) }
+
+            override fun put(classfile: URI, fullyQualifiedName: String, type: JavaType.Class) =
+                cache.put(classfile, fullyQualifiedName, type)
+        }
+
+        assertThat(parseWith(countingCache))
+            .containsExactly("org.junit.jupiter.api.TestInfo", "java.util.ArrayList")
+        assertThat(hits).contains("org.junit.jupiter.api.TestInfo", "java.util.ArrayList")
+        assertThat(cache.get(URI("jar:" + classpath.first().toUri() + "!/org/junit/jupiter/api/TestInfo.class"),
+            "org.junit.jupiter.api.TestInfo")).isNotNull
+    }
+
+    @Test
+    fun onlyCacheCompletedTypesAndInternCachedTypes(@TempDir tempDir: Path) {
+        val classpath = listOf(Paths.get(TestInfo::class.java.protectionDomain.codeSource.location.toURI()))
+        val source = """
+            import org.junit.jupiter.api.TestInfo;
+            class Test {
+                TestInfo info;
+                java.util.ArrayList<String> list;
+            }
+        """.trimIndent()
+
+        val put = mutableListOf<JavaType.Class>()
+        val cache = LocalClasspathTypeCache(tempDir)
+        val recordingCache = object : ClasspathTypeCache {
+            override fun get(classfile: URI, fullyQualifiedName: String): JavaType.Class? =
+                cache.get(classfile, fullyQualifiedName)
+
+            override fun put(classfile: URI, fullyQualifiedName: String, type: JavaType.Class) {
+                put.add(type)
+                cache.put(classfile, fullyQualifiedName, type)
+            }
+        }
+
+        Java11Parser.builder()
+            .classpath(classpath)
+            .typeCache(recordingCache)
+            .doOnParse(TestParserListener())
+            .build()
+            .parse(source)
+
+        // a type that was never completed would have been mapped without its supertype
+        assertThat(put).isNotEmpty
+        assertThat(put.filter { it.supertype == null }.map { it.fullyQualifiedName })
+            .allMatch { it == "java.lang.Object" }
+
+        JavaTypeTable().use { typeTable ->
+            val info = Java11Parser.builder()
+                .classpath(classpath)
+                .typeCache(cache)
+                .typeTable(typeTable)
+                .doOnParse(TestParserListener())
+                .build()
+                .parse(source)[0]
+                .classes[0].body.statements
+                .map { (it as J.VariableDeclarations).typeAsClass }
+                .first()
+
+            assertThat(info).isSameAs(JavaType.Class.build(typeTable, "org.junit.jupiter.api.TestInfo"))
+        }
+    }
+}
@@ -43,11 +43,21 @@ public class ChangeMethodName extends Recipe {
      */
     private final String newMethodName;
 
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
+        return CompositeMethodRecipe.usesMethod(this, methodPattern, false);
+    }
+
     @Override
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new ChangeMethodNameVisitor(new MethodMatcher(methodPattern));
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class ChangeMethodNameVisitor extends JavaIsoVisitor<ExecutionContext> {
         private final MethodMatcher methodMatcher;
 
@@ -93,7 +103,9 @@ public class ChangeMethodName extends Recipe {
         @Override
         public J.FieldAccess visitFieldAccess(J.FieldAccess fieldAccess, ExecutionContext ctx) {
             J.FieldAccess f = super.visitFieldAccess(fieldAccess, ctx);
-            if (f.isFullyQualifiedClassReference(methodMatcher)) {
+            Object parent = getCursor().getParentOrThrow().getValue();
+            if (parent instanceof J.Import && ((J.Import) parent).isStatic() &&
+                    f.isFullyQualifiedClassReference(methodMatcher)) {
                 Expression target = f.getTarget();
                 if (target instanceof J.FieldAccess) {
                     String className = target.printTrimmed();
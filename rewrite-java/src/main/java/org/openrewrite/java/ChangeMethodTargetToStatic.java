@@ -46,11 +46,21 @@ public class ChangeMethodTargetToStatic extends Recipe {
      */
     private final String fullyQualifiedTargetTypeName;
 
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
+        return CompositeMethodRecipe.usesMethod(this, methodPattern, true);
+    }
+
     @Override
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new ChangeMethodTargetToStaticVisitor(new MethodMatcher(methodPattern));
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class ChangeMethodTargetToStaticVisitor extends JavaIsoVisitor<ExecutionContext> {
         private final MethodMatcher methodMatcher;
 
@@ -48,6 +48,11 @@ public class ChangeMethodTargetToVariable extends Recipe {
         return new ChangeMethodTargetToVariableVisitor(new MethodMatcher(methodPattern), JavaType.Class.build(variableType));
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class ChangeMethodTargetToVariableVisitor extends JavaIsoVisitor<ExecutionContext> {
         private final MethodMatcher methodMatcher;
         private final JavaType.Class variableType;
@@ -55,7 +55,7 @@ public class ChangePackage extends Recipe {
     @Override
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new JavaIsoVisitor<ExecutionContext>() {
-            final JavaTemplate newPackageExpr = template("package #{}").build();
+            final JavaTemplate newPackageExpr = template("package #{}").stubContext(true).build();
 
             @Override
             public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext context) {
@@ -99,4 +99,9 @@ public class ChangePackage extends Recipe {
             }
         };
     }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
@@ -19,11 +19,15 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Recipe;
+import org.openrewrite.Tree;
 import org.openrewrite.TreeVisitor;
 import org.openrewrite.internal.ListUtils;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.tree.*;
 import org.openrewrite.marker.Markers;
+import org.openrewrite.marker.RecipeSearchResult;
+
+import java.util.List;
 
 import static org.openrewrite.Tree.randomId;
 
@@ -53,6 +57,94 @@ public class ChangeType extends Recipe {
         return new ChangeTypeVisitor(newFullyQualifiedTypeName);
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
+        return new UsesOldTypeVisitor();
+    }
+
+    /**
+     * Marks compilation units that import the old type or that contain any element attributed with it,
+     * which is a superset of the elements that {@link ChangeTypeVisitor} acts on. A compilation unit that imports
+     * the old type, or whose classes extend or implement it, is marked without visiting the classes' bodies.
+     * Otherwise the visit stops at the first element attributed with the old type.
+     */
+    private class UsesOldTypeVisitor extends JavaIsoVisitor<ExecutionContext> {
+        private boolean found;
+
+        @Nullable
+        @Override
+        public J visit(@Nullable Tree tree, ExecutionContext ctx) {
+            //noinspection unchecked
+            return found ? (J) tree : super.visit(tree, ctx);
+        }
+
+        @Override
+        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+            if (importsOldType(cu) || declaresSubtypeOfOldType(cu.getClasses())) {
+                return cu.withMarker(new RecipeSearchResult(ChangeType.this));
+            }
+            J.CompilationUnit c = super.visitCompilationUnit(cu, ctx);
+            return found ? c.withMarker(new RecipeSearchResult(ChangeType.this)) : c;
+        }
+
+        private boolean importsOldType(J.CompilationUnit cu) {
+            for (J.Import anImport : cu.getImports()) {
+                if (anImport.isFromType(oldFullyQualifiedTypeName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Uses the type attribution of the class declarations, which records their supertypes.
+         */
+        private boolean declaresSubtypeOfOldType(List<J.ClassDeclaration> classes) {
+            for (J.ClassDeclaration classDecl : classes) {
+                JavaType.Class classType = TypeUtils.asClass(classDecl.getType());
+                if (classType == null) {
+                    continue;
+                }
+                if (TypeUtils.isOfClassType(classType.getSupertype(), oldFullyQualifiedTypeName)) {
+                    return true;
+                }
+                for (JavaType anInterface : classType.getInterfaces()) {
+                    if (TypeUtils.isOfClassType(anInterface, oldFullyQualifiedTypeName)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public J preVisit(J tree, ExecutionContext ctx) {
+            JavaType type = null;
+            if (tree instanceof Expression) {
+                type = ((Expression) tree).getType();
+            } else if (tree instanceof NameTree) {
+                type = ((NameTree) tree).getType();
+            } else if (tree instanceof J.VariableDeclarations.NamedVariable) {
+                type = ((J.VariableDeclarations.NamedVariable) tree).getType();
+            }
+
+            JavaType.Method methodType = TypeUtils.asMethod(type);
+            if (methodType != null) {
+                type = methodType.getDeclaringType();
+            }
+
+            if (TypeUtils.isOfClassType(type, oldFullyQualifiedTypeName)) {
+                found = true;
+            }
+            return tree;
+        }
+    }
+
     private class ChangeTypeVisitor extends JavaVisitor<ExecutionContext> {
         private final JavaType targetType;
 
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Incubating;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.marker.RecipeSearchResult;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The head of a doNext chain of many recipes that each act on the methods matching a method pattern, i.e.
+ * {@link ChangeMethodName} and {@link ChangeMethodTargetToStatic}. Rather than each of those recipes testing every
+ * method of every source file against its own pattern, every method a source file refers to is looked up once in a
+ * {@link MethodMatcherSet} of all of their patterns, and each recipe's visitor only runs on the source files that
+ * refer to a method matching its pattern.
+ * <p>
+ * When a recipe in the chain changes a source file, the methods it refers to are looked up again by the next recipe
+ * that needs them.
+ * <p>
+ * Each recipe is applicable to the source files that refer to a matching method in one of the ways its visitor
+ * changes: {@link ChangeMethodName} to those that invoke, declare, refer to or statically import one, and
+ * {@link ChangeMethodTargetToStatic} to those that invoke one.
+ */
+@Incubating(since = "7.0.0")
+public class CompositeMethodRecipe extends Recipe {
+    private static final ExecutionContext.Key<MethodPatternsInUse> METHOD_PATTERNS_IN_USE =
+            ExecutionContext.Key.sourceFile("org.openrewrite.java.methodPatternsInUse");
+
+    /**
+     * Found in the doNext chain when first needed, since a deserialized chain isn't built with
+     * {@link #doNext(Recipe)}.
+     */
+    @JsonIgnore
+    @Nullable
+    private volatile MethodPatterns methodPatterns;
+
+    @Override
+    public Recipe doNext(Recipe recipe) {
+        methodPatterns = null;
+        return super.doNext(recipe);
+    }
+
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getVisitor() {
+        MethodPatterns chainMethodPatterns = methodPatterns();
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                // the methods are looked up by the first recipe in the chain to test this source file
+                ctx.putMessage(METHOD_PATTERNS_IN_USE, new MethodPatternsInUse(chainMethodPatterns));
+                return cu;
+            }
+        };
+    }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
+    private MethodPatterns methodPatterns() {
+        MethodPatterns chainMethodPatterns = methodPatterns;
+        if (chainMethodPatterns == null) {
+            chainMethodPatterns = new MethodPatterns();
+            for (Recipe recipe = getNext(); recipe != null; recipe = recipe.getNext()) {
+                if (recipe instanceof ChangeMethodName) {
+                    chainMethodPatterns.add(((ChangeMethodName) recipe).getMethodPattern());
+                } else if (recipe instanceof ChangeMethodTargetToStatic) {
+                    chainMethodPatterns.add(((ChangeMethodTargetToStatic) recipe).getMethodPattern());
+                }
+            }
+            methodPatterns = chainMethodPatterns;
+        }
+        return chainMethodPatterns;
+    }
+
+    /**
+     * @param invocationsOnly Whether only invocations of a matching method make the recipe applicable, rather than
+     *                        any reference to one.
+     * @return An applicability test that marks compilation units that refer to a method matching the pattern,
+     * answered by the {@link CompositeMethodRecipe} at the head of the doNext chain if the recipe was added to one.
+     * A recipe used on its own is applicable to every compilation unit, since looking for the method would take
+     * another pass over each compilation unit that its visitor makes anyway.
+     */
+    static TreeVisitor<?, ExecutionContext> usesMethod(Recipe recipe, String methodPattern, boolean invocationsOnly) {
+        return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                MethodPatternsInUse dispatched = ctx.getMessage(METHOD_PATTERNS_IN_USE);
+                if (dispatched == null || !dispatched.methodPatterns.contains(methodPattern)) {
+                    return cu.withMarker(new RecipeSearchResult(recipe));
+                }
+
+                MethodsInUse inUse = dispatched.find(cu);
+                return inUse.invoked.contains(methodPattern) ||
+                        (!invocationsOnly && inUse.referenced.contains(methodPattern)) ?
+                        cu.withMarker(new RecipeSearchResult(recipe)) :
+                        cu;
+            }
+        };
+    }
+
+    private static MethodsInUse find(MethodMatcherSet<String> methodPatterns, J.CompilationUnit cu) {
+        MethodsInUse inUse = new MethodsInUse();
+        new JavaIsoVisitor<MethodsInUse>() {
+            @Override
+            public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, MethodsInUse inUse) {
+                J.ClassDeclaration classDecl = getCursor().firstEnclosing(J.ClassDeclaration.class);
+                if (classDecl != null) {
+                    inUse.referenced.addAll(methodPatterns.matches(method, classDecl));
+                }
+                return super.visitMethodDeclaration(method, inUse);
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, MethodsInUse inUse) {
+                inUse.invoked.addAll(methodPatterns.matches(method));
+                return super.visitMethodInvocation(method, inUse);
+            }
+
+            @Override
+            public J.MemberReference visitMemberReference(J.MemberReference memberRef, MethodsInUse inUse) {
+                inUse.referenced.addAll(methodPatterns.matches(memberRef.getReferenceType()));
+                return super.visitMemberReference(memberRef, inUse);
+            }
+
+            @Override
+            public J.Import visitImport(J.Import impoort, MethodsInUse inUse) {
+                if (impoort.isStatic()) {
+                    inUse.referenced.addAll(methodPatterns.matches(impoort.getQualid()));
+                }
+                return impoort;
+            }
+        }.visit(cu, inUse);
+        return inUse;
+    }
+
+    private static class MethodPatterns {
+        private final MethodMatcherSet<String> matchers = new MethodMatcherSet<>();
+        private final Set<String> distinct = new HashSet<>();
+
+        private void add(String methodPattern) {
+            if (distinct.add(methodPattern)) {
+                matchers.add(methodPattern, methodPattern);
+            }
+        }
+
+        private boolean contains(String methodPattern) {
+            return distinct.contains(methodPattern);
+        }
+    }
+
+    /**
+     * The method patterns of a chain that a source file refers to, found when first asked for and again whenever the
+     * source file has changed since.
+     */
+    private static class MethodPatternsInUse {
+        private final MethodPatterns methodPatterns;
+
+        @Nullable
+        private J.CompilationUnit foundIn;
+
+        private MethodsInUse inUse = new MethodsInUse();
+
+        private MethodPatternsInUse(MethodPatterns methodPatterns) {
+            this.methodPatterns = methodPatterns;
+        }
+
+        private MethodsInUse find(J.CompilationUnit cu) {
+            if (foundIn != cu) {
+                inUse = CompositeMethodRecipe.find(methodPatterns.matchers, cu);
+                foundIn = cu;
+            }
+            return inUse;
+        }
+    }
+
+    private static class MethodsInUse {
+        /**
+         * The patterns of the methods invoked.
+         */
+        private final Set<String> invoked = new HashSet<>();
+
+        /**
+         * The patterns of the methods declared, referred to, or statically imported.
+         */
+        private final Set<String> referenced = new HashSet<>();
+    }
+}
@@ -55,6 +55,11 @@ public class DeleteMethodArgument extends Recipe {
         return new DeleteMethodArgumentVisitor(new MethodMatcher(methodPattern));
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class DeleteMethodArgumentVisitor extends JavaIsoVisitor<ExecutionContext> {
         private final MethodMatcher methodMatcher;
 
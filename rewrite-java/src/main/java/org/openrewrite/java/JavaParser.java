@@ -19,7 +19,9 @@ import org.intellij.lang.annotations.Language;
 import org.openrewrite.InMemoryExecutionContext;
 import org.openrewrite.Parser;
 import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.cache.ClasspathTypeCache;
 import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaTypeTable;
 import org.openrewrite.style.NamedStyles;
 
 import java.io.ByteArrayInputStream;
@@ -130,6 +132,8 @@ public interface JavaParser extends Parser<J.CompilationUnit> {
         protected boolean logCompilationWarningsAndErrors = true;
         protected boolean suppressMappingErrors = false;
         protected final List<NamedStyles> styles = new ArrayList<>();
+        protected ClasspathTypeCache typeCache = ClasspathTypeCache.NOOP;
+        protected JavaTypeTable typeTable = JavaTypeTable.GLOBAL;
 
         public B logCompilationWarningsAndErrors(boolean logCompilationWarningsAndErrors) {
             this.logCompilationWarningsAndErrors = logCompilationWarningsAndErrors;
@@ -173,6 +177,22 @@ public interface JavaParser extends Parser<J.CompilationUnit> {
             return (B) this;
         }
 
+        /**
+         * @param typeCache Reused for the types of compiled classes on the classpath, rather than mapping them again.
+         */
+        public B typeCache(ClasspathTypeCache typeCache) {
+            this.typeCache = typeCache;
+            return (B) this;
+        }
+
+        /**
+         * @param typeTable The table to intern the types of parsed sources in. The global table by default.
+         */
+        public B typeTable(JavaTypeTable typeTable) {
+            this.typeTable = typeTable;
+            return (B) this;
+        }
+
         public abstract P build();
     }
 }
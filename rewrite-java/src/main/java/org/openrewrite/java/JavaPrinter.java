@@ -18,6 +18,7 @@ package org.openrewrite.java;
 import org.openrewrite.Cursor;
 import org.openrewrite.Tree;
 import org.openrewrite.TreePrinter;
+import org.openrewrite.internal.PrinterOutput;
 import org.openrewrite.internal.lang.NonNull;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.tree.*;
@@ -28,28 +29,29 @@ import static org.openrewrite.java.tree.J.Modifier.*;
 
 public class JavaPrinter<P> extends JavaVisitor<P> {
 
-    private static final String PRINTER_ACC_KEY = "printed";
-
-    private final TreePrinter<P> treePrinter;
+    private final PrinterOutput<P> output;
 
     public JavaPrinter(TreePrinter<P> treePrinter) {
-        this.treePrinter = treePrinter;
+        this.output = new PrinterOutput<>(treePrinter);
     }
 
     @NonNull
     protected StringBuilder getPrinter() {
-        StringBuilder acc = getCursor().getRoot().getNearestMessage(PRINTER_ACC_KEY);
-        if (acc == null) {
-            acc = new StringBuilder();
-            getCursor().getRoot().putMessage(PRINTER_ACC_KEY, acc);
-        }
-        return acc;
+        return output.getAcc();
     }
 
     public String print(J j, P p) {
         setCursor(new Cursor(null, "EPSILON"));
-        visit(j, p);
-        return getPrinter().toString();
+        return output.print(() -> visit(j, p));
+    }
+
+    /**
+     * Print to an {@link Appendable} (e.g. a {@link java.io.Writer}) as the tree is visited, so that the whole
+     * printed form never needs to be held in memory at once.
+     */
+    public void print(J j, P p, Appendable out) {
+        setCursor(new Cursor(null, "EPSILON"));
+        output.print(() -> visit(j, p), out);
     }
 
     @Override
@@ -59,12 +61,9 @@ public class JavaPrinter<P> extends JavaVisitor<P> {
             return defaultValue(null, p);
         }
 
-        StringBuilder printerAcc = getPrinter();
-        treePrinter.doBefore(tree, printerAcc, p);
+        output.doBefore(tree, p);
         tree = super.visit(tree, p);
-        if (tree != null) {
-            treePrinter.doAfter(tree, printerAcc, p);
-        }
+        output.doAfter(tree, p);
         return (J) tree;
     }
 
@@ -19,9 +19,12 @@ import org.openrewrite.Cursor;
 import org.openrewrite.Incubating;
 import org.openrewrite.Tree;
 import org.openrewrite.internal.StringUtils;
+import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.format.AutoFormatVisitor;
+import org.openrewrite.java.internal.template.ContextShape;
 import org.openrewrite.java.internal.template.ExtractTrees;
 import org.openrewrite.java.internal.template.InsertAtCoordinates;
+import org.openrewrite.java.internal.template.JavaTemplateCache;
 import org.openrewrite.java.internal.template.JavaTemplatePrinter;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JLeftPadded;
@@ -37,28 +40,38 @@ import java.util.function.Supplier;
 /**
  * Build ASTs from the text of Java source code without knowing how to build the AST
  * elements that make up that text.
+ * <p>
+ * The trees a template compiles to are cached for as long as the parser it is built with is in use, shared by every
+ * template built with the same parser, or with the default parser, so that visitors created afresh for each source
+ * file still reuse them.
  */
 @Incubating(since = "7.0.0")
 public class JavaTemplate {
     private final Supplier<Cursor> parentScopeGetter;
     private final JavaParser parser;
+    private final JavaTemplateCache cache;
+
     private final String code;
     private final int parameterCount;
     private final Set<String> imports;
     private final String parameterMarker;
     private final Consumer<String> onAfterVariableSubstitution;
     private final Consumer<String> onBeforeParseTemplate;
+    private final boolean stubContext;
 
-    private JavaTemplate(Supplier<Cursor> parentScopeGetter, JavaParser parser, String code, Set<String> imports,
-                         String parameterMarker, Consumer<String> onAfterVariableSubstitution,
-                         Consumer<String> onBeforeParseTemplate) {
+    private JavaTemplate(Supplier<Cursor> parentScopeGetter, JavaParser parser, JavaTemplateCache cache,
+                         String code, Set<String> imports, String parameterMarker,
+                         Consumer<String> onAfterVariableSubstitution, Consumer<String> onBeforeParseTemplate,
+                         boolean stubContext) {
         this.parentScopeGetter = parentScopeGetter;
         this.parser = parser;
+        this.cache = cache;
         this.code = code;
         this.imports = imports;
         this.parameterMarker = parameterMarker;
         this.onAfterVariableSubstitution = onAfterVariableSubstitution;
         this.onBeforeParseTemplate = onBeforeParseTemplate;
+        this.stubContext = stubContext;
         this.parameterCount = StringUtils.countOccurrences(code, parameterMarker);
     }
 
@@ -76,14 +89,7 @@ public class JavaTemplate {
      */
     public <J2 extends J> J2 withTemplate(Tree changing, JavaCoordinates coordinates, Object... parameters) {
         Cursor parentScope = parentScopeGetter.get();
-
-        if (parameters.length != parameterCount) {
-            throw new IllegalArgumentException("This template requires " + parameterCount + " parameters.");
-        }
-
-        //Substitute parameter markers with the string representation of each parameter.
-        String substitutedTemplate = substituteParameters(parameters);
-        onAfterVariableSubstitution.accept(substitutedTemplate);
+        String substitutedTemplate = substitute(parameters);
 
         J.CompilationUnit cu = parentScope.firstEnclosingOrThrow(J.CompilationUnit.class);
         //The tree printer uses the cursor path from the compilation unit down to the tree element within the coordinates
@@ -92,14 +98,17 @@ public class JavaTemplate {
         //coordinates are found.
         Cursor insertionScope = JavaTemplatePrinter.findCoordinateCursor(parentScope, changing, coordinates);
 
-        String generatedSource = new JavaTemplatePrinter(substitutedTemplate, changing, coordinates, imports)
-                .print(cu, insertionScope);
-        onBeforeParseTemplate.accept(generatedSource);
+        JavaTemplateCache.Key key = new JavaTemplateCache.Key(substitutedTemplate, imports, stubContext,
+                ContextShape.print(cu, substitutedTemplate, changing, coordinates, insertionScope));
+        List<J> generatedElements = cache.getOrCompile(key, () -> {
+            String generatedSource = new JavaTemplatePrinter(substitutedTemplate, changing, coordinates,
+                    insertionScope, imports, stubContext).print(cu);
+            onBeforeParseTemplate.accept(generatedSource);
 
-        parser.reset();
-        J.CompilationUnit synthetic = parser.parse(generatedSource).iterator().next();
-
-        List<J> generatedElements = ExtractTrees.extract(synthetic);
+            parser.reset();
+            J.CompilationUnit synthetic = parser.parse(generatedSource).iterator().next();
+            return ExtractTrees.extract(synthetic);
+        });
         for (int i = 0; i < generatedElements.size(); i++) {
             J snippet = generatedElements.get(i);
             generatedElements.set(i, new AutoFormatVisitor<Integer>().visit(snippet, 0, parentScope));
@@ -109,6 +118,33 @@ public class JavaTemplate {
         return (J2) new InsertAtCoordinates(coordinates).visit(changing, generatedElements, parentScope);
     }
 
+    String substitute(Object... parameters) {
+        if (parameters.length != parameterCount) {
+            throw new IllegalArgumentException("This template requires " + parameterCount + " parameters.");
+        }
+
+        //Substitute parameter markers with the string representation of each parameter.
+        String substitutedTemplate = substituteParameters(parameters);
+        onAfterVariableSubstitution.accept(substitutedTemplate);
+        return substitutedTemplate;
+    }
+
+    JavaParser getParser() {
+        return parser;
+    }
+
+    Set<String> getImports() {
+        return imports;
+    }
+
+    boolean isStubContext() {
+        return stubContext;
+    }
+
+    void beforeParse(String generatedSource) {
+        onBeforeParseTemplate.accept(generatedSource);
+    }
+
     /**
      * Replace the parameter markers in the template with the parameters passed into the generate method.
      * Parameters that are Java Tree's will be correctly printed into the string. The parameters are not named and
@@ -142,12 +178,13 @@ public class JavaTemplate {
         private final String code;
         private final Set<String> imports = new HashSet<>();
 
-        private JavaParser javaParser = JavaParser.fromJavaVersion()
-                .logCompilationWarningsAndErrors(false)
-                .build();
+        @Nullable
+        private JavaParser javaParser;
 
         private String parameterMarker = "#{}";
 
+        private boolean stubContext;
+
         private Consumer<String> onAfterVariableSubstitution = s -> {
         };
         private Consumer<String> onBeforeParseTemplate = s -> {
@@ -202,6 +239,10 @@ public class JavaTemplate {
             return this;
         }
 
+        /**
+         * Templates built with the same parser share the trees they compile to, so a parser built once and reused
+         * for every visitor makes the most of that.
+         */
         public Builder javaParser(JavaParser javaParser) {
             this.javaParser = javaParser;
             return this;
@@ -216,19 +257,47 @@ public class JavaTemplate {
             return this;
         }
 
+        /**
+         * The template is compiled within a synthetic compilation unit that reproduces the context it is inserted into,
+         * so that it is type attributed as it would be in place. By default, that context includes every field and
+         * method signature, comments, and the statements that precede the insertion point. Turning this on compiles
+         * the template within a stub holding only what the template may refer to: imports, the signatures of types and
+         * of the fields and methods whose names the template or the member it is inserted into use, and the locals in
+         * scope at the insertion point. The stub is much smaller in large source files.
+         * <p>
+         * The stub is off by default because it is chosen by matching simple names, so it only approximates what a
+         * template depends on, and a template compiled without some of its context isn't reported as failing to
+         * compile. Its trees just lack types, or take those of whatever else the stub kept. Turn it on for templates
+         * whose type attribution depends only on the types around them and on what the template and the member it is
+         * inserted into name. That covers a package declaration, an annotation, a constructor, or a statement built
+         * from trees of the member itself, as in the built-in cleanup recipes.
+         */
+        public Builder stubContext(boolean stubContext) {
+            this.stubContext = stubContext;
+            return this;
+        }
+
         public Builder doAfterVariableSubstitution(Consumer<String> afterVariableSubstitution) {
             this.onAfterVariableSubstitution = afterVariableSubstitution;
             return this;
         }
 
+        /**
+         * Called with the synthetic compilation unit a template is compiled in just before it is parsed. When the
+         * trees the template compiles to in the same context are already cached, nothing is printed or parsed, and
+         * this is not called.
+         */
         public Builder doBeforeParseTemplate(Consumer<String> beforeParseTemplate) {
             this.onBeforeParseTemplate = beforeParseTemplate;
             return this;
         }
 
         public JavaTemplate build() {
-            return new JavaTemplate(parentScope, javaParser, code, imports, parameterMarker,
-                    onAfterVariableSubstitution, onBeforeParseTemplate);
+            JavaParser parser = javaParser == null ?
+                    JavaParser.fromJavaVersion().logCompilationWarningsAndErrors(false).build() :
+                    javaParser;
+            return new JavaTemplate(parentScope, parser, JavaTemplateCache.forParser(javaParser), code, imports, parameterMarker,
+                    onAfterVariableSubstitution, onBeforeParseTemplate, stubContext);
         }
     }
 }
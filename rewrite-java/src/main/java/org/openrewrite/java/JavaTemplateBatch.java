@@ -0,0 +1,224 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java;
+
+import org.openrewrite.Cursor;
+import org.openrewrite.Incubating;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.format.AutoFormatVisitor;
+import org.openrewrite.java.internal.template.ExtractTrees;
+import org.openrewrite.java.internal.template.InsertAtCoordinates;
+import org.openrewrite.java.internal.template.JavaTemplatePrinter;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaCoordinates;
+
+import java.util.*;
+
+/**
+ * Inserts templates into a compilation unit once it has been visited, all at once. The templates are printed into one
+ * synthetic compilation unit at their coordinates, which is parsed and type attributed by one javac invocation, and
+ * the trees of every template are spliced into the compilation unit in one pass over it.
+ * <p>
+ * Templates are compiled together when they share a parser. Their imports are combined. Two templates with
+ * coordinates on the same tree, e.g. two annotations added to the same method, are compiled one after the other, as
+ * is an insertion whose coordinates are replaced by another insertion in the same batch. An insertion whose changing
+ * tree is no longer in the compilation unit when the batch is applied is not made.
+ * <p>
+ * When the visitor that deferred the templates was called on a subtree rather than the whole compilation unit, the
+ * batch is applied to that subtree. The subtree is put back into the compilation unit the visitor's cursor led to, the
+ * insertions are made there, and the subtree is taken back out of it.
+ *
+ * @see JavaVisitor#deferTemplate(J, JavaTemplate, JavaCoordinates, Object...)
+ */
+@Incubating(since = "7.0.0")
+public class JavaTemplateBatch<P> extends JavaVisitor<P> {
+    private final List<Insertion> insertions = new ArrayList<>();
+
+    /**
+     * The compilation unit enclosing the trees the templates were deferred on, for when the batch is applied to a
+     * subtree of it.
+     */
+    private final J.CompilationUnit enclosing;
+
+    /**
+     * The subtree the batch is being applied to, as it is after each round of insertions.
+     */
+    @Nullable
+    private J subtree;
+
+    JavaTemplateBatch(J.CompilationUnit enclosing) {
+        this.enclosing = enclosing;
+    }
+
+    /**
+     * @param changing    The tree that will be modified where one of its subtrees will be added or replaced by an AST
+     *                    formed from the template. It is found in the visited compilation unit by its id.
+     * @param template    The template to insert.
+     * @param coordinates The point where the template will either insert or replace code.
+     * @param parameters  Parameters substituted into the template.
+     */
+    public void add(J changing, JavaTemplate template, JavaCoordinates coordinates, Object... parameters) {
+        insertions.add(new Insertion(changing.getId(), template, template.substitute(parameters), coordinates));
+    }
+
+    @Nullable
+    @Override
+    public J visit(@Nullable Tree tree, P p) {
+        if (!(tree instanceof J) || tree instanceof J.CompilationUnit) {
+            return super.visit(tree, p);
+        }
+
+        J t = (J) tree;
+        subtree = t;
+        //noinspection ConstantConditions
+        J.CompilationUnit cu = (J.CompilationUnit) new JavaVisitor<Integer>() {
+            @Override
+            public J postVisit(J j, Integer p) {
+                return j.getId().equals(t.getId()) ? t : j;
+            }
+        }.visit(enclosing, 0);
+
+        visitCompilationUnit(cu, p);
+
+        J inserted = subtree;
+        subtree = null;
+        return inserted;
+    }
+
+    @Override
+    public J visitCompilationUnit(J.CompilationUnit cu, P p) {
+        J.CompilationUnit c = cu;
+        List<Insertion> remaining = new ArrayList<>(insertions);
+        insertions.clear();
+
+        while (!remaining.isEmpty()) {
+            JavaParser parser = remaining.get(0).template.getParser();
+            Set<UUID> coordinatesIds = new HashSet<>();
+            List<Insertion> round = new ArrayList<>();
+            List<Insertion> later = new ArrayList<>();
+            for (Insertion insertion : remaining) {
+                if (insertion.template.getParser() == parser && coordinatesIds.add(insertion.coordinates.getTree().getId())) {
+                    round.add(insertion);
+                } else {
+                    later.add(insertion);
+                }
+            }
+
+            c = insert(c, parser, round, later);
+            remaining = later;
+        }
+
+        return c;
+    }
+
+    /**
+     * @param later Insertions whose templates weren't printed, because the tree at their coordinates is replaced by
+     *              another insertion, are added to this to be tried again once the others have been made.
+     */
+    private J.CompilationUnit insert(J.CompilationUnit cu, JavaParser parser, List<Insertion> round, List<Insertion> later) {
+        Map<UUID, Cursor> changingCursors = new HashMap<>();
+        for (Insertion insertion : round) {
+            changingCursors.put(insertion.changingId, null);
+        }
+        new JavaVisitor<Integer>() {
+            @Nullable
+            @Override
+            public J preVisit(J tree, Integer p) {
+                if (changingCursors.containsKey(tree.getId())) {
+                    changingCursors.put(tree.getId(), getCursor());
+                }
+                return tree;
+            }
+        }.visit(cu, 0);
+
+        List<Insertion> found = new ArrayList<>(round.size());
+        List<JavaTemplatePrinter.Insertion> printed = new ArrayList<>(round.size());
+        Set<String> imports = new HashSet<>();
+        boolean stubContext = true;
+        for (Insertion insertion : round) {
+            Cursor changingCursor = changingCursors.get(insertion.changingId);
+            if (changingCursor != null) {
+                found.add(insertion);
+                printed.add(new JavaTemplatePrinter.Insertion(insertion.code, insertion.coordinates,
+                        JavaTemplatePrinter.findCoordinateCursor(changingCursor, changingCursor.getValue(), insertion.coordinates)));
+                imports.addAll(insertion.template.getImports());
+                stubContext &= insertion.template.isStubContext();
+            }
+        }
+        if (found.isEmpty()) {
+            return cu;
+        }
+
+        String generatedSource = new JavaTemplatePrinter(printed, imports, stubContext).print(cu);
+        Set<JavaTemplate> templates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Insertion insertion : found) {
+            if (templates.add(insertion.template)) {
+                insertion.template.beforeParse(generatedSource);
+            }
+        }
+
+        parser.reset();
+        J.CompilationUnit synthetic = parser.parse(generatedSource).iterator().next();
+        List<List<J>> extracted = ExtractTrees.extract(synthetic, found.size());
+
+        Map<UUID, List<Integer>> insertionsByChangingId = new HashMap<>();
+        for (int i = 0; i < found.size(); i++) {
+            Insertion insertion = found.get(i);
+            if (extracted.get(i).isEmpty() && !insertion.retried && found.size() > 1) {
+                insertion.retried = true;
+                later.add(insertion);
+            } else {
+                insertionsByChangingId.computeIfAbsent(insertion.changingId, id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        //noinspection ConstantConditions
+        return (J.CompilationUnit) new JavaVisitor<Integer>() {
+            @Nullable
+            @Override
+            public J postVisit(J tree, Integer p) {
+                J t = tree;
+                for (Integer i : insertionsByChangingId.getOrDefault(tree.getId(), Collections.emptyList())) {
+                    List<J> generatedElements = new ArrayList<>(extracted.get(i));
+                    for (int j = 0; j < generatedElements.size(); j++) {
+                        generatedElements.set(j, new AutoFormatVisitor<Integer>().visit(generatedElements.get(j), 0, getCursor()));
+                    }
+                    t = new InsertAtCoordinates(found.get(i).coordinates).visit(t, generatedElements, getCursor());
+                }
+                if (subtree != null && tree.getId().equals(subtree.getId())) {
+                    subtree = t;
+                }
+                return t;
+            }
+        }.visit(cu, 0);
+    }
+
+    private static class Insertion {
+        private final UUID changingId;
+        private final JavaTemplate template;
+        private final String code;
+        private final JavaCoordinates coordinates;
+        private boolean retried;
+
+        private Insertion(UUID changingId, JavaTemplate template, String code, JavaCoordinates coordinates) {
+            this.changingId = changingId;
+            this.template = template;
+            this.code = code;
+            this.coordinates = coordinates;
+        }
+    }
+}
@@ -36,6 +36,48 @@ public class JavaVisitor<P> extends TreeVisitor<J, P> {
         return JavaTemplate.builder(this::getCursor, code);
     }
 
+    /**
+     * Inserts a template like {@link J#withTemplate(JavaTemplate, JavaCoordinates, Object...)} does, but only once the
+     * whole compilation unit has been visited, together with every other template deferred while visiting it. The
+     * deferred templates are all compiled by one parse of one synthetic compilation unit, rather than one parse
+     * each. The insertion is made before any other visitors added by {@link #doAfterVisit(TreeVisitor)} run, so that
+     * e.g. imports are added for the types the templates refer to.
+     *
+     * @param changing    The tree that will be modified where one of its subtrees will be added or replaced by an AST
+     *                    formed from the template. It must still be in the compilation unit, by id, once the whole
+     *                    compilation unit has been visited. When this visitor was called on a subtree of a compilation
+     *                    unit, the cursor it was called with must lead back to that compilation unit.
+     * @param template    The template to insert.
+     * @param coordinates The point where the template will either insert or replace code.
+     * @param parameters  Parameters substituted into the template.
+     * @param <J2>        The type of the changing tree.
+     * @return The changing tree, unmodified.
+     * @throws IllegalStateException if the cursor doesn't lead back to a compilation unit.
+     */
+    @Incubating(since = "7.0.0")
+    @SuppressWarnings("unchecked")
+    public <J2 extends J> J2 deferTemplate(J2 changing, JavaTemplate template, JavaCoordinates coordinates, Object... parameters) {
+        J.CompilationUnit cu = getCursor().firstEnclosing(J.CompilationUnit.class);
+        if (cu == null) {
+            throw new IllegalStateException("A template can only be deferred inside a compilation unit. When visiting a " +
+                    "subtree, pass the cursor of its parent to visit(tree, p, parent).");
+        }
+
+        JavaTemplateBatch<P> batch = null;
+        for (TreeVisitor<J, P> afterVisit : getAfterVisit()) {
+            if (afterVisit instanceof JavaTemplateBatch) {
+                batch = (JavaTemplateBatch<P>) afterVisit;
+                break;
+            }
+        }
+        if (batch == null) {
+            batch = new JavaTemplateBatch<>(cu);
+            getAfterVisit().add(0, batch);
+        }
+        batch.add(changing, template, coordinates, parameters);
+        return changing;
+    }
+
     /**
      * This method will add an import to the compilation unit if there is a reference to the type. It adds an additional
      * visitor which means the "add import" is deferred and does not complete immediately. This operation is idempotent
@@ -15,6 +15,7 @@
  */
 package org.openrewrite.java;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.antlr.v4.runtime.CharStreams;
@@ -24,17 +25,15 @@ import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.internal.grammar.AspectJLexer;
 import org.openrewrite.java.internal.grammar.RefactorMethodSignatureParser;
 import org.openrewrite.java.internal.grammar.RefactorMethodSignatureParserBaseVisitor;
-import org.openrewrite.java.tree.Expression;
-import org.openrewrite.java.tree.J;
-import org.openrewrite.java.tree.JavaType;
-import org.openrewrite.java.tree.TypeUtils;
+import org.openrewrite.java.tree.*;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
+import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.joining;
 
 /**
@@ -66,6 +65,19 @@ public class MethodMatcher {
     private Pattern methodNamePattern;
     private Pattern argumentPattern;
 
+    /**
+     * The patterns above, compiled into comparisons that neither build strings nor run a regular expression in the
+     * common case of a pattern with no wildcards or a simple one like "java.util.*".
+     */
+    @Getter(AccessLevel.NONE)
+    NamePatternMatcher targetTypeMatcher;
+
+    @Getter(AccessLevel.NONE)
+    NamePatternMatcher methodNameMatcher;
+
+    @Getter(AccessLevel.NONE)
+    ArgumentPatternMatcher argumentMatcher;
+
     public MethodMatcher(String signature) {
         RefactorMethodSignatureParser parser = new RefactorMethodSignatureParser(new CommonTokenStream(new AspectJLexer(
                 CharStreams.fromString(signature))));
@@ -77,8 +89,13 @@ public class MethodMatcher {
                 methodNamePattern = Pattern.compile(ctx.simpleNamePattern().children.stream()
                         .map(c -> AspectjUtils.aspectjNameToPattern(c.toString()))
                         .collect(joining("")));
-                argumentPattern = Pattern.compile(new FormalParameterVisitor().visitFormalParametersPattern(
+                FormalParameterVisitor formalParameters = new FormalParameterVisitor();
+                argumentPattern = Pattern.compile(formalParameters.visitFormalParametersPattern(
                         ctx.formalParametersPattern()));
+
+                targetTypeMatcher = NamePatternMatcher.compile(targetTypePattern);
+                methodNameMatcher = NamePatternMatcher.compile(methodNamePattern);
+                argumentMatcher = formalParameters.compile(argumentPattern);
                 return null;
             }
         }.visit(parser.methodPattern());
@@ -91,14 +108,9 @@ public class MethodMatcher {
 
         JavaType.Method methodType = (JavaType.Method) type;
 
-        String signaturePattern = methodType.getGenericSignature().getParamTypes().stream()
-                .map(this::typePattern)
-                .filter(Objects::nonNull)
-                .collect(joining(","));
-
-        return matchesTargetType(methodType.getDeclaringType()) &&
-                methodNamePattern.matcher(methodType.getName()).matches() &&
-                argumentPattern.matcher(signaturePattern).matches();
+        return methodNameMatcher.matches(methodType.getName()) &&
+                matchesTargetType(methodType.getDeclaringType()) &&
+                argumentMatcher.matches(methodType.getGenericSignature().getParamTypes(), Function.identity());
     }
 
     public boolean matches(J.MethodDeclaration method, J.ClassDeclaration enclosing) {
@@ -106,27 +118,9 @@ public class MethodMatcher {
             return false;
         }
 
-        String signaturePattern = method.getParameters().stream()
-                .map(v -> {
-                    if (v instanceof J.VariableDeclarations) {
-                        J.VariableDeclarations vd = (J.VariableDeclarations) v;
-                        if (vd.getTypeAsClass() != null) {
-                            return vd.getTypeAsClass();
-                        } else {
-                            return vd.getTypeExpression() != null ? vd.getTypeExpression().getType() : null;
-                        }
-                    } else {
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .map(this::typePattern)
-                .filter(Objects::nonNull)
-                .collect(joining(","));
-
-        return matchesTargetType(TypeUtils.asClass(enclosing.getType())) &&
-                methodNamePattern.matcher(method.getSimpleName()).matches() &&
-                argumentPattern.matcher(signaturePattern).matches();
+        return methodNameMatcher.matches(method.getSimpleName()) &&
+                matchesTargetType(TypeUtils.asClass(enclosing.getType())) &&
+                argumentMatcher.matches(method.getParameters(), MethodMatcher::parameterType);
     }
 
     public boolean matches(J.MethodInvocation method) {
@@ -139,57 +133,48 @@ public class MethodMatcher {
             return false;
         }
 
-        String resolvedSignaturePattern = method.getType().getResolvedSignature().getParamTypes().stream()
-                .map(this::typePattern)
-                .filter(Objects::nonNull)
-                .collect(joining(","));
-
-        return matchesTargetType(method.getType().getDeclaringType()) &&
-                methodNamePattern.matcher(method.getSimpleName()).matches() &&
-                argumentPattern.matcher(resolvedSignaturePattern).matches();
+        return methodNameMatcher.matches(method.getSimpleName()) &&
+                matchesTargetType(method.getType().getDeclaringType()) &&
+                argumentMatcher.matches(method.getType().getResolvedSignature().getParamTypes(), Function.identity());
     }
 
     public boolean matches(J.NewClass constructor) {
         if (constructor.getType() == null) {
             return false;
         }
-        String signaturePattern = Optional.ofNullable(constructor.getArguments())
-                .map(args -> args.getElements().stream()
-                        .map(Expression::getType)
-                        .filter(Objects::nonNull)
-                        .map(this::typePattern)
-                        .filter(Objects::nonNull)
-                        .collect(joining(","))
-                ).orElse("");
 
         JavaType.Class type = TypeUtils.asClass(constructor.getType());
         assert type != null;
-        return matchesTargetType(type) &&
-                methodNamePattern.matcher(type.getClassName()).matches() &&
-                argumentPattern.matcher(signaturePattern).matches();
+        return methodNameMatcher.matches(type.getClassName()) &&
+                matchesTargetType(type) &&
+                argumentMatcher.matches(constructor.getArguments() == null ? emptyList() :
+                        constructor.getArguments().getPadding().getElements(), MethodMatcher::argumentType);
     }
 
     boolean matchesTargetType(@Nullable JavaType.FullyQualified type) {
         JavaType.Class asClass = TypeUtils.asClass(type);
-        return type != null && (targetTypePattern.matcher(type.getFullyQualifiedName()).matches() ||
+        return type != null && (targetTypeMatcher.matches(type.getFullyQualifiedName()) ||
                 type != JavaType.Class.OBJECT &&
                         (asClass == null || matchesTargetType(asClass.getSupertype() == null ? JavaType.Class.OBJECT : asClass.getSupertype())));
     }
 
     @Nullable
-    private String typePattern(JavaType type) {
-        if (type instanceof JavaType.Primitive) {
-            return ((JavaType.Primitive) type).getKeyword();
-        } else if (type instanceof JavaType.Class) {
-            return ((JavaType.Class) type).getFullyQualifiedName();
-        } else if (type instanceof JavaType.Array) {
-            JavaType elemType = ((JavaType.Array) type).getElemType();
-            if (elemType != null) {
-                return typePattern(elemType) + "[]";
+    private static JavaType parameterType(Statement parameter) {
+        if (parameter instanceof J.VariableDeclarations) {
+            J.VariableDeclarations vd = (J.VariableDeclarations) parameter;
+            if (vd.getTypeAsClass() != null) {
+                return vd.getTypeAsClass();
+            } else {
+                return vd.getTypeExpression() != null ? vd.getTypeExpression().getType() : null;
             }
         }
         return null;
     }
+
+    @Nullable
+    private static JavaType argumentType(JRightPadded<Expression> argument) {
+        return argument.getElement().getType();
+    }
 }
 
 class TypeVisitor extends RefactorMethodSignatureParserBaseVisitor<String> {
@@ -267,7 +252,8 @@ class FormalParameterVisitor extends RefactorMethodSignatureParserBaseVisitor<St
                     argumentPatterns.add("(" + argument.getRegex() + ",)?");
                 }
             } else { // FormalType
-                if (i > 0 && arguments.get(i - 1) != Argument.DOT_DOT) {
+                // only a leading .. brings its own comma to separate it from the argument that follows it
+                if (i > 0 && !(i == 1 && arguments.get(0) == Argument.DOT_DOT)) {
                     argumentPatterns.add("," + argument.getRegex());
                 } else {
                     argumentPatterns.add(argument.getRegex());
@@ -278,6 +264,33 @@ class FormalParameterVisitor extends RefactorMethodSignatureParserBaseVisitor<St
         return String.join("", argumentPatterns).replace("...", "\\[\\]");
     }
 
+    /**
+     * Must be called after {@link #visitFormalParametersPattern(RefactorMethodSignatureParser.FormalParametersPatternContext)}.
+     *
+     * @param argumentPattern The regular expression built from the formal parameters pattern, to fall back to when
+     *                        the arguments can't be matched one at a time.
+     */
+    ArgumentPatternMatcher compile(Pattern argumentPattern) {
+        int dotDot = arguments.indexOf(Argument.DOT_DOT);
+        if (dotDot != arguments.lastIndexOf(Argument.DOT_DOT)) {
+            return new ArgumentPatternMatcher(argumentPattern);
+        }
+
+        List<NamePatternMatcher> leading = new ArrayList<>();
+        List<NamePatternMatcher> trailing = new ArrayList<>();
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i != dotDot) {
+                NamePatternMatcher type = NamePatternMatcher.compile(Pattern.compile(arguments.get(i).getRegex()));
+                if (type.getName() == null) {
+                    return new ArgumentPatternMatcher(argumentPattern);
+                }
+                (dotDot == -1 || i < dotDot ? leading : trailing).add(type);
+            }
+        }
+
+        return new ArgumentPatternMatcher(leading, dotDot == -1 ? null : trailing);
+    }
+
     private static abstract class Argument {
         abstract String getRegex();
 
@@ -330,3 +343,336 @@ class AspectjUtils {
                 .replace("..", "\\.(.+\\.)?");
     }
 }
+
+/**
+ * A type or method name pattern, compiled from the regular expression built for it into a comparison of characters
+ * when the pattern has no wildcards, has one "*" wildcard (e.g. "java.util.*" or "get*"), or ends with "..*". Any
+ * other pattern is matched with the regular expression.
+ * <p>
+ * A name is matched together with a number of array dimensions, as if "[]" were appended to it that many times, so
+ * that the names of array types don't have to be built to match them.
+ */
+abstract class NamePatternMatcher {
+    private static final String SEGMENT_WILDCARD = "[^.]*";
+    private static final String SUBPACKAGES_WILDCARD = "\\.(.+\\.)?" + SEGMENT_WILDCARD;
+
+    abstract boolean matches(String name, int arrayDimensions);
+
+    boolean matches(String name) {
+        return matches(name, 0);
+    }
+
+    /**
+     * @return The name matched when the pattern has no wildcards, otherwise null.
+     */
+    @Nullable
+    String getName() {
+        return null;
+    }
+
+    /**
+     * @return The package when the pattern matches any type directly in it (e.g. "java.util.*"), otherwise null.
+     */
+    @Nullable
+    String getPackageName() {
+        return null;
+    }
+
+    static NamePatternMatcher compile(Pattern pattern) {
+        String regex = pattern.pattern();
+
+        StringBuilder prefix = new StringBuilder();
+        int i = literal(regex, 0, prefix);
+        if (i == regex.length()) {
+            return new Exact(prefix.toString());
+        } else if (regex.startsWith(SUBPACKAGES_WILDCARD, i) && i + SUBPACKAGES_WILDCARD.length() == regex.length()) {
+            return new Subpackages(prefix.toString());
+        } else if (regex.startsWith(SEGMENT_WILDCARD, i)) {
+            StringBuilder suffix = new StringBuilder();
+            if (literal(regex, i + SEGMENT_WILDCARD.length(), suffix) == regex.length()) {
+                return new Segment(prefix.toString(), suffix.toString());
+            }
+        }
+        return new Regex(pattern);
+    }
+
+    /**
+     * Unescapes the literal part of the regular expression that starts at the given index, leaving "." for the
+     * regular expression's any character.
+     *
+     * @return The index of the first character of the regular expression that isn't literal.
+     */
+    private static int literal(String regex, int start, StringBuilder literal) {
+        int i = start;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '_' || c == '.') {
+                literal.append(c);
+                i++;
+            } else if (c == '\\' && i + 1 < regex.length() &&
+                    (regex.charAt(i + 1) == '[' || regex.charAt(i + 1) == ']')) {
+                literal.append(regex.charAt(i + 1));
+                i += 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static int length(String name, int arrayDimensions) {
+        return name.length() + 2 * arrayDimensions;
+    }
+
+    private static char charAt(String name, int arrayDimensions, int index) {
+        if (index < name.length()) {
+            return name.charAt(index);
+        }
+        return (index - name.length()) % 2 == 0 ? '[' : ']';
+    }
+
+    /**
+     * @return Whether the literal matches the name at the given offset, where "." in the literal matches any
+     * character as it would in the regular expression.
+     */
+    private static boolean literalMatches(String literal, String name, int arrayDimensions, int offset) {
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c != '.' && c != charAt(name, arrayDimensions, offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Exact extends NamePatternMatcher {
+        private final String name;
+
+        private Exact(String name) {
+            this.name = name;
+        }
+
+        @Override
+        String getName() {
+            return name;
+        }
+
+        @Override
+        boolean matches(String name, int arrayDimensions) {
+            return length(name, arrayDimensions) == this.name.length() &&
+                    literalMatches(this.name, name, arrayDimensions, 0);
+        }
+    }
+
+    /**
+     * A "*" between a (possibly empty) prefix and suffix, matching any characters other than ".".
+     */
+    private static class Segment extends NamePatternMatcher {
+        private final String prefix;
+        private final String suffix;
+
+        private Segment(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        @Override
+        String getPackageName() {
+            return suffix.isEmpty() && prefix.length() > 1 && prefix.endsWith(".") ?
+                    prefix.substring(0, prefix.length() - 1) :
+                    null;
+        }
+
+        @Override
+        boolean matches(String name, int arrayDimensions) {
+            int length = length(name, arrayDimensions);
+            int segmentEnd = length - suffix.length();
+            if (segmentEnd < prefix.length() ||
+                    !literalMatches(prefix, name, arrayDimensions, 0) ||
+                    !literalMatches(suffix, name, arrayDimensions, segmentEnd)) {
+                return false;
+            }
+            for (int i = prefix.length(); i < Math.min(segmentEnd, name.length()); i++) {
+                if (name.charAt(i) == '.') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A trailing "..*", matching any name that continues the prefix with a ".".
+     */
+    private static class Subpackages extends NamePatternMatcher {
+        private final String prefix;
+
+        private Subpackages(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        boolean matches(String name, int arrayDimensions) {
+            if (length(name, arrayDimensions) <= prefix.length() ||
+                    !literalMatches(prefix, name, arrayDimensions, 0) ||
+                    charAt(name, arrayDimensions, prefix.length()) != '.') {
+                return false;
+            }
+
+            // the subpackages matched by "(.+\.)?" can't start with a "."
+            int lastDot = name.lastIndexOf('.');
+            return lastDot == prefix.length() || lastDot > prefix.length() + 1;
+        }
+    }
+
+    private static class Regex extends NamePatternMatcher {
+        private final Pattern pattern;
+
+        private Regex(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        boolean matches(String name, int arrayDimensions) {
+            return pattern.matcher(arrayTypeName(name, arrayDimensions)).matches();
+        }
+    }
+
+    static String arrayTypeName(String name, int arrayDimensions) {
+        if (arrayDimensions == 0) {
+            return name;
+        }
+        StringBuilder arrayTypeName = new StringBuilder(length(name, arrayDimensions)).append(name);
+        for (int i = 0; i < arrayDimensions; i++) {
+            arrayTypeName.append("[]");
+        }
+        return arrayTypeName.toString();
+    }
+}
+
+/**
+ * Matches a list of argument types one at a time against the type patterns before and after the ".." in the formal
+ * parameters pattern, if there is one.
+ * <p>
+ * Only type patterns without wildcards are matched one argument at a time. Matched against the comma-separated
+ * argument types, a wildcard in the regular expression may match no argument at all or span several of them, so a
+ * formal parameters pattern with one is matched with the regular expression instead, as is one with more than one "..".
+ */
+class ArgumentPatternMatcher {
+    private final List<NamePatternMatcher> leading;
+
+    /**
+     * The type patterns after a "..", or null when the formal parameters pattern has no "..".
+     */
+    @Nullable
+    private final List<NamePatternMatcher> trailing;
+
+    @Nullable
+    private final Pattern argumentPattern;
+
+    ArgumentPatternMatcher(List<NamePatternMatcher> leading, @Nullable List<NamePatternMatcher> trailing) {
+        this.leading = leading;
+        this.trailing = trailing;
+        this.argumentPattern = null;
+    }
+
+    ArgumentPatternMatcher(Pattern argumentPattern) {
+        this.leading = emptyList();
+        this.trailing = null;
+        this.argumentPattern = argumentPattern;
+    }
+
+    <T> boolean matches(List<T> arguments, Function<T, JavaType> argumentType) {
+        if (argumentPattern != null) {
+            StringJoiner signature = new StringJoiner(",");
+            for (T argument : arguments) {
+                String typePattern = typePattern(argumentType.apply(argument));
+                if (typePattern != null) {
+                    signature.add(typePattern);
+                }
+            }
+            return argumentPattern.matcher(signature.toString()).matches();
+        }
+
+        int count = 0;
+        for (T argument : arguments) {
+            if (isArgument(argumentType.apply(argument))) {
+                count++;
+            }
+        }
+
+        if (trailing == null ? count != leading.size() : count < leading.size() + trailing.size()) {
+            return false;
+        }
+
+        int trailingStart = trailing == null ? count : count - trailing.size();
+        int i = 0;
+        for (T argument : arguments) {
+            JavaType type = argumentType.apply(argument);
+            if (!isArgument(type)) {
+                continue;
+            }
+
+            NamePatternMatcher typeMatcher = i < leading.size() ? leading.get(i) :
+                    i >= trailingStart ? trailing.get(i - trailingStart) :
+                            null; // matched by ".."
+            if (typeMatcher != null) {
+                String typeName = typeName(type);
+                if (typeName == null || !typeMatcher.matches(typeName, arrayDimensions(type))) {
+                    return false;
+                }
+            }
+            i++;
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether the type is one that {@link #typePattern(JavaType)} names, and so is an argument to match.
+     */
+    private static boolean isArgument(@Nullable JavaType type) {
+        return type instanceof JavaType.Primitive || type instanceof JavaType.Class ||
+                type instanceof JavaType.Array && ((JavaType.Array) type).getElemType() != null;
+    }
+
+    /**
+     * @return The keyword of a primitive type or the fully qualified name of a class, or of the element type of an
+     * array, or null if the type has no such name.
+     */
+    @Nullable
+    private static String typeName(@Nullable JavaType type) {
+        while (type instanceof JavaType.Array) {
+            type = ((JavaType.Array) type).getElemType();
+        }
+        if (type instanceof JavaType.Primitive) {
+            return ((JavaType.Primitive) type).getKeyword();
+        } else if (type instanceof JavaType.Class) {
+            return ((JavaType.Class) type).getFullyQualifiedName();
+        }
+        return null;
+    }
+
+    private static int arrayDimensions(@Nullable JavaType type) {
+        int dimensions = 0;
+        while (type instanceof JavaType.Array) {
+            type = ((JavaType.Array) type).getElemType();
+            dimensions++;
+        }
+        return dimensions;
+    }
+
+    @Nullable
+    private static String typePattern(@Nullable JavaType type) {
+        if (type instanceof JavaType.Primitive) {
+            return ((JavaType.Primitive) type).getKeyword();
+        } else if (type instanceof JavaType.Class) {
+            return ((JavaType.Class) type).getFullyQualifiedName();
+        } else if (type instanceof JavaType.Array) {
+            JavaType elemType = ((JavaType.Array) type).getElemType();
+            if (elemType != null) {
+                return typePattern(elemType) + "[]";
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java;
+
+import org.openrewrite.Incubating;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Many {@link MethodMatcher method patterns}, each with a value, indexed by the declaring type and method name they
+ * match, so that the patterns that match a method are found without testing every one of them. A declaring type
+ * pattern for any type in one package (e.g. "java.util.*") is indexed by that package. Patterns with any other
+ * wildcard in their declaring type, or with a wildcard in their method name, are indexed by the other of the two, if
+ * it is indexed, and are otherwise tested against every method.
+ *
+ * @param <T> The type of the values the patterns are added with, e.g. the recipe that a pattern belongs to.
+ */
+@Incubating(since = "7.0.0")
+public class MethodMatcherSet<T> {
+    /**
+     * Patterns with a method name without wildcards, by that name.
+     */
+    private final Map<String, ByName<T>> byName = new HashMap<>();
+
+    /**
+     * Patterns with a wildcard in their method name but not in their declaring type, by that type.
+     */
+    private final Map<String, List<Entry<T>>> anyNameByType = new HashMap<>();
+
+    /**
+     * Patterns with a wildcard in their method name and a declaring type for any type in one package, by that package.
+     */
+    private final Map<String, List<Entry<T>>> anyNameByPackage = new HashMap<>();
+
+    private final List<Entry<T>> anyNameAnyType = new ArrayList<>();
+
+    private int size;
+
+    public MethodMatcherSet<T> add(String methodPattern, T value) {
+        return add(new MethodMatcher(methodPattern), value);
+    }
+
+    public MethodMatcherSet<T> add(MethodMatcher matcher, T value) {
+        Entry<T> entry = new Entry<>(size++, matcher, value);
+        String type = matcher.targetTypeMatcher.getName();
+        String pkg = matcher.targetTypeMatcher.getPackageName();
+        String name = matcher.methodNameMatcher.getName();
+        if (name != null) {
+            ByName<T> sameName = byName.computeIfAbsent(name, n -> new ByName<>());
+            if (type != null) {
+                sameName.byType.computeIfAbsent(type, t -> new ArrayList<>()).add(entry);
+            } else if (pkg != null) {
+                sameName.byPackage.computeIfAbsent(pkg, p -> new ArrayList<>()).add(entry);
+            } else {
+                sameName.anyType.add(entry);
+            }
+        } else if (type != null) {
+            anyNameByType.computeIfAbsent(type, t -> new ArrayList<>()).add(entry);
+        } else if (pkg != null) {
+            anyNameByPackage.computeIfAbsent(pkg, p -> new ArrayList<>()).add(entry);
+        } else {
+            anyNameAnyType.add(entry);
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param type A method type.
+     * @return The values of the patterns that {@link MethodMatcher#matches(JavaType) match} the method type, in the
+     * order they were added.
+     */
+    public List<T> matches(@Nullable JavaType type) {
+        if (!(type instanceof JavaType.Method)) {
+            return emptyList();
+        }
+        JavaType.Method methodType = (JavaType.Method) type;
+        return matches(methodType.getDeclaringType(), methodType.getName(), matcher -> matcher.matches(methodType));
+    }
+
+    /**
+     * @return The values of the patterns that {@link MethodMatcher#matches(J.MethodInvocation) match} the method
+     * invocation, in the order they were added.
+     */
+    public List<T> matches(J.MethodInvocation method) {
+        if (method.getType() == null || method.getType().getDeclaringType() == null) {
+            return emptyList();
+        }
+        return matches(method.getType().getDeclaringType(), method.getSimpleName(), matcher -> matcher.matches(method));
+    }
+
+    /**
+     * @return The values of the patterns that {@link MethodMatcher#matches(J.MethodDeclaration, J.ClassDeclaration)
+     * match} the method declaration, in the order they were added.
+     */
+    public List<T> matches(J.MethodDeclaration method, J.ClassDeclaration enclosing) {
+        JavaType.Class enclosingType = TypeUtils.asClass(enclosing.getType());
+        if (enclosingType == null) {
+            return emptyList();
+        }
+        return matches(enclosingType, method.getSimpleName(), matcher -> matcher.matches(method, enclosing));
+    }
+
+    /**
+     * @return The values of the patterns that the field access is a
+     * {@link J.FieldAccess#isFullyQualifiedClassReference(MethodMatcher) fully qualified reference} to, e.g. in a
+     * static import, in the order they were added.
+     */
+    public List<T> matches(J.FieldAccess fieldAccess) {
+        List<Entry<T>> candidates = new ArrayList<>();
+        ByName<T> sameName = byName.get(fieldAccess.getSimpleName());
+        if (sameName != null) {
+            addAll(candidates, sameName.byType.values());
+            addAll(candidates, sameName.byPackage.values());
+            candidates.addAll(sameName.anyType);
+        }
+        addAll(candidates, anyNameByType.values());
+        addAll(candidates, anyNameByPackage.values());
+        candidates.addAll(anyNameAnyType);
+        return values(candidates, fieldAccess::isFullyQualifiedClassReference);
+    }
+
+    private List<T> matches(@Nullable JavaType.FullyQualified declaringType, String methodName,
+                            Predicate<MethodMatcher> matches) {
+        if (declaringType == null) {
+            return emptyList();
+        }
+
+        ByName<T> sameName = byName.get(methodName);
+        List<Entry<T>> candidates = new ArrayList<>();
+
+        // the declaring type and the supertypes that MethodMatcher#matchesTargetType looks at
+        for (JavaType.FullyQualified type = declaringType; ; ) {
+            String fqn = type.getFullyQualifiedName();
+            String pkg = fqn.lastIndexOf('.') > 0 ? fqn.substring(0, fqn.lastIndexOf('.')) : "";
+            if (sameName != null) {
+                addAll(candidates, sameName.byType.get(fqn));
+                addAll(candidates, sameName.byPackage.get(pkg));
+            }
+            addAll(candidates, anyNameByType.get(fqn));
+            addAll(candidates, anyNameByPackage.get(pkg));
+
+            if (type == JavaType.Class.OBJECT) {
+                break;
+            }
+
+            JavaType.Class asClass = TypeUtils.asClass(type);
+            if (asClass == null) {
+                // MethodMatcher#matchesTargetType matches any pattern to a type that isn't a class
+                if (sameName != null) {
+                    addAll(candidates, sameName.byType.values());
+                    addAll(candidates, sameName.byPackage.values());
+                }
+                addAll(candidates, anyNameByType.values());
+                addAll(candidates, anyNameByPackage.values());
+                break;
+            }
+            type = asClass.getSupertype() == null ? JavaType.Class.OBJECT : asClass.getSupertype();
+        }
+
+        if (sameName != null) {
+            candidates.addAll(sameName.anyType);
+        }
+        candidates.addAll(anyNameAnyType);
+
+        return values(candidates, matches);
+    }
+
+    private static <T> void addAll(List<Entry<T>> candidates, @Nullable List<Entry<T>> entries) {
+        if (entries != null) {
+            candidates.addAll(entries);
+        }
+    }
+
+    private static <T> void addAll(List<Entry<T>> candidates, Collection<List<Entry<T>>> entries) {
+        for (List<Entry<T>> e : entries) {
+            candidates.addAll(e);
+        }
+    }
+
+    /**
+     * @return The values of the candidates that match, in the order they were added, once each even when a
+     * candidate was found by more than one of the types looked at.
+     */
+    private static <T> List<T> values(List<Entry<T>> candidates, Predicate<MethodMatcher> matches) {
+        if (candidates.isEmpty()) {
+            return emptyList();
+        }
+
+        candidates.sort(Comparator.comparingInt(entry -> entry.index));
+        List<T> values = new ArrayList<>();
+        Entry<T> last = null;
+        for (Entry<T> candidate : candidates) {
+            if (candidate != last && matches.test(candidate.matcher)) {
+                values.add(candidate.value);
+            }
+            last = candidate;
+        }
+        return values;
+    }
+
+    private static class ByName<T> {
+        /**
+         * Patterns with a declaring type without wildcards, by that type.
+         */
+        private final Map<String, List<Entry<T>>> byType = new HashMap<>();
+
+        /**
+         * Patterns with a declaring type for any type in one package, by that package.
+         */
+        private final Map<String, List<Entry<T>>> byPackage = new HashMap<>();
+
+        private final List<Entry<T>> anyType = new ArrayList<>();
+    }
+
+    private static class Entry<T> {
+        private final int index;
+        private final MethodMatcher matcher;
+        private final T value;
+
+        private Entry(int index, MethodMatcher matcher, T value) {
+            this.index = index;
+            this.matcher = matcher;
+            this.value = value;
+        }
+    }
+}
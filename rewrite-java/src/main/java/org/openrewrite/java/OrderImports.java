@@ -55,6 +55,11 @@ public class OrderImports extends Recipe {
         return new OrderImportsVisitor<>(removeUnused);
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     /**
      * This visitor is used directly by AddImport, which is why this class is both static and package private
      */
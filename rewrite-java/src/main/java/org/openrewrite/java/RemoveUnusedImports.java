@@ -39,6 +39,11 @@ public class RemoveUnusedImports extends Recipe {
         return new RemoveUnusedImportsVisitor();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private static class RemoveUnusedImportsVisitor extends JavaIsoVisitor<ExecutionContext> {
 
         @Override
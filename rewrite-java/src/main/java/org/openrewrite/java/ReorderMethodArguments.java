@@ -70,6 +70,11 @@ public class ReorderMethodArguments extends Recipe {
         return new ReorderMethodArgumentsVisitor(new MethodMatcher(methodPattern));
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class ReorderMethodArgumentsVisitor extends JavaIsoVisitor<ExecutionContext> {
         private final MethodMatcher methodMatcher;
 
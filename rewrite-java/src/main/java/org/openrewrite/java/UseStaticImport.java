@@ -42,6 +42,11 @@ public class UseStaticImport extends Recipe {
         return new UseStaticImportVisitor(new MethodMatcher(methodPattern));
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private static class UseStaticImportVisitor extends JavaIsoVisitor<ExecutionContext> {
         private final MethodMatcher methodMatcher;
 
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.cache;
+
+import org.openrewrite.Incubating;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.JavaType;
+
+import java.net.URI;
+
+/**
+ * Class types mapped from compiled classes on the classpath, so that a parser can reuse them rather than mapping
+ * them again from the compiler's symbols. Implementations must be thread-safe.
+ */
+@Incubating(since = "7.0.0")
+public interface ClasspathTypeCache {
+    ClasspathTypeCache NOOP = new ClasspathTypeCache() {
+        @Override
+        @Nullable
+        public JavaType.Class get(URI classfile, String fullyQualifiedName) {
+            return null;
+        }
+
+        @Override
+        public void put(URI classfile, String fullyQualifiedName, JavaType.Class type) {
+        }
+    };
+
+    /**
+     * @param classfile          The location of the class file the type was compiled to, e.g.
+     *                           {@code jar:file:/libs/guava.jar!/com/google/common/collect/ImmutableList.class}.
+     * @param fullyQualifiedName The fully qualified name of the class.
+     * @return The cached type, or null when it has not been cached.
+     */
+    @Nullable
+    JavaType.Class get(URI classfile, String fullyQualifiedName);
+
+    /**
+     * Parsers only put types whose members, supertype and interfaces are known, i.e. whose class file the compiler
+     * has read, and intern the types they get in their own type table.
+     */
+    void put(URI classfile, String fullyQualifiedName, JavaType.Class type);
+
+    /**
+     * Persist any types put since the last flush.
+     */
+    default void flush() {
+    }
+}
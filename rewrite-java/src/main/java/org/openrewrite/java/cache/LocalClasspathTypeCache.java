@@ -0,0 +1,208 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.cache;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.ConstructorDetector;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.openrewrite.Incubating;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.JavaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches class types in a directory, in one file per jar named by the SHA-256 checksum of the jar, so that any
+ * parser with the same jar on its classpath can reuse them no matter where the jar is. Types from the Java runtime
+ * are cached by the vendor and version of the running JVM. Class files in directories are not cached.
+ * <p>
+ * The types of a jar are read the first time any of them is asked for and are written back by {@link #flush()} when
+ * types have been added since. A type's supertypes and member types from other jars are the ones the type was first
+ * mapped with.
+ */
+@Incubating(since = "7.0.0")
+public class LocalClasspathTypeCache implements ClasspathTypeCache {
+    private static final ObjectMapper mapper;
+
+    static {
+        SmileFactory f = new SmileFactory();
+        f.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+        ObjectMapper m = JsonMapper.builder(f)
+                .constructorDetector(ConstructorDetector.USE_PROPERTIES_BASED)
+                .build()
+                .registerModule(new ParameterNamesModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        mapper = m.setVisibility(m.getSerializationConfig().getDefaultVisibilityChecker()
+                .withCreatorVisibility(JsonAutoDetect.Visibility.PUBLIC_ONLY)
+                .withGetterVisibility(JsonAutoDetect.Visibility.NONE)
+                .withIsGetterVisibility(JsonAutoDetect.Visibility.NONE)
+                .withFieldVisibility(JsonAutoDetect.Visibility.ANY));
+    }
+
+    private static final TypeReference<Map<String, JavaType.Class>> typesByName =
+            new TypeReference<Map<String, JavaType.Class>>() {
+            };
+
+    private static final String RUNTIME_LOCATION = "jrt:";
+
+    private final Path cache;
+
+    /**
+     * By the location of the jar, or empty when the jar can't be read.
+     */
+    private final Map<String, Optional<Library>> libraries = new ConcurrentHashMap<>();
+
+    public LocalClasspathTypeCache(Path cache) {
+        if (!cache.toFile().exists() && !cache.toFile().mkdirs()) {
+            throw new IllegalStateException("Unable to find or create classpath type cache at " + cache);
+        }
+        this.cache = cache;
+    }
+
+    @Override
+    @Nullable
+    public JavaType.Class get(URI classfile, String fullyQualifiedName) {
+        Library library = library(classfile);
+        return library == null ? null : library.types.get(fullyQualifiedName);
+    }
+
+    @Override
+    public void put(URI classfile, String fullyQualifiedName, JavaType.Class type) {
+        Library library = library(classfile);
+        if (library != null && library.types.putIfAbsent(fullyQualifiedName, type) == null) {
+            library.dirty = true;
+        }
+    }
+
+    @Override
+    public void flush() {
+        for (Optional<Library> library : libraries.values()) {
+            if (library.isPresent() && library.get().dirty) {
+                library.get().write();
+            }
+        }
+    }
+
+    @Nullable
+    private Library library(URI classfile) {
+        String location = location(classfile);
+        if (location == null) {
+            return null;
+        }
+        return libraries.computeIfAbsent(location, this::readLibrary).orElse(null);
+    }
+
+    @Nullable
+    private static String location(URI classfile) {
+        if ("jar".equals(classfile.getScheme())) {
+            String jarEntry = classfile.getRawSchemeSpecificPart();
+            int separator = jarEntry.indexOf("!/");
+            return separator == -1 ? null : jarEntry.substring(0, separator);
+        } else if ("jrt".equals(classfile.getScheme())) {
+            return RUNTIME_LOCATION;
+        }
+        return null;
+    }
+
+    private Optional<Library> readLibrary(String location) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        if (RUNTIME_LOCATION.equals(location)) {
+            sha256.update((RUNTIME_LOCATION + System.getProperty("java.vendor") + " " +
+                    System.getProperty("java.runtime.version")).getBytes(StandardCharsets.UTF_8));
+        } else {
+            try (InputStream jar = Files.newInputStream(Paths.get(URI.create(location)))) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = jar.read(buffer)) >= 0) {
+                    sha256.update(buffer, 0, read);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+
+        Library library = new Library(cache.resolve(String.format("%064x", new BigInteger(1, sha256.digest())) + ".types"));
+        if (Files.exists(library.path)) {
+            try {
+                library.types.putAll(mapper.readValue(Files.readAllBytes(library.path), typesByName));
+            } catch (IOException e) {
+                // written by an incompatible version or incompletely, so it will be replaced on the next flush
+                library.types.clear();
+            }
+        }
+        return Optional.of(library);
+    }
+
+    private static class Library {
+        private final Path path;
+        private final Map<String, JavaType.Class> types = new ConcurrentHashMap<>();
+        private volatile boolean dirty;
+
+        private Library(Path path) {
+            this.path = path;
+        }
+
+        private synchronized void write() {
+            dirty = false;
+            Path temp = null;
+            try {
+                // written to another file first so that readers in other processes never see a partial file
+                temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+                Files.write(temp, mapper.writerFor(typesByName).writeValueAsBytes(new TreeMap<>(types)));
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                dirty = true;
+                try {
+                    if (temp != null) {
+                        Files.deleteIfExists(temp);
+                    }
+                } catch (IOException ignored) {
+                    // the failure to write is the one worth reporting
+                }
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
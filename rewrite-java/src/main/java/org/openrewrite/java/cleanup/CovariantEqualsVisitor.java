@@ -78,7 +78,7 @@ public class CovariantEqualsVisitor<P> extends JavaIsoVisitor<P> {
                 if (m.getAllAnnotations().stream().noneMatch(OVERRIDE_ANNOTATION_SIGNATURE::matches)) {
                     m = maybeAutoFormat(m,
                             m.withTemplate(
-                                    template("@Override").build(),
+                                    template("@Override").stubContext(true).build(),
                                     m.getCoordinates().addAnnotation(Comparator.comparing(J.Annotation::getSimpleName))
                             ), p, getCursor().getParentOrThrow());
                 }
@@ -92,7 +92,7 @@ public class CovariantEqualsVisitor<P> extends JavaIsoVisitor<P> {
                 String paramName = "obj".equals(oldParamName.getSimpleName()) ? "other" : "obj";
                 m = maybeAutoFormat(m,
                         m.withTemplate(
-                                template("(Object #{})").build(),
+                                template("(Object #{})").stubContext(true).build(),
                                 m.getCoordinates().replaceParameters(),
                                 paramName
                         ), p, getCursor().getParentOrThrow());
@@ -102,7 +102,7 @@ public class CovariantEqualsVisitor<P> extends JavaIsoVisitor<P> {
                  * equals(..) method body statements, and let the existing equals(..) method definition continue
                  * with the logic doing what it was doing.
                  */
-                JavaTemplate equalsBodySnippet = template(EQUALS_BODY_PREFIX_TEMPLATE).build();
+                JavaTemplate equalsBodySnippet = template(EQUALS_BODY_PREFIX_TEMPLATE).stubContext(true).build();
                 assert m.getBody() != null;
                 Object[] params = new Object[]{
                         paramName,
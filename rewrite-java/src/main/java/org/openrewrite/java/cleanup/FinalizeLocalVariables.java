@@ -26,4 +26,9 @@ public class FinalizeLocalVariables extends Recipe {
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new FinalizeLocalVariablesVisitor<>();
     }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
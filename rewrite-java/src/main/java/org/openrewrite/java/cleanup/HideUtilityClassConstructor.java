@@ -30,6 +30,11 @@ public class HideUtilityClassConstructor extends Recipe {
         return new HideUtilityClassConstructorFromCompilationUnitStyle();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private static class HideUtilityClassConstructorFromCompilationUnitStyle extends JavaIsoVisitor<ExecutionContext> {
         @Override
         public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext executionContext) {
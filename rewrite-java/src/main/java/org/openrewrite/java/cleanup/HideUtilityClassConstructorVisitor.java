@@ -102,7 +102,7 @@ public class HideUtilityClassConstructorVisitor<P> extends JavaIsoVisitor<P> {
         public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, P p) {
             J.ClassDeclaration c = super.visitClassDeclaration(classDecl, p);
             if (UtilityClassUtilities.hasImplicitDefaultConstructor(c)) {
-                c = c.withTemplate(template("private #{}() {}").build(),
+                c = c.withTemplate(template("private #{}() {}").stubContext(true).build(),
                         c.getBody().getCoordinates().lastStatement(),
                         classDecl.getSimpleName()
                 );
@@ -26,6 +26,11 @@ public class SimplifyBooleanExpression extends Recipe {
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new SimplifyBooleanExpressionVisitor();
     }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
 
 
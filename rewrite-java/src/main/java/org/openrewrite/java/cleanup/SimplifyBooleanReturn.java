@@ -26,4 +26,9 @@ public class SimplifyBooleanReturn extends Recipe {
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new SimplifyBooleanReturnVisitor();
     }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
@@ -31,6 +31,11 @@ public class UnnecessaryParentheses extends Recipe {
         return new UnnecessaryParenthesesFromCompilationUnitStyle();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private static class UnnecessaryParenthesesFromCompilationUnitStyle extends JavaIsoVisitor<ExecutionContext> {
         @Override
         public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext executionContext) {
@@ -37,6 +37,11 @@ public class GenerateGetter extends Recipe {
         return new GenerateGetterVisitor<>();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class GenerateGetterVisitor<P> extends JavaIsoVisitor<P> {
         private final JavaTemplate getter = template("" +
                 "public #{} get#{}() {\n" +
@@ -24,4 +24,9 @@ public class AutoFormat extends Recipe {
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new AutoFormatVisitor<>();
     }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
@@ -29,6 +29,11 @@ public class BlankLines extends Recipe {
         return new BlankLinesFromCompilationUnitStyle();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private static class BlankLinesFromCompilationUnitStyle extends JavaIsoVisitor<ExecutionContext> {
         @Override
         public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
@@ -27,4 +27,9 @@ public class NormalizeFormat extends Recipe {
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new NormalizeFormatVisitor<>();
     }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
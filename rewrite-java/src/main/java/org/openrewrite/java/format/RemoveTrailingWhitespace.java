@@ -24,4 +24,9 @@ public class RemoveTrailingWhitespace extends Recipe {
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new RemoveTrailingWhitespaceVisitor<>();
     }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
@@ -25,10 +25,10 @@ import org.openrewrite.java.tree.Space;
 public class ClassDeclarationToString {
     public static String toString(J.ClassDeclaration clazz) {
         //noinspection ConstantConditions
-        return CLASS_DECL_PRINTER.print(clazz, null);
+        return CLASS_DECL_PRINTER.get().print(clazz, null);
     }
 
-    private static final JavaPrinter<Void> CLASS_DECL_PRINTER = new JavaPrinter<Void>(TreePrinter.identity()) {
+    private static final ThreadLocal<JavaPrinter<Void>> CLASS_DECL_PRINTER = ThreadLocal.withInitial(() -> new JavaPrinter<Void>(TreePrinter.identity()) {
         @Override
         public J visitClassDeclaration(J.ClassDeclaration classDecl, Void unused) {
             visitModifiers(Space.formatFirstPrefix(classDecl.getModifiers(), Space.EMPTY), unused);
@@ -66,5 +66,5 @@ public class ClassDeclarationToString {
             visitContainer("", classDecl.getPadding().getImplements(), JContainer.Location.IMPLEMENTS, ",", "", unused);
             return classDecl;
         }
-    };
+    });
 }
@@ -23,10 +23,10 @@ import org.openrewrite.java.tree.Space;
 public class ImportToString {
     public static String toString(J.Import impoort) {
         //noinspection ConstantConditions
-        return IMPORT_PRINTER.print(impoort, null);
+        return IMPORT_PRINTER.get().print(impoort, null);
     }
 
-    private static final JavaPrinter<Void> IMPORT_PRINTER = new JavaPrinter<Void>(TreePrinter.identity()) {
+    private static final ThreadLocal<JavaPrinter<Void>> IMPORT_PRINTER = ThreadLocal.withInitial(() -> new JavaPrinter<Void>(TreePrinter.identity()) {
         @Override
         public J visitImport(J.Import impoort, Void unused) {
             J.Import i = impoort.withPrefix(Space.EMPTY);
@@ -34,5 +34,5 @@ public class ImportToString {
             i = i.getPadding().withStatic(i.getPadding().getStatic().withBefore(i.getPadding().getStatic().getBefore().withWhitespace(" ")));
             return super.visitImport(i, unused);
         }
-    };
+    });
 }
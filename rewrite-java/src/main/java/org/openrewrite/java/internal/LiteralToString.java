@@ -22,10 +22,10 @@ import org.openrewrite.java.tree.J;
 public class LiteralToString {
     public static String toString(J.Literal clazz) {
         //noinspection ConstantConditions
-        return LITERAL_PRINTER.print(clazz, null);
+        return LITERAL_PRINTER.get().print(clazz, null);
     }
 
-    private static final JavaPrinter<Void> LITERAL_PRINTER = new JavaPrinter<Void>(TreePrinter.identity()) {
+    private static final ThreadLocal<JavaPrinter<Void>> LITERAL_PRINTER = ThreadLocal.withInitial(() -> new JavaPrinter<Void>(TreePrinter.identity()) {
         @Override
         public J visitLiteral(J.Literal literal, Void unused) {
             StringBuilder acc = getPrinter();
@@ -38,5 +38,5 @@ public class LiteralToString {
             acc.append(literal.getValueSource());
             return literal;
         }
-    };
+    });
 }
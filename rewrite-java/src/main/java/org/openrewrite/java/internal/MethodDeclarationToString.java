@@ -25,10 +25,10 @@ import org.openrewrite.java.tree.Space;
 public class MethodDeclarationToString {
     public static String toString(J.MethodDeclaration method) {
         //noinspection ConstantConditions
-        return METHOD_PRINTER.print(method, null);
+        return METHOD_PRINTER.get().print(method, null);
     }
 
-    private static final JavaPrinter<Void> METHOD_PRINTER = new JavaPrinter<Void>(TreePrinter.identity()) {
+    private static final ThreadLocal<JavaPrinter<Void>> METHOD_PRINTER = ThreadLocal.withInitial(() -> new JavaPrinter<Void>(TreePrinter.identity()) {
         @Override
         public J visitMethodDeclaration(J.MethodDeclaration method, Void unused) {
             visitModifiers(Space.formatFirstPrefix(method.getModifiers(), Space.EMPTY), unused);
@@ -51,5 +51,5 @@ public class MethodDeclarationToString {
             visitContainer("throws", method.getPadding().getThrows(), JContainer.Location.THROWS, ",", "", unused);
             return method;
         }
-    };
+    });
 }
@@ -24,10 +24,10 @@ import org.openrewrite.java.tree.JavaType;
 public class MethodInvocationToString {
     public static String toString(J.MethodInvocation method) {
         //noinspection ConstantConditions
-        return METHOD_PRINTER.print(method, null);
+        return METHOD_PRINTER.get().print(method, null);
     }
 
-    private static final JavaPrinter<Void> METHOD_PRINTER = new JavaPrinter<Void>(TreePrinter.identity()) {
+    private static final ThreadLocal<JavaPrinter<Void>> METHOD_PRINTER = ThreadLocal.withInitial(() -> new JavaPrinter<Void>(TreePrinter.identity()) {
         @Override
         public J visitMethodInvocation(J.MethodInvocation method, Void unused) {
             StringBuilder acc = getPrinter();
@@ -48,5 +48,5 @@ public class MethodInvocationToString {
             }
             return method;
         }
-    };
+    });
 }
@@ -25,10 +25,10 @@ import java.util.stream.Collectors;
 public class VariableDeclarationsToString {
     public static String toString(J.VariableDeclarations v) {
         //noinspection ConstantConditions
-        return VARIABLE_PRINTER.print(v, null);
+        return VARIABLE_PRINTER.get().print(v, null);
     }
 
-    private static final JavaPrinter<Void> VARIABLE_PRINTER = new JavaPrinter<Void>(TreePrinter.identity()) {
+    private static final ThreadLocal<JavaPrinter<Void>> VARIABLE_PRINTER = ThreadLocal.withInitial(() -> new JavaPrinter<Void>(TreePrinter.identity()) {
         @Override
         public J visitVariableDeclarations(J.VariableDeclarations multiVariable, Void unused) {
             visitModifiers(Space.formatFirstPrefix(multiVariable.getModifiers(), Space.EMPTY), unused);
@@ -51,5 +51,5 @@ public class VariableDeclarationsToString {
                     .collect(Collectors.joining(", ")));
             return multiVariable;
         }
-    };
+    });
 }
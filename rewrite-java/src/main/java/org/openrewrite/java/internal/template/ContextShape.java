@@ -0,0 +1,272 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.internal.template;
+
+import org.openrewrite.Cursor;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.marker.Markers;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Describes what a template can see from its insertion point, leaving out what differs from one call site to the
+ * next without changing how the template is type attributed: the name and the other statements of the enclosing
+ * method, and the members of types that the template doesn't refer to by name. Two insertions with the same shape
+ * compile a template to the same trees.
+ * <p>
+ * The shape is made up of:
+ * <ul>
+ *     <li>the package and imports of the compilation unit;</li>
+ *     <li>the signature of every type declared in the compilation unit, and of their fields and methods whose names
+ *     appear in the template;</li>
+ *     <li>the types that enclose the insertion point;</li>
+ *     <li>the signature of the enclosing method without its name, and the locals in scope at the insertion point;</li>
+ *     <li>where the template is inserted, and, when it is inserted within an expression, the statement around it.</li>
+ * </ul>
+ */
+public class ContextShape {
+    private static final Pattern IDENTIFIER = Pattern.compile("\\p{javaJavaIdentifierStart}\\p{javaJavaIdentifierPart}*");
+
+    private static final J.Block EMPTY_BLOCK = new J.Block(Tree.randomId(), Space.EMPTY, Markers.EMPTY,
+            new JRightPadded<>(false, Space.EMPTY, Markers.EMPTY), emptyList(), Space.EMPTY);
+
+    private final StringBuilder shape = new StringBuilder();
+    private final Set<String> referencedNames = new HashSet<>();
+
+    private ContextShape() {
+    }
+
+    /**
+     * @param cu             The compilation unit the template is inserted into.
+     * @param code           The template, with its parameters substituted.
+     * @param changing       A possibly mutated form of a tree in the compilation unit, which is printed in its place.
+     * @param coordinates    Where the template is inserted.
+     * @param insertionScope The cursor to the coordinates, as given by {@link JavaTemplatePrinter#findCoordinateCursor}.
+     * @return The shape of the context, which is equal for two insertions of the same code exactly when javac would
+     * see the same declarations from the template.
+     */
+    public static String print(J.CompilationUnit cu, String code, Tree changing, JavaCoordinates coordinates,
+                               Cursor insertionScope) {
+        return new ContextShape().print(cu, code, (J) changing, coordinates, insertionScope);
+    }
+
+    private String print(J.CompilationUnit cu, String code, J changing, JavaCoordinates coordinates,
+                         Cursor insertionScope) {
+        List<J> path = new ArrayList<>();
+        path.add(coordinates.getTree());
+        insertionScope.getPathAsStream(J.class::isInstance).forEach(j -> {
+            if (!((J) j).getId().equals(coordinates.getTree().getId())) {
+                path.add((J) j);
+            }
+        });
+
+        Matcher identifiers = IDENTIFIER.matcher(code);
+        while (identifiers.find()) {
+            referencedNames.add(identifiers.group());
+        }
+
+        shape.append("insertion: ").append(coordinates.getTree().getClass().getSimpleName())
+                .append(' ').append(coordinates.getMode())
+                .append(' ').append(coordinates.getSpaceLocation()).append('\n');
+
+        // the innermost statement of a block or member of a class that the template is inserted into, which may
+        // type the template, e.g. a method call whose parameter is the target type of a lambda in the template
+        int statement = 0;
+        while (statement < path.size() - 1 && !isStatementOrMember(path.get(statement), path.get(statement + 1))) {
+            statement++;
+        }
+        if (statement > 0) {
+            J enclosing = path.get(statement);
+            if (enclosing instanceof J.MethodDeclaration) {
+                enclosing = ((J.MethodDeclaration) enclosing).withBody(null);
+            } else if (enclosing instanceof J.ClassDeclaration) {
+                enclosing = ((J.ClassDeclaration) enclosing).withBody(EMPTY_BLOCK);
+            }
+            shape.append("statement: ").append(enclosing.printTrimmed()).append('\n');
+            collectNames(enclosing);
+            for (int i = 0; i < statement; i++) {
+                // the path is through the changing tree below it, but not above it
+                if (path.get(i).getId().equals(changing.getId())) {
+                    shape.append("changing: ").append(changing.printTrimmed()).append('\n');
+                    collectNames(changing);
+                    break;
+                }
+            }
+        }
+
+        // with the names referred to known, the declarations that can be seen from the insertion point
+        shape.append(cu.withClasses(emptyList()).printTrimmed()).append('\n');
+        for (J.ClassDeclaration classDecl : cu.getClasses()) {
+            printType(classDecl, "");
+        }
+
+        for (int i = path.size() - 1; i >= 0; i--) {
+            J scope = path.get(i);
+            J child = i == 0 ? null : path.get(i - 1);
+            if (scope instanceof J.ClassDeclaration) {
+                shape.append("in class ").append(((J.ClassDeclaration) scope).getSimpleName()).append('\n');
+            } else if (scope instanceof J.NewClass && ((J.NewClass) scope).getBody() != null) {
+                J.NewClass newClass = (J.NewClass) scope;
+                shape.append("in new ").append(newClass.getClazz() == null ? "" : newClass.getClazz().printTrimmed())
+                        .append('\n');
+                for (Statement member : newClass.getBody().getStatements()) {
+                    printMember(member, "  ");
+                }
+            } else if (scope instanceof J.MethodDeclaration) {
+                J.MethodDeclaration method = (J.MethodDeclaration) scope;
+                shape.append("in method ").append(method
+                        .withName(method.getName().withName(""))
+                        .withLeadingAnnotations(emptyList())
+                        .withBody(null)
+                        .printTrimmed()).append('\n');
+            } else if (scope instanceof J.Lambda) {
+                printDeclaration("in lambda ", ((J.Lambda) scope).getParameters());
+            } else if (scope instanceof J.ForLoop) {
+                printDeclaration("in for ", ((J.ForLoop) scope).getControl());
+            } else if (scope instanceof J.ForEachLoop) {
+                printDeclaration("in for ", ((J.ForEachLoop) scope).getControl());
+            } else if (scope instanceof J.Try && ((J.Try) scope).getResources() != null) {
+                for (J.Try.Resource resource : ((J.Try) scope).getResources()) {
+                    printDeclaration("in try ", resource);
+                }
+            } else if (scope instanceof J.Try.Catch) {
+                printDeclaration("in catch ", ((J.Try.Catch) scope).getParameter());
+            } else if (scope instanceof J.Block && !(child == null && coordinates.getSpaceLocation() == Space.Location.BLOCK_PREFIX)) {
+                printLocals((J.Block) scope, child);
+            }
+        }
+
+        return shape.toString();
+    }
+
+    private static boolean isStatementOrMember(J tree, J parent) {
+        return tree instanceof J.Block || tree instanceof J.CompilationUnit ||
+                parent instanceof J.Block || parent instanceof J.CompilationUnit;
+    }
+
+    /**
+     * The locals declared in a block before its statement that is on the path to the insertion point, or all of them
+     * when the template is inserted into the block itself.
+     */
+    private void printLocals(J.Block block, @Nullable J child) {
+        for (Statement statement : block.getStatements()) {
+            if (child != null && statement.getId().equals(child.getId())) {
+                break;
+            }
+            if (statement instanceof J.VariableDeclarations) {
+                printDeclaration("local ", withoutInitializers((J.VariableDeclarations) statement));
+            } else if (statement instanceof J.ClassDeclaration) {
+                shape.append("local ").append(statement.printTrimmed()).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Prints a tree that declares variables along with their attributed types, since a declaration like
+     * {@code var x} or an implicitly typed lambda parameter doesn't show the type it gives the variable.
+     */
+    private void printDeclaration(String prefix, J declaration) {
+        shape.append(prefix).append(declaration.printTrimmed());
+        new JavaVisitor<StringBuilder>() {
+            @Override
+            public J visitVariable(J.VariableDeclarations.NamedVariable variable, StringBuilder shape) {
+                shape.append(' ').append(variable.getSimpleName()).append(": ");
+                printType(variable.getType());
+                return super.visitVariable(variable, shape);
+            }
+        }.visit(declaration, shape);
+        shape.append('\n');
+    }
+
+    private void printType(@Nullable JavaType type) {
+        if (type instanceof JavaType.Primitive) {
+            shape.append(((JavaType.Primitive) type).getKeyword());
+        } else if (type instanceof JavaType.Array) {
+            printType(((JavaType.Array) type).getElemType());
+            shape.append("[]");
+        } else if (type instanceof JavaType.Class) {
+            JavaType.Class clazz = (JavaType.Class) type;
+            shape.append(clazz.getFullyQualifiedName());
+            if (!clazz.getTypeParameters().isEmpty()) {
+                shape.append('<');
+                for (int i = 0; i < clazz.getTypeParameters().size(); i++) {
+                    if (i > 0) {
+                        shape.append(',');
+                    }
+                    printType(clazz.getTypeParameters().get(i));
+                }
+                shape.append('>');
+            }
+        } else if (type instanceof JavaType.FullyQualified) {
+            shape.append(((JavaType.FullyQualified) type).getFullyQualifiedName());
+        } else {
+            shape.append(type);
+        }
+    }
+
+    private void printType(J.ClassDeclaration classDecl, String indent) {
+        shape.append(indent).append(classDecl.withLeadingAnnotations(emptyList()).withBody(EMPTY_BLOCK).printTrimmed())
+                .append('\n');
+        for (Statement member : classDecl.getBody().getStatements()) {
+            printMember(member, indent + "  ");
+        }
+    }
+
+    private void printMember(Statement member, String indent) {
+        if (member instanceof J.ClassDeclaration) {
+            printType((J.ClassDeclaration) member, indent);
+        } else if (member instanceof J.MethodDeclaration) {
+            J.MethodDeclaration method = (J.MethodDeclaration) member;
+            if (referencedNames.contains(method.getSimpleName())) {
+                shape.append(indent).append(method.withLeadingAnnotations(emptyList()).withBody(null).printTrimmed())
+                        .append('\n');
+            }
+        } else if (member instanceof J.VariableDeclarations) {
+            J.VariableDeclarations field = (J.VariableDeclarations) member;
+            for (J.VariableDeclarations.NamedVariable variable : field.getVariables()) {
+                if (referencedNames.contains(variable.getSimpleName())) {
+                    shape.append(indent).append(withoutInitializers(field).printTrimmed()).append('\n');
+                    break;
+                }
+            }
+        } else if (member instanceof J.EnumValueSet) {
+            shape.append(indent).append(member.printTrimmed()).append('\n');
+        }
+    }
+
+    private void collectNames(J tree) {
+        new JavaVisitor<Set<String>>() {
+            @Override
+            public J visitIdentifier(J.Identifier ident, Set<String> names) {
+                names.add(ident.getSimpleName());
+                return ident;
+            }
+        }.visit(tree, referencedNames);
+    }
+
+    private static J.VariableDeclarations withoutInitializers(J.VariableDeclarations variables) {
+        return variables.withLeadingAnnotations(emptyList())
+                .withVariables(ListUtils.map(variables.getVariables(), v -> v.withInitializer(null)));
+    }
+}
@@ -27,9 +27,26 @@ import static java.util.stream.Collectors.toList;
 
 public class ExtractTrees {
     public static List<J> extract(J.CompilationUnit cu) {
-        ExtractionContext extractionContext = new ExtractionContext();
-        new ExtractTemplatedCode().visit(cu, extractionContext);
-        return extractionContext.getSnippets();
+        return extract(cu, 1).get(0);
+    }
+
+    /**
+     * @param cu       A compilation unit printed by {@link JavaTemplatePrinter} with one or more insertions.
+     * @param snippets The number of insertions.
+     * @return The trees of each insertion, in the order of the insertions, taken in one pass over the compilation unit.
+     */
+    public static List<List<J>> extract(J.CompilationUnit cu, int snippets) {
+        List<ExtractionContext> extractionContexts = new ArrayList<>(snippets);
+        for (int i = 0; i < snippets; i++) {
+            extractionContexts.add(new ExtractionContext(JavaTemplatePrinter.startMarker(i), JavaTemplatePrinter.endMarker(i)));
+        }
+        new ExtractTemplatedCode(extractionContexts).visit(cu, extractionContexts);
+
+        List<List<J>> extracted = new ArrayList<>(snippets);
+        for (ExtractionContext extractionContext : extractionContexts) {
+            extracted.add(extractionContext.getSnippets());
+        }
+        return extracted;
     }
 
     /**
@@ -40,10 +57,17 @@ public class ExtractTrees {
      * keep track of element IDs that have already been collected (so they are not inadvertently added twice)
      */
     private static class ExtractionContext {
+        private final String startMarker;
+        private final String endMarker;
         private boolean collectElements = false;
         private final List<CollectedElement> collectedElements = new ArrayList<>();
         private final Set<UUID> collectedIds = new HashSet<>();
 
+        private ExtractionContext(String startMarker, String endMarker) {
+            this.startMarker = startMarker;
+            this.endMarker = endMarker;
+        }
+
         @SuppressWarnings("unchecked")
         private <J2 extends J> List<J2> getSnippets() {
             if (collectedElements.isEmpty()) {
@@ -72,13 +96,46 @@ public class ExtractTrees {
         }
     }
 
-    private static class ExtractTemplatedCode extends JavaVisitor<ExtractionContext> {
+    private static class ExtractTemplatedCode extends JavaVisitor<List<ExtractionContext>> {
+        private final Map<String, ExtractionContext> contextsByMarker = new HashMap<>();
+        private final Set<ExtractionContext> collecting = new LinkedHashSet<>();
+
+        private ExtractTemplatedCode(List<ExtractionContext> contexts) {
+            for (ExtractionContext context : contexts) {
+                contextsByMarker.put(context.startMarker, context);
+                contextsByMarker.put(context.endMarker, context);
+            }
+        }
 
         @Override
-        public Space visitSpace(Space space, Space.Location loc, ExtractionContext context) {
+        public Space visitSpace(Space space, Space.Location loc, List<ExtractionContext> contexts) {
+            if (collecting.isEmpty() && space.getComments().isEmpty()) {
+                return space;
+            }
+
+            // only the snippets being collected and those whose markers are in this space are affected by it
+            Set<ExtractionContext> affected = new LinkedHashSet<>(collecting);
+            for (Comment comment : space.getComments()) {
+                ExtractionContext context = contextsByMarker.get(comment.getText());
+                if (context != null) {
+                    affected.add(context);
+                }
+            }
 
+            for (ExtractionContext context : affected) {
+                visitSpace(space, context);
+                if (context.collectElements) {
+                    collecting.add(context);
+                } else {
+                    collecting.remove(context);
+                }
+            }
+            return space;
+        }
+
+        private void visitSpace(Space space, ExtractionContext context) {
             long templateDepth = getCursor().getPathAsStream().count();
-            if (findComment(space, JavaTemplatePrinter.SNIPPET_MARKER_END) != null) {
+            if (findComment(space, context.endMarker) != null) {
                 //Ending marker found, stop collecting elements. NOTE: if the space was part of a prefix of an element
                 //that element will not be collected.
                 context.collectElements = false;
@@ -90,7 +147,7 @@ public class ExtractTrees {
                 }
             }
 
-            Comment startToken = findComment(space, JavaTemplatePrinter.SNIPPET_MARKER_START);
+            Comment startToken = findComment(space, context.startMarker);
             if (startToken != null) {
                 //If the starting marker is found, record the starting depth, collect the current cursor tree element,
                 //remove the marker comment, and flag the extractor to start collecting all elements until the end marker
@@ -99,7 +156,7 @@ public class ExtractTrees {
 
                 Object value = getCursor().getValue();
                 if(!(value instanceof J)) {
-                    return space;
+                    return;
                 }
                 J treeValue = (J) value;
                 context.collectedIds.add(treeValue.getId());
@@ -117,8 +174,6 @@ public class ExtractTrees {
                     }
                 }
             }
-
-            return space;
         }
 
         @Nullable
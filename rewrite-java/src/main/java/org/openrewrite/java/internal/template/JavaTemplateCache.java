@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.internal.template;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import lombok.Value;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.tree.J;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the trees extracted from each synthetic compilation unit a template has been compiled to, so that
+ * inserting the same template code into a context of the same {@link ContextShape shape} skips printing, parsing and
+ * type attribution. Call sites in different methods of a class typically share a shape, so a template is compiled
+ * once for all of them. Trees taken from the cache are given fresh ids, so that no two insertions share an id.
+ * <p>
+ * The cache is bounded both in the number of keys it holds and in their length, least recently used first out.
+ * <p>
+ * Each parser has its own cache, which is released along with the parser. Templates built with the default parser
+ * share one cache, since the default parser of any template compiles a template in the same context to the same
+ * trees.
+ */
+public class JavaTemplateCache {
+    private static final int MAX_ENTRIES = 256;
+    private static final int MAX_KEY_LENGTH = 64 * 1024;
+
+    private static final JavaTemplateCache defaultParserCache = new JavaTemplateCache();
+
+    /**
+     * Weakly keyed, so that the cache of a parser, and the parser's compiler state, don't outlive its templates.
+     */
+    private static final Map<JavaParser, JavaTemplateCache> cacheByParser =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final Counter hits = Counter.builder("rewrite.java.template.cache")
+            .description("The number of template insertions that reused the trees of a previously compiled template")
+            .tag("outcome", "hit")
+            .register(Metrics.globalRegistry);
+    private static final Counter misses = Counter.builder("rewrite.java.template.cache")
+            .description("The number of template insertions that compiled the template")
+            .tag("outcome", "miss")
+            .register(Metrics.globalRegistry);
+
+    private final Map<Key, List<J>> snippetsByKey = new LinkedHashMap<Key, List<J>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, List<J>> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private JavaTemplateCache() {
+    }
+
+    /**
+     * @param parser The parser a template was built with, or null when it was built with the default parser.
+     * @return The cache of the trees compiled by the parser.
+     */
+    public static JavaTemplateCache forParser(@Nullable JavaParser parser) {
+        return parser == null ? defaultParserCache : cacheByParser.computeIfAbsent(parser, p -> new JavaTemplateCache());
+    }
+
+    /**
+     * Compiles outside of the lock, so that insertions on other threads aren't held up by it. Two threads that miss
+     * on the same key at once both compile.
+     *
+     * @param key     The template code and the shape of the context it is inserted into.
+     * @param compile Prints and parses the synthetic compilation unit and extracts the template's trees from it, on a
+     *                miss.
+     * @return A modifiable list of the template's trees, each with ids no other insertion has.
+     */
+    public List<J> getOrCompile(Key key, Supplier<List<J>> compile) {
+        List<J> snippets;
+        synchronized (this) {
+            snippets = snippetsByKey.get(key);
+        }
+        if (snippets != null) {
+            hits.increment();
+            List<J> fresh = new ArrayList<>(snippets.size());
+            for (J snippet : snippets) {
+                fresh.add(new RandomizeIds().visit(snippet, 0));
+            }
+            return fresh;
+        }
+
+        misses.increment();
+        snippets = compile.get();
+        if (key.getCode().length() + key.getContext().length() <= MAX_KEY_LENGTH) {
+            synchronized (this) {
+                snippetsByKey.put(key, new ArrayList<>(snippets));
+            }
+        }
+        return new ArrayList<>(snippets);
+    }
+
+    public synchronized void clear() {
+        snippetsByKey.clear();
+    }
+
+    @Value
+    public static class Key {
+        String code;
+        Set<String> imports;
+        boolean stubContext;
+
+        /**
+         * @see ContextShape
+         */
+        String context;
+    }
+
+    private static class RandomizeIds extends JavaVisitor<Integer> {
+        @Nullable
+        @Override
+        public J preVisit(J tree, Integer p) {
+            return tree.withId(Tree.randomId());
+        }
+    }
+}
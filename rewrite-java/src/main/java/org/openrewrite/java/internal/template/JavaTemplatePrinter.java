@@ -26,48 +26,122 @@ import org.openrewrite.marker.Markers;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static java.util.Collections.emptyList;
 
-public class JavaTemplatePrinter extends JavaPrinter<Cursor> {
+public class JavaTemplatePrinter extends JavaPrinter<Integer> {
     private static final J.Block EMPTY_BLOCK = new J.Block(Tree.randomId(), Space.EMPTY, Markers.EMPTY,
             new JRightPadded<>(false, Space.EMPTY, Markers.EMPTY), Collections.emptyList(), Space.EMPTY);
 
-    static final String SNIPPET_MARKER_START = "<<<<START>>>>";
-    static final String SNIPPET_MARKER_END = "<<<<END>>>>";
+    private static final String SNIPPET_MARKER_START = "<<<<START%d>>>>";
+    private static final String SNIPPET_MARKER_END = "<<<<END%d>>>>";
 
-    private final JavaCoordinates coordinates;
+    private static final Pattern IDENTIFIER = Pattern.compile("\\p{javaJavaIdentifierStart}\\p{javaJavaIdentifierPart}*");
+
+    @Nullable
     private final Tree changing;
+
+    private final List<Insertion> insertions;
+    private final Map<UUID, Insertion> insertionsByTreeId = new HashMap<>();
+    private final Map<Insertion, String> markedCode = new IdentityHashMap<>();
+
+    /**
+     * The ids of the trees on the path to any insertion point.
+     */
+    private final Set<UUID> scopeIds = new HashSet<>();
+
     private final Set<String> imports;
-    private final String code;
+    private final boolean stub;
+
+    /**
+     * In stub mode, the simple names referred to by the templates and by the class members they are inserted into.
+     * Fields and methods whose names are not among them are left out, since no template can refer to them. Null when
+     * every member is printed.
+     */
+    @Nullable
+    private Set<String> referencedNames;
 
+    /**
+     * @param code           The template, with its parameters substituted.
+     * @param changing       A possibly mutated form of a tree in the compilation unit, which is printed in its place.
+     * @param coordinates    Where the template is inserted.
+     * @param insertionScope The cursor to the coordinates, as given by {@link #findCoordinateCursor}.
+     * @param imports        Imports added to the compilation unit.
+     * @param stub           When true, only what the template needs to be type attributed is printed: imports, the
+     *                       signatures of types and of the fields and methods the template may refer to, and the
+     *                       declarations of locals in scope at the insertion point. Comments, and statements that
+     *                       declare nothing before the insertion point, are left out as well. Otherwise, every member
+     *                       is printed, as are the statements before the insertion point. In either mode, the bodies
+     *                       of methods other than the one the template is inserted into are left out.
+     */
+    public JavaTemplatePrinter(String code, Tree changing, JavaCoordinates coordinates, Cursor insertionScope,
+                               Set<String> imports, boolean stub) {
+        this(changing, Collections.singletonList(new Insertion(code, coordinates, insertionScope)), imports, stub);
+    }
 
-    public JavaTemplatePrinter(String code, Tree changing, JavaCoordinates coordinates, Set<String> imports) {
+    /**
+     * Prints several templates into one synthetic compilation unit, each at its own coordinates, so that they are all
+     * type attributed by one parse. No two insertions may have coordinates on the same tree. The trees of each
+     * template are told apart by {@link ExtractTrees#extract(J.CompilationUnit, int)} in the order of the insertions.
+     */
+    public JavaTemplatePrinter(List<Insertion> insertions, Set<String> imports, boolean stub) {
+        this(null, insertions, imports, stub);
+    }
+
+    private JavaTemplatePrinter(@Nullable Tree changing, List<Insertion> insertions, Set<String> imports, boolean stub) {
         super(TreePrinter.identity());
-        this.code = "/*" + SNIPPET_MARKER_START + "*/" + code + "/*" + SNIPPET_MARKER_END + "*/";
-        this.coordinates = coordinates;
         this.changing = changing;
+        this.insertions = insertions;
         this.imports = imports;
+        this.stub = stub;
+
+        for (int i = 0; i < insertions.size(); i++) {
+            Insertion insertion = insertions.get(i);
+            markedCode.put(insertion, "/*" + startMarker(i) + "*/" + insertion.code + "/*" + endMarker(i) + "*/");
+            if (insertionsByTreeId.put(insertion.coordinates.getTree().getId(), insertion) != null) {
+                throw new IllegalArgumentException("Only one template may be inserted at the coordinates of a tree at once");
+            }
+            insertion.insertionScope.getPathAsStream(Tree.class::isInstance).forEach(t -> scopeIds.add(((Tree) t).getId()));
+        }
+    }
+
+    public String print(J.CompilationUnit cu) {
+        return print(cu, 0);
+    }
+
+    static String startMarker(int insertion) {
+        return String.format(SNIPPET_MARKER_START, insertion);
+    }
+
+    static String endMarker(int insertion) {
+        return String.format(SNIPPET_MARKER_END, insertion);
     }
 
     @Override
-    public @Nullable J visit(@Nullable Tree tree, Cursor insertionScope) {
-        if (coordinates.isReplaceWholeCursorValue() && tree != null && tree.getId().equals(coordinates.getTree().getId())) {
-            printTemplate();
+    public @Nullable J visit(@Nullable Tree tree, Integer p) {
+        Insertion insertion = tree == null ? null : insertionsByTreeId.get(tree.getId());
+        if (insertion != null && insertion.coordinates.isReplaceWholeCursorValue()) {
+            printTemplate(insertion);
             return (J) tree;
-        } else if (tree != null && tree.getId().equals(changing.getId())) {
+        } else if (tree != null && changing != null && tree.getId().equals(changing.getId())) {
             //Once the Id of the tree matches the ID of possible mutated tree navigation ,for the sake of printing the
             //synthetic class, swaps to the "changing" class.
-            return super.visit(changing, insertionScope);
+            return super.visit(changing, p);
         } else {
-            return super.visit(tree, insertionScope);
+            return super.visit(tree, p);
         }
     }
 
     @Override
-    public J visitCompilationUnit(J.CompilationUnit cu, Cursor insertionScope) {
-        visitSpace(cu.getPrefix(), Space.Location.COMPILATION_UNIT_PREFIX, insertionScope);
-        visitRightPadded(cu.getPadding().getPackageDeclaration(), JRightPadded.Location.PACKAGE, ";", insertionScope);
+    public J visitCompilationUnit(J.CompilationUnit cu, Integer p) {
+        if (stub) {
+            referencedNames = referencedNames();
+        }
+
+        visitSpace(cu.getPrefix(), Space.Location.COMPILATION_UNIT_PREFIX, p);
+        visitRightPadded(cu.getPadding().getPackageDeclaration(), JRightPadded.Location.PACKAGE, ";", p);
 
         if (!imports.isEmpty()) {
             getPrinter().append("\n\n");
@@ -75,62 +149,92 @@ public class JavaTemplatePrinter extends JavaPrinter<Cursor> {
                 getPrinter().append(impoort);
             }
         }
-        visitRightPadded(cu.getPadding().getImports(), JRightPadded.Location.IMPORT, ";", insertionScope);
+        visitRightPadded(cu.getPadding().getImports(), JRightPadded.Location.IMPORT, ";", p);
         StringBuilder acc = getPrinter();
         if (!cu.getImports().isEmpty()) {
             acc.append(";");
         }
-        visit(cu.getClasses(), insertionScope);
-        visitSpace(cu.getEof(), Space.Location.COMPILATION_UNIT_EOF, insertionScope);
+        visit(cu.getClasses(), p);
+        visitSpace(cu.getEof(), Space.Location.COMPILATION_UNIT_EOF, p);
         return cu;
     }
 
     @Override
-    public J visitBlock(J.Block block, Cursor insertionScope) {
+    public J visitBlock(J.Block block, Integer p) {
         Cursor parent = getCursor().dropParentUntil(J.class::isInstance);
-        if (!insertionScope.isScopeInPath(block) && !(parent.getValue() instanceof J.ClassDeclaration)) {
+        boolean classBody = parent.getValue() instanceof J.ClassDeclaration;
+        if (!inScope(block) && !classBody) {
             J.Block b = block.withStatements(emptyList());
-            return super.visitBlock(b, insertionScope);
+            return super.visitBlock(b, p);
         }
 
-        if (coordinates.getTree().getId().equals(block.getId()) && Space.Location.BLOCK_PREFIX.equals(coordinates.getSpaceLocation())) {
+        Insertion insertion = insertionAt(block);
+        if (insertion != null && Space.Location.BLOCK_PREFIX.equals(insertion.coordinates.getSpaceLocation())) {
             J.Block b = block.withStatements(emptyList());
-            return super.visitBlock(b, insertionScope);
+            return super.visitBlock(b, p);
         }
 
         J.Block b = block;
-        if (!(parent.getValue() instanceof J.ClassDeclaration)) {
+        if (classBody) {
+            if (referencedNames != null) {
+                List<Statement> referencedMembers = new ArrayList<>();
+                for (Statement member : b.getStatements()) {
+                    if (isReferenced(member, referencedNames) || inScope(member)) {
+                        referencedMembers.add(member);
+                    }
+                }
+                b = b.withStatements(referencedMembers);
+            }
+        } else {
+            int lastInScope = -1;
+            for (int i = 0; i < b.getStatements().size(); i++) {
+                if (inScope(b.getStatements().get(i))) {
+                    lastInScope = i;
+                }
+            }
 
-            if (b.getStatements().stream().anyMatch(insertionScope::isScopeInPath)) {
+            if (lastInScope >= 0) {
                 // If a statement in the block is in insertion scope, then this will render each statement
-                // up to the statement that is in insertion scope.
+                // up to the last statement that is in insertion scope.
                 List<Statement> statementsInScope = new ArrayList<>();
-                for (Statement statement : b.getStatements()) {
-                    statementsInScope.add(statement);
-                    if (insertionScope.isScopeInPath(statement)) {
-                        break;
+                for (int i = 0; i <= lastInScope; i++) {
+                    Statement statement = b.getStatements().get(i);
+                    if (!stub || declaresInScope(statement) || inScope(statement)) {
+                        statementsInScope.add(statement);
                     }
                 }
                 b = b.withStatements(statementsInScope);
             }
         }
 
-        return super.visitBlock(b, insertionScope);
+        return super.visitBlock(b, p);
     }
 
     @Override
-    public Space visitSpace(Space space, Space.Location loc, Cursor cursor) {
+    public Space visitSpace(Space space, Space.Location loc, Integer p) {
         J j = getCursor().firstEnclosing(J.class);
-        if (loc == coordinates.getSpaceLocation() && j != null && coordinates.getTree().getId().equals(j.getId())) {
-            printTemplate();
+        Insertion insertion = j == null ? null : insertionAt(j);
+        if (insertion != null && loc == insertion.coordinates.getSpaceLocation()) {
+            printTemplate(insertion);
         }
-        return super.visitSpace(space, loc, cursor);
+
+        if (stub && !space.getComments().isEmpty()) {
+            // leave out comments, keeping the elements around them apart
+            StringBuilder acc = getPrinter();
+            acc.append(space.getWhitespace());
+            for (Comment comment : space.getComments()) {
+                acc.append(comment.getSuffix().isEmpty() ? " " : comment.getSuffix());
+            }
+            return space;
+        }
+        return super.visitSpace(space, loc, p);
     }
 
     @Override
-    public J visitClassDeclaration(J.ClassDeclaration classDecl, Cursor insertionScope) {
-        if (!insertionScope.isScopeInPath(classDecl) || !classDecl.getId().equals(coordinates.getTree().getId())) {
-            return super.visitClassDeclaration(classDecl.withLeadingAnnotations(emptyList()), insertionScope);
+    public J visitClassDeclaration(J.ClassDeclaration classDecl, Integer p) {
+        Insertion insertion = insertionAt(classDecl);
+        if (!inScope(classDecl) || insertion == null) {
+            return super.visitClassDeclaration(classDecl.withLeadingAnnotations(emptyList()), p);
         }
 
         String kind = "";
@@ -149,188 +253,276 @@ public class JavaTemplatePrinter extends JavaPrinter<Cursor> {
                 break;
         }
 
-        visitSpace(classDecl.getPrefix(), Space.Location.CLASS_DECLARATION_PREFIX, insertionScope);
+        visitSpace(classDecl.getPrefix(), Space.Location.CLASS_DECLARATION_PREFIX, p);
 
-        if (Space.Location.ANNOTATIONS.equals(coordinates.getSpaceLocation())) {
-            if (coordinates.isReplacement()) {
-                printTemplate();
+        if (Space.Location.ANNOTATIONS.equals(insertion.coordinates.getSpaceLocation())) {
+            if (insertion.coordinates.isReplacement()) {
+                printTemplate(insertion);
             }
             else {
-                printTemplate();
-                visit(classDecl.getLeadingAnnotations(), insertionScope);
+                printTemplate(insertion);
+                visit(classDecl.getLeadingAnnotations(), p);
             }
         } else {
-            visit(classDecl.getLeadingAnnotations(), insertionScope);
+            visit(classDecl.getLeadingAnnotations(), p);
         }
 
-        visitModifiers(classDecl.getModifiers(), insertionScope);
-        visitSpace(classDecl.getAnnotations().getKind().getPrefix(), Space.Location.CLASS_KIND, insertionScope);
+        visitModifiers(classDecl.getModifiers(), p);
+        visitSpace(classDecl.getAnnotations().getKind().getPrefix(), Space.Location.CLASS_KIND, p);
         StringBuilder acc = getPrinter();
         acc.append(kind);
-        visit(classDecl.getName(), insertionScope);
+        visit(classDecl.getName(), p);
 
-        if (coordinates.isReplacement() && Space.Location.TYPE_PARAMETERS.equals(coordinates.getSpaceLocation())) {
-            printTemplate();
+        if (insertion.coordinates.isReplacement() && Space.Location.TYPE_PARAMETERS.equals(insertion.coordinates.getSpaceLocation())) {
+            printTemplate(insertion);
         } else {
-            visitContainer("<", classDecl.getPadding().getTypeParameters(), JContainer.Location.TYPE_PARAMETERS, ",", ">", insertionScope);
+            visitContainer("<", classDecl.getPadding().getTypeParameters(), JContainer.Location.TYPE_PARAMETERS, ",", ">", p);
         }
 
-        if (coordinates.isReplacement() && Space.Location.EXTENDS.equals(coordinates.getSpaceLocation())) {
-            printTemplate();
+        if (insertion.coordinates.isReplacement() && Space.Location.EXTENDS.equals(insertion.coordinates.getSpaceLocation())) {
+            printTemplate(insertion);
         } else {
-            visitLeftPadded("extends", classDecl.getPadding().getExtends(), JLeftPadded.Location.EXTENDS, insertionScope);
+            visitLeftPadded("extends", classDecl.getPadding().getExtends(), JLeftPadded.Location.EXTENDS, p);
         }
 
-        if (coordinates.isReplacement() && Space.Location.IMPLEMENTS.equals(coordinates.getSpaceLocation())) {
-            printTemplate();
+        if (insertion.coordinates.isReplacement() && Space.Location.IMPLEMENTS.equals(insertion.coordinates.getSpaceLocation())) {
+            printTemplate(insertion);
         } else {
             visitContainer(classDecl.getKind().equals(J.ClassDeclaration.Kind.Type.Interface) ? "extends" : "implements",
-                    classDecl.getPadding().getImplements(), JContainer.Location.IMPLEMENTS, ",", null, insertionScope);
+                    classDecl.getPadding().getImplements(), JContainer.Location.IMPLEMENTS, ",", null, p);
         }
 
-        if (coordinates.isReplacement() && Space.Location.BLOCK_PREFIX.equals(coordinates.getSpaceLocation())) {
-            printTemplate();
+        if (insertion.coordinates.isReplacement() && Space.Location.BLOCK_PREFIX.equals(insertion.coordinates.getSpaceLocation())) {
+            printTemplate(insertion);
         } else {
-            visit(classDecl.getBody(), insertionScope);
+            visit(classDecl.getBody(), p);
         }
 
         return classDecl;
     }
 
     @Override
-    public J visitMethodDeclaration(J.MethodDeclaration method, Cursor insertionScope) {
-        if (!insertionScope.isScopeInPath(method)) {
-            return super.visitMethodDeclaration(method.withLeadingAnnotations(emptyList()).withBody(EMPTY_BLOCK), insertionScope);
+    public J visitMethodDeclaration(J.MethodDeclaration method, Integer p) {
+        if (!inScope(method)) {
+            return super.visitMethodDeclaration(method.withLeadingAnnotations(emptyList()).withBody(EMPTY_BLOCK), p);
+        }
+
+        Insertion insertion = insertionAt(method);
+        if (insertion == null) {
+            return super.visitMethodDeclaration(method, p);
         }
 
-        visitSpace(method.getPrefix(), Space.Location.METHOD_DECLARATION_PREFIX, insertionScope);
+        visitSpace(method.getPrefix(), Space.Location.METHOD_DECLARATION_PREFIX, p);
 
-        if (Space.Location.ANNOTATIONS.equals(coordinates.getSpaceLocation())) {
-            if (coordinates.isReplacement()) {
-                printTemplate();
+        if (Space.Location.ANNOTATIONS.equals(insertion.coordinates.getSpaceLocation())) {
+            if (insertion.coordinates.isReplacement()) {
+                printTemplate(insertion);
             }
             else {
-                printTemplate();
-                visit(method.getLeadingAnnotations(), insertionScope);
+                printTemplate(insertion);
+                visit(method.getLeadingAnnotations(), p);
             }
         } else {
-            visit(method.getLeadingAnnotations(), insertionScope);
+            visit(method.getLeadingAnnotations(), p);
         }
 
-        visitModifiers(method.getModifiers(), insertionScope);
+        visitModifiers(method.getModifiers(), p);
 
-        if (coordinates.isReplacement() && Space.Location.TYPE_PARAMETERS.equals(coordinates.getSpaceLocation())) {
-            printTemplate();
+        if (insertion.coordinates.isReplacement() && Space.Location.TYPE_PARAMETERS.equals(insertion.coordinates.getSpaceLocation())) {
+            printTemplate(insertion);
         } else {
             J.TypeParameters typeParameters = method.getAnnotations().getTypeParameters();
             if (typeParameters != null) {
-                visit(typeParameters.getAnnotations(), insertionScope);
-                visitSpace(typeParameters.getPrefix(), Space.Location.TYPE_PARAMETERS, insertionScope);
+                visit(typeParameters.getAnnotations(), p);
+                visitSpace(typeParameters.getPrefix(), Space.Location.TYPE_PARAMETERS, p);
                 StringBuilder acc = getPrinter();
                 acc.append("<");
-                visitRightPadded(typeParameters.getPadding().getTypeParameters(), JRightPadded.Location.TYPE_PARAMETER, ",", insertionScope);
+                visitRightPadded(typeParameters.getPadding().getTypeParameters(), JRightPadded.Location.TYPE_PARAMETER, ",", p);
                 acc.append(">");
             }
         }
 
-        visit(method.getReturnTypeExpression(), insertionScope);
-        visit(method.getName(), insertionScope);
+        visit(method.getReturnTypeExpression(), p);
+        visit(method.getName(), p);
 
-        if (coordinates.isReplacement() && Space.Location.METHOD_DECLARATION_PARAMETERS.equals(coordinates.getSpaceLocation())) {
-            printTemplate();
+        if (insertion.coordinates.isReplacement() && Space.Location.METHOD_DECLARATION_PARAMETERS.equals(insertion.coordinates.getSpaceLocation())) {
+            printTemplate(insertion);
         } else {
-            visitContainer("(", method.getPadding().getParameters(), JContainer.Location.METHOD_DECLARATION_PARAMETERS, ",", ")", insertionScope);
+            visitContainer("(", method.getPadding().getParameters(), JContainer.Location.METHOD_DECLARATION_PARAMETERS, ",", ")", p);
         }
 
-        if (coordinates.isReplacement() && Space.Location.THROWS.equals(coordinates.getSpaceLocation())) {
-            printTemplate();
+        if (insertion.coordinates.isReplacement() && Space.Location.THROWS.equals(insertion.coordinates.getSpaceLocation())) {
+            printTemplate(insertion);
         } else {
-            visitContainer("throws", method.getPadding().getThrows(), JContainer.Location.THROWS, ",", null, insertionScope);
+            visitContainer("throws", method.getPadding().getThrows(), JContainer.Location.THROWS, ",", null, p);
         }
 
-        if (coordinates.isReplacement() && Space.Location.BLOCK_PREFIX.equals(coordinates.getSpaceLocation())) {
-            printTemplate();
+        if (insertion.coordinates.isReplacement() && Space.Location.BLOCK_PREFIX.equals(insertion.coordinates.getSpaceLocation())) {
+            printTemplate(insertion);
         } else {
-            visit(method.getBody(), insertionScope);
+            visit(method.getBody(), p);
         }
 
-        visitLeftPadded("default", method.getPadding().getDefaultValue(), JLeftPadded.Location.METHOD_DECLARATION_DEFAULT_VALUE, insertionScope);
+        visitLeftPadded("default", method.getPadding().getDefaultValue(), JLeftPadded.Location.METHOD_DECLARATION_DEFAULT_VALUE, p);
 
         return method;
     }
 
     @Override
-    public J visitMethodInvocation(J.MethodInvocation method, Cursor insertionScope) {
-        if (!insertionScope.isScopeInPath(method)) {
+    public J visitMethodInvocation(J.MethodInvocation method, Integer p) {
+        Insertion insertion = insertionAt(method);
+        if (!inScope(method) || insertion == null) {
             // Variables in the original AST only need to be declared, nulls out the initializers.
-            return super.visitMethodInvocation(method, insertionScope);
+            return super.visitMethodInvocation(method, p);
         }
 
-        visitSpace(method.getPrefix(), Space.Location.METHOD_INVOCATION_PREFIX, insertionScope);
-        visitRightPadded(method.getPadding().getSelect(), JRightPadded.Location.METHOD_SELECT, ".", insertionScope);
+        visitSpace(method.getPrefix(), Space.Location.METHOD_INVOCATION_PREFIX, p);
+        visitRightPadded(method.getPadding().getSelect(), JRightPadded.Location.METHOD_SELECT, ".", p);
 
-        if (coordinates.isReplacement() && Space.Location.TYPE_PARAMETERS.equals(coordinates.getSpaceLocation())) {
-            printTemplate();
+        if (insertion.coordinates.isReplacement() && Space.Location.TYPE_PARAMETERS.equals(insertion.coordinates.getSpaceLocation())) {
+            printTemplate(insertion);
         } else {
-            visitContainer("<", method.getPadding().getTypeParameters(), JContainer.Location.TYPE_PARAMETERS, ",", ">", insertionScope);
+            visitContainer("<", method.getPadding().getTypeParameters(), JContainer.Location.TYPE_PARAMETERS, ",", ">", p);
         }
-        visit(method.getName(), insertionScope);
-        if (coordinates.isReplacement() && Space.Location.METHOD_INVOCATION_ARGUMENTS.equals(coordinates.getSpaceLocation())) {
-            printTemplate();
+        visit(method.getName(), p);
+        if (insertion.coordinates.isReplacement() && Space.Location.METHOD_INVOCATION_ARGUMENTS.equals(insertion.coordinates.getSpaceLocation())) {
+            printTemplate(insertion);
         } else {
-            visitContainer("(", method.getPadding().getArguments(), JContainer.Location.METHOD_INVOCATION_ARGUMENTS, ",", ")", insertionScope);
+            visitContainer("(", method.getPadding().getArguments(), JContainer.Location.METHOD_INVOCATION_ARGUMENTS, ",", ")", p);
         }
         return method;
     }
 
     @Override
-    public J visitVariableDeclarations(J.VariableDeclarations multiVariable, Cursor insertionScope) {
-        if (!insertionScope.isScopeInPath(multiVariable)) {
-            return super.visitVariableDeclarations(multiVariable.withLeadingAnnotations(emptyList()), insertionScope);
-        } else if (!multiVariable.getId().equals(coordinates.getTree().getId())) {
-            return super.visitVariableDeclarations(multiVariable.withLeadingAnnotations(emptyList()), insertionScope);
+    public J visitVariableDeclarations(J.VariableDeclarations multiVariable, Integer p) {
+        Insertion insertion = insertionAt(multiVariable);
+        if (!inScope(multiVariable)) {
+            return super.visitVariableDeclarations(multiVariable.withLeadingAnnotations(emptyList()), p);
+        } else if (insertion == null) {
+            return super.visitVariableDeclarations(multiVariable.withLeadingAnnotations(emptyList()), p);
         }
 
         StringBuilder acc = getPrinter();
-        visitSpace(multiVariable.getPrefix(), Space.Location.VARIABLE_DECLARATIONS_PREFIX, insertionScope);
+        visitSpace(multiVariable.getPrefix(), Space.Location.VARIABLE_DECLARATIONS_PREFIX, p);
 
-        if (Space.Location.ANNOTATIONS.equals(coordinates.getSpaceLocation())) {
-            if (coordinates.isReplacement()) {
-                printTemplate();
+        if (Space.Location.ANNOTATIONS.equals(insertion.coordinates.getSpaceLocation())) {
+            if (insertion.coordinates.isReplacement()) {
+                printTemplate(insertion);
             }
             else {
-                printTemplate();
-                visit(multiVariable.getLeadingAnnotations(), insertionScope);
+                printTemplate(insertion);
+                visit(multiVariable.getLeadingAnnotations(), p);
             }
         } else {
-            visit(multiVariable.getLeadingAnnotations(), insertionScope);
+            visit(multiVariable.getLeadingAnnotations(), p);
         }
 
-        visitModifiers(multiVariable.getModifiers(), insertionScope);
-        visit(multiVariable.getTypeExpression(), insertionScope);
+        visitModifiers(multiVariable.getModifiers(), p);
+        visit(multiVariable.getTypeExpression(), p);
         for (JLeftPadded<Space> dim : multiVariable.getDimensionsBeforeName()) {
-            visitSpace(dim.getBefore(), Space.Location.DIMENSION_PREFIX, insertionScope);
+            visitSpace(dim.getBefore(), Space.Location.DIMENSION_PREFIX, p);
             acc.append('[');
-            visitSpace(dim.getElement(), Space.Location.DIMENSION, insertionScope);
+            visitSpace(dim.getElement(), Space.Location.DIMENSION, p);
             acc.append(']');
         }
         if (multiVariable.getVarargs() != null) {
-            visitSpace(multiVariable.getVarargs(), Space.Location.VARARGS, insertionScope);
+            visitSpace(multiVariable.getVarargs(), Space.Location.VARARGS, p);
             acc.append("...");
         }
-        visitRightPadded(multiVariable.getPadding().getVariables(), JRightPadded.Location.NAMED_VARIABLE, ",", insertionScope);
+        visitRightPadded(multiVariable.getPadding().getVariables(), JRightPadded.Location.NAMED_VARIABLE, ",", p);
         return multiVariable;
     }
 
     @Override
-    public J.VariableDeclarations.NamedVariable visitVariable(J.VariableDeclarations.NamedVariable variable, Cursor insertionScope) {
-        if (!insertionScope.isScopeInPath(variable)) {
+    public J.VariableDeclarations.NamedVariable visitVariable(J.VariableDeclarations.NamedVariable variable, Integer p) {
+        if (!inScope(variable)) {
             // Variables in the original AST only need to be declared, nulls out the initializers.
-            return (J.VariableDeclarations.NamedVariable) super.visitVariable(variable.withInitializer(null), insertionScope);
+            return (J.VariableDeclarations.NamedVariable) super.visitVariable(variable.withInitializer(null), p);
+        }
+        return (J.VariableDeclarations.NamedVariable) super.visitVariable(variable, p);
+    }
+
+
+    /**
+     * The names referred to by the template code, gathered lexically, and by the innermost member of a class
+     * declaration that each insertion point is in. A template inserted into an expression may be type attributed by
+     * the code around it, e.g. as the argument of a method call that determines the type of a lambda, so every name
+     * in the member is included.
+     */
+    @Nullable
+    private Set<String> referencedNames() {
+        Set<String> names = new HashSet<>();
+        JavaVisitor<Set<String>> identifierNames = new JavaVisitor<Set<String>>() {
+            @Override
+            public J visitIdentifier(J.Identifier ident, Set<String> names) {
+                names.add(ident.getSimpleName());
+                return ident;
+            }
+        };
+
+        for (Insertion insertion : insertions) {
+            List<Object> path = new ArrayList<>();
+            insertion.insertionScope.getPathAsStream(J.class::isInstance).forEach(path::add);
+            Collections.reverse(path);
+
+            J member = null;
+            for (int i = 2; i < path.size(); i++) {
+                if (path.get(i - 2) instanceof J.ClassDeclaration && path.get(i - 1) instanceof J.Block) {
+                    member = (J) path.get(i);
+                }
+            }
+            if (member == null) {
+                return null;
+            }
+
+            Matcher identifiers = IDENTIFIER.matcher(insertion.code);
+            while (identifiers.find()) {
+                names.add(identifiers.group());
+            }
+            identifierNames.visit(member, names);
         }
-        return (J.VariableDeclarations.NamedVariable) super.visitVariable(variable, insertionScope);
+
+        if (changing != null) {
+            identifierNames.visit(changing, names);
+        }
+        return names;
     }
 
+    private boolean inScope(Tree tree) {
+        return scopeIds.contains(tree.getId());
+    }
+
+    @Nullable
+    private Insertion insertionAt(J tree) {
+        return insertionsByTreeId.get(tree.getId());
+    }
+
+    private static boolean isReferenced(Statement member, Set<String> referencedNames) {
+        if (member instanceof J.MethodDeclaration) {
+            J.MethodDeclaration method = (J.MethodDeclaration) member;
+            return method.isConstructor() || referencedNames.contains(method.getSimpleName());
+        } else if (member instanceof J.VariableDeclarations) {
+            for (J.VariableDeclarations.NamedVariable variable : ((J.VariableDeclarations) member).getVariables()) {
+                if (referencedNames.contains(variable.getSimpleName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        // initializer blocks are left out, while types may be referred to by the signatures of other members
+        return !(member instanceof J.Block);
+    }
+
+    /**
+     * Whether a statement before the insertion point declares something that is still in scope at the insertion point.
+     * The members of an anonymous class and the cases of a switch are kept too.
+     */
+    private static boolean declaresInScope(Statement statement) {
+        return statement instanceof J.VariableDeclarations ||
+                statement instanceof J.ClassDeclaration ||
+                statement instanceof J.MethodDeclaration ||
+                statement instanceof J.Case;
+    }
 
     /**
      * This method will extends the insertion scope cursor by starting at the parent cursor and then walking into the
@@ -347,8 +539,25 @@ public class JavaTemplatePrinter extends JavaPrinter<Cursor> {
         return cursorReference.get();
     }
 
-    private void printTemplate() {
-        getPrinter().append(code);
+    private void printTemplate(Insertion insertion) {
+        getPrinter().append(markedCode.get(insertion));
+    }
+
+    public static class Insertion {
+        private final String code;
+        private final JavaCoordinates coordinates;
+        private final Cursor insertionScope;
+
+        /**
+         * @param code           The template, with its parameters substituted.
+         * @param coordinates    Where the template is inserted.
+         * @param insertionScope The cursor to the coordinates, as given by {@link #findCoordinateCursor}.
+         */
+        public Insertion(String code, JavaCoordinates coordinates, Cursor insertionScope) {
+            this.code = code;
+            this.coordinates = coordinates;
+            this.insertionScope = insertionScope;
+        }
     }
 
     private static class ExtractInsertionCursor extends JavaVisitor<AtomicReference<Cursor>> {
@@ -112,4 +112,12 @@ public class MigrateOpenRewrite6xNames extends Recipe {
         //NEW_CLASS_ENCL_SUFFIX         > NEW_CLASS_ENCLOSING_SUFFIX
 
     }
+
+    /**
+     * Only the recipes it runs next visit source files.
+     */
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
@@ -55,6 +55,11 @@ public class FindAnnotations extends Recipe {
         };
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     public static Set<J.Annotation> find(J j, String annotationPattern) {
         AnnotationMatcher annotationMatcher = new AnnotationMatcher(annotationPattern);
         JavaIsoVisitor<Set<J.Annotation>> findVisitor = new JavaIsoVisitor<Set<J.Annotation>>() {
@@ -53,6 +53,11 @@ public class FindFields extends Recipe {
         };
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     public static Set<J.VariableDeclarations> find(J j, String fullyQualifiedTypeName) {
         JavaIsoVisitor<Set<J.VariableDeclarations>> findVisitor = new JavaIsoVisitor<Set<J.VariableDeclarations>>() {
             @Override
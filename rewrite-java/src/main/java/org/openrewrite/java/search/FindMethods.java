@@ -64,6 +64,11 @@ public final class FindMethods extends Recipe {
         };
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     /**
      * @param j             The subtree to search.
      * @param methodPattern A method pattern. See {@link MethodMatcher} for details about this syntax.
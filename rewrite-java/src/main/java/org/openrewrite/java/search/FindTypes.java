@@ -67,6 +67,11 @@ public final class FindTypes extends Recipe {
         };
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     public static Set<NameTree> find(J j, String fullyQualifiedClassName) {
         JavaIsoVisitor<Set<NameTree>> findVisitor = new JavaIsoVisitor<Set<NameTree>>() {
 
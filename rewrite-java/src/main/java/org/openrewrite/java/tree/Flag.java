@@ -17,6 +17,11 @@ package org.openrewrite.java.tree;
 
 import org.openrewrite.internal.lang.Nullable;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum Flag {
     Public("public"),
     Private("private"),
@@ -28,16 +33,60 @@ public enum Flag {
     Transient("transient"),
     Abstract("abstract");
 
+    private static final Flag[] FLAGS = values();
+
+    /**
+     * An immutable set of flags for every bit mask, created as each one is first needed and shared by every type
+     * with the same flags.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Set<Flag>[] flagSetsByBitMask = new Set[1 << FLAGS.length];
+
     private final String keyword;
+    private final long bitMask;
 
     Flag(String keyword) {
         this.keyword = keyword;
+        this.bitMask = 1L << ordinal();
     }
 
     public String getKeyword() {
         return this.keyword;
     }
 
+    public long getBitMask() {
+        return bitMask;
+    }
+
+    public static long bitMask(Collection<Flag> flags) {
+        long bitMask = 0;
+        for (Flag flag : flags) {
+            bitMask |= flag.bitMask;
+        }
+        return bitMask;
+    }
+
+    /**
+     * @param bitMask The bit masks of a set of flags.
+     * @return An immutable set of the flags.
+     */
+    public static Set<Flag> fromBitMask(long bitMask) {
+        int i = (int) bitMask;
+        Set<Flag> flags = flagSetsByBitMask[i];
+        if (flags == null) {
+            EnumSet<Flag> set = EnumSet.noneOf(Flag.class);
+            for (Flag flag : FLAGS) {
+                if ((bitMask & flag.bitMask) != 0) {
+                    set.add(flag);
+                }
+            }
+            // racing threads create equal sets, so it doesn't matter which is kept
+            flags = Collections.unmodifiableSet(set);
+            flagSetsByBitMask[i] = flags;
+        }
+        return flags;
+    }
+
     @Nullable
     public static Flag fromKeyword(String keyword) {
         for (Flag flag : values()) {
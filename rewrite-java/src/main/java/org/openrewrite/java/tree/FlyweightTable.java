@@ -0,0 +1,233 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.tree;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Interns the variants of a kind of type, or part of one, that share an id, e.g. a fully qualified name. Lookups don't
+ * lock. Adding a variant locks only one of several stripes, chosen by the id. Variants are either weakly referenced,
+ * so that a variant that nothing else refers to any longer is removed from the table, or strongly referenced until
+ * the table is cleared.
+ * <p>
+ * Each variant is stored with a structural hash of it, so that the structural equality of a candidate is only
+ * checked against variants that are likely to be equal.
+ */
+final class FlyweightTable<T> {
+    private static final int STRIPES = 64;
+
+    private final Map<Object, Variant<T>[]> variantsById = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReferenceQueue<T> cleared = new ReferenceQueue<>();
+    private final boolean strong;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter contended;
+
+    FlyweightTable(String type, boolean strong) {
+        this.strong = strong;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        this.hits = Counter.builder("rewrite.java.type.intern")
+                .description("The number of types built that were already interned")
+                .tag("type", type)
+                .tag("outcome", "hit")
+                .register(Metrics.globalRegistry);
+        this.misses = Counter.builder("rewrite.java.type.intern")
+                .description("The number of types built that were not yet interned")
+                .tag("type", type)
+                .tag("outcome", "miss")
+                .register(Metrics.globalRegistry);
+        this.contended = Counter.builder("rewrite.java.type.intern.contended")
+                .description("The number of times interning a type waited for another thread interning a type")
+                .tag("type", type)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * @param id         The id the variants of the candidate share. Must not refer to the candidate, or weakly
+     *                   referenced variants would never be removed.
+     * @param hash       A hash of the candidate that is equal for any two variants that are {@code equivalent}.
+     * @param candidate  Added when no existing variant is chosen.
+     * @param equivalent Chooses the first variant with the same hash that it matches.
+     * @param fallback   When not null, chooses the first variant that it matches when none is equivalent.
+     * @return An existing variant or the candidate.
+     */
+    T intern(Object id, int hash, T candidate, Predicate<T> equivalent, @Nullable Predicate<T> fallback) {
+        T existing = find(variantsById.get(id), hash, equivalent, fallback);
+        if (existing != null) {
+            hits.increment();
+            return existing;
+        }
+
+        ReentrantLock lock = stripe(id);
+        if (!lock.tryLock()) {
+            contended.increment();
+            lock.lock();
+        }
+        try {
+            // another thread may have added a variant since it was looked up
+            Variant<T>[] variants = variantsById.get(id);
+            existing = find(variants, hash, equivalent, fallback);
+            if (existing != null) {
+                hits.increment();
+                return existing;
+            }
+
+            Variant<T> added = new Variant<>(id, hash, candidate, strong, cleared);
+            if (variants == null) {
+                @SuppressWarnings({"unchecked", "rawtypes"}) Variant<T>[] first = new Variant[]{added};
+                variantsById.put(id, first);
+            } else {
+                Variant<T>[] grown = Arrays.copyOf(variants, variants.length + 1);
+                grown[variants.length] = added;
+                variantsById.put(id, grown);
+            }
+            misses.increment();
+        } finally {
+            lock.unlock();
+        }
+
+        removeCleared();
+        return candidate;
+    }
+
+    /**
+     * Intern a value that is immutable and whose {@link Object#equals(Object)} is structural.
+     */
+    T intern(T value) {
+        int hash = value.hashCode();
+        return intern(hash, hash, value, value::equals, null);
+    }
+
+    @Nullable
+    private static <T> T find(@Nullable Variant<T>[] variants, int hash, Predicate<T> equivalent,
+                                               @Nullable Predicate<T> fallback) {
+        if (variants == null) {
+            return null;
+        }
+        for (Variant<T> variant : variants) {
+            T v = variant.hash == hash ? variant.get() : null;
+            if (v != null && equivalent.test(v)) {
+                return v;
+            }
+        }
+        if (fallback != null) {
+            for (Variant<T> variant : variants) {
+                T v = variant.get();
+                if (v != null && fallback.test(v)) {
+                    return v;
+                }
+            }
+        }
+        return null;
+    }
+
+    void clear() {
+        variantsById.clear();
+    }
+
+    private void removeCleared() {
+        Reference<? extends T> ref;
+        while ((ref = cleared.poll()) != null) {
+            Object id = ((Variant<?>) ref).id;
+            ReentrantLock lock = stripe(id);
+            lock.lock();
+            try {
+                Variant<T>[] variants = variantsById.get(id);
+                if (variants != null) {
+                    @SuppressWarnings("unchecked") Variant<T>[] live = Arrays.stream(variants)
+                            .filter(v -> v.get() != null)
+                            .toArray(Variant[]::new);
+                    if (live.length == 0) {
+                        variantsById.remove(id);
+                    } else if (live.length < variants.length) {
+                        variantsById.put(id, live);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private ReentrantLock stripe(Object id) {
+        int h = id.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * A hash of a type that only considers what identifies it rather than its whole structure, so that it is
+     * consistent with {@link JavaType#deepEquals(JavaType)} for any two types while being cheap to compute.
+     */
+    static int shallowHash(@Nullable JavaType type) {
+        if (type == null) {
+            return 0;
+        } else if (type instanceof JavaType.FullyQualified) {
+            return ((JavaType.FullyQualified) type).getFullyQualifiedName().hashCode();
+        } else if (type instanceof JavaType.Array) {
+            return 31 * shallowHash(((JavaType.Array) type).getElemType()) + 1;
+        } else if (type instanceof JavaType.Primitive) {
+            return ((JavaType.Primitive) type).getKeyword().hashCode();
+        } else if (type instanceof JavaType.Variable) {
+            return ((JavaType.Variable) type).getName().hashCode();
+        } else if (type instanceof JavaType.Method) {
+            return ((JavaType.Method) type).getName().hashCode();
+        }
+        return 0;
+    }
+
+    static int shallowHash(List<? extends JavaType> types) {
+        int hash = 1;
+        for (JavaType type : types) {
+            hash = 31 * hash + shallowHash(type);
+        }
+        return hash;
+    }
+
+    private static class Variant<T> extends WeakReference<T> {
+        private final Object id;
+        private final int hash;
+
+        /**
+         * Keeps the referent from being cleared when the table references its variants strongly.
+         */
+        @Nullable
+        private final T strongReferent;
+
+        private Variant(Object id, int hash, T referent, boolean strong, ReferenceQueue<? super T> queue) {
+            super(referent, strong ? null : queue);
+            this.id = id;
+            this.hash = hash;
+            this.strongReferent = strong ? referent : null;
+        }
+    }
+}
@@ -68,11 +68,18 @@ public interface J extends Serializable, Tree {
         return new JavaPrinter<>(printer).print(this, p);
     }
 
+    @Override
+    default <P> void print(TreePrinter<P> printer, P p, Appendable out) {
+        new JavaPrinter<>(printer).print(this, p, out);
+    }
+
     @Override
     default <P> String print(P p) {
         return print(TreePrinter.identity(), p);
     }
 
+    J withId(UUID id);
+
     <J2 extends J> J2 withPrefix(Space space);
 
     Space getPrefix();
@@ -97,6 +104,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class AnnotatedType implements J, Expression, TypeTree {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -143,6 +151,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -232,6 +241,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class ArrayAccess implements J, Expression {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -267,6 +277,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class ArrayType implements J, TypeTree, Expression {
 
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -309,6 +320,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class Assert implements J, Statement {
 
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -342,6 +354,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -427,6 +440,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -530,6 +544,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -638,6 +653,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @Getter
         @EqualsAndHashCode.Include
         UUID id;
@@ -725,6 +741,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class Break implements J, Statement {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -760,6 +777,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -839,6 +857,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Annotations> annotations;
 
+        @With
         @Getter
         @EqualsAndHashCode.Include
         UUID id;
@@ -952,6 +971,7 @@ public interface J extends Serializable, Tree {
         @Data
         public static final class Kind implements J {
 
+            @With
             @Getter
             @EqualsAndHashCode.Include
             UUID id;
@@ -1080,6 +1100,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -1126,6 +1147,23 @@ public interface J extends Serializable, Tree {
         @Getter
         Space eof;
 
+        /**
+         * Not serialized, so deserialized compilation units refer to the global type table. Not a constructor
+         * argument, so it is set with {@link #withTypeTable(JavaTypeTable)}.
+         */
+        @Nullable
+        @NonFinal
+        @With
+        @ToString.Exclude
+        transient JavaTypeTable typeTable;
+
+        /**
+         * @return The type table that the types of this compilation unit were interned in when it was parsed.
+         */
+        public JavaTypeTable getTypeTable() {
+            return typeTable == null ? JavaTypeTable.GLOBAL : typeTable;
+        }
+
         @Override
         public <P> J acceptJava(JavaVisitor<P> v, P p) {
             return v.visitCompilationUnit(this, p);
@@ -1136,6 +1174,11 @@ public interface J extends Serializable, Tree {
             return new Coordinates.CompilationUnit(this);
         }
 
+        @Override
+        public boolean isIgnoredInStructuralComparison(Class<?> type) {
+            return JavaType.class.isAssignableFrom(type);
+        }
+
         public Set<NameTree> findType(String clazz) {
             return FindTypes.find(this, clazz);
         }
@@ -1165,7 +1208,7 @@ public interface J extends Serializable, Tree {
             }
 
             public CompilationUnit withPackageDeclaration(@Nullable JRightPadded<Package> packageDeclaration) {
-                return t.packageDeclaration == packageDeclaration ? t : new CompilationUnit(t.id, t.prefix, t.markers, t.sourcePath, packageDeclaration, t.imports, t.classes, t.eof);
+                return t.packageDeclaration == packageDeclaration ? t : new CompilationUnit(t.id, t.prefix, t.markers, t.sourcePath, packageDeclaration, t.imports, t.classes, t.eof).withTypeTable(t.typeTable);
             }
 
             public List<JRightPadded<Import>> getImports() {
@@ -1173,7 +1216,7 @@ public interface J extends Serializable, Tree {
             }
 
             public CompilationUnit withImports(List<JRightPadded<Import>> imports) {
-                return t.imports == imports ? t : new CompilationUnit(t.id, t.prefix, t.markers, t.sourcePath, t.packageDeclaration, imports, t.classes, t.eof);
+                return t.imports == imports ? t : new CompilationUnit(t.id, t.prefix, t.markers, t.sourcePath, t.packageDeclaration, imports, t.classes, t.eof).withTypeTable(t.typeTable);
             }
         }
     }
@@ -1182,6 +1225,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class Continue implements J, Statement {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -1216,6 +1260,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -1299,6 +1344,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class Empty implements J, Statement, Expression, TypeTree {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -1334,6 +1380,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class EnumValue implements J {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -1371,6 +1418,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -1445,6 +1493,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -1526,16 +1575,29 @@ public interface J extends Serializable, Tree {
         }
 
         /**
-         * Evaluate whether the specified MethodMatcher and this FieldAccess are describing the same type or not.
-         * Known limitation/bug: MethodMatchers can have patterns/wildcards like "com.*.Bar" instead of something
-         * concrete like "com.foo.Bar". This limitation is not desirable or intentional and should be fixed.
-         * If a methodMatcher is passed that includes wildcards the result will always be "false"
+         * Evaluate whether this FieldAccess names a method that the specified MethodMatcher matches by its fully
+         * qualified declaring type and name, as a static import does. The declaring type and method name patterns
+         * may contain wildcards, like "com.*.Bar" or "unmodifiable*". A static import of every member, like
+         * "com.foo.Bar.*", names no method in particular and is never a reference to one.
          *
-         * @param methodMatcher a methodMatcher whose internal pattern is fully concrete (no wildcards)
+         * @param methodMatcher a methodMatcher, whose argument pattern is not considered
          */
         public boolean isFullyQualifiedClassReference(MethodMatcher methodMatcher) {
-            String hopefullyFullyQualifiedMethod = methodMatcher.getTargetTypePattern().pattern() + "." + methodMatcher.getMethodNamePattern().pattern();
-            return isFullyQualifiedClassReference(this, hopefullyFullyQualifiedMethod);
+            String className = qualifiedName(target);
+            return className != null && !"*".equals(getSimpleName()) &&
+                    methodMatcher.getTargetTypePattern().matcher(className).matches() &&
+                    methodMatcher.getMethodNamePattern().matcher(getSimpleName()).matches();
+        }
+
+        @Nullable
+        private static String qualifiedName(Expression name) {
+            if (name instanceof Identifier) {
+                return ((Identifier) name).getSimpleName();
+            } else if (name instanceof FieldAccess) {
+                String target = qualifiedName(((FieldAccess) name).getTarget());
+                return target == null ? null : target + "." + ((FieldAccess) name).getSimpleName();
+            }
+            return null;
         }
 
         private boolean isFullyQualifiedClassReference(J.FieldAccess fieldAccess, String className) {
@@ -1593,6 +1655,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -1639,6 +1702,7 @@ public interface J extends Serializable, Tree {
             @NonFinal
             transient WeakReference<Padding> padding;
 
+            @With
             @EqualsAndHashCode.Include
             @Getter
             UUID id;
@@ -1757,6 +1821,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -1803,6 +1868,7 @@ public interface J extends Serializable, Tree {
             @NonFinal
             transient WeakReference<Padding> padding;
 
+            @With
             @EqualsAndHashCode.Include
             @Getter
             UUID id;
@@ -1988,6 +2054,14 @@ public interface J extends Serializable, Tree {
             return build(id, prefix, markers, name, getType());
         }
 
+        @SuppressWarnings("unchecked")
+        public Identifier withId(UUID id) {
+            if (id == this.id) {
+                return this;
+            }
+            return new Identifier(id, identifier, prefix, markers);
+        }
+
         @SuppressWarnings("unchecked")
         public Identifier withMarkers(Markers markers) {
             if (markers == this.markers) {
@@ -2049,6 +2123,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -2100,6 +2175,7 @@ public interface J extends Serializable, Tree {
             @NonFinal
             transient WeakReference<Padding> padding;
 
+            @With
             @EqualsAndHashCode.Include
             @Getter
             UUID id;
@@ -2199,6 +2275,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @Getter
         @EqualsAndHashCode.Include
         UUID id;
@@ -2342,6 +2419,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -2422,6 +2500,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -2494,6 +2573,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class Lambda implements J, Expression {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -2536,6 +2616,7 @@ public interface J extends Serializable, Tree {
             @NonFinal
             transient WeakReference<Padding> padding;
 
+            @With
             @EqualsAndHashCode.Include
             @Getter
             UUID id;
@@ -2601,6 +2682,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class Literal implements J, Expression {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -2673,6 +2755,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -2789,6 +2872,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Annotations> annotations;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -3056,6 +3140,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -3214,6 +3299,7 @@ public interface J extends Serializable, Tree {
             return modifiers.stream().anyMatch(m -> m.getType() == modifier);
         }
 
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -3261,6 +3347,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -3347,6 +3434,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -3431,6 +3519,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -3502,6 +3591,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @Getter
         @EqualsAndHashCode.Include
         UUID id;
@@ -3628,6 +3718,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class Package implements J {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -3661,6 +3752,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -3753,6 +3845,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding<J2>> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -3844,6 +3937,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding<J2>> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -3929,6 +4023,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @AllArgsConstructor
     final class Primitive implements J, TypeTree, Expression {
+        @With
         @Getter
         @EqualsAndHashCode.Include
         UUID id;
@@ -3976,6 +4071,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class Return implements J, Statement {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -4004,6 +4100,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class Switch implements J, Statement {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -4034,6 +4131,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class Synchronized implements J, Statement {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -4070,6 +4168,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -4162,6 +4261,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class Throw implements J, Statement {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -4195,6 +4295,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @Getter
         @EqualsAndHashCode.Include
         UUID id;
@@ -4253,6 +4354,7 @@ public interface J extends Serializable, Tree {
         @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
         @Data
         public static final class Resource implements J {
+            @With
             @EqualsAndHashCode.Include
             UUID id;
 
@@ -4281,6 +4383,7 @@ public interface J extends Serializable, Tree {
         @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
         @Data
         public static final class Catch implements J {
+            @With
             @EqualsAndHashCode.Include
             UUID id;
 
@@ -4350,6 +4453,7 @@ public interface J extends Serializable, Tree {
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     @Data
     final class TypeCast implements J, Expression {
+        @With
         @EqualsAndHashCode.Include
         UUID id;
 
@@ -4397,6 +4501,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -4484,6 +4589,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<TypeParameters.Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -4554,6 +4660,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -4649,6 +4756,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -4730,6 +4838,7 @@ public interface J extends Serializable, Tree {
             @NonFinal
             transient WeakReference<Padding> padding;
 
+            @With
             @EqualsAndHashCode.Include
             @Getter
             UUID id;
@@ -4869,6 +4978,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
@@ -4944,6 +5054,7 @@ public interface J extends Serializable, Tree {
         @NonFinal
         transient WeakReference<Padding> padding;
 
+        @With
         @EqualsAndHashCode.Include
         @Getter
         UUID id;
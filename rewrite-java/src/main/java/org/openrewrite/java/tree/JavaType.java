@@ -17,6 +17,8 @@ package org.openrewrite.java.tree;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import lombok.Data;
@@ -131,9 +133,6 @@ public interface JavaType extends Serializable {
 
     @Getter
     class Class extends FullyQualified {
-        // there shouldn't be too many distinct types represented by the same fully qualified name
-        private static final Map<String, Set<Class>> flyweights = new WeakHashMap<>();
-
         public static final Class OBJECT = build("java.lang.Object");
 
         private final String fullyQualifiedName;
@@ -183,7 +182,19 @@ public interface JavaType extends Serializable {
          * @return Any class found in the type cache
          */
         public static Class build(String fullyQualifiedName) {
-            return build(fullyQualifiedName, emptyList(), emptyList(), emptyList(), null, null, true);
+            return build(JavaTypeTable.GLOBAL, fullyQualifiedName);
+        }
+
+        /**
+         * Build a class type only from the class' fully qualified name, picking any version of the class found in
+         * the given type table.
+         *
+         * @param typeTable          The type table to find the class in.
+         * @param fullyQualifiedName The fully qualified name of the class to build
+         * @return Any class found in the type table
+         */
+        public static Class build(JavaTypeTable typeTable, String fullyQualifiedName) {
+            return build(typeTable, fullyQualifiedName, emptyList(), emptyList(), emptyList(), null, null, true);
         }
 
         @JsonCreator
@@ -203,6 +214,18 @@ public interface JavaType extends Serializable {
                                   @Nullable List<Method> constructors,
                                   @Nullable Class supertype,
                                   boolean relaxedClassTypeMatching) {
+            return build(JavaTypeTable.GLOBAL, fullyQualifiedName, members, typeParameters, interfaces, constructors,
+                    supertype, relaxedClassTypeMatching);
+        }
+
+        public static Class build(JavaTypeTable typeTable,
+                                  String fullyQualifiedName,
+                                  List<Variable> members,
+                                  List<JavaType> typeParameters,
+                                  List<JavaType> interfaces,
+                                  @Nullable List<Method> constructors,
+                                  @Nullable Class supertype,
+                                  boolean relaxedClassTypeMatching) {
 
             List<Variable> sortedMembers;
             if (fullyQualifiedName.equals("java.lang.String")) {
@@ -217,39 +240,25 @@ public interface JavaType extends Serializable {
 
             JavaType.Class candidate = new Class(fullyQualifiedName, sortedMembers, typeParameters, interfaces, constructors, supertype);
 
-            // This logic will attempt to match the candidate against a candidate in the flyweights. If a match is found,
+            // This logic will attempt to match the candidate against a candidate in the type table. If a match is found,
             // that instance is used over the new candidate to prevent a large memory footprint. If relaxed class type
             // matching is "true" any variant with the same ID will be used. If the relaxed class type matching is "false",
             // equality is determined by comparing the immediate structure of the class and also comparing the supertype
             // hierarchies.
 
-            synchronized (flyweights) {
-                Set<JavaType.Class> variants = flyweights.computeIfAbsent(candidate.flyweightId, fqn -> new HashSet<>());
-
-                if (relaxedClassTypeMatching) {
-                    if (variants.isEmpty()) {
-                        variants.add(candidate);
-                        return candidate;
-                    }
-                    return variants.iterator().next();
-                } else {
-                    for (Class v : variants) {
-                        if (v.deepEquals(candidate)) {
-                            return v;
-                        }
-                    }
-
-                    if (candidate.supertype == null) {
-
-                        return variants.stream().filter(v -> v.supertype != null).findFirst().orElseGet(() -> {
-                            variants.add(candidate);
-                            return candidate;
-                        });
-                    }
-                    variants.add(candidate);
-                    return candidate;
-                }
+            int hash = fullyQualifiedName.hashCode();
+            for (Variable member : sortedMembers) {
+                hash = 31 * hash + FlyweightTable.shallowHash(member);
+                hash = 31 * hash + Long.hashCode(member.flagsBitMask);
+                hash = 31 * hash + FlyweightTable.shallowHash(member.type);
             }
+            hash = 31 * hash + FlyweightTable.shallowHash(supertype);
+            hash = 31 * hash + FlyweightTable.shallowHash(typeParameters);
+
+            // there shouldn't be too many distinct types represented by the same fully qualified name
+            return typeTable.classes.intern(candidate.flyweightId, hash, candidate, candidate::deepEquals,
+                    relaxedClassTypeMatching ? v -> true :
+                            candidate.supertype == null ? v -> v.supertype != null : null);
         }
 
         /**
@@ -265,7 +274,7 @@ public interface JavaType extends Serializable {
                 return constructorsTemp;
             }
 
-            synchronized (flyweights) {
+            synchronized (this) {
                 //Double checked locking.
                 constructorsTemp = constructors;
                 if (constructorsTemp != null) {
@@ -390,11 +399,23 @@ public interface JavaType extends Serializable {
         @Nullable
         private final JavaType type;
 
-        private final Set<Flag> flags;
+        @JsonIgnore
+        private final long flagsBitMask;
+
+        public Variable(String name, @Nullable JavaType type, Set<Flag> flags) {
+            this.name = name;
+            this.type = type;
+            this.flagsBitMask = Flag.bitMask(flags);
+        }
+
+        @JsonProperty("flags")
+        public Set<Flag> getFlags() {
+            return Flag.fromBitMask(flagsBitMask);
+        }
 
         public boolean hasFlags(Flag... test) {
             for (Flag flag : test) {
-                if (!flags.contains(flag)) {
+                if ((flagsBitMask & flag.getBitMask()) == 0) {
                     return false;
                 }
             }
@@ -409,14 +430,12 @@ public interface JavaType extends Serializable {
 
             Variable v = (Variable) type;
             return this == v || (name.equals(v.name) && TypeUtils.deepEquals(this.type, v.type) &&
-                    flags.equals(v.flags));
+                    flagsBitMask == v.flagsBitMask);
         }
     }
 
     @Getter
     class Method implements JavaType {
-        private static final Map<FullyQualified, Map<String, Set<Method>>> flyweights = new WeakHashMap<>();
-
         @With
         private final FullyQualified declaringType;
 
@@ -425,16 +444,16 @@ public interface JavaType extends Serializable {
         private final Signature resolvedSignature;
         private final List<String> paramNames;
 
-        @With
-        private final Set<Flag> flags;
+        @JsonIgnore
+        private final long flagsBitMask;
 
-        private Method(FullyQualified declaringType, String name, Signature genericSignature, Signature resolvedSignature, List<String> paramNames, Set<Flag> flags) {
+        private Method(FullyQualified declaringType, String name, Signature genericSignature, Signature resolvedSignature, List<String> paramNames, long flagsBitMask) {
             this.declaringType = declaringType;
             this.name = name;
             this.genericSignature = genericSignature;
             this.resolvedSignature = resolvedSignature;
             this.paramNames = paramNames;
-            this.flags = flags;
+            this.flagsBitMask = flagsBitMask;
         }
 
         @JsonCreator
@@ -444,22 +463,33 @@ public interface JavaType extends Serializable {
                                    Signature resolvedSignature,
                                    List<String> paramNames,
                                    Set<Flag> flags) {
-            Method test = new Method(declaringType, name, genericSignature, resolvedSignature, paramNames, flags);
-
-            synchronized (flyweights) {
-                Set<Method> methods = flyweights
-                        .computeIfAbsent(declaringType, dt -> new HashMap<>())
-                        .computeIfAbsent(name, n -> new HashSet<>());
-
-                return methods
-                        .stream()
-                        .filter(m -> m.deepEquals(test))
-                        .findAny()
-                        .orElseGet(() -> {
-                            methods.add(test);
-                            return test;
-                        });
+            return build(JavaTypeTable.GLOBAL, declaringType, name, genericSignature, resolvedSignature, paramNames, flags);
+        }
+
+        public static Method build(JavaTypeTable typeTable,
+                                   @Nullable FullyQualified declaringType,
+                                   String name,
+                                   Signature genericSignature,
+                                   Signature resolvedSignature,
+                                   List<String> paramNames,
+                                   Set<Flag> flags) {
+            // signatures and parameter names are shared by every method with the same shape, whatever its name
+            Method test = new Method(declaringType, name, intern(typeTable, genericSignature),
+                    intern(typeTable, resolvedSignature), typeTable.paramNames.intern(paramNames), Flag.bitMask(flags));
+
+            int hash = paramNames.hashCode();
+            hash = 31 * hash + Long.hashCode(test.flagsBitMask);
+            hash = 31 * hash + signatureHash(genericSignature);
+            hash = 31 * hash + signatureHash(resolvedSignature);
+
+            if (declaringType == null) {
+                // the owner of e.g. a method reference isn't always attributed to a class, so there is no key to share
+                // this method under
+                return test;
             }
+
+            return typeTable.methods.intern(declaringType.getFullyQualifiedName() + '#' + name, hash, test,
+                    test::deepEquals, null);
         }
 
         @Data
@@ -470,6 +500,27 @@ public interface JavaType extends Serializable {
             private final List<JavaType> paramTypes;
         }
 
+        @Nullable
+        private static Signature intern(JavaTypeTable typeTable, @Nullable Signature signature) {
+            return signature == null ? null : typeTable.signatures.intern(signature);
+        }
+
+        @JsonProperty("flags")
+        public Set<Flag> getFlags() {
+            return Flag.fromBitMask(flagsBitMask);
+        }
+
+        public Method withFlags(Set<Flag> flags) {
+            long flagsBitMask = Flag.bitMask(flags);
+            return this.flagsBitMask == flagsBitMask ? this :
+                    new Method(declaringType, name, genericSignature, resolvedSignature, paramNames, flagsBitMask);
+        }
+
+        private static int signatureHash(@Nullable Signature signature) {
+            return signature == null ? 0 : 31 * FlyweightTable.shallowHash(signature.returnType) +
+                    FlyweightTable.shallowHash(signature.paramTypes);
+        }
+
         private static boolean signatureDeepEquals(@Nullable Signature s1, @Nullable Signature s2) {
             return s1 == null ? s2 == null : s1 == s2 || (s2 != null &&
                     TypeUtils.deepEquals(s1.returnType, s2.returnType) &&
@@ -478,7 +529,7 @@ public interface JavaType extends Serializable {
 
         public boolean hasFlags(Flag... test) {
             for (Flag flag : test) {
-                if (!flags.contains(flag)) {
+                if ((flagsBitMask & flag.getBitMask()) == 0) {
                     return false;
                 }
             }
@@ -494,8 +545,8 @@ public interface JavaType extends Serializable {
             Method m = (Method) type;
             return this == m || (
                     paramNames.equals(m.paramNames) &&
-                            flags.equals(m.flags) &&
-                            declaringType.deepEquals(m.declaringType) &&
+                            flagsBitMask == m.flagsBitMask &&
+                            TypeUtils.deepEquals(declaringType, m.declaringType) &&
                             signatureDeepEquals(genericSignature, m.genericSignature) &&
                             signatureDeepEquals(resolvedSignature, m.resolvedSignature));
         }
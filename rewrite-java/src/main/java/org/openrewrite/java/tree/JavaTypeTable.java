@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.tree;
+
+import org.openrewrite.Incubating;
+
+import java.util.List;
+
+/**
+ * Interns the {@link JavaType.Class} and {@link JavaType.Method} types built while parsing, so that structurally
+ * equal types are represented by a single instance.
+ * <p>
+ * Types are interned in the {@link #GLOBAL} table unless a parser is given another table with
+ * {@link org.openrewrite.java.JavaParser.Builder#typeTable(JavaTypeTable)}. The global table is shared by every
+ * parser in the JVM and only releases a type once nothing else refers to it. A table created for one parser or run
+ * only shares types among the sources parsed with it, and keeps all of them until it is closed.
+ */
+@Incubating(since = "7.0.0")
+public class JavaTypeTable implements AutoCloseable {
+    public static final JavaTypeTable GLOBAL = new JavaTypeTable(false) {
+        /**
+         * The global table is never closed. Its types are released as they become unreachable.
+         */
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return "JavaTypeTable{GLOBAL}";
+        }
+    };
+
+    final FlyweightTable<JavaType.Class> classes;
+    final FlyweightTable<JavaType.Method> methods;
+    final FlyweightTable<JavaType.Method.Signature> signatures;
+    final FlyweightTable<List<String>> paramNames;
+
+    public JavaTypeTable() {
+        this(true);
+    }
+
+    private JavaTypeTable(boolean strong) {
+        this.classes = new FlyweightTable<>("class", strong);
+        this.methods = new FlyweightTable<>("method", strong);
+        this.signatures = new FlyweightTable<>("signature", strong);
+        this.paramNames = new FlyweightTable<>("parameter names", strong);
+    }
+
+    /**
+     * Release all the types interned in this table. Types built afterwards are interned anew, and are not
+     * the same instances as any structurally equal type built before.
+     */
+    @Override
+    public void close() {
+        classes.clear();
+        methods.clear();
+        signatures.clear();
+        paramNames.clear();
+    }
+}
@@ -18,6 +18,8 @@ package org.openrewrite.java.tree;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import lombok.EqualsAndHashCode;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.marker.Markable;
@@ -26,7 +28,7 @@ import org.openrewrite.marker.Markers;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Collections.emptyList;
 
@@ -41,9 +43,23 @@ public class Space implements Markable {
 
     /**
      * Most occurrences of spaces will have no comments or markers, and there is a lot of repetition
-     * of occurrences of, for example, the single space between elements.
+     * of occurrences of, for example, the single space between elements or a newline followed by the indentation
+     * of a statement. Such spaces are interned by their whitespace. The table is bounded both in the number of
+     * spaces it holds and in the length of their whitespace, since long whitespace rarely repeats. Once full,
+     * whitespace not yet in the table is no longer interned.
      */
-    private static final Map<String, Space> flyweights = new WeakHashMap<>();
+    private static final Map<String, Space> flyweights = new ConcurrentHashMap<>();
+    private static final int MAX_FLYWEIGHTS = 4096;
+    private static final int MAX_FLYWEIGHT_LENGTH = 128;
+
+    private static final Counter flyweightHits = Counter.builder("rewrite.java.space.intern")
+            .description("The number of comment and marker free spaces built that were already interned")
+            .tag("outcome", "hit")
+            .register(Metrics.globalRegistry);
+    private static final Counter flyweightMisses = Counter.builder("rewrite.java.space.intern")
+            .description("The number of comment and marker free spaces built that were not interned")
+            .tag("outcome", "miss")
+            .register(Metrics.globalRegistry);
 
     private final List<Comment> comments;
 
@@ -60,18 +76,34 @@ public class Space implements Markable {
 
     @JsonCreator
     public static Space build(@Nullable String whitespace, List<Comment> comments, Markers markers) {
-        if (comments.isEmpty()) {
+        if (comments.isEmpty() && markers == Markers.EMPTY) {
             if (whitespace == null || whitespace.isEmpty()) {
-                if (markers == Markers.EMPTY) {
-                    return Space.EMPTY;
-                }
-                return flyweights.computeIfAbsent(whitespace == null ? "" : whitespace,
-                        ws -> new Space(ws, emptyList(), Markers.EMPTY));
+                return Space.EMPTY;
             }
+            return intern(whitespace);
         }
         return new Space(whitespace, comments, markers);
     }
 
+    private static Space intern(String whitespace) {
+        Space space = flyweights.get(whitespace);
+        if (space != null) {
+            flyweightHits.increment();
+            return space;
+        }
+
+        flyweightMisses.increment();
+        space = new Space(whitespace, emptyList(), Markers.EMPTY);
+        if (whitespace.length() <= MAX_FLYWEIGHT_LENGTH && flyweights.size() < MAX_FLYWEIGHTS) {
+            // the size check races with other threads interning, so the bound may be exceeded by a few spaces
+            Space existing = flyweights.putIfAbsent(whitespace, space);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return space;
+    }
+
     public String getIndent() {
         if (!comments.isEmpty()) {
             return getWhitespaceIndent(comments.get(comments.size() - 1).getSuffix());
@@ -143,6 +175,11 @@ public class Space implements Markable {
     }
 
     public static Space format(String formatting) {
+        if (formatting.indexOf('/') < 0 && formatting.indexOf('*') < 0) {
+            // no comments, so all of it is whitespace
+            return build(formatting, emptyList(), Markers.EMPTY);
+        }
+
         StringBuilder prefix = new StringBuilder();
         StringBuilder comment = new StringBuilder();
         List<Comment> comments = new ArrayList<>();
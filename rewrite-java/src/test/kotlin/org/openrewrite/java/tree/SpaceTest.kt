@@ -96,6 +96,14 @@ class SpaceTest {
             .isEqualTo("Space(comments=<0 comments>, whitespace='\\n·₁·₂\\n-₁·₂-₃')")
     }
 
+    @Test
+    fun internCommentAndMarkerFreeWhitespace() {
+        val space = Space.format("\n    ")
+        assertThat(Space.build(String(charArrayOf('\n', ' ', ' ', ' ', ' ')), emptyList(), Markers.EMPTY))
+            .isSameAs(space)
+        assertThat(Space.format("\n    /* comment */\n    ")).isNotSameAs(Space.format("\n    /* comment */\n    "))
+    }
+
     @Test
     fun findIndent() {
         assertThat(Space.build(" ", listOf(Comment(Comment.Style.LINE, "hi", "\n   ")), Markers.EMPTY).indent)
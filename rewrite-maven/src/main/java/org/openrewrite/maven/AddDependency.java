@@ -128,4 +128,9 @@ public class AddDependency extends Recipe {
                 familyPattern == null ? null : Pattern.compile(familyPattern.replace("*", ".*"))
         );
     }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
@@ -43,6 +43,11 @@ public class AddPlugin extends Recipe {
         return new AddPluginVisitor();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class AddPluginVisitor extends MavenVisitor {
 
         @Override
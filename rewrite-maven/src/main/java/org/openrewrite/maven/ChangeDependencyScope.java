@@ -45,6 +45,11 @@ public class ChangeDependencyScope extends Recipe {
         return new ChangeDependencyScopeVisitor();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class ChangeDependencyScopeVisitor extends MavenVisitor {
 
         @Override
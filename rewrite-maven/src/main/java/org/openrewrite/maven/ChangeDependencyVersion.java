@@ -38,6 +38,11 @@ public class ChangeDependencyVersion extends Recipe {
         return new ChangeDependencyVersionVisitor();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
 
     private class ChangeDependencyVersionVisitor extends MavenVisitor {
 
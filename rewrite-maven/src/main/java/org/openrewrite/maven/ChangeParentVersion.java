@@ -39,6 +39,11 @@ public class ChangeParentVersion extends Recipe {
         return new ChangeParentVersionVisitor();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class ChangeParentVersionVisitor extends MavenVisitor {
 
         @Override
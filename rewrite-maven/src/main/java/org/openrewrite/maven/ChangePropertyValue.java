@@ -34,6 +34,11 @@ public class ChangePropertyValue extends Recipe {
         return new ChangePropertyValueVisitor();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     public ChangePropertyValue(String key, String newValue) {
         //Customizing lombok constructor to replace the property markers.
         //noinspection ConstantConditions
@@ -38,6 +38,11 @@ public class ExcludeDependency extends Recipe {
         return new ExcludeDependencyVisitor();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class ExcludeDependencyVisitor extends MavenVisitor {
 
         @Override
@@ -70,6 +70,11 @@ public class ManageDependencies extends Recipe {
         );
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class ManageDependenciesVisitor extends MavenVisitor {
 
         private final Pattern groupPattern;
@@ -27,9 +27,9 @@ import java.util.List;
 import static java.util.Collections.emptyList;
 
 public class MavenExecutionContextView extends DelegatingExecutionContext {
-    private static final String MAVEN_MIRRORS = "org.openrewrite.maven.mirrors";
-    private static final String MAVEN_CREDENTIALS = "org.openrewrite.maven.auth";
-    private static final String MAVEN_REPOSITORIES = "org.openrewrite.maven.repos";
+    private static final Key<Collection<MavenRepositoryMirror>> MAVEN_MIRRORS = Key.of("org.openrewrite.maven.mirrors");
+    private static final Key<Collection<MavenRepositoryCredentials>> MAVEN_CREDENTIALS = Key.of("org.openrewrite.maven.auth");
+    private static final Key<List<MavenRepository>> MAVEN_REPOSITORIES = Key.of("org.openrewrite.maven.repos");
 
     public MavenExecutionContextView(ExecutionContext delegate) {
         super(delegate);
@@ -40,6 +40,11 @@ public class RemoveDependency extends Recipe {
         return new RemoveDependencyVisitor();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class RemoveDependencyVisitor extends MavenVisitor {
 
         @Override
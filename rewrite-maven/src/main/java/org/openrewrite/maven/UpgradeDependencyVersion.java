@@ -79,6 +79,11 @@ public class UpgradeDependencyVersion extends Recipe {
         return new UpgradeDependencyVersionVisitor();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class UpgradeDependencyVersionVisitor extends MavenVisitor {
         @Nullable
         private Collection<String> availableVersions;
@@ -60,6 +60,11 @@ public class UpgradeParentVersion extends Recipe {
         return new UpgradeParentVersionVisitor(newVersion, versionPattern);
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class UpgradeParentVersionVisitor extends MavenVisitor {
         @Nullable
         private Collection<String> availableVersions;
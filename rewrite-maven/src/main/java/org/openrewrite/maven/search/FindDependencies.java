@@ -90,4 +90,9 @@ public class FindDependencies extends Recipe {
             }
         };
     }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
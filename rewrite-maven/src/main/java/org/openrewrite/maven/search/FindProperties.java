@@ -55,4 +55,9 @@ public class FindProperties extends Recipe {
             }
         };
     }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
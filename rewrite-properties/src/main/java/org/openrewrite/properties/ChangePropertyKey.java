@@ -34,6 +34,11 @@ public class ChangePropertyKey extends Recipe {
         return new ChangePropertyKeyVisitor<>();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     public class ChangePropertyKeyVisitor<P> extends PropertiesVisitor<P> {
 
         public ChangePropertyKeyVisitor() {
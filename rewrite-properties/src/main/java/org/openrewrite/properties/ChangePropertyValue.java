@@ -33,6 +33,11 @@ public class ChangePropertyValue extends Recipe {
         return new ChangePropertyValueVisitor<>();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     public class ChangePropertyValueVisitor<P> extends PropertiesVisitor<P> {
 
         public ChangePropertyValueVisitor() {
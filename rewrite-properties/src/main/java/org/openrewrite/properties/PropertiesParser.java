@@ -23,9 +23,8 @@ import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.marker.Markers;
 import org.openrewrite.properties.tree.Properties;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -36,9 +35,15 @@ import static org.openrewrite.Tree.randomId;
 
 public class PropertiesParser implements Parser<Properties.File> {
     private final Listener onParse;
+    private final Charset charset;
 
     protected PropertiesParser(Listener onParse) {
+        this(onParse, StandardCharsets.UTF_8);
+    }
+
+    protected PropertiesParser(Listener onParse, Charset charset) {
         this.onParse = onParse;
+        this.charset = charset;
     }
 
     public static Builder builder() {
@@ -54,47 +59,45 @@ public class PropertiesParser implements Parser<Properties.File> {
     public List<Properties.File> parseInputs(Iterable<Input> sourceFiles, @Nullable Path relativeTo, ExecutionContext ctx) {
         return acceptedInputs(sourceFiles).stream()
                 .map(sourceFile -> {
-                    try (InputStream is = sourceFile.getSource()) {
+                    try {
                         onParse.onParseStart(sourceFile.getPath());
-                        Properties.File file = parseFromInput(sourceFile.getRelativePath(relativeTo), is);
+                        Properties.File file = parseFromInput(sourceFile.getRelativePath(relativeTo),
+                                sourceFile.getSourceText(charset));
                         onParse.onParseSucceeded(sourceFile.getPath());
                         return file;
                     } catch (Throwable t) {
                         onParse.onParseFailed(sourceFile.getPath());
                         ctx.getOnError().accept(t);
                         return null;
+                    } finally {
+                        sourceFile.releaseSourceText();
                     }
                 })
                 .filter(Objects::nonNull)
                 .collect(toList());
     }
 
-    private Properties.File parseFromInput(Path sourceFile, InputStream source) {
+    private Properties.File parseFromInput(Path sourceFile, String source) {
         List<Properties.Content> contents = new ArrayList<>();
 
         StringBuilder prefix = new StringBuilder();
         StringBuilder buff = new StringBuilder();
-        int b;
-        try {
-            while ((b = source.read()) != -1) {
-                char c = (char) b;
-                if (c == '\n') {
-                    Properties.Content content = extractContent(buff.toString(), prefix);
-                    if (content != null) {
-                        contents.add(content);
-                    }
-                    buff = new StringBuilder();
-                    prefix.append(c);
-                } else {
-                    buff.append(c);
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '\n') {
+                Properties.Content content = extractContent(buff.toString(), prefix);
+                if (content != null) {
+                    contents.add(content);
                 }
+                buff = new StringBuilder();
+                prefix.append(c);
+            } else {
+                buff.append(c);
             }
-            Properties.Content content = extractContent(buff.toString(), prefix);
-            if (content != null) {
-                contents.add(content);
-            }
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+        }
+        Properties.Content content = extractContent(buff.toString(), prefix);
+        if (content != null) {
+            contents.add(content);
         }
 
         return new Properties.File(
@@ -241,6 +244,7 @@ public class PropertiesParser implements Parser<Properties.File> {
 
     public static class Builder implements Parser.Builder<Properties.File> {
         private Listener onParse = Listener.NOOP;
+        private Charset charset = StandardCharsets.UTF_8;
 
         @Override
         public PropertiesParser.Builder doOnParse(Listener onParse) {
@@ -248,9 +252,14 @@ public class PropertiesParser implements Parser<Properties.File> {
             return this;
         }
 
+        public PropertiesParser.Builder charset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
         @Override
         public PropertiesParser build() {
-            return new PropertiesParser(onParse);
+            return new PropertiesParser(onParse, charset);
         }
     }
 }
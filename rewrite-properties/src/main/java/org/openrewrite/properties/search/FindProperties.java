@@ -65,4 +65,9 @@ public class FindProperties extends Recipe {
             }
         };
     }
+
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
 }
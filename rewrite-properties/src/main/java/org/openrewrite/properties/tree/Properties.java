@@ -44,6 +44,11 @@ public interface Properties extends Serializable, Tree {
         return new PropertiesPrinter<>(printer).print(this, p);
     }
 
+    @Override
+    default <P> void print(TreePrinter<P> printer, P p, Appendable out) {
+        new PropertiesPrinter<>(printer).print(this, p, out);
+    }
+
     @Override
     default <P> String print(P p) {
         return new PropertiesPrinter<>(TreePrinter.identity()).print(this, p);
@@ -17,7 +17,12 @@ package org.openrewrite.properties
 
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Test
+import org.openrewrite.InMemoryExecutionContext
+import org.openrewrite.Parser
 import org.openrewrite.properties.tree.Properties
+import java.io.ByteArrayInputStream
+import java.nio.charset.StandardCharsets
+import java.nio.file.Paths
 
 class PropertiesParserTest {
     @Test
@@ -46,6 +51,19 @@ class PropertiesParserTest {
         assertThat(props.eof).isEqualTo("\n")
     }
 
+    @Test
+    fun charset() {
+        val input = Parser.Input(Paths.get("a.properties")) {
+            ByteArrayInputStream("key=välue\n".toByteArray(StandardCharsets.ISO_8859_1))
+        }
+        val props = PropertiesParser.builder().charset(StandardCharsets.ISO_8859_1).build()
+            .parseInputs(listOf(input), null, InMemoryExecutionContext())[0]
+
+        val entry = props.content[0] as Properties.Entry
+        assertThat(entry.value.text).isEqualTo("välue")
+        assertThat(props.print()).isEqualTo("key=välue\n")
+    }
+
     @Test
     fun endOfFile() {
         val props = PropertiesParser.builder().build().parse("key=value\n\n")[0]
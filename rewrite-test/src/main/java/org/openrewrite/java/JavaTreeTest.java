@@ -19,6 +19,7 @@ import org.openrewrite.TreeSerializer;
 import org.openrewrite.internal.StringUtils;
 import org.openrewrite.java.tree.J;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 
 import static java.util.stream.Collectors.joining;
@@ -49,6 +50,12 @@ public interface JavaTreeTest {
         TreeSerializer<J.CompilationUnit> treeSerializer = new TreeSerializer<>();
         J.CompilationUnit roundTripCu = treeSerializer.read(treeSerializer.write(cu));
 
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        try (TreeSerializer<J.CompilationUnit>.RecordWriter recordWriter = treeSerializer.recordWriter(records)) {
+            recordWriter.write(cu);
+        }
+        J.CompilationUnit recordRoundTripCu = treeSerializer.recordReader(records.toByteArray()).read(0);
+
         assertThat(JavaParserTestUtil.print(nestingLevel, cu))
                 .as("Source code is printed the same after parsing")
                 .isEqualTo(StringUtils.trimIndent(code));
@@ -56,6 +63,10 @@ public interface JavaTreeTest {
         assertThat(JavaParserTestUtil.print(nestingLevel, roundTripCu))
                 .as("Source code is printed the same after round trip serialization")
                 .isEqualTo(StringUtils.trimIndent(code));
+
+        assertThat(JavaParserTestUtil.print(nestingLevel, recordRoundTripCu))
+                .as("Source code is printed the same after round trip serialization to records")
+                .isEqualTo(StringUtils.trimIndent(code));
     }
 
     enum NestingLevel {
@@ -200,11 +200,24 @@ interface RecipeTest {
         }
     }
 
+    /**
+     * The recipe visits one source file at a time, since every source file shares this one visitor. Use
+     * `toRecipe { visitor }` to build a visitor for each source file, so that they can be visited in parallel.
+     */
     fun TreeVisitor<*, ExecutionContext>.toRecipe() = AdHocRecipe(this)
 
-    class AdHocRecipe(private val visitor: TreeVisitor<*, ExecutionContext>) : Recipe() {
+    fun toRecipe(visitor: () -> TreeVisitor<*, ExecutionContext>) = AdHocRecipe(visitor, true)
+
+    class AdHocRecipe(
+        private val visitor: () -> TreeVisitor<*, ExecutionContext>,
+        private val visitorThreadSafe: Boolean
+    ) : Recipe() {
+        constructor(visitor: TreeVisitor<*, ExecutionContext>) : this({ visitor }, false)
+
         override fun getVisitor(): TreeVisitor<*, ExecutionContext> {
-            return visitor
+            return visitor()
         }
+
+        override fun isVisitorThreadSafe() = visitorThreadSafe
     }
 }
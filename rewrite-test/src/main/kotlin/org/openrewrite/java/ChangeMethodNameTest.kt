@@ -63,6 +63,35 @@ interface ChangeMethodNameTest : JavaRecipeTest {
         """
     )
 
+    @Test
+    fun changeMethodNamesDispatchedByComposite(jp: JavaParser) = assertChanged(
+        jp,
+        dependsOn = arrayOf(b),
+        recipe = CompositeMethodRecipe()
+            .doNext(ChangeMethodName("com.abc.B singleArg(String)", "bar"))
+            .doNext(ChangeMethodName("com.abc.B static1(String)", "static3"))
+            .doNext(ChangeMethodName("com.abc.B bar(String)", "baz"))
+            .doNext(ChangeMethodName("com.abc.B arrArg(String)", "never")),
+        before = """
+            package com.abc;
+            class A {
+                public void test() {
+                    new B().singleArg("boo");
+                    new B().arrArg(new String[0]);
+                }
+            }
+        """,
+        after = """
+            package com.abc;
+            class A {
+                public void test() {
+                    new B().baz("boo");
+                    new B().arrArg(new String[0]);
+                }
+            }
+        """
+    )
+
     @Test
     fun changeMethodNameForMethodWithSingleArgDeclarative(jp: JavaParser) = assertChanged(
         jp,
@@ -257,6 +286,29 @@ interface ChangeMethodNameTest : JavaRecipeTest {
         """
     )
 
+    @Test
+    fun changeStaticImportWithWildcardDeclaringTypeDispatchedByComposite(jp: JavaParser) = assertChanged(
+        jp,
+        dependsOn = arrayOf(b),
+        recipe = CompositeMethodRecipe()
+            .doNext(ChangeMethodTargetToStatic("com.abc.* static1(String)", "com.abc.C"))
+            .doNext(ChangeMethodName("com.abc.* static1(String)", "static2")),
+        before = """
+            package com.abc;
+            import static com.abc.B.static1;
+            import static com.abc.B.*;
+            class A {
+            }
+        """,
+        after = """
+            package com.abc;
+            import static com.abc.B.static2;
+            import static com.abc.B.*;
+            class A {
+            }
+        """
+    )
+
     @Suppress("NULLABILITY_MISMATCH_BASED_ON_JAVA_ANNOTATIONS")
     @Test
     fun checkValidation() {
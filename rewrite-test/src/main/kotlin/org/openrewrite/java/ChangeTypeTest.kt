@@ -18,6 +18,15 @@ package org.openrewrite.java
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Disabled
 import org.junit.jupiter.api.Test
+import org.openrewrite.ExecutionContext
+import org.openrewrite.InMemoryExecutionContext
+import org.openrewrite.Result
+import org.openrewrite.Tree
+import org.openrewrite.TreeVisitor
+import org.openrewrite.java.tree.J
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.atomic.AtomicInteger
 
 interface ChangeTypeTest : JavaRecipeTest {
     override val recipe: ChangeType
@@ -367,6 +376,94 @@ interface ChangeTypeTest : JavaRecipeTest {
         """
     )
 
+    @Test
+    fun onlyVisitsSourceFilesThatUseTheOldType(jp: JavaParser) {
+        val visited = ConcurrentHashMap.newKeySet<String>()
+        val recipe = object : ChangeType("a.A1", "a.A2") {
+            override fun getVisitor(): TreeVisitor<*, ExecutionContext> {
+                val changeType = super.getVisitor()
+                return object : TreeVisitor<Tree, ExecutionContext>() {
+                    override fun visit(tree: Tree?, p: ExecutionContext): Tree? {
+                        visited.add((tree as J.CompilationUnit).classes[0].simpleName)
+                        return changeType.visit(tree, p)
+                    }
+                }
+            }
+        }
+
+        val cus = jp.parse(
+            a1,
+            a2,
+            "import a.A1;\npublic class B extends A1 {}",
+            "public class C extends a.A1 {}",
+            "public class D { void test() { a.A1 a1 = null; } }",
+            "import a.A2;\npublic class E extends A2 {}",
+            "public class F {}"
+        )
+        val results = recipe.run(cus.drop(2))
+
+        assertThat(visited).containsExactlyInAnyOrder("B", "C", "D")
+        assertThat(results.map { (it.after as J.CompilationUnit).classes[0].simpleName })
+            .containsExactlyInAnyOrder("B", "C", "D")
+    }
+
+    @Test
+    fun visitSourceFilesInParallel(jp: JavaParser) {
+        val visiting = AtomicInteger()
+        val maxVisiting = AtomicInteger()
+        val recipe = object : ChangeType("a.A1", "a.A2") {
+            override fun getVisitor(): TreeVisitor<*, ExecutionContext> {
+                val changeType = super.getVisitor()
+                return object : TreeVisitor<Tree, ExecutionContext>() {
+                    override fun visit(tree: Tree?, p: ExecutionContext): Tree? {
+                        maxVisiting.accumulateAndGet(visiting.incrementAndGet(), Math::max)
+                        try {
+                            Thread.sleep(10)
+                            return changeType.visit(tree, p)
+                        } finally {
+                            visiting.decrementAndGet()
+                        }
+                    }
+                }
+            }
+        }
+
+        val cus = jp.parse(*(arrayOf(a1, a2) + (1..16).map { "public class B$it extends a.A1 {}" }))
+        val pool = ForkJoinPool(4)
+        val results = try {
+            recipe.run(cus.drop(2), InMemoryExecutionContext(), pool, 3)
+        } finally {
+            pool.shutdown()
+        }
+
+        assertThat(maxVisiting.get()).isGreaterThan(1)
+        assertThat(results.map { it.after!!.print() })
+            .containsExactlyInAnyOrderElementsOf((1..16).map { "public class B$it extends a.A2 {}" })
+    }
+
+    @Test
+    fun streamSeveralSourceFilesAtOnce(jp: JavaParser) {
+        val cus = jp.parse(*(arrayOf(a1, a2) + (1..8).map { "public class B$it extends a.A1 {}" })).drop(2)
+        val supplied = AtomicInteger()
+        val suppliedBeforeFirstResult = AtomicInteger()
+        val results = mutableListOf<Result>()
+
+        ChangeType("a.A1", "a.A2").run(
+            cus.asSequence().onEach { supplied.incrementAndGet() }.iterator(),
+            InMemoryExecutionContext(),
+            ForkJoinPool.commonPool(),
+            3,
+            4
+        ) {
+            suppliedBeforeFirstResult.compareAndSet(0, supplied.get())
+            results.add(it)
+        }
+
+        // a window's worth of source files is in flight before the first of them is done
+        assertThat(suppliedBeforeFirstResult.get()).isEqualTo(4)
+        assertThat(results.map { it.before }).containsExactlyElementsOf(cus)
+    }
+
     @Suppress("NULLABILITY_MISMATCH_BASED_ON_JAVA_ANNOTATIONS")
     @Test
     fun checkValidation() {
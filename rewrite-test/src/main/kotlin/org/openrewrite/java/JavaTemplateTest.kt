@@ -16,9 +16,13 @@
 package org.openrewrite.java
 
 import org.junit.jupiter.api.Test
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
 import org.openrewrite.ExecutionContext
+import org.openrewrite.InMemoryExecutionContext
 import org.openrewrite.Issue
 import org.openrewrite.java.tree.J
+import org.openrewrite.java.tree.JavaType
 import org.slf4j.LoggerFactory
 import java.util.function.Consumer
 
@@ -1098,4 +1102,409 @@ interface JavaTemplateTest : JavaRecipeTest {
             }
         """
     )
+
+    @Test
+    fun reuseCompiledTemplateInTheSameContext(jp: JavaParser) {
+        var compilations = 0
+        val countingParser = object : JavaParser by jp {
+            override fun reset(): JavaParser {
+                compilations++
+                return jp.reset()
+            }
+        }
+
+        val cu = jp.parse(
+            """
+                public class A {
+                    void foo() {
+                        logNames("fred");
+                    }
+
+                    void logNames(String... names) {
+                    }
+                }
+            """.trimIndent()
+        )[0]
+
+        val visitor = object : JavaIsoVisitor<ExecutionContext>() {
+            val template = template("(\"fred\", \"sally\")")
+                .javaParser(countingParser)
+                .build()
+
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: ExecutionContext): J.MethodInvocation {
+                val m = super.visitMethodInvocation(method, p)
+                return m.withTemplate(template, m.coordinates.replaceArguments())
+            }
+        }
+
+        val first = visitor.visit(cu, InMemoryExecutionContext()) as J.CompilationUnit
+        val second = visitor.visit(cu, InMemoryExecutionContext()) as J.CompilationUnit
+
+        assertThat(compilations).isEqualTo(1)
+        assertThat(second.print()).isEqualTo(first.print())
+
+        val arguments = { c: J.CompilationUnit ->
+            ((c.classes[0].body.statements[0] as J.MethodDeclaration).body!!.statements[0] as J.MethodInvocation).arguments
+        }
+        assertThat(arguments(second).map { it.id }).doesNotContainAnyElementsOf(arguments(first).map { it.id })
+    }
+
+    @Test
+    fun callSitesInDifferentMethodsShareOneCompilation(jp: JavaParser) {
+        var compilations = 0
+        val countingParser = object : JavaParser by jp {
+            override fun reset(): JavaParser {
+                compilations++
+                return jp.reset()
+            }
+        }
+
+        val cu = jp.parse(
+            """
+                public class A {
+                    void foo() {
+                        logNames("fred");
+                    }
+
+                    void bar() {
+                        foo();
+                        logNames("dude");
+                    }
+
+                    void logNames(String... names) {
+                    }
+                }
+            """.trimIndent()
+        )[0]
+
+        val after = object : JavaIsoVisitor<ExecutionContext>() {
+            val template = template("logNames(\"fred\", \"sally\");")
+                .javaParser(countingParser)
+                .build()
+
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: ExecutionContext): J.MethodInvocation {
+                val m = super.visitMethodInvocation(method, p)
+                return if (m.simpleName == "logNames" && m.arguments.size == 1) {
+                    m.withTemplate(template, m.coordinates.replace())
+                } else m
+            }
+        }.visit(cu, InMemoryExecutionContext()) as J.CompilationUnit
+
+        assertThat(compilations).isEqualTo(1)
+        assertThat(after.printTrimmed()).isEqualTo(
+            """
+                public class A {
+                    void foo() {
+                        logNames("fred", "sally");
+                    }
+
+                    void bar() {
+                        foo();
+                        logNames("fred", "sally");
+                    }
+
+                    void logNames(String... names) {
+                    }
+                }
+            """.trimIndent()
+        )
+
+        val invocations = (0..1).map { i ->
+            (after.classes[0].body.statements[i] as J.MethodDeclaration).body!!.statements.last() as J.MethodInvocation
+        }
+        assertThat(invocations[0].id).isNotEqualTo(invocations[1].id)
+        assertThat(invocations.map { it.type?.declaringType?.fullyQualifiedName }).containsOnly("A")
+    }
+
+    @Test
+    fun callSitesWithDifferentLocalsInScopeAreCompiledSeparately(jp: JavaParser) {
+        var compilations = 0
+        val countingParser = object : JavaParser by jp {
+            override fun reset(): JavaParser {
+                compilations++
+                return jp.reset()
+            }
+        }
+
+        val cu = jp.parse(
+            """
+                public class A {
+                    void foo(int n) {
+                        log();
+                    }
+
+                    void bar(String n) {
+                        log();
+                    }
+
+                    void log() {
+                    }
+                }
+            """.trimIndent()
+        )[0]
+
+        val after = object : JavaIsoVisitor<ExecutionContext>() {
+            val template = template("System.out.println(n);")
+                .javaParser(countingParser)
+                .build()
+
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: ExecutionContext): J.MethodInvocation {
+                val m = super.visitMethodInvocation(method, p)
+                return if (m.simpleName == "log") m.withTemplate(template, m.coordinates.replace()) else m
+            }
+        }.visit(cu, InMemoryExecutionContext()) as J.CompilationUnit
+
+        assertThat(compilations).isEqualTo(2)
+        val printlnParameterTypes = (0..1).map { i ->
+            val println = (after.classes[0].body.statements[i] as J.MethodDeclaration).body!!.statements[0] as J.MethodInvocation
+            println.type?.resolvedSignature?.paramTypes?.map { it.toString() }
+        }
+        assertThat(printlnParameterTypes[0]).isNotEqualTo(printlnParameterTypes[1])
+    }
+
+    @Test
+    fun callSitesWithVarLocalsOfDifferentTypesAreCompiledSeparately(jp: JavaParser) {
+        var compilations = 0
+        val countingParser = object : JavaParser by jp {
+            override fun reset(): JavaParser {
+                compilations++
+                return jp.reset()
+            }
+        }
+
+        val cu = jp.parse(
+            """
+                public class A {
+                    void foo() {
+                        var n = 1;
+                        log();
+                    }
+
+                    void bar() {
+                        var n = "";
+                        log();
+                    }
+
+                    void log() {
+                    }
+                }
+            """.trimIndent()
+        )[0]
+
+        val after = object : JavaIsoVisitor<ExecutionContext>() {
+            val template = template("System.out.println(n);")
+                .javaParser(countingParser)
+                .build()
+
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: ExecutionContext): J.MethodInvocation {
+                val m = super.visitMethodInvocation(method, p)
+                return if (m.simpleName == "log") m.withTemplate(template, m.coordinates.replace()) else m
+            }
+        }.visit(cu, InMemoryExecutionContext()) as J.CompilationUnit
+
+        // "var n" reads the same at both call sites, but n has a different type at each
+        assertThat(compilations).isEqualTo(2)
+        val printlnParameterTypes = (0..1).map { i ->
+            val println = (after.classes[0].body.statements[i] as J.MethodDeclaration).body!!.statements[1] as J.MethodInvocation
+            println.type?.resolvedSignature?.paramTypes?.map { it.toString() }
+        }
+        assertThat(printlnParameterTypes[0]).isNotEqualTo(printlnParameterTypes[1])
+    }
+
+    @Test
+    fun stubContextLeavesOutWhatTheTemplateCannotReferTo(jp: JavaParser) {
+        var generatedSource = ""
+        val cu = jp.parse(
+            """
+                public class A {
+                    int unused;
+                    int total;
+
+                    // adds to the total
+                    void add(int n) {
+                        total += n;
+                    }
+
+                    void unrelated() {
+                    }
+
+                    void test() {
+                        int n = 1;
+                        unrelated();
+                        log("n");
+                    }
+
+                    void log(String s) {}
+                }
+            """.trimIndent()
+        )[0]
+
+        val after = object : JavaIsoVisitor<ExecutionContext>() {
+            val template = template("add(#{})")
+                .javaParser(jp)
+                .stubContext(true)
+                .doBeforeParseTemplate { generatedSource = it }
+                .build()
+
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: ExecutionContext): J.MethodInvocation {
+                val m = super.visitMethodInvocation(method, p)
+                return if (m.simpleName == "log") m.withTemplate(template, m.coordinates.replace(), "n") else m
+            }
+        }.visit(cu, InMemoryExecutionContext()) as J.CompilationUnit
+
+        assertThat(generatedSource).contains("void add(int n)", "int n;", "void log(String s)")
+        assertThat(generatedSource).doesNotContain("unused", "total", "unrelated();", "adds to the total")
+
+        val add = (after.classes[0].body.statements[4] as J.MethodDeclaration).body!!.statements[2] as J.MethodInvocation
+        assertThat(add.simpleName).isEqualTo("add")
+        assertThat(add.type?.declaringType?.fullyQualifiedName).isEqualTo("A")
+    }
+
+    @Test
+    fun deferredTemplatesAreCompiledTogether(jp: JavaParser) {
+        var compilations = 0
+        val countingParser = object : JavaParser by jp {
+            override fun reset(): JavaParser {
+                compilations++
+                return jp.reset()
+            }
+        }
+
+        val cu = jp.parse(
+            """
+                public class A {
+                    void foo() {
+                        logNames("fred");
+                        logNames("sally");
+                    }
+
+                    void bar() {
+                        logNames("dude");
+                    }
+
+                    void logNames(String... names) {
+                    }
+                }
+            """.trimIndent()
+        )[0]
+
+        val after = object : JavaIsoVisitor<ExecutionContext>() {
+            val template = template("(#{}, \"too\")")
+                .javaParser(countingParser)
+                .build()
+
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: ExecutionContext): J.MethodInvocation {
+                val m = super.visitMethodInvocation(method, p)
+                return deferTemplate(m, template, m.coordinates.replaceArguments(), m.arguments[0])
+            }
+        }.visit(cu, InMemoryExecutionContext()) as J.CompilationUnit
+
+        assertThat(compilations).isEqualTo(1)
+        assertThat(after.printTrimmed()).isEqualTo(
+            """
+                public class A {
+                    void foo() {
+                        logNames("fred", "too");
+                        logNames("sally", "too");
+                    }
+
+                    void bar() {
+                        logNames("dude", "too");
+                    }
+
+                    void logNames(String... names) {
+                    }
+                }
+            """.trimIndent()
+        )
+
+        val bar = after.classes[0].body.statements[1] as J.MethodDeclaration
+        val arguments = (bar.body!!.statements[0] as J.MethodInvocation).arguments
+        assertThat(arguments.map { it.type }).containsOnly(JavaType.Primitive.String)
+    }
+
+    @Test
+    fun deferredTemplatesAreInsertedIntoTheSubtreeTheyWereDeferredOn(jp: JavaParser) {
+        val cu = jp.parse(
+            """
+                public class A {
+                    void foo() {
+                        logNames("fred");
+                    }
+
+                    void bar() {
+                        logNames("dude");
+                    }
+
+                    void logNames(String... names) {
+                    }
+                }
+            """.trimIndent()
+        )[0]
+
+        val addArgument = object : JavaIsoVisitor<ExecutionContext>() {
+            val template = template("(#{}, \"too\")")
+                .javaParser(jp)
+                .build()
+
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: ExecutionContext): J.MethodInvocation {
+                val m = super.visitMethodInvocation(method, p)
+                return deferTemplate(m, template, m.coordinates.replaceArguments(), m.arguments[0])
+            }
+        }
+
+        val after = object : JavaIsoVisitor<ExecutionContext>() {
+            override fun visitMethodDeclaration(method: J.MethodDeclaration, p: ExecutionContext): J.MethodDeclaration {
+                val m = super.visitMethodDeclaration(method, p)
+                return if (m.simpleName == "foo") addArgument.visit(m, p, cursor.parentOrThrow) as J.MethodDeclaration else m
+            }
+        }.visit(cu, InMemoryExecutionContext()) as J.CompilationUnit
+
+        assertThat(after.printTrimmed()).isEqualTo(
+            """
+                public class A {
+                    void foo() {
+                        logNames("fred", "too");
+                    }
+
+                    void bar() {
+                        logNames("dude");
+                    }
+
+                    void logNames(String... names) {
+                    }
+                }
+            """.trimIndent()
+        )
+    }
+
+    @Test
+    fun deferringTemplatesOutsideOfACompilationUnitFailsFast(jp: JavaParser) {
+        val cu = jp.parse(
+            """
+                public class A {
+                    void foo() {
+                        logNames("fred");
+                    }
+
+                    void logNames(String... names) {
+                    }
+                }
+            """.trimIndent()
+        )[0]
+
+        val addArgument = object : JavaIsoVisitor<ExecutionContext>() {
+            val template = template("(#{}, \"too\")")
+                .javaParser(jp)
+                .build()
+
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: ExecutionContext): J.MethodInvocation {
+                val m = super.visitMethodInvocation(method, p)
+                return deferTemplate(m, template, m.coordinates.replaceArguments(), m.arguments[0])
+            }
+        }
+
+        assertThatThrownBy { addArgument.visit(cu.classes[0].body.statements[0], InMemoryExecutionContext()) }
+            .isInstanceOf(IllegalStateException::class.java)
+    }
 }
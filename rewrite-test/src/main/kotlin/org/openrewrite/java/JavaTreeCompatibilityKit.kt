@@ -107,6 +107,9 @@ abstract class JavaTreeCompatibilityKit {
     @Nested
     inner class MethodMatcherTck : MethodMatcherTest
 
+    @Nested
+    inner class MethodMatcherSetTck : MethodMatcherSetTest
+
     @Nested
     inner class NewArrayTck : NewArrayTest
 
@@ -125,6 +128,9 @@ abstract class JavaTreeCompatibilityKit {
     @Nested
     inner class ReturnTck : ReturnTest
 
+    @Nested
+    inner class StructuralEqualityTck : StructuralEqualityTest
+
     @Nested
     inner class SwitchTck : SwitchTest
 
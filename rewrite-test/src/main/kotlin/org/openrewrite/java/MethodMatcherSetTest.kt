@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.java.tree.J
+
+interface MethodMatcherSetTest {
+
+    @Test
+    fun matchesTheSamePatternsAsEachMethodMatcher(jp: JavaParser) {
+        val cu = jp.parse(
+            """
+            import java.util.*;
+
+            class Test {
+                void test(List<String> list) {
+                    list.add("s");
+                    list.add(0, "s");
+                    list.size();
+                    new ArrayList<String>().add("s");
+                    Collections.emptyList();
+                    Collections.unmodifiableList(list);
+                    "s".trim().toUpperCase();
+                }
+            }
+        """.trimIndent()
+        )[0]
+
+        val invocations = mutableListOf<J.MethodInvocation>()
+        object : JavaIsoVisitor<MutableList<J.MethodInvocation>>() {
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: MutableList<J.MethodInvocation>): J.MethodInvocation {
+                p.add(method)
+                return super.visitMethodInvocation(method, p)
+            }
+        }.visit(cu, invocations)
+
+        val signatures = listOf(
+            "java.util.List add(..)",
+            "java.util.List *(..)",
+            "java.util.* add(..)",
+            "java.util.AbstractList add(..)",
+            "java.util.List add(int, ..)",
+            "java.util.* *(..)",
+            "java.util.List size()",
+            "java.util.Collections emptyList()",
+            "java.util.Collections unmodifiable*(..)",
+            "String to*Case()",
+            "java.lang.Object *(..)",
+            "*..* trim()"
+        )
+        val set = MethodMatcherSet<String>()
+        signatures.forEach { set.add(it, it) }
+
+        for (method in invocations) {
+            val expected = signatures.filter { MethodMatcher(it).matches(method) }
+            assertThat(set.matches(method)).`as`(method.printTrimmed()).isEqualTo(expected)
+            assertThat(set.matches(method.type)).`as`(method.printTrimmed())
+                .isEqualTo(signatures.filter { MethodMatcher(it).matches(method.type) })
+        }
+
+        val add = invocations.first { it.printTrimmed() == "list.add(0, \"s\")" }
+        assertThat(set.matches(add)).containsExactly(
+            "java.util.List add(..)",
+            "java.util.List *(..)",
+            "java.util.* add(..)",
+            "java.util.List add(int, ..)",
+            "java.util.* *(..)",
+            "java.lang.Object *(..)"
+        )
+    }
+
+    @Test
+    fun matchesStaticImportsWithWildcardPatterns(jp: JavaParser) {
+        val cu = jp.parse(
+            """
+            import static java.util.Collections.emptyList;
+            import static java.util.Collections.unmodifiableList;
+            import static java.util.Collections.*;
+
+            class Test {
+            }
+        """.trimIndent()
+        )[0]
+
+        val signatures = listOf(
+            "java.util.Collections emptyList()",
+            "java.util.* emptyList()",
+            "java.util.Collections unmodifiable*(..)",
+            "java.util.* *(..)",
+            "*..* emptyList()",
+            "java.util.List emptyList()"
+        )
+        val set = MethodMatcherSet<String>()
+        signatures.forEach { set.add(it, it) }
+
+        assertThat(set.matches(cu.imports[0].qualid)).containsExactly(
+            "java.util.Collections emptyList()",
+            "java.util.* emptyList()",
+            "java.util.* *(..)",
+            "*..* emptyList()"
+        )
+        assertThat(set.matches(cu.imports[1].qualid)).containsExactly(
+            "java.util.Collections unmodifiable*(..)",
+            "java.util.* *(..)"
+        )
+        assertThat(set.matches(cu.imports[2].qualid)).isEmpty()
+    }
+}
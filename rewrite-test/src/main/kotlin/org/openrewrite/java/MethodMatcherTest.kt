@@ -15,6 +15,7 @@
  */
 package org.openrewrite.java
 
+import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Disabled
@@ -95,6 +96,98 @@ interface MethodMatcherTest {
         assertTrue(argRegex("A foo(..)").matches("int,int"))
     }
 
+    @Test
+    fun matchesArgumentsWithDotDotBetweenTypes(jp: JavaParser) {
+        assertTrue(argRegex("A foo(int, .., int)").matches("int,int"))
+        assertTrue(argRegex("A foo(int, .., int)").matches("int,java.lang.String,int"))
+        assertFalse(argRegex("A foo(int, .., int)").matches("intint"))
+    }
+
+    @Test
+    fun compiledMatchersAgreeWithPatterns(jp: JavaParser) {
+        val cu = jp.parse(
+            """
+            import java.util.*;
+
+            class Test {
+                void test(List<String> list, int[] ints, String[][] strings, Object... varargs) {
+                    Collections.emptyList();
+                    Collections.unmodifiableList(list);
+                    list.add("s");
+                    list.add(0, "s");
+                    Arrays.fill(ints, 1);
+                    Arrays.asList(strings);
+                    String.format("%s", varargs);
+                    Objects.hash(1, "s");
+                    Math.max(1, 2);
+                    Thread.currentThread().getContextClassLoader();
+                }
+            }
+        """.trimIndent()
+        )[0]
+
+        val invocations = mutableListOf<J.MethodInvocation>()
+        object : JavaIsoVisitor<MutableList<J.MethodInvocation>>() {
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: MutableList<J.MethodInvocation>): J.MethodInvocation {
+                p.add(method)
+                return super.visitMethodInvocation(method, p)
+            }
+        }.visit(cu, invocations)
+
+        val signatures = listOf(
+            "java.util.Collections emptyList()",
+            "java.util.Collections unmodifiable*(..)",
+            "java.util.* *(..)",
+            "java..* *(..)",
+            "java.*.* *(..)",
+            "* *(..)",
+            "java.util.List add(..)",
+            "java.util.List add(int, ..)",
+            "java.util.List add(.., String)",
+            "java.util.List a*d(*, ..)",
+            "java.util.Arrays fill(int[], int)",
+            "java.util.Arrays *(java.lang.*[][])",
+            "java.util.Arrays *(java..*)",
+            "String format(String, Object...)",
+            "String format(.., Object[])",
+            "java.util.Objects hash(..)",
+            "java.lang.Math max(int, int)",
+            "java.lang.Math *ax(long, long)",
+            "java.lang.Thread *Class*()"
+        )
+
+        for (signature in signatures) {
+            val matcher = MethodMatcher(signature)
+            for (method in invocations) {
+                val type = method.type!!
+                val argumentTypes = type.resolvedSignature!!.paramTypes
+                val argumentNames = argumentTypes.mapNotNull { typePattern(it) }.joinToString(",")
+                assertEquals(
+                    matcher.targetTypePattern.matcher(type.declaringType.fullyQualifiedName).matches(),
+                    matcher.targetTypeMatcher.matches(type.declaringType.fullyQualifiedName),
+                    "$signature target type of ${method.simpleName}"
+                )
+                assertEquals(
+                    matcher.methodNamePattern.matcher(method.simpleName).matches(),
+                    matcher.methodNameMatcher.matches(method.simpleName),
+                    "$signature name of ${method.simpleName}"
+                )
+                assertEquals(
+                    matcher.argumentPattern.matcher(argumentNames).matches(),
+                    matcher.argumentMatcher.matches(argumentTypes) { it },
+                    "$signature arguments of ${method.simpleName}($argumentNames)"
+                )
+            }
+        }
+    }
+
+    private fun typePattern(type: JavaType): String? = when (type) {
+        is JavaType.Primitive -> type.keyword
+        is JavaType.Class -> type.fullyQualifiedName
+        is JavaType.Array -> type.elemType?.let { "${typePattern(it)}[]" }
+        else -> null
+    }
+
     @Test
     fun matchesSuperclassArgumentTypes(jp: JavaParser) {
         assertTrue(MethodMatcher("Object equals(Object)").matchesTargetType(JavaType.Class.build("java.lang.String")))
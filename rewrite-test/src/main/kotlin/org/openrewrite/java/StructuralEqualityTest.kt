@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.Tree.randomId
+import org.openrewrite.internal.StructuralEquality
+import org.openrewrite.java.tree.J
+import org.openrewrite.java.tree.JavaType
+import org.openrewrite.java.tree.Space
+import org.openrewrite.marker.Marker
+import org.openrewrite.marker.Markers
+
+interface StructuralEqualityTest {
+    companion object {
+        private val source = """
+            import java.util.List;
+            class Test {
+                // counts
+                int n = 0;
+                void test(List<String> list) {
+                    list.add("a");
+                    list.add("b");
+                }
+            }
+        """.trimIndent()
+    }
+
+    private fun isEqual(before: J.CompilationUnit, after: J.CompilationUnit, markerFilter: (Marker) -> Boolean = { true }) =
+        StructuralEquality(markerFilter, after::isIgnoredInStructuralComparison).isEqual(before, after)
+
+    private fun J.CompilationUnit.mapInvocations(map: (J.MethodInvocation) -> J.MethodInvocation) =
+        object : JavaIsoVisitor<Int>() {
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: Int): J.MethodInvocation =
+                if (method.printTrimmed() == "list.add(\"b\")") map(method) else method
+        }.visit(this, 0) as J.CompilationUnit
+
+    private fun J.CompilationUnit.mapMethodBody(map: (J.Block) -> J.Block) =
+        object : JavaIsoVisitor<Int>() {
+            override fun visitMethodDeclaration(method: J.MethodDeclaration, p: Int): J.MethodDeclaration =
+                method.withBody(map(method.body!!))
+        }.visit(this, 0) as J.CompilationUnit
+
+    @Test
+    fun reparsedSourceFileIsEqual(jp: JavaParser) {
+        val before = jp.parse(source)[0]
+        jp.reset()
+        val after = jp.parse(source)[0]
+
+        assertThat(after.id).isNotEqualTo(before.id)
+        assertThat(isEqual(before, after)).isTrue
+    }
+
+    @Test
+    fun spaceInNestedStatement(jp: JavaParser) {
+        val before = jp.parse(source)[0]
+
+        val sameWhitespace = before.mapInvocations { m ->
+            m.withPrefix(Space.build(m.prefix.whitespace, m.prefix.comments, Markers.EMPTY.add(TestMarker())))
+                .withPrefix(Space.build(m.prefix.whitespace, m.prefix.comments, Markers.EMPTY))
+        }
+        assertThat(isEqual(before, sameWhitespace)).isTrue
+
+        val otherWhitespace = before.mapInvocations { m -> m.withPrefix(m.prefix.withWhitespace(" ")) }
+        assertThat(isEqual(before, otherWhitespace)).isFalse
+    }
+
+    @Test
+    fun comments(jp: JavaParser) {
+        val before = jp.parse(source)[0]
+        val after = object : JavaIsoVisitor<Int>() {
+            override fun visitVariableDeclarations(multiVariable: J.VariableDeclarations, p: Int): J.VariableDeclarations =
+                multiVariable.withPrefix(multiVariable.prefix.withComments(multiVariable.prefix.comments.map {
+                    it.withText(" total")
+                }))
+        }.visit(before, 0) as J.CompilationUnit
+
+        assertThat(isEqual(before, after)).isFalse
+    }
+
+    @Test
+    fun nestedLists(jp: JavaParser) {
+        val before = jp.parse(source)[0]
+
+        val copied = before.mapMethodBody { b -> b.withStatements(ArrayList(b.statements)) }
+        assertThat(isEqual(before, copied)).isTrue
+
+        val reordered = before.mapMethodBody { b -> b.withStatements(b.statements.reversed()) }
+        assertThat(isEqual(before, reordered)).isFalse
+
+        val removed = before.mapMethodBody { b -> b.withStatements(b.statements.subList(0, 1)) }
+        assertThat(isEqual(before, removed)).isFalse
+    }
+
+    @Test
+    fun markers(jp: JavaParser) {
+        val before = jp.parse(source)[0]
+        val marked = before.mapInvocations { m -> m.withMarkers(m.markers.add(TestMarker())) }
+
+        assertThat(isEqual(before, marked)).isFalse
+        assertThat(isEqual(before, marked) { it !is TestMarker }).isTrue
+    }
+
+    @Test
+    fun markersOnSpace(jp: JavaParser) {
+        val before = jp.parse(source)[0]
+        val marked = before.mapInvocations { m -> m.withPrefix(m.prefix.withMarkers(Markers.EMPTY.add(TestMarker()))) }
+
+        assertThat(isEqual(before, marked)).isFalse
+        assertThat(isEqual(before, marked) { it !is TestMarker }).isTrue
+    }
+
+    @Test
+    fun typeAttributionDoesNotContribute(jp: JavaParser) {
+        val before = jp.parse(source)[0]
+        val retyped = before.mapInvocations { m -> m.withDeclaringType(JavaType.Class.build("java.util.ArrayList")) }
+
+        assertThat(isEqual(before, retyped)).isTrue
+        assertThat(StructuralEquality({ true }, { false }).isEqual(before, retyped)).isFalse
+    }
+
+    class TestMarker : Marker {
+        private val id = randomId()
+
+        override fun equals(other: Any?) = other is TestMarker && other.id == id
+
+        override fun hashCode() = id.hashCode()
+    }
+}
@@ -42,4 +42,16 @@ interface CompilationUnitTest : JavaTreeTest {
             // comment
         """
     )
+
+    @Test
+    fun distinctCommentsWithTheSameWhitespace(jp: JavaParser) = assertParsePrintAndProcess(
+        jp, CompilationUnit, """
+            class A {
+                // foo
+                int a;
+                // bar
+                int b;
+            }
+        """
+    )
 }
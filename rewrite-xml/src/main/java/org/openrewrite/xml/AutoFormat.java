@@ -26,4 +26,9 @@ public class AutoFormat extends Recipe {
         return new AutoFormatVisitor<>();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
 }
@@ -20,14 +20,14 @@ import org.intellij.lang.annotations.Language;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.InMemoryExecutionContext;
 import org.openrewrite.Parser;
-import org.openrewrite.internal.StringUtils;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.xml.internal.XmlParserVisitor;
 import org.openrewrite.xml.internal.grammar.XMLLexer;
 import org.openrewrite.xml.internal.grammar.XMLParser;
 import org.openrewrite.xml.tree.Xml;
 
-import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
@@ -36,9 +36,15 @@ import static java.util.stream.Collectors.toList;
 
 public class XmlParser implements Parser<Xml.Document> {
     private final Listener onParse;
+    private final Charset charset;
 
     protected XmlParser(Listener onParse) {
+        this(onParse, StandardCharsets.UTF_8);
+    }
+
+    protected XmlParser(Listener onParse, Charset charset) {
         this.onParse = onParse;
+        this.charset = charset;
     }
 
     public static Builder builder() {
@@ -52,15 +58,16 @@ public class XmlParser implements Parser<Xml.Document> {
                                         try {
                                             onParse.onParseStart(sourceFile.getPath());
 
+                                            String source = sourceFile.getSourceText(charset);
                                             XMLParser parser = new XMLParser(new CommonTokenStream(new XMLLexer(
-                                                    CharStreams.fromStream(sourceFile.getSource()))));
+                                                    CharStreams.fromString(source))));
 
                         parser.removeErrorListeners();
                         parser.addErrorListener(new ForwardingErrorListener(sourceFile.getPath()));
 
                         Xml.Document document = new XmlParserVisitor(
                                 sourceFile.getRelativePath(relativeTo),
-                                StringUtils.readFully(sourceFile.getSource())
+                                source
                         ).visitDocument(parser.document());
 
                         onParse.onParseSucceeded(sourceFile.getPath());
@@ -69,6 +76,8 @@ public class XmlParser implements Parser<Xml.Document> {
                         onParse.onParseFailed(sourceFile.getPath());
                         ctx.getOnError().accept(t);
                         return null;
+                    } finally {
+                        sourceFile.releaseSourceText();
                     }
                 })
                 .filter(Objects::nonNull)
@@ -87,6 +96,7 @@ public class XmlParser implements Parser<Xml.Document> {
 
     public static class Builder implements Parser.Builder<Xml.Document> {
         private Listener onParse = Listener.NOOP;
+        private Charset charset = StandardCharsets.UTF_8;
 
         @Override
         public XmlParser.Builder doOnParse(Listener onParse) {
@@ -94,9 +104,14 @@ public class XmlParser implements Parser<Xml.Document> {
             return this;
         }
 
+        public XmlParser.Builder charset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
         @Override
         public XmlParser build() {
-            return new XmlParser(onParse);
+            return new XmlParser(onParse, charset);
         }
     }
 
@@ -18,6 +18,7 @@ package org.openrewrite.xml.internal;
 import org.openrewrite.Cursor;
 import org.openrewrite.Tree;
 import org.openrewrite.TreePrinter;
+import org.openrewrite.internal.PrinterOutput;
 import org.openrewrite.internal.lang.NonNull;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.xml.XmlVisitor;
@@ -27,28 +28,29 @@ import java.util.List;
 
 public class XmlPrinter<P> extends XmlVisitor<P> {
 
-    private static final String PRINTER_ACC_KEY = "printed";
-
-    private final TreePrinter<P> treePrinter;
+    private final PrinterOutput<P> output;
 
     public XmlPrinter(TreePrinter<P> treePrinter) {
-        this.treePrinter = treePrinter;
+        this.output = new PrinterOutput<>(treePrinter);
     }
 
     @NonNull
     protected StringBuilder getPrinter() {
-        StringBuilder acc = getCursor().getRoot().getMessage(PRINTER_ACC_KEY);
-        if (acc == null) {
-            acc = new StringBuilder();
-            getCursor().getRoot().putMessage(PRINTER_ACC_KEY, acc);
-        }
-        return acc;
+        return output.getAcc();
     }
 
     public String print(Xml xml, P p) {
         setCursor(new Cursor(null, "EPSILON"));
-        visit(xml, p);
-        return getPrinter().toString();
+        return output.print(() -> visit(xml, p));
+    }
+
+    /**
+     * Print to an {@link Appendable} (e.g. a {@link java.io.Writer}) as the tree is visited, so that the whole
+     * printed form never needs to be held in memory at once.
+     */
+    public void print(Xml xml, P p, Appendable out) {
+        setCursor(new Cursor(null, "EPSILON"));
+        output.print(() -> visit(xml, p), out);
     }
 
     @Override
@@ -59,12 +61,9 @@ public class XmlPrinter<P> extends XmlVisitor<P> {
             return defaultValue(null, p);
         }
 
-        StringBuilder printerAcc = getPrinter();
-        treePrinter.doBefore(tree, printerAcc, p);
+        output.doBefore(tree, p);
         tree = super.visit(tree, p);
-        if (tree != null) {
-            treePrinter.doAfter(tree, printerAcc, p);
-        }
+        output.doAfter(tree, p);
         return (Xml) tree;
     }
 
@@ -49,6 +49,11 @@ public class FindTags extends Recipe {
         };
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     public static Set<Xml.Tag> find(Xml x, String xPath) {
         XPathMatcher xPathMatcher = new XPathMatcher(xPath);
         XmlVisitor<Set<Xml.Tag>> findVisitor = new XmlVisitor<Set<Xml.Tag>>() {
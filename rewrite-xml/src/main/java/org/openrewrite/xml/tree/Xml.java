@@ -64,6 +64,11 @@ public interface Xml extends Serializable, Tree {
         return new XmlPrinter<>(printer).print(this, p);
     }
 
+    @Override
+    default <P> void print(TreePrinter<P> printer, P p, Appendable out) {
+        new XmlPrinter<>(printer).print(this, p, out);
+    }
+
     @Override
     default <P> String print(P p) {
         return print(TreePrinter.identity(), p);
@@ -21,9 +21,13 @@ import org.junit.jupiter.api.Test
 import org.openrewrite.ExecutionContext
 import org.openrewrite.InMemoryExecutionContext
 import org.openrewrite.Issue
+import org.openrewrite.Recipe
 import org.openrewrite.TreePrinter
 import org.openrewrite.internal.StringUtils
+import org.openrewrite.marker.RecipeSearchResult
+import org.openrewrite.marker.SearchResult
 import org.openrewrite.xml.internal.XmlPrinter
+import java.io.StringWriter
 
 class XmlParserTest {
     private val parser: XmlParser = XmlParser.builder().build()
@@ -118,4 +122,32 @@ class XmlParserTest {
             </foo>
         """.trimIndent()
     )
+
+    @Test
+    fun printToAppendable() {
+        val before = (0 until 1000).joinToString("\n", "<beans>\n", "\n</beans>") { i ->
+            "    <bean id=\"bean$i\"/>"
+        }
+        val xmlDocument = parser.parse(before).iterator().next()
+        val out = StringWriter()
+        xmlDocument.print(TreePrinter.identity(), InMemoryExecutionContext(), out)
+        assertThat(out.toString()).isEqualTo(before)
+    }
+
+    @Test
+    fun printSearchResultsToAppendable() {
+        val before = (0 until 1000).joinToString("\n", "<beans>\n", "\n</beans>") { i ->
+            "    <bean id=\"bean$i\"/>"
+        }
+        val xmlDocument = parser.parse(before).iterator().next().let {
+            it.withRoot(it.root.withMarker(RecipeSearchResult(Recipe())))
+        }
+
+        val out = StringWriter()
+        xmlDocument.print(SearchResult.PRINTER, null, out)
+
+        // the search result marker is inserted where the root tag starts, so output can't be flushed before then
+        assertThat(out.toString()).startsWith("~~><beans>")
+        assertThat(out.toString()).isEqualTo(xmlDocument.print(SearchResult.PRINTER, null))
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.xml
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.Tree.randomId
+import org.openrewrite.internal.StructuralEquality
+import org.openrewrite.marker.Marker
+import org.openrewrite.xml.tree.Xml
+
+class XmlStructuralEqualityTest {
+    private val source = """
+        <project>
+            <dependencies>
+                <dependency scope="test">junit</dependency>
+                <dependency scope="compile">guava</dependency>
+            </dependencies>
+        </project>
+    """.trimIndent()
+
+    private val equality = StructuralEquality({ true }, { false })
+
+    private fun parse() = XmlParser.builder().build().parse(source)[0]
+
+    private fun Xml.Document.mapTags(map: (Xml.Tag) -> Xml.Tag) =
+        object : XmlVisitor<Int>() {
+            override fun visitTag(tag: Xml.Tag, p: Int): Xml = map(super.visitTag(tag, p) as Xml.Tag)
+        }.visit(this, 0) as Xml.Document
+
+    @Test
+    fun reparsedDocumentIsEqual() {
+        val before = parse()
+        val after = parse().withSourcePath(before.sourcePath)
+
+        assertThat(after.id).isNotEqualTo(before.id)
+        assertThat(equality.isEqual(before, after)).isTrue
+    }
+
+    @Test
+    fun attributeValue() {
+        val before = parse()
+        val after = object : XmlVisitor<Int>() {
+            override fun visitAttribute(attribute: Xml.Attribute, p: Int): Xml =
+                attribute.withValue(attribute.value.withValue("runtime"))
+        }.visit(before, 0) as Xml.Document
+
+        assertThat(equality.isEqual(before, after)).isFalse
+    }
+
+    @Test
+    fun whitespace() {
+        val before = parse()
+        val after = before.mapTags { t -> if (t.name == "dependency") t.withPrefix(" ") else t }
+
+        assertThat(equality.isEqual(before, after)).isFalse
+    }
+
+    @Test
+    fun nestedLists() {
+        val before = parse()
+
+        val copied = before.mapTags { t -> t.withContent(t.content?.let { ArrayList(it) }) }
+        assertThat(equality.isEqual(before, copied)).isTrue
+
+        val reordered = before.mapTags { t -> if (t.name == "dependencies") t.withContent(t.content!!.reversed()) else t }
+        assertThat(equality.isEqual(before, reordered)).isFalse
+    }
+
+    @Test
+    fun markers() {
+        val before = parse()
+        val marked = before.mapTags { t -> if (t.name == "dependency") t.withMarkers(t.markers.add(TestMarker())) else t }
+
+        assertThat(equality.isEqual(before, marked)).isFalse
+        assertThat(StructuralEquality({ it !is TestMarker }, { false }).isEqual(before, marked)).isTrue
+    }
+
+    private class TestMarker : Marker {
+        private val id = randomId()
+
+        override fun equals(other: Any?) = other is TestMarker && other.id == id
+
+        override fun hashCode() = id.hashCode()
+    }
+}
@@ -50,6 +50,11 @@ public class ChangePropertyKey extends Recipe {
         return new ChangePropertyKeyVisitor<>();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     private class ChangePropertyKeyVisitor<P> extends YamlVisitor<P> {
 
         @Override
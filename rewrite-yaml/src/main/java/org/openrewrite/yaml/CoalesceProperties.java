@@ -31,6 +31,11 @@ public class CoalesceProperties extends Recipe {
         return new CoalescePropertiesVisitor<>();
     }
 
+    @Override
+    protected boolean isVisitorThreadSafe() {
+        return true;
+    }
+
     public static class CoalescePropertiesVisitor<P> extends YamlVisitor<P> {
         public CoalescePropertiesVisitor() {
         }
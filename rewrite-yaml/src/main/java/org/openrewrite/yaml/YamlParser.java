@@ -31,9 +31,10 @@ import org.yaml.snakeyaml.scanner.Scanner;
 import org.yaml.snakeyaml.scanner.ScannerImpl;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -47,9 +48,15 @@ import static org.openrewrite.Tree.randomId;
 
 public class YamlParser implements org.openrewrite.Parser<Yaml.Documents> {
     private final Listener onParse;
+    private final Charset charset;
 
     protected YamlParser(Listener onParse) {
+        this(onParse, StandardCharsets.UTF_8);
+    }
+
+    protected YamlParser(Listener onParse, Charset charset) {
         this.onParse = onParse;
+        this.charset = charset;
     }
 
     public static Builder builder() {
@@ -65,23 +72,26 @@ public class YamlParser implements org.openrewrite.Parser<Yaml.Documents> {
     public List<Yaml.Documents> parseInputs(Iterable<Input> sourceFiles, @Nullable Path relativeTo, ExecutionContext ctx) {
         return acceptedInputs(sourceFiles).stream()
                 .map(sourceFile -> {
-                    try (InputStream is = sourceFile.getSource()) {
+                    try {
                         onParse.onParseStart(sourceFile.getPath());
-                        Yaml.Documents yaml = parseFromInput(sourceFile.getRelativePath(relativeTo), is);
+                        Yaml.Documents yaml = parseFromInput(sourceFile.getRelativePath(relativeTo),
+                                sourceFile.getSourceText(charset));
                         onParse.onParseSucceeded(sourceFile.getPath());
                         return yaml;
                     } catch (Throwable t) {
                         onParse.onParseFailed(sourceFile.getPath());
                         ctx.getOnError().accept(t);
                         return null;
+                    } finally {
+                        sourceFile.releaseSourceText();
                     }
                 })
                 .filter(Objects::nonNull)
                 .collect(toList());
     }
 
-    private Yaml.Documents parseFromInput(Path sourceFile, InputStream source) {
-        try (FormatPreservingReader reader = new FormatPreservingReader(new InputStreamReader(source))) {
+    private Yaml.Documents parseFromInput(Path sourceFile, String source) {
+        try (FormatPreservingReader reader = new FormatPreservingReader(new StringReader(source))) {
             StreamReader streamReader = new StreamReader(reader);
             Scanner scanner = new ScannerImpl(streamReader);
             Parser parser = new ParserImpl(scanner);
@@ -247,6 +257,7 @@ public class YamlParser implements org.openrewrite.Parser<Yaml.Documents> {
 
     public static class Builder implements org.openrewrite.Parser.Builder<Yaml.Documents> {
         private Listener onParse = Listener.NOOP;
+        private Charset charset = StandardCharsets.UTF_8;
 
         @Override
         public Builder doOnParse(Listener onParse) {
@@ -254,9 +265,14 @@ public class YamlParser implements org.openrewrite.Parser<Yaml.Documents> {
             return this;
         }
 
+        public Builder charset(Charset charset) {
+            this.charset = charset;
+            return this;
+        }
+
         @Override
         public YamlParser build() {
-            return new YamlParser(onParse);
+            return new YamlParser(onParse, charset);
         }
     }
 }